@@ -0,0 +1,133 @@
+package com.bancolombia.evaluation.audit;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Evento de auditoría tipado.
+ *
+ * Las instancias viven preasignadas en el buffer circular de {@link RingBufferAuditService} y
+ * se reutilizan: un {@link AuditEventSink} solo puede leerlas durante la llamada a
+ * {@link AuditEventSink#writeBatch}.
+ */
+public class AuditEvent {
+
+    public enum Type {
+        OPERATION_START,
+        OPERATION_SUCCESS,
+        OPERATION_FAILURE,
+        BALANCE_CHANGE
+    }
+
+    private long sequence;
+    private long timestampMillis;
+    private Type type;
+    private String auditId;
+    private String operationType;
+    private String accountNumber;
+    private Map<String, Object> metadata;
+    private String result;
+    private String errorCode;
+    private String errorMessage;
+    private BigDecimal previousBalance;
+    private BigDecimal newBalance;
+    private String transactionId;
+
+    void clear() {
+        type = null;
+        auditId = null;
+        operationType = null;
+        accountNumber = null;
+        metadata = null;
+        result = null;
+        errorCode = null;
+        errorMessage = null;
+        previousBalance = null;
+        newBalance = null;
+        transactionId = null;
+    }
+
+    void setHeader(long sequence, long timestampMillis, Type type) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.type = type;
+    }
+
+    void setOperation(String auditId, String operationType, String accountNumber,
+                      Map<String, Object> metadata) {
+        this.auditId = auditId;
+        this.operationType = operationType;
+        this.accountNumber = accountNumber;
+        this.metadata = metadata;
+    }
+
+    void setOutcome(String auditId, String result, String errorCode, String errorMessage) {
+        this.auditId = auditId;
+        this.result = result;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    void setBalanceChange(String accountNumber, BigDecimal previousBalance, BigDecimal newBalance,
+                          String transactionId) {
+        this.accountNumber = accountNumber;
+        this.previousBalance = previousBalance;
+        this.newBalance = newBalance;
+        this.transactionId = transactionId;
+    }
+
+    /**
+     * Secuencia global de publicación; define el orden de escritura.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getAuditId() {
+        return auditId;
+    }
+
+    public String getOperationType() {
+        return operationType;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public Map<String, Object> getMetadata() {
+        return metadata;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public BigDecimal getPreviousBalance() {
+        return previousBalance;
+    }
+
+    public BigDecimal getNewBalance() {
+        return newBalance;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+}
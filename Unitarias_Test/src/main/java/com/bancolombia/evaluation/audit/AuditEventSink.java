@@ -0,0 +1,17 @@
+package com.bancolombia.evaluation.audit;
+
+import java.util.List;
+
+/**
+ * Almacenamiento durable de eventos de auditoría.
+ */
+public interface AuditEventSink {
+
+    /**
+     * Escribe un lote de eventos de forma durable (commit en grupo).
+     * Los eventos llegan en orden de secuencia y se reutilizan después de la llamada,
+     * por lo que la implementación debe copiar lo que necesite conservar.
+     * @param events Eventos a escribir
+     */
+    void writeBatch(List<AuditEvent> events);
+}
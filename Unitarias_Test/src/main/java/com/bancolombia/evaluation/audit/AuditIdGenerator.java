@@ -0,0 +1,29 @@
+package com.bancolombia.evaluation.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador local de IDs de auditoría.
+ *
+ * Los IDs combinan un identificador de nodo, el instante de arranque y un contador, por lo que
+ * son únicos entre reinicios y entre nodos sin consultar el servicio de auditoría.
+ */
+public class AuditIdGenerator {
+
+    private final String prefix;
+    private final AtomicLong counter = new AtomicLong();
+
+    public AuditIdGenerator(String nodeId) {
+        if (nodeId == null || nodeId.trim().isEmpty()) {
+            throw new IllegalArgumentException("El identificador de nodo es requerido");
+        }
+        this.prefix = "AUD-" + nodeId + "-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    }
+
+    /**
+     * Genera el siguiente ID.
+     */
+    public String nextId() {
+        return prefix + Long.toString(counter.incrementAndGet(), 36);
+    }
+}
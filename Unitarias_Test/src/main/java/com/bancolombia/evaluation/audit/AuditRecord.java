@@ -0,0 +1,88 @@
+package com.bancolombia.evaluation.audit;
+
+import java.math.BigDecimal;
+
+/**
+ * Registro de auditoría leído desde el log binario local.
+ */
+public class AuditRecord {
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final AuditEvent.Type type;
+    private final String auditId;
+    private final String operationType;
+    private final String accountNumber;
+    private final BigDecimal previousBalance;
+    private final BigDecimal newBalance;
+    private final String transactionId;
+    private final String result;
+    private final String errorCode;
+    private final String errorMessage;
+
+    public AuditRecord(long sequence, long timestampMillis, AuditEvent.Type type, String auditId,
+                       String operationType, String accountNumber, BigDecimal previousBalance,
+                       BigDecimal newBalance, String transactionId, String result, String errorCode,
+                       String errorMessage) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.type = type;
+        this.auditId = auditId;
+        this.operationType = operationType;
+        this.accountNumber = accountNumber;
+        this.previousBalance = previousBalance;
+        this.newBalance = newBalance;
+        this.transactionId = transactionId;
+        this.result = result;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public AuditEvent.Type getType() {
+        return type;
+    }
+
+    public String getAuditId() {
+        return auditId;
+    }
+
+    public String getOperationType() {
+        return operationType;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public BigDecimal getPreviousBalance() {
+        return previousBalance;
+    }
+
+    public BigDecimal getNewBalance() {
+        return newBalance;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
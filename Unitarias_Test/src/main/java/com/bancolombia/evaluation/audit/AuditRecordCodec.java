@@ -0,0 +1,186 @@
+package com.bancolombia.evaluation.audit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato binario de longitud fija de los registros del log de auditoría.
+ *
+ * Cada registro ocupa {@link #RECORD_SIZE} bytes; los textos se guardan con un byte de longitud
+ * y se truncan al ancho de su campo. Un registro con tipo cero indica espacio sin usar.
+ */
+final class AuditRecordCodec {
+
+    static final int MAGIC = 0x4155444C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 320;
+
+    private static final int TYPE = 0;
+    private static final int FLAGS = 1;
+    private static final int PREVIOUS_SCALE = 2;
+    private static final int NEW_SCALE = 3;
+    private static final int TIMESTAMP = 8;
+    private static final int SEQUENCE = 16;
+    private static final int PREVIOUS_UNSCALED = 24;
+    private static final int NEW_UNSCALED = 32;
+    private static final int AUDIT_ID = 40;
+    private static final int OPERATION_TYPE = 88;
+    private static final int ACCOUNT = 112;
+    private static final int TRANSACTION_ID = 144;
+    private static final int RESULT = 192;
+    private static final int ERROR_CODE = 224;
+    private static final int ERROR_MESSAGE = 256;
+
+    private static final int FLAG_PREVIOUS_BALANCE = 1;
+    private static final int FLAG_NEW_BALANCE = 2;
+    private static final int NULL_LENGTH = 0xFF;
+    private static final AuditEvent.Type[] TYPES = AuditEvent.Type.values();
+
+    private AuditRecordCodec() {
+    }
+
+    static void writeHeader(ByteBuffer buffer, int recordsPerSegment) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putInt(12, recordsPerSegment);
+    }
+
+    static boolean hasValidHeader(ByteBuffer buffer) {
+        return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getInt(8) == RECORD_SIZE;
+    }
+
+    static int recordsPerSegment(ByteBuffer buffer) {
+        return buffer.getInt(12);
+    }
+
+    static boolean isEmpty(ByteBuffer buffer, int position) {
+        return buffer.get(position + TYPE) == 0;
+    }
+
+    static long timestamp(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + TIMESTAMP);
+    }
+
+    static long sequence(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + SEQUENCE);
+    }
+
+    static String auditId(ByteBuffer buffer, int position) {
+        return getString(buffer, position + AUDIT_ID);
+    }
+
+    static String accountNumber(ByteBuffer buffer, int position) {
+        return getString(buffer, position + ACCOUNT);
+    }
+
+    /**
+     * Escribe un registro. El tipo se escribe al final para que un registro a medio escribir
+     * se lea como espacio vacío.
+     */
+    static void encode(ByteBuffer buffer, int position, AuditEvent.Type type, long timestampMillis,
+                       long sequence, String auditId, String operationType, String accountNumber,
+                       BigDecimal previousBalance, BigDecimal newBalance, String transactionId,
+                       String result, String errorCode, String errorMessage) {
+        int flags = 0;
+        if (fitsInLong(previousBalance)) {
+            flags |= FLAG_PREVIOUS_BALANCE;
+            buffer.put(position + PREVIOUS_SCALE, (byte) previousBalance.scale());
+            buffer.putLong(position + PREVIOUS_UNSCALED, previousBalance.unscaledValue().longValue());
+        }
+        if (fitsInLong(newBalance)) {
+            flags |= FLAG_NEW_BALANCE;
+            buffer.put(position + NEW_SCALE, (byte) newBalance.scale());
+            buffer.putLong(position + NEW_UNSCALED, newBalance.unscaledValue().longValue());
+        }
+        buffer.put(position + FLAGS, (byte) flags);
+        buffer.putLong(position + TIMESTAMP, timestampMillis);
+        buffer.putLong(position + SEQUENCE, sequence);
+        putString(buffer, position + AUDIT_ID, OPERATION_TYPE - AUDIT_ID, auditId);
+        putString(buffer, position + OPERATION_TYPE, ACCOUNT - OPERATION_TYPE, operationType);
+        putString(buffer, position + ACCOUNT, TRANSACTION_ID - ACCOUNT, accountNumber);
+        putString(buffer, position + TRANSACTION_ID, RESULT - TRANSACTION_ID, transactionId);
+        putString(buffer, position + RESULT, ERROR_CODE - RESULT, result);
+        putString(buffer, position + ERROR_CODE, ERROR_MESSAGE - ERROR_CODE, errorCode);
+        putString(buffer, position + ERROR_MESSAGE, RECORD_SIZE - ERROR_MESSAGE, errorMessage);
+        buffer.put(position + TYPE, (byte) (type.ordinal() + 1));
+    }
+
+    static AuditRecord decode(ByteBuffer buffer, int position) {
+        int typeCode = buffer.get(position + TYPE);
+        if (typeCode <= 0 || typeCode > TYPES.length) {
+            return null;
+        }
+        int flags = buffer.get(position + FLAGS);
+        BigDecimal previousBalance = (flags & FLAG_PREVIOUS_BALANCE) == 0 ? null
+            : BigDecimal.valueOf(buffer.getLong(position + PREVIOUS_UNSCALED), buffer.get(position + PREVIOUS_SCALE));
+        BigDecimal newBalance = (flags & FLAG_NEW_BALANCE) == 0 ? null
+            : BigDecimal.valueOf(buffer.getLong(position + NEW_UNSCALED), buffer.get(position + NEW_SCALE));
+        return new AuditRecord(
+            buffer.getLong(position + SEQUENCE),
+            buffer.getLong(position + TIMESTAMP),
+            TYPES[typeCode - 1],
+            getString(buffer, position + AUDIT_ID),
+            getString(buffer, position + OPERATION_TYPE),
+            getString(buffer, position + ACCOUNT),
+            previousBalance,
+            newBalance,
+            getString(buffer, position + TRANSACTION_ID),
+            getString(buffer, position + RESULT),
+            getString(buffer, position + ERROR_CODE),
+            getString(buffer, position + ERROR_MESSAGE));
+    }
+
+    /**
+     * Hash de 64 bits (FNV-1a) de una clave del índice; el tipo separa cuentas de IDs.
+     */
+    static long keyHash(char kind, String value) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ kind) * 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    // Los saldos que no caben en 64 bits se registran como ausentes
+    private static boolean fitsInLong(BigDecimal value) {
+        if (value == null || value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE) {
+            return false;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        return unscaled.bitLength() < Long.SIZE;
+    }
+
+    private static void putString(ByteBuffer buffer, int offset, int width, String value) {
+        if (value == null) {
+            buffer.put(offset, (byte) NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, width - 1);
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            // No cortar un carácter multibyte a la mitad
+            length--;
+        }
+        buffer.put(offset, (byte) length);
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + 1 + i, bytes[i]);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, int offset) {
+        int length = buffer.get(offset) & 0xFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
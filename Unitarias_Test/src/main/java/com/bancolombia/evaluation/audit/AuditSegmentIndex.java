@@ -0,0 +1,165 @@
+package com.bancolombia.evaluation.audit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice disperso de un segmento del log de auditoría.
+ *
+ * Por cada clave (cuenta o ID de auditoría) guarda los bloques de {@link #BLOCK_RECORDS}
+ * registros en los que aparece, junto con el rango de tiempo del segmento. Una búsqueda lee
+ * solo esos bloques. Mientras el segmento está activo el índice vive en un mapa; al sellarlo
+ * se compacta en arreglos ordenados y se guarda junto al segmento.
+ */
+final class AuditSegmentIndex {
+
+    static final int BLOCK_RECORDS = 128;
+
+    private static final int INDEX_MAGIC = 0x41554958;
+
+    private Map<Long, int[]> building = new HashMap<>();
+    private long[] keys;
+    private int[] offsets;
+    private int[] blocks;
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private int recordCount;
+    private long maxSequence = -1;
+
+    void addRecord(int recordNumber, long timestampMillis, long sequence, String auditId, String accountNumber) {
+        int block = recordNumber / BLOCK_RECORDS;
+        if (auditId != null) {
+            addKey(AuditRecordCodec.keyHash('I', auditId), block);
+        }
+        if (accountNumber != null) {
+            addKey(AuditRecordCodec.keyHash('A', accountNumber), block);
+        }
+        minTimestamp = Math.min(minTimestamp, timestampMillis);
+        maxTimestamp = Math.max(maxTimestamp, timestampMillis);
+        recordCount = Math.max(recordCount, recordNumber + 1);
+        maxSequence = Math.max(maxSequence, sequence);
+    }
+
+    /**
+     * Bloques en los que puede aparecer la clave (puede haber falsos positivos por colisión).
+     */
+    int[] blocksFor(long keyHash) {
+        if (building != null) {
+            int[] entry = building.get(keyHash);
+            return entry == null ? new int[0] : Arrays.copyOfRange(entry, 1, entry[0] + 1);
+        }
+        int position = Arrays.binarySearch(keys, keyHash);
+        return position < 0 ? new int[0] : Arrays.copyOfRange(blocks, offsets[position], offsets[position + 1]);
+    }
+
+    boolean overlaps(long fromMillis, long toMillis) {
+        return recordCount > 0 && minTimestamp <= toMillis && maxTimestamp >= fromMillis;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    long getMaxSequence() {
+        return maxSequence;
+    }
+
+    /**
+     * Compacta el índice en arreglos ordenados por clave.
+     */
+    void seal() {
+        if (building == null) {
+            return;
+        }
+        keys = building.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        offsets = new int[keys.length + 1];
+        int total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            offsets[i] = total;
+            total += building.get(keys[i])[0];
+        }
+        offsets[keys.length] = total;
+        blocks = new int[total];
+        for (int i = 0; i < keys.length; i++) {
+            int[] entry = building.get(keys[i]);
+            System.arraycopy(entry, 1, blocks, offsets[i], entry[0]);
+        }
+        building = null;
+    }
+
+    void writeTo(Path path) throws IOException {
+        seal();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(recordCount);
+            out.writeLong(maxSequence);
+            out.writeLong(minTimestamp);
+            out.writeLong(maxTimestamp);
+            out.writeInt(keys.length);
+            out.writeInt(blocks.length);
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            for (int block : blocks) {
+                out.writeInt(block);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static AuditSegmentIndex readFrom(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                throw new IOException("Índice de auditoría inválido: " + path);
+            }
+            AuditSegmentIndex index = new AuditSegmentIndex();
+            index.building = null;
+            index.recordCount = in.readInt();
+            index.maxSequence = in.readLong();
+            index.minTimestamp = in.readLong();
+            index.maxTimestamp = in.readLong();
+            int keyCount = in.readInt();
+            int blockCount = in.readInt();
+            index.keys = new long[keyCount];
+            index.offsets = new int[keyCount + 1];
+            index.blocks = new int[blockCount];
+            for (int i = 0; i < keyCount; i++) {
+                index.keys[i] = in.readLong();
+            }
+            for (int i = 0; i <= keyCount; i++) {
+                index.offsets[i] = in.readInt();
+            }
+            for (int i = 0; i < blockCount; i++) {
+                index.blocks[i] = in.readInt();
+            }
+            return index;
+        }
+    }
+
+    private void addKey(long keyHash, int block) {
+        int[] entry = building.get(keyHash);
+        if (entry == null) {
+            entry = new int[3];
+        } else if (entry[entry[0]] == block) {
+            return;
+        } else if (entry[0] + 1 == entry.length) {
+            entry = Arrays.copyOf(entry, entry.length * 2);
+        }
+        entry[0]++;
+        entry[entry[0]] = block;
+        building.put(keyHash, entry);
+    }
+}
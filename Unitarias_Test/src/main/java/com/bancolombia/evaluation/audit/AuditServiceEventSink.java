@@ -0,0 +1,60 @@
+package com.bancolombia.evaluation.audit;
+
+import com.bancolombia.evaluation.external.AuditService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AuditEventSink} que reenvía los eventos a un {@link AuditService} existente.
+ *
+ * Permite usar {@link RingBufferAuditService} delante del servicio de auditoría remoto: el ID
+ * local entregado a quien llama se traduce al ID que devuelve el servicio remoto.
+ */
+public class AuditServiceEventSink implements AuditEventSink {
+
+    private final AuditService delegate;
+    private final Map<String, String> remoteIds = new ConcurrentHashMap<>();
+
+    public AuditServiceEventSink(AuditService delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("El servicio de auditoría es requerido");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void writeBatch(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            switch (event.getType()) {
+                case OPERATION_START:
+                    if (!remoteIds.containsKey(event.getAuditId())) {
+                        String remoteId = delegate.logOperationStart(event.getOperationType(),
+                            event.getAccountNumber(), event.getMetadata());
+                        remoteIds.put(event.getAuditId(), remoteId != null ? remoteId : event.getAuditId());
+                    }
+                    break;
+                case OPERATION_SUCCESS:
+                    delegate.logOperationSuccess(remoteIdOf(event), event.getResult());
+                    remoteIds.remove(event.getAuditId());
+                    break;
+                case OPERATION_FAILURE:
+                    delegate.logOperationFailure(remoteIdOf(event), event.getErrorCode(),
+                        event.getErrorMessage());
+                    remoteIds.remove(event.getAuditId());
+                    break;
+                case BALANCE_CHANGE:
+                    delegate.logBalanceChange(event.getAccountNumber(), event.getPreviousBalance(),
+                        event.getNewBalance(), event.getTransactionId());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private String remoteIdOf(AuditEvent event) {
+        return remoteIds.getOrDefault(event.getAuditId(), event.getAuditId());
+    }
+}
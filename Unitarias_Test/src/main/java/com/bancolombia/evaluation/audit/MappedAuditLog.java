@@ -0,0 +1,525 @@
+package com.bancolombia.evaluation.audit;
+
+import com.bancolombia.evaluation.external.AuditService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Log de auditoría local en archivos binarios mapeados en memoria.
+ *
+ * Los registros tienen formato fijo (ver {@link AuditRecordCodec}) y se escriben en segmentos
+ * de tamaño fijo que rotan al llenarse. Cada segmento tiene un índice disperso por cuenta e ID
+ * de auditoría, de modo que una consulta solo lee los bloques donde aparece la clave y descarta
+ * los segmentos fuera del rango de tiempo. Los segmentos sellados se comprimen en segundo plano.
+ *
+ * Puede usarse directamente como {@link AuditService} o como {@link AuditEventSink} detrás de
+ * {@link RingBufferAuditService}; en ese caso cada lote se fuerza a disco una sola vez. Las
+ * escrituras directas quedan en la caché de páginas del sistema y se fuerzan al rotar, al
+ * llamar {@link #flush()} o al cerrar.
+ */
+public class MappedAuditLog implements AuditService, AuditEventSink, AutoCloseable {
+
+    private static final int DEFAULT_RECORDS_PER_SEGMENT = 65_536;
+    private static final int MAX_RECORDS_PER_SEGMENT =
+        (Integer.MAX_VALUE - AuditRecordCodec.HEADER_SIZE) / AuditRecordCodec.RECORD_SIZE;
+    private static final int MAX_OPEN_OPERATIONS = 100_000;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("audit-(\\d{10})\\.(log|log\\.gz|idx)");
+
+    private final Path directory;
+    private final AuditIdGenerator idGenerator;
+    private final int recordsPerSegment;
+    private final boolean compressSealedSegments;
+    private final Clock clock;
+    private final ExecutorService compressor;
+    private final List<Segment> sealedSegments = new ArrayList<>();
+    private final Map<String, String> openOperations =
+        new LinkedHashMap<String, String>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > MAX_OPEN_OPERATIONS;
+            }
+        };
+
+    private Segment active;
+    private MappedByteBuffer activeBuffer;
+    private int activeCount;
+    private long nextSequence;
+    private boolean closed;
+
+    public MappedAuditLog(Path directory, AuditIdGenerator idGenerator) {
+        this(directory, idGenerator, DEFAULT_RECORDS_PER_SEGMENT, true, Clock.systemUTC());
+    }
+
+    public MappedAuditLog(Path directory, AuditIdGenerator idGenerator, int recordsPerSegment,
+                          boolean compressSealedSegments, Clock clock) {
+        if (directory == null || idGenerator == null || clock == null) {
+            throw new IllegalArgumentException("El directorio, el generador de IDs y el reloj son requeridos");
+        }
+        if (recordsPerSegment < AuditSegmentIndex.BLOCK_RECORDS || recordsPerSegment > MAX_RECORDS_PER_SEGMENT) {
+            throw new IllegalArgumentException("Un segmento debe tener entre "
+                + AuditSegmentIndex.BLOCK_RECORDS + " y " + MAX_RECORDS_PER_SEGMENT + " registros");
+        }
+        this.directory = directory;
+        this.idGenerator = idGenerator;
+        this.recordsPerSegment = recordsPerSegment;
+        this.compressSealedSegments = compressSealedSegments;
+        this.clock = clock;
+        this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-log-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            compressor.shutdownNow();
+            throw new UncheckedIOException("No fue posible abrir el log de auditoría en " + directory, e);
+        }
+    }
+
+    // ==================== ESCRITURA ====================
+
+    @Override
+    public synchronized String logOperationStart(String operationType, String accountNumber,
+                                                 Map<String, Object> metadata) {
+        String auditId = idGenerator.nextId();
+        appendStart(auditId, operationType, accountNumber);
+        return auditId;
+    }
+
+    @Override
+    public synchronized void logOperationSuccess(String auditId, String result) {
+        append(AuditEvent.Type.OPERATION_SUCCESS, auditId, null, openOperations.remove(auditId),
+            null, null, null, result, null, null);
+    }
+
+    @Override
+    public synchronized void logOperationFailure(String auditId, String errorCode, String errorMessage) {
+        append(AuditEvent.Type.OPERATION_FAILURE, auditId, null, openOperations.remove(auditId),
+            null, null, null, null, errorCode, errorMessage);
+    }
+
+    @Override
+    public synchronized void logBalanceChange(String accountNumber, BigDecimal previousBalance,
+                                              BigDecimal newBalance, String transactionId) {
+        append(AuditEvent.Type.BALANCE_CHANGE, null, null, accountNumber, previousBalance, newBalance,
+            transactionId, null, null, null);
+    }
+
+    @Override
+    public synchronized void writeBatch(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            switch (event.getType()) {
+                case OPERATION_START:
+                    appendStart(event.getAuditId(), event.getOperationType(), event.getAccountNumber());
+                    break;
+                case OPERATION_SUCCESS:
+                    logOperationSuccess(event.getAuditId(), event.getResult());
+                    break;
+                case OPERATION_FAILURE:
+                    logOperationFailure(event.getAuditId(), event.getErrorCode(), event.getErrorMessage());
+                    break;
+                case BALANCE_CHANGE:
+                    logBalanceChange(event.getAccountNumber(), event.getPreviousBalance(),
+                        event.getNewBalance(), event.getTransactionId());
+                    break;
+                default:
+                    break;
+            }
+        }
+        activeBuffer.force();
+    }
+
+    /**
+     * Fuerza a disco los registros del segmento activo.
+     */
+    public synchronized void flush() {
+        ensureOpen();
+        activeBuffer.force();
+    }
+
+    /**
+     * Sella el segmento activo y abre uno nuevo, aunque el actual no esté lleno.
+     */
+    public synchronized void rotate() {
+        ensureOpen();
+        if (activeCount == 0) {
+            return;
+        }
+        try {
+            sealActive();
+            openSegment(active.number + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No fue posible rotar el log de auditoría", e);
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Busca todos los registros de un ID de auditoría.
+     */
+    public synchronized List<AuditRecord> findByAuditId(String auditId) {
+        return search(AuditRecordCodec.keyHash('I', auditId), Long.MIN_VALUE, Long.MAX_VALUE,
+            record -> auditId.equals(record.getAuditId()));
+    }
+
+    /**
+     * Busca los registros de una cuenta dentro de un rango de tiempo.
+     * @param accountNumber Número de cuenta
+     * @param from Inicio del rango (inclusivo)
+     * @param to Fin del rango (exclusivo)
+     * @return Registros en orden de escritura
+     */
+    public synchronized List<AuditRecord> findByAccount(String accountNumber, Instant from, Instant to) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        return search(AuditRecordCodec.keyHash('A', accountNumber), fromMillis, toMillis - 1,
+            record -> accountNumber.equals(record.getAccountNumber())
+                && record.getTimestampMillis() >= fromMillis
+                && record.getTimestampMillis() < toMillis);
+    }
+
+    public synchronized int getSegmentCount() {
+        return sealedSegments.size() + 1;
+    }
+
+    public synchronized int getCompressedSegmentCount() {
+        return (int) sealedSegments.stream().filter(segment -> segment.compressed).count();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            activeBuffer.force();
+            closed = true;
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Espera a que terminen las compresiones programadas.
+     */
+    boolean awaitCompression(Duration timeout) {
+        try {
+            compressor.submit(() -> { }).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    // ==================== SEGMENTOS ====================
+
+    private void appendStart(String auditId, String operationType, String accountNumber) {
+        if (accountNumber != null) {
+            openOperations.put(auditId, accountNumber);
+        }
+        append(AuditEvent.Type.OPERATION_START, auditId, operationType, accountNumber,
+            null, null, null, null, null, null);
+    }
+
+    private void append(AuditEvent.Type type, String auditId, String operationType, String accountNumber,
+                        BigDecimal previousBalance, BigDecimal newBalance, String transactionId,
+                        String result, String errorCode, String errorMessage) {
+        ensureOpen();
+        if (activeCount == active.capacity) {
+            rotate();
+        }
+        long timestamp = clock.millis();
+        long sequence = nextSequence++;
+        AuditRecordCodec.encode(activeBuffer, position(activeCount), type, timestamp, sequence, auditId,
+            operationType, accountNumber, previousBalance, newBalance, transactionId, result,
+            errorCode, errorMessage);
+        active.index.addRecord(activeCount, timestamp, sequence, auditId, accountNumber);
+        activeCount++;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("El log de auditoría está cerrado");
+        }
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Long, List<String>> files = new TreeMap<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Restos de una compresión o escritura de índice interrumpida
+                    path.toFile().delete();
+                    return;
+                }
+                Matcher matcher = SEGMENT_FILE.matcher(name);
+                if (matcher.matches()) {
+                    files.computeIfAbsent(Long.parseLong(matcher.group(1)), k -> new ArrayList<>())
+                        .add(matcher.group(2));
+                }
+            });
+        }
+        Long activeNumber = null;
+        for (Map.Entry<Long, List<String>> entry : files.entrySet()) {
+            Segment segment = new Segment(directory, entry.getKey());
+            boolean hasLog = entry.getValue().contains("log");
+            boolean hasCompressed = entry.getValue().contains("log.gz");
+            if (hasCompressed && hasLog) {
+                // La compresión terminó pero el original no alcanzó a borrarse
+                Files.delete(segment.logPath);
+                hasLog = false;
+            }
+            if (!hasLog && !hasCompressed) {
+                Files.deleteIfExists(segment.indexPath);
+                continue;
+            }
+            if (hasLog && entry.getKey().equals(files.lastKey())) {
+                activeNumber = entry.getKey();
+                break;
+            }
+            segment.compressed = hasCompressed;
+            segment.index = Files.exists(segment.indexPath)
+                ? AuditSegmentIndex.readFrom(segment.indexPath)
+                : rebuildIndex(segment);
+            nextSequence = Math.max(nextSequence, segment.index.getMaxSequence() + 1);
+            sealedSegments.add(segment);
+            if (!segment.compressed) {
+                scheduleCompression(segment);
+            }
+        }
+        if (activeNumber != null) {
+            reopenActive(activeNumber);
+        } else {
+            openSegment(files.isEmpty() ? 1 : files.lastKey() + 1);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        Segment segment = new Segment(directory, number);
+        segment.capacity = recordsPerSegment;
+        segment.index = new AuditSegmentIndex();
+        try (FileChannel channel = FileChannel.open(segment.logPath, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            activeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, position(recordsPerSegment));
+        }
+        AuditRecordCodec.writeHeader(activeBuffer, recordsPerSegment);
+        active = segment;
+        activeCount = 0;
+    }
+
+    private void reopenActive(long number) throws IOException {
+        Segment segment = new Segment(directory, number);
+        try (FileChannel channel = FileChannel.open(segment.logPath, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            activeBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (!AuditRecordCodec.hasValidHeader(activeBuffer)) {
+            throw new IOException("Segmento de auditoría inválido: " + segment.logPath);
+        }
+        segment.capacity = AuditRecordCodec.recordsPerSegment(activeBuffer);
+        segment.index = new AuditSegmentIndex();
+        int count = 0;
+        while (count < segment.capacity && !AuditRecordCodec.isEmpty(activeBuffer, position(count))) {
+            int position = position(count);
+            long sequence = AuditRecordCodec.sequence(activeBuffer, position);
+            segment.index.addRecord(count, AuditRecordCodec.timestamp(activeBuffer, position), sequence,
+                AuditRecordCodec.auditId(activeBuffer, position),
+                AuditRecordCodec.accountNumber(activeBuffer, position));
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            count++;
+        }
+        active = segment;
+        activeCount = count;
+    }
+
+    private void sealActive() throws IOException {
+        activeBuffer.force();
+        Segment sealed = active;
+        try {
+            sealed.index.writeTo(sealed.indexPath);
+        } catch (IOException e) {
+            // Sin archivo de índice el segmento se reindexa al abrir el log
+            sealed.index.seal();
+        }
+        sealedSegments.add(sealed);
+        activeBuffer = null;
+        scheduleCompression(sealed);
+    }
+
+    private AuditSegmentIndex rebuildIndex(Segment segment) throws IOException {
+        AuditSegmentIndex index = new AuditSegmentIndex();
+        try (InputStream in = openSegment(segment)) {
+            ByteBuffer header = ByteBuffer.wrap(in.readNBytes(AuditRecordCodec.HEADER_SIZE));
+            if (header.limit() < AuditRecordCodec.HEADER_SIZE || !AuditRecordCodec.hasValidHeader(header)) {
+                throw new IOException("Segmento de auditoría inválido: " + segment.logPath);
+            }
+            int count = 0;
+            byte[] record;
+            while ((record = in.readNBytes(AuditRecordCodec.RECORD_SIZE)).length == AuditRecordCodec.RECORD_SIZE) {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                if (AuditRecordCodec.isEmpty(buffer, 0)) {
+                    break;
+                }
+                index.addRecord(count++, AuditRecordCodec.timestamp(buffer, 0), AuditRecordCodec.sequence(buffer, 0),
+                    AuditRecordCodec.auditId(buffer, 0), AuditRecordCodec.accountNumber(buffer, 0));
+            }
+        }
+        try {
+            index.writeTo(segment.indexPath);
+        } catch (IOException e) {
+            index.seal();
+        }
+        return index;
+    }
+
+    private void scheduleCompression(Segment segment) {
+        if (!compressSealedSegments) {
+            return;
+        }
+        compressor.execute(() -> compress(segment));
+    }
+
+    private void compress(Segment segment) {
+        Path temp = segment.compressedPath.resolveSibling(segment.compressedPath.getFileName() + ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(segment.logPath);
+                 OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                in.transferTo(out);
+            }
+            Files.move(temp, segment.compressedPath, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                segment.compressed = true;
+            }
+            Files.deleteIfExists(segment.logPath);
+        } catch (IOException e) {
+            // El segmento queda sin comprimir; se reintenta al abrir el log
+            temp.toFile().delete();
+        }
+    }
+
+    private List<AuditRecord> search(long keyHash, long fromMillis, long toMillis, Predicate<AuditRecord> matches) {
+        ensureOpen();
+        List<AuditRecord> results = new ArrayList<>();
+        try {
+            for (Segment segment : sealedSegments) {
+                if (segment.index.overlaps(fromMillis, toMillis)) {
+                    int[] blocks = segment.index.blocksFor(keyHash);
+                    if (blocks.length > 0) {
+                        scanSealed(segment, blocks, matches, results);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No fue posible leer el log de auditoría", e);
+        }
+        if (active.index.overlaps(fromMillis, toMillis)) {
+            for (int block : active.index.blocksFor(keyHash)) {
+                int end = Math.min(activeCount, (block + 1) * AuditSegmentIndex.BLOCK_RECORDS);
+                for (int record = block * AuditSegmentIndex.BLOCK_RECORDS; record < end; record++) {
+                    addIfMatches(activeBuffer, position(record), matches, results);
+                }
+            }
+        }
+        return results;
+    }
+
+    private void scanSealed(Segment segment, int[] blocks, Predicate<AuditRecord> matches,
+                            List<AuditRecord> results) throws IOException {
+        int blockBytes = AuditSegmentIndex.BLOCK_RECORDS * AuditRecordCodec.RECORD_SIZE;
+        try (InputStream in = openSegment(segment)) {
+            long offset = 0;
+            for (int block : blocks) {
+                long blockStart = position(block * AuditSegmentIndex.BLOCK_RECORDS);
+                in.skipNBytes(blockStart - offset);
+                ByteBuffer buffer = ByteBuffer.wrap(in.readNBytes(blockBytes));
+                offset = blockStart + buffer.limit();
+                for (int position = 0; position + AuditRecordCodec.RECORD_SIZE <= buffer.limit();
+                     position += AuditRecordCodec.RECORD_SIZE) {
+                    addIfMatches(buffer, position, matches, results);
+                }
+            }
+        }
+    }
+
+    private static void addIfMatches(ByteBuffer buffer, int position, Predicate<AuditRecord> matches,
+                                     List<AuditRecord> results) {
+        AuditRecord record = AuditRecordCodec.decode(buffer, position);
+        if (record != null && matches.test(record)) {
+            results.add(record);
+        }
+    }
+
+    private static InputStream openSegment(Segment segment) throws IOException {
+        if (segment.compressed) {
+            return new GZIPInputStream(Files.newInputStream(segment.compressedPath), 65_536);
+        }
+        return new BufferedInputStream(Files.newInputStream(segment.logPath), 65_536);
+    }
+
+    private static int position(int recordNumber) {
+        return AuditRecordCodec.HEADER_SIZE + recordNumber * AuditRecordCodec.RECORD_SIZE;
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    private static final class Segment {
+        private final long number;
+        private final Path logPath;
+        private final Path compressedPath;
+        private final Path indexPath;
+        private int capacity;
+        private AuditSegmentIndex index;
+        private volatile boolean compressed;
+
+        private Segment(Path directory, long number) {
+            this.number = number;
+            String base = String.format("audit-%010d", number);
+            this.logPath = directory.resolve(base + ".log");
+            this.compressedPath = directory.resolve(base + ".log.gz");
+            this.indexPath = directory.resolve(base + ".idx");
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.bancolombia.evaluation.audit;
+
+import com.bancolombia.evaluation.external.AuditService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link AuditService} asíncrono basado en un buffer circular preasignado.
+ *
+ * Quien llama reserva una posición del buffer, escribe el evento tipado y continúa; el ID de
+ * auditoría se genera localmente, sin esperar al almacenamiento. Un único hilo consumidor
+ * lee los eventos en orden de secuencia y los escribe en lotes en el {@link AuditEventSink}.
+ * Como la secuencia se asigna al publicar, los eventos de una misma cuenta se escriben en el
+ * orden en que se publicaron.
+ *
+ * Si el buffer está lleno, quien publica espera a que el consumidor libere espacio.
+ * Ningún evento se descarta: si el almacenamiento principal falla tras varios reintentos, el lote
+ * se escribe en el almacenamiento de respaldo (si existe); si también falla, el consumidor sigue
+ * reintentando con espera exponencial, el buffer se llena y quien publica queda bloqueado hasta
+ * que el almacenamiento se recupere. El fallo se expone en {@link #getStats()} y
+ * {@link #getLastWriteFailure()}.
+ *
+ * Al cerrar, el consumidor escribe todo lo publicado antes de terminar; los eventos que
+ * llegan después del cierre se escriben de forma síncrona.
+ */
+public class RingBufferAuditService implements AuditService, AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final AuditEventSink sink;
+    private final AuditEventSink fallbackSink;
+    private final AuditIdGenerator idGenerator;
+    private final AuditEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int maxBatchSize;
+    private final Thread consumer;
+
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final AtomicInteger activePublishers = new AtomicInteger();
+    private volatile long consumedCount;
+    private volatile boolean closed;
+    private volatile boolean sinkHealthy = true;
+    private volatile RuntimeException lastWriteFailure;
+
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder committedEvents = new LongAdder();
+    private final LongAdder committedBatches = new LongAdder();
+    private final LongAdder spilledEvents = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+
+    public RingBufferAuditService(AuditEventSink sink, AuditIdGenerator idGenerator) {
+        this(sink, idGenerator, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public RingBufferAuditService(AuditEventSink sink, AuditIdGenerator idGenerator,
+                                  int capacity, int maxBatchSize) {
+        this(sink, null, idGenerator, capacity, maxBatchSize);
+    }
+
+    /**
+     * @param fallbackSink Almacenamiento de respaldo para los lotes que el principal no acepta (opcional)
+     */
+    public RingBufferAuditService(AuditEventSink sink, AuditEventSink fallbackSink, AuditIdGenerator idGenerator,
+                                  int capacity, int maxBatchSize) {
+        if (sink == null || idGenerator == null) {
+            throw new IllegalArgumentException("El almacenamiento y el generador de IDs son requeridos");
+        }
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una potencia de dos");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a cero");
+        }
+        this.sink = sink;
+        this.fallbackSink = fallbackSink;
+        this.idGenerator = idGenerator;
+        this.slots = new AuditEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuditEvent();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.maxBatchSize = maxBatchSize;
+        this.consumer = new Thread(this::runConsumer, "audit-ring-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public String logOperationStart(String operationType, String accountNumber, Map<String, Object> metadata) {
+        String auditId = idGenerator.nextId();
+        AuditEvent event = claim(AuditEvent.Type.OPERATION_START);
+        event.setOperation(auditId, operationType, accountNumber, metadata);
+        publish(event);
+        return auditId;
+    }
+
+    @Override
+    public void logOperationSuccess(String auditId, String result) {
+        AuditEvent event = claim(AuditEvent.Type.OPERATION_SUCCESS);
+        event.setOutcome(auditId, result, null, null);
+        publish(event);
+    }
+
+    @Override
+    public void logOperationFailure(String auditId, String errorCode, String errorMessage) {
+        AuditEvent event = claim(AuditEvent.Type.OPERATION_FAILURE);
+        event.setOutcome(auditId, null, errorCode, errorMessage);
+        publish(event);
+    }
+
+    @Override
+    public void logBalanceChange(String accountNumber, BigDecimal previousBalance,
+                                 BigDecimal newBalance, String transactionId) {
+        AuditEvent event = claim(AuditEvent.Type.BALANCE_CHANGE);
+        event.setBalanceChange(accountNumber, previousBalance, newBalance, transactionId);
+        publish(event);
+    }
+
+    /**
+     * Deja de aceptar eventos en el buffer y espera a que el consumidor escriba los pendientes.
+     * @return true si el buffer quedó vacío dentro del tiempo
+     */
+    public boolean shutdown(Duration timeout) {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(Math.max(1, timeout.toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !consumer.isAlive();
+    }
+
+    @Override
+    public void close() {
+        shutdown(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Obtiene las métricas actuales del pipeline de auditoría.
+     */
+    public AuditPipelineStats getStats() {
+        long batches = committedBatches.sum();
+        long committed = committedEvents.sum();
+        return new AuditPipelineStats(publishedEvents.sum(), committed, batches,
+            batches == 0 ? 0.0 : (double) committed / batches, spilledEvents.sum(), failedWrites.sum(),
+            sinkHealthy, backpressureWaits.sum(), claimSequence.get() - consumedCount);
+    }
+
+    /**
+     * Último error del almacenamiento de auditoría, o null si nunca ha fallado.
+     */
+    public RuntimeException getLastWriteFailure() {
+        return lastWriteFailure;
+    }
+
+    // ==================== PUBLICACIÓN ====================
+
+    private AuditEvent claim(AuditEvent.Type type) {
+        activePublishers.incrementAndGet();
+        if (closed) {
+            activePublishers.decrementAndGet();
+            AuditEvent late = new AuditEvent();
+            late.setHeader(-1, System.currentTimeMillis(), type);
+            return late;
+        }
+        long sequence = claimSequence.getAndIncrement();
+        if (sequence >= consumedCount + slots.length) {
+            backpressureWaits.increment();
+            while (sequence >= consumedCount + slots.length) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+        AuditEvent slot = slots[(int) sequence & mask];
+        slot.setHeader(sequence, System.currentTimeMillis(), type);
+        return slot;
+    }
+
+    private void publish(AuditEvent event) {
+        publishedEvents.increment();
+        long sequence = event.getSequence();
+        if (sequence < 0) {
+            writeAfterClose(event);
+            return;
+        }
+        published.set((int) sequence & mask, sequence);
+        activePublishers.decrementAndGet();
+    }
+
+    private void writeAfterClose(AuditEvent event) {
+        // Se espera a que el consumidor termine para no adelantar eventos ya publicados
+        boolean interrupted = false;
+        while (consumer.isAlive()) {
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        synchronized (this) {
+            commit(Collections.singletonList(event));
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== CONSUMO ====================
+
+    private void runConsumer() {
+        List<AuditEvent> batch = new ArrayList<>(maxBatchSize);
+        long next = 0;
+        while (true) {
+            long sequence = next;
+            while (batch.size() < maxBatchSize && published.get((int) sequence & mask) == sequence) {
+                batch.add(slots[(int) sequence & mask]);
+                sequence++;
+            }
+            if (batch.isEmpty()) {
+                if (closed && activePublishers.get() == 0 && next == claimSequence.get()) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            commit(batch);
+            for (AuditEvent event : batch) {
+                event.clear();
+            }
+            batch.clear();
+            next = sequence;
+            consumedCount = next;
+        }
+    }
+
+    private void commit(List<AuditEvent> batch) {
+        long backoffNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int attempt = 1; ; attempt++) {
+            if (tryWrite(sink, batch)) {
+                committedEvents.add(batch.size());
+                committedBatches.increment();
+                sinkHealthy = true;
+                return;
+            }
+            if (attempt >= MAX_WRITE_ATTEMPTS) {
+                sinkHealthy = false;
+                if (fallbackSink != null && tryWrite(fallbackSink, batch)) {
+                    spilledEvents.add(batch.size());
+                    return;
+                }
+            }
+            // Los eventos bancarios no se descartan: se reintenta hasta que algún almacenamiento los acepte
+            LockSupport.parkNanos(backoffNanos);
+            backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    private boolean tryWrite(AuditEventSink target, List<AuditEvent> batch) {
+        try {
+            target.writeBatch(batch);
+            return true;
+        } catch (RuntimeException e) {
+            failedWrites.increment();
+            lastWriteFailure = e;
+            return false;
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Métricas del pipeline de auditoría.
+     */
+    public static class AuditPipelineStats {
+        private final long published;
+        private final long committed;
+        private final long batches;
+        private final double averageBatchSize;
+        private final long spilled;
+        private final long failedWrites;
+        private final boolean sinkHealthy;
+        private final long backpressureWaits;
+        private final long pending;
+
+        public AuditPipelineStats(long published, long committed, long batches, double averageBatchSize,
+                                  long spilled, long failedWrites, boolean sinkHealthy,
+                                  long backpressureWaits, long pending) {
+            this.published = published;
+            this.committed = committed;
+            this.batches = batches;
+            this.averageBatchSize = averageBatchSize;
+            this.spilled = spilled;
+            this.failedWrites = failedWrites;
+            this.sinkHealthy = sinkHealthy;
+            this.backpressureWaits = backpressureWaits;
+            this.pending = pending;
+        }
+
+        public long getPublished() {
+            return published;
+        }
+
+        public long getCommitted() {
+            return committed;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public double getAverageBatchSize() {
+            return averageBatchSize;
+        }
+
+        /**
+         * Eventos escritos en el almacenamiento de respaldo.
+         */
+        public long getSpilled() {
+            return spilled;
+        }
+
+        public long getFailedWrites() {
+            return failedWrites;
+        }
+
+        /**
+         * false mientras el almacenamiento principal esté rechazando lotes.
+         */
+        public boolean isSinkHealthy() {
+            return sinkHealthy;
+        }
+
+        public long getBackpressureWaits() {
+            return backpressureWaits;
+        }
+
+        public long getPending() {
+            return pending;
+        }
+    }
+}
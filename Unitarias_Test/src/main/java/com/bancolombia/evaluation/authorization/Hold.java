@@ -0,0 +1,97 @@
+package com.bancolombia.evaluation.authorization;
+
+import com.bancolombia.evaluation.model.PaymentRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Retención de fondos de un pago autorizado y aún no capturado.
+ *
+ * El estado cambia con compare-and-set, de modo que captura, anulación y vencimiento compiten y
+ * solo uno de ellos gana.
+ */
+public class Hold {
+
+    public enum Status {
+        AUTHORIZED,
+        /** Captura en curso; no puede anularse ni vencer hasta que termine. */
+        CAPTURING,
+        CAPTURED,
+        VOIDED,
+        EXPIRED
+    }
+
+    private final String holdId;
+    private final String authorizationCode;
+    private final PaymentRequest request;
+    private final BigDecimal commission;
+    private final BigDecimal totalAmount;
+    private final long totalMinorUnits;
+    private final int riskScore;
+    private final Instant expiresAt;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.AUTHORIZED);
+
+    Hold(String holdId, String authorizationCode, PaymentRequest request, BigDecimal commission,
+         BigDecimal totalAmount, long totalMinorUnits, int riskScore, Instant expiresAt) {
+        this.holdId = holdId;
+        this.authorizationCode = authorizationCode;
+        this.request = request;
+        this.commission = commission;
+        this.totalAmount = totalAmount;
+        this.totalMinorUnits = totalMinorUnits;
+        this.riskScore = riskScore;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public String getAuthorizationCode() {
+        return authorizationCode;
+    }
+
+    public String getAccountNumber() {
+        return request.getSourceAccountNumber();
+    }
+
+    public PaymentRequest getRequest() {
+        return request;
+    }
+
+    public BigDecimal getCommission() {
+        return commission;
+    }
+
+    /**
+     * @return Monto retenido: el del pago más la comisión
+     */
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    /**
+     * @return Puntaje de riesgo calculado al autorizar
+     */
+    public int getRiskScore() {
+        return riskScore;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    long getTotalMinorUnits() {
+        return totalMinorUnits;
+    }
+
+    boolean transition(Status expected, Status next) {
+        return status.compareAndSet(expected, next);
+    }
+}
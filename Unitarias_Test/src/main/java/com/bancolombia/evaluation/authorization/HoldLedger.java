@@ -0,0 +1,565 @@
+package com.bancolombia.evaluation.authorization;
+
+import com.bancolombia.evaluation.exception.AccountNotFoundException;
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.exception.InsufficientFundsException;
+import com.bancolombia.evaluation.exception.TransactionNotAllowedException;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.AccountStatus;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionStatus;
+import com.bancolombia.evaluation.model.TransactionType;
+import com.bancolombia.evaluation.repository.AccountRepository;
+import com.bancolombia.evaluation.repository.TransactionRepository;
+import com.bancolombia.evaluation.repository.UnitOfWork;
+import com.bancolombia.evaluation.scheduling.TimingWheel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Libro de retenciones para pagos en dos fases (autorizar ahora, capturar después).
+ *
+ * Cada cuenta lleva en memoria el total retenido en unidades mínimas (centavos) en un
+ * {@link AtomicLong}; el disponible es el saldo de la cuenta menos ese total. Autorizar lee la
+ * cuenta del repositorio y solo hace un compare-and-set sobre el contador, sin escribir. El libro
+ * no guarda las cuentas: cada operación usa el saldo vigente en el repositorio.
+ *
+ * Las retenciones solo protegen los fondos si todos los caminos que debitan la cuenta comparan
+ * contra {@link #availableBalance(Account)} en lugar del saldo; por eso los servicios que debitan
+ * (pagos, transferencias, retiros) reciben este libro.
+ *
+ * Capturar sí persiste: vuelve a cargar la cuenta, verifica que el saldo aún cubra lo capturado,
+ * lo debita con {@link Account#debit} y registra la transacción de pago; varias capturas pueden
+ * confirmarse juntas en una sola {@link UnitOfWork}. El saldo se descuenta antes de liberar la
+ * retención, de modo que el disponible nunca se sobrestima mientras tanto. Si el saldo ya no
+ * alcanza, las retenciones de esa cuenta siguen autorizadas (pueden reintentarse o anularse).
+ *
+ * Las retenciones viven solo en memoria: tras un reinicio desaparecen y los fondos vuelven a
+ * estar disponibles, sin que se haya movido dinero. Las que no se capturan ni anulan vencen con
+ * una {@link TimingWheel} que avanza un hilo propio desde {@link #start()}.
+ */
+public class HoldLedger implements AutoCloseable {
+
+    private static final Duration DEFAULT_HOLD_TTL = Duration.ofDays(7);
+    private static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final Clock clock;
+    private final Duration holdTtl;
+    private final long tickMillis;
+    private final Map<String, AtomicLong> heldByAccount = new ConcurrentHashMap<>();
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final TimingWheel<String> wheel;
+    private final Thread ticker;
+    private final LongAdder authorized = new LongAdder();
+    private final LongAdder captured = new LongAdder();
+    private final LongAdder voided = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder insufficientFunds = new LongAdder();
+    private volatile boolean running;
+
+    public HoldLedger(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+        this(accountRepository, transactionRepository, Clock.systemDefaultZone(), DEFAULT_HOLD_TTL, DEFAULT_TICK);
+    }
+
+    /**
+     * @param holdTtl Tiempo que una retención espera su captura antes de vencer
+     * @param tick Resolución con la que se revisan los vencimientos
+     */
+    public HoldLedger(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                      Clock clock, Duration holdTtl, Duration tick) {
+        if (holdTtl == null || holdTtl.isNegative() || holdTtl.isZero()) {
+            throw new IllegalArgumentException("La vigencia de las retenciones debe ser positiva");
+        }
+        if (tick == null || tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("El tick debe ser de al menos un milisegundo");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.clock = clock;
+        this.holdTtl = holdTtl;
+        this.tickMillis = tick.toMillis();
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, clock.millis());
+        this.ticker = new Thread(this::runTicker, "hold-ledger-expiry");
+        this.ticker.setDaemon(true);
+    }
+
+    /**
+     * Inicia el hilo que vence las retenciones.
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("El libro de retenciones ya fue iniciado");
+        }
+        running = true;
+        ticker.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    /**
+     * Retiene el monto del pago más la comisión si el disponible de la cuenta alcanza.
+     *
+     * @param riskScore Puntaje de riesgo calculado al autorizar; se conserva para la captura
+     * @return Retención creada
+     * @throws AccountNotFoundException si la cuenta no existe
+     * @throws TransactionNotAllowedException si la cuenta no está activa
+     * @throws InsufficientFundsException si el disponible no alcanza
+     */
+    public Hold authorize(PaymentRequest request, BigDecimal commission, int riskScore) {
+        return authorize(loadAccount(request.getSourceAccountNumber()), request, commission, riskScore);
+    }
+
+    /**
+     * Igual que {@link #authorize(PaymentRequest, BigDecimal, int)} sobre una cuenta que quien
+     * llama ya cargó y validó; el disponible se calcula con el saldo de esa cuenta.
+     */
+    public Hold authorize(Account account, PaymentRequest request, BigDecimal commission, int riskScore) {
+        BigDecimal totalAmount = request.getAmount().add(commission);
+        long minorUnits = toMinorUnits(totalAmount);
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw new TransactionNotAllowedException(
+                "La cuenta no está activa. Estado: " + account.getStatus());
+        }
+        AtomicLong held = heldByAccount.computeIfAbsent(account.getAccountNumber(), k -> new AtomicLong());
+        if (!reserve(held, balanceMinorUnits(account), minorUnits)) {
+            throw new InsufficientFundsException(availableBalance(account), totalAmount);
+        }
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        Hold hold = new Hold("HOLD-" + suffix, "AUTH-" + suffix, request, commission, totalAmount,
+            minorUnits, riskScore, clock.instant().plus(holdTtl));
+        holds.put(hold.getHoldId(), hold);
+        synchronized (wheel) {
+            wheel.add(hold.getExpiresAt().toEpochMilli(), hold.getHoldId());
+        }
+        authorized.increment();
+        return hold;
+    }
+
+    /**
+     * Captura una retención por su monto completo.
+     *
+     * @return Transacción de pago guardada
+     * @throws BankingException HOLD_NOT_CAPTURABLE si la retención no existe o ya no está autorizada
+     */
+    public Transaction capture(String holdId) {
+        Transaction transaction = captureAll(List.of(holdId)).get(holdId);
+        if (transaction == null) {
+            throw new BankingException("HOLD_NOT_CAPTURABLE",
+                "La retención no existe o ya no está autorizada: " + holdId);
+        }
+        return transaction;
+    }
+
+    /**
+     * Captura varias retenciones en una sola unidad de trabajo: cada cuenta se vuelve a cargar, se
+     * verifica que su saldo cubra el total de sus capturas y se guarda una vez.
+     *
+     * @return Transacción guardada por cada retención capturada, en el orden recibido; las que no
+     *         existen o ya no están autorizadas no aparecen, y las de una cuenta cuyo saldo ya no
+     *         alcanza tampoco, pero siguen autorizadas
+     */
+    public Map<String, Transaction> captureAll(Collection<String> holdIds) {
+        return captureBatch(holdIds).getTransactions();
+    }
+
+    /**
+     * Igual que {@link #captureAll}, pero además retorna el cambio de saldo de cada cuenta
+     * debitada, para auditarlo.
+     */
+    public CaptureBatch captureBatch(Collection<String> holdIds) {
+        List<Hold> claimed = new ArrayList<>();
+        for (String holdId : new LinkedHashSet<>(holdIds)) {
+            Hold hold = holds.get(holdId);
+            if (hold != null && hold.transition(Hold.Status.AUTHORIZED, Hold.Status.CAPTURING)) {
+                claimed.add(hold);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return new CaptureBatch(new LinkedHashMap<>(), new ArrayList<>());
+        }
+
+        Map<String, List<Hold>> byAccount = new LinkedHashMap<>();
+        for (Hold hold : claimed) {
+            byAccount.computeIfAbsent(hold.getAccountNumber(), k -> new ArrayList<>()).add(hold);
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository);
+        Map<Account, BigDecimal> previousBalances = new LinkedHashMap<>();
+        Map<Account, BigDecimal> debits = new LinkedHashMap<>();
+        List<Hold> capturing = new ArrayList<>();
+        for (Map.Entry<String, List<Hold>> group : byAccount.entrySet()) {
+            BigDecimal debit = BigDecimal.ZERO;
+            for (Hold hold : group.getValue()) {
+                debit = debit.add(hold.getTotalAmount());
+            }
+            Account account;
+            try {
+                account = loadAccount(group.getKey());
+            } catch (RuntimeException e) {
+                reauthorize(group.getValue());
+                continue;
+            }
+            if (account.getBalance().compareTo(debit) < 0) {
+                // El saldo bajó por un camino que no respetó las retenciones; no se sobregira
+                reauthorize(group.getValue());
+                insufficientFunds.add(group.getValue().size());
+                continue;
+            }
+            for (Hold hold : group.getValue()) {
+                unitOfWork.registerTransaction(createCaptureTransaction(hold, now));
+                capturing.add(hold);
+            }
+            previousBalances.put(account, account.getBalance());
+            debits.put(account, debit);
+            account.debit(debit);
+            account.setLastTransactionAt(now);
+            unitOfWork.registerAccount(account);
+        }
+        if (capturing.isEmpty()) {
+            return new CaptureBatch(new LinkedHashMap<>(), new ArrayList<>());
+        }
+
+        List<Transaction> saved;
+        try {
+            saved = unitOfWork.commit();
+        } catch (RuntimeException e) {
+            for (Map.Entry<Account, BigDecimal> previous : previousBalances.entrySet()) {
+                Account account = previous.getKey();
+                boolean applied = unitOfWork.isApplied(account);
+                account.revert(debits.get(account).negate(), previous.getValue());
+                if (applied) {
+                    try {
+                        accountRepository.save(account);
+                    } catch (RuntimeException rollbackError) {
+                        // La retención sigue vigente; el saldo persistido se corrige al reintentar
+                    }
+                }
+            }
+            reauthorize(capturing);
+            throw e;
+        }
+
+        Map<Hold, Transaction> byHold = new HashMap<>();
+        Map<String, String> lastTransactionByAccount = new HashMap<>();
+        for (int i = 0; i < capturing.size(); i++) {
+            Hold hold = capturing.get(i);
+            heldByAccount.get(hold.getAccountNumber()).addAndGet(-hold.getTotalMinorUnits());
+            hold.transition(Hold.Status.CAPTURING, Hold.Status.CAPTURED);
+            holds.remove(hold.getHoldId());
+            byHold.put(hold, saved.get(i));
+            lastTransactionByAccount.put(hold.getAccountNumber(), saved.get(i).getTransactionId());
+        }
+        captured.add(capturing.size());
+        Map<String, Transaction> transactions = new LinkedHashMap<>();
+        for (Hold hold : claimed) {
+            if (byHold.containsKey(hold)) {
+                transactions.put(hold.getHoldId(), byHold.get(hold));
+            }
+        }
+        List<BalanceChange> balanceChanges = new ArrayList<>(previousBalances.size());
+        for (Map.Entry<Account, BigDecimal> previous : previousBalances.entrySet()) {
+            String accountNumber = previous.getKey().getAccountNumber();
+            balanceChanges.add(new BalanceChange(accountNumber, previous.getValue(),
+                previous.getValue().subtract(debits.get(previous.getKey())),
+                lastTransactionByAccount.get(accountNumber)));
+        }
+        return new CaptureBatch(transactions, balanceChanges);
+    }
+
+    /**
+     * Anula una retención y libera sus fondos.
+     * @return false si no existe o ya no está autorizada
+     */
+    public boolean voidHold(String holdId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null || !hold.transition(Hold.Status.AUTHORIZED, Hold.Status.VOIDED)) {
+            return false;
+        }
+        release(hold);
+        voided.increment();
+        return true;
+    }
+
+    /**
+     * Vence las retenciones cuyo plazo ya pasó. Lo llama el hilo de {@link #start()} en cada tick.
+     * @return Retenciones vencidas
+     */
+    public int expireDue() {
+        List<String> due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(clock.millis());
+        }
+        int count = 0;
+        Instant now = clock.instant();
+        for (String holdId : due) {
+            Hold hold = holds.get(holdId);
+            if (hold == null) {
+                continue;
+            }
+            if (now.isBefore(hold.getExpiresAt())) {
+                // La rueda redondea al tick; se vuelve a programar para el instante exacto
+                synchronized (wheel) {
+                    wheel.add(hold.getExpiresAt().toEpochMilli(), holdId);
+                }
+            } else if (hold.transition(Hold.Status.AUTHORIZED, Hold.Status.EXPIRED)) {
+                release(hold);
+                count++;
+            }
+        }
+        expired.add(count);
+        return count;
+    }
+
+    public Optional<Hold> findHold(String holdId) {
+        return Optional.ofNullable(holds.get(holdId));
+    }
+
+    /**
+     * @return Total retenido en la cuenta; cero si no tiene retenciones
+     */
+    public BigDecimal getHeldAmount(String accountNumber) {
+        AtomicLong held = heldByAccount.get(accountNumber);
+        return BigDecimal.valueOf(held == null ? 0 : held.get(), MINOR_UNIT_SCALE);
+    }
+
+    /**
+     * @return Saldo vigente de la cuenta en el repositorio menos lo retenido
+     */
+    public BigDecimal getAvailableBalance(String accountNumber) {
+        return availableBalance(loadAccount(accountNumber));
+    }
+
+    /**
+     * Disponible de una cuenta ya cargada: su saldo menos lo retenido. Es lo que deben comparar
+     * los servicios antes de debitarla.
+     */
+    public BigDecimal availableBalance(Account account) {
+        return account.getBalance().setScale(MINOR_UNIT_SCALE, RoundingMode.FLOOR)
+            .subtract(getHeldAmount(account.getAccountNumber()));
+    }
+
+    public HoldStats getStats() {
+        return new HoldStats(authorized.sum(), captured.sum(), voided.sum(), expired.sum(),
+            insufficientFunds.sum(), holds.size());
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    private Account loadAccount(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+    }
+
+    private static boolean reserve(AtomicLong held, long balanceMinorUnits, long minorUnits) {
+        while (true) {
+            long current = held.get();
+            if (balanceMinorUnits - current < minorUnits) {
+                return false;
+            }
+            if (held.compareAndSet(current, current + minorUnits)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(Hold hold) {
+        heldByAccount.get(hold.getAccountNumber()).addAndGet(-hold.getTotalMinorUnits());
+        holds.remove(hold.getHoldId());
+    }
+
+    /**
+     * Devuelve a autorizadas las retenciones que no pudieron capturarse.
+     */
+    private void reauthorize(List<Hold> notCaptured) {
+        for (Hold hold : notCaptured) {
+            hold.transition(Hold.Status.CAPTURING, Hold.Status.AUTHORIZED);
+            // Si venció durante la captura, la rueda ya la descartó
+            synchronized (wheel) {
+                wheel.add(hold.getExpiresAt().toEpochMilli(), hold.getHoldId());
+            }
+        }
+    }
+
+    private Transaction createCaptureTransaction(Hold hold, LocalDateTime processedAt) {
+        PaymentRequest request = hold.getRequest();
+        Transaction transaction = new Transaction();
+        transaction.setSourceAccountNumber(request.getSourceAccountNumber());
+        transaction.setAmount(request.getAmount());
+        transaction.setType(TransactionType.PAYMENT);
+        transaction.setMerchantId(request.getMerchantId());
+        transaction.setDescription(request.getDescription() != null ?
+            request.getDescription() : "Pago a " + request.getMerchantId());
+        transaction.setReferenceNumber(hold.getAuthorizationCode());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(processedAt);
+        return transaction;
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("El monto no puede tener más de dos decimales: " + amount);
+        }
+    }
+
+    private void runTicker() {
+        while (running) {
+            expireDue();
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static long balanceMinorUnits(Account account) {
+        return account.getBalance().setScale(MINOR_UNIT_SCALE, RoundingMode.FLOOR)
+            .unscaledValue().longValueExact();
+    }
+
+    /**
+     * Resultado de una captura en lote.
+     */
+    public static class CaptureBatch {
+        private final Map<String, Transaction> transactions;
+        private final List<BalanceChange> balanceChanges;
+
+        public CaptureBatch(Map<String, Transaction> transactions, List<BalanceChange> balanceChanges) {
+            this.transactions = transactions;
+            this.balanceChanges = balanceChanges;
+        }
+
+        /**
+         * @return Transacción guardada por cada retención capturada, en el orden recibido
+         */
+        public Map<String, Transaction> getTransactions() {
+            return transactions;
+        }
+
+        /**
+         * @return Un cambio por cada cuenta debitada
+         */
+        public List<BalanceChange> getBalanceChanges() {
+            return balanceChanges;
+        }
+    }
+
+    /**
+     * Saldo de una cuenta antes y después de sus capturas.
+     */
+    public static class BalanceChange {
+        private final String accountNumber;
+        private final BigDecimal previousBalance;
+        private final BigDecimal newBalance;
+        private final String transactionId;
+
+        public BalanceChange(String accountNumber, BigDecimal previousBalance, BigDecimal newBalance,
+                             String transactionId) {
+            this.accountNumber = accountNumber;
+            this.previousBalance = previousBalance;
+            this.newBalance = newBalance;
+            this.transactionId = transactionId;
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        public BigDecimal getPreviousBalance() {
+            return previousBalance;
+        }
+
+        public BigDecimal getNewBalance() {
+            return newBalance;
+        }
+
+        /**
+         * @return ID de la última transacción de captura de la cuenta en el lote
+         */
+        public String getTransactionId() {
+            return transactionId;
+        }
+    }
+
+    /**
+     * Contadores del libro de retenciones.
+     */
+    public static class HoldStats {
+        private final long authorized;
+        private final long captured;
+        private final long voided;
+        private final long expired;
+        private final long insufficientFunds;
+        private final int active;
+
+        public HoldStats(long authorized, long captured, long voided, long expired, long insufficientFunds,
+                         int active) {
+            this.authorized = authorized;
+            this.captured = captured;
+            this.voided = voided;
+            this.expired = expired;
+            this.insufficientFunds = insufficientFunds;
+            this.active = active;
+        }
+
+        public long getAuthorized() {
+            return authorized;
+        }
+
+        public long getCaptured() {
+            return captured;
+        }
+
+        public long getVoided() {
+            return voided;
+        }
+
+        public long getExpired() {
+            return expired;
+        }
+
+        /**
+         * @return Capturas rechazadas porque el saldo de la cuenta ya no cubría la retención
+         */
+        public long getInsufficientFunds() {
+            return insufficientFunds;
+        }
+
+        /**
+         * @return Retenciones autorizadas o en captura
+         */
+        public int getActive() {
+            return active;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.bancolombia.evaluation.batch;
+
+/**
+ * Totales de un lote procesado en streaming.
+ */
+public class BatchSummary {
+
+    private final long processed;
+    private final long successful;
+    private final long failed;
+
+    public BatchSummary(long processed, long successful, long failed) {
+        this.processed = processed;
+        this.successful = successful;
+        this.failed = failed;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getSuccessful() {
+        return successful;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,154 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.model.TransferRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Ejecuta un lote de transferencias en paralelo respetando los conflictos entre ellas.
+ *
+ * Antes de ejecutar se arma un grafo de dependencias: cada transferencia depende de la última
+ * transferencia anterior del lote que tocó su cuenta origen o su cuenta destino. Las que no
+ * comparten cuentas corren a la vez en el {@link ForkJoinPool}; las que sí, en el orden en que
+ * se enviaron. Como cada cuenta ve exactamente la misma secuencia de operaciones que en una
+ * ejecución secuencial, los resultados son idénticos.
+ *
+ * Los repositorios que use la operación deben ser seguros para uso concurrente.
+ */
+public class ConflictAwareBatchExecutor {
+
+    private final ForkJoinPool pool;
+
+    public ConflictAwareBatchExecutor(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("El pool de ejecución es requerido");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Ejecuta la operación sobre cada solicitud.
+     * @param requests Solicitudes en orden de envío
+     * @param operation Operación a ejecutar; no debería lanzar excepciones
+     * @return Resultados en el mismo orden de las solicitudes
+     */
+    public <R> List<R> execute(List<TransferRequest> requests, Function<TransferRequest, R> operation) {
+        Node[] nodes = buildGraph(requests);
+        Object[] results = new Object[nodes.length];
+        CountDownLatch done = new CountDownLatch(nodes.length);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // Las raíces se eligen antes de lanzar cualquiera: una vez en ejecución, un predecesor
+        // puede dejar en cero a un sucesor y lanzarlo él mismo
+        List<Node> roots = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.pending.get() == 0) {
+                roots.add(node);
+            }
+        }
+        for (Node root : roots) {
+            pool.execute(new NodeTask(root, requests, operation, results, done, failure));
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ejecución del lote interrumpida", e);
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error != null) {
+            throw (Error) error;
+        }
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return ordered;
+    }
+
+    /**
+     * Arma el grafo en una sola pasada recordando la última transferencia de cada cuenta.
+     */
+    private static Node[] buildGraph(List<TransferRequest> requests) {
+        Node[] nodes = new Node[requests.size()];
+        Map<String, Node> lastByAccount = new HashMap<>();
+        for (int i = 0; i < nodes.length; i++) {
+            TransferRequest request = requests.get(i);
+            Node node = new Node(i);
+            Node sourcePredecessor = link(lastByAccount, request.getSourceAccountNumber(), node, null);
+            link(lastByAccount, request.getTargetAccountNumber(), node, sourcePredecessor);
+            nodes[i] = node;
+        }
+        return nodes;
+    }
+
+    private static Node link(Map<String, Node> lastByAccount, String accountNumber, Node node, Node alreadyLinked) {
+        if (accountNumber == null) {
+            return null;
+        }
+        Node predecessor = lastByAccount.put(accountNumber, node);
+        if (predecessor != null && predecessor != alreadyLinked && predecessor != node) {
+            predecessor.successors.add(node);
+            node.pending.incrementAndGet();
+        }
+        return predecessor;
+    }
+
+    private static final class Node {
+        private final int index;
+        private final List<Node> successors = new ArrayList<>(2);
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Node(int index) {
+            this.index = index;
+        }
+    }
+
+    private static final class NodeTask extends RecursiveAction {
+        private final Node node;
+        private final List<TransferRequest> requests;
+        private final Function<TransferRequest, ?> operation;
+        private final Object[] results;
+        private final CountDownLatch done;
+        private final AtomicReference<Throwable> failure;
+
+        private NodeTask(Node node, List<TransferRequest> requests, Function<TransferRequest, ?> operation,
+                         Object[] results, CountDownLatch done, AtomicReference<Throwable> failure) {
+            this.node = node;
+            this.requests = requests;
+            this.operation = operation;
+            this.results = results;
+            this.done = done;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                results[node.index] = operation.apply(requests.get(node.index));
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                // Los sucesores se liberan aunque la operación falle, igual que en secuencia
+                for (Node successor : node.successors) {
+                    if (successor.pending.decrementAndGet() == 0) {
+                        new NodeTask(successor, requests, operation, results, done, failure).fork();
+                    }
+                }
+                done.countDown();
+            }
+        }
+    }
+}
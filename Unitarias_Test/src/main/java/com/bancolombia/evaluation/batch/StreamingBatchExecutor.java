@@ -0,0 +1,279 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * Procesa un lote de transferencias en streaming: toma las solicitudes de un iterador o de un
+ * {@link Flow.Publisher} a medida que hay cupo, las ejecuta con concurrencia acotada y entrega
+ * cada resultado al {@link TransferResultSink} apenas termina.
+ *
+ * Nunca hay más de {@code maxInFlight} solicitudes en memoria, sin importar el tamaño del lote.
+ * Dentro de esa ventana se aplica la misma regla que en {@link ConflictAwareBatchExecutor}: una
+ * solicitud que comparte cuenta con otra en curso espera a que termine, de modo que cada cuenta
+ * ve sus operaciones en el orden del lote.
+ */
+public class StreamingBatchExecutor {
+
+    private final Function<TransferRequest, TransferResult> operation;
+    private final Executor executor;
+    private final int maxInFlight;
+
+    /**
+     * @param operation Operación por solicitud; no debería lanzar excepciones
+     * @param executor Hilos donde se ejecutan las operaciones
+     * @param maxInFlight Máximo de solicitudes tomadas y aún sin resultado
+     */
+    public StreamingBatchExecutor(Function<TransferRequest, TransferResult> operation, Executor executor,
+                                  int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("El máximo de solicitudes en curso debe ser mayor a cero");
+        }
+        this.operation = operation;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Procesa todas las solicitudes del iterador. Bloquea hasta entregar el último resultado.
+     * @throws RuntimeException la primera excepción del iterador o del sink; tras ella no se toman
+     *                          más solicitudes
+     */
+    public BatchSummary run(Iterator<TransferRequest> requests, TransferResultSink sink) {
+        Run run = new Run(sink, () -> { });
+        try {
+            while (run.awaitSlot() && requests.hasNext()) {
+                run.submit(requests.next());
+            }
+        } catch (RuntimeException e) {
+            run.fail(e);
+        }
+        run.awaitIdle();
+        Throwable failure = run.failure;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw (Error) failure;
+        }
+        return run.summary();
+    }
+
+    /**
+     * Se suscribe al publicador y procesa lo que emita, pidiendo una solicitud nueva por cada
+     * resultado entregado.
+     * @return Futuro que se completa con los totales cuando el publicador termina y no quedan
+     *         solicitudes en curso
+     */
+    public CompletableFuture<BatchSummary> subscribe(Flow.Publisher<TransferRequest> publisher,
+                                                     TransferResultSink sink) {
+        CompletableFuture<BatchSummary> completion = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<TransferRequest>() {
+            private Flow.Subscription subscription;
+            private Run run;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                this.run = new Run(sink, this::requestNext);
+                this.run.onIdle = this::finishIfDone;
+                subscription.request(maxInFlight);
+            }
+
+            @Override
+            public void onNext(TransferRequest request) {
+                run.submit(request);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                run.fail(throwable);
+                run.completeInput();
+            }
+
+            @Override
+            public void onComplete() {
+                run.completeInput();
+            }
+
+            private void requestNext() {
+                if (run.failure == null) {
+                    subscription.request(1);
+                } else {
+                    subscription.cancel();
+                }
+            }
+
+            private void finishIfDone() {
+                if (run.failure != null) {
+                    completion.completeExceptionally(run.failure);
+                } else {
+                    completion.complete(run.summary());
+                }
+            }
+        });
+        return completion;
+    }
+
+    // ==================== EJECUCIÓN ====================
+
+    private static final class Node {
+        private final long sequence;
+        private final TransferRequest request;
+        private final List<Node> successors = new ArrayList<>(2);
+        private int pending;
+
+        private Node(long sequence, TransferRequest request) {
+            this.sequence = sequence;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Estado de una ejecución. El grafo de la ventana y los contadores se protegen con el monitor
+     * de la ejecución; las llamadas al sink, con el monitor del sink.
+     */
+    private final class Run {
+        private final TransferResultSink sink;
+        private final Runnable onSlotFreed;
+        private final Map<String, Node> tails = new HashMap<>();
+        private Runnable onIdle;
+        private long submitted;
+        private long successful;
+        private long failed;
+        private int inFlight;
+        private boolean inputComplete;
+        private volatile Throwable failure;
+
+        private Run(TransferResultSink sink, Runnable onSlotFreed) {
+            this.sink = sink;
+            this.onSlotFreed = onSlotFreed;
+        }
+
+        private synchronized void submit(TransferRequest request) {
+            // Tras un fallo se descartan las solicitudes que el publicador ya había enviado
+            if (failure != null) {
+                return;
+            }
+            Node node = new Node(submitted++, request);
+            inFlight++;
+            link(request.getSourceAccountNumber(), node);
+            link(request.getTargetAccountNumber(), node);
+            if (node.pending == 0) {
+                executor.execute(() -> process(node));
+            }
+        }
+
+        private void link(String accountNumber, Node node) {
+            if (accountNumber == null) {
+                return;
+            }
+            Node predecessor = tails.put(accountNumber, node);
+            if (predecessor != null && predecessor != node && !predecessor.successors.contains(node)) {
+                predecessor.successors.add(node);
+                node.pending++;
+            }
+        }
+
+        private void process(Node node) {
+            TransferResult result;
+            try {
+                result = operation.apply(node.request);
+            } catch (RuntimeException e) {
+                result = TransferResult.failure("BATCH_ITEM_FAILED", e.getMessage());
+            }
+            try {
+                synchronized (sink) {
+                    sink.accept(node.sequence, node.request, result);
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+
+            List<Node> ready = new ArrayList<>(2);
+            boolean idle;
+            synchronized (this) {
+                if (result.isSuccessful()) {
+                    successful++;
+                } else {
+                    failed++;
+                }
+                tails.remove(node.request.getSourceAccountNumber(), node);
+                tails.remove(node.request.getTargetAccountNumber(), node);
+                for (Node successor : node.successors) {
+                    if (--successor.pending == 0) {
+                        ready.add(successor);
+                    }
+                }
+                inFlight--;
+                idle = inFlight == 0 && (inputComplete || failure != null);
+                notifyAll();
+            }
+            for (Node successor : ready) {
+                executor.execute(() -> process(successor));
+            }
+            onSlotFreed.run();
+            if (idle && onIdle != null) {
+                onIdle.run();
+            }
+        }
+
+        /**
+         * Espera cupo en la ventana.
+         * @return false si la ejecución falló y no deben tomarse más solicitudes
+         */
+        private synchronized boolean awaitSlot() {
+            while (inFlight >= maxInFlight && failure == null) {
+                waitInterruptibly();
+            }
+            return failure == null;
+        }
+
+        private synchronized void awaitIdle() {
+            while (inFlight > 0) {
+                waitInterruptibly();
+            }
+        }
+
+        private void completeInput() {
+            boolean idle;
+            synchronized (this) {
+                inputComplete = true;
+                idle = inFlight == 0;
+            }
+            if (idle && onIdle != null) {
+                onIdle.run();
+            }
+        }
+
+        private synchronized void fail(Throwable throwable) {
+            if (failure == null) {
+                failure = throwable;
+            }
+            notifyAll();
+        }
+
+        private synchronized BatchSummary summary() {
+            return new BatchSummary(successful + failed, successful, failed);
+        }
+
+        private void waitInterruptibly() {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Procesamiento del lote interrumpido", e);
+            }
+        }
+    }
+}
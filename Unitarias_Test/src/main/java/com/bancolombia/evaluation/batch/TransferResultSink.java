@@ -0,0 +1,19 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+
+/**
+ * Destino de los resultados de un lote en streaming. Recibe cada resultado apenas termina su
+ * transferencia, no en el orden del lote; las llamadas nunca son concurrentes entre sí.
+ */
+@FunctionalInterface
+public interface TransferResultSink {
+
+    /**
+     * @param sequence Posición de la solicitud en el lote, empezando en 0
+     * @param request Solicitud procesada
+     * @param result Resultado de la transferencia
+     */
+    void accept(long sequence, TransferRequest request, TransferResult result);
+}
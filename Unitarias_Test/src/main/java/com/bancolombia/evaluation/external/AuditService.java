@@ -1,5 +1,7 @@
 package com.bancolombia.evaluation.external;
 
+import com.bancolombia.evaluation.model.AuditMetadata;
+
 import java.math.BigDecimal;
 import java.util.Map;
 
@@ -10,6 +12,8 @@ public interface AuditService {
 
     /**
      * Registra el inicio de una operación.
+     * Los servicios del banco envían un {@link AuditMetadata}; las implementaciones pueden leer
+     * sus campos tipados en lugar de recorrer el mapa.
      * @param operationType Tipo de operación
      * @param accountNumber Número de cuenta
      * @param metadata Metadatos adicionales
@@ -45,4 +45,13 @@ public interface FraudDetectionService {
      * @param reason Razón de la sospecha
      */
     void reportSuspiciousActivity(String transactionId, String reason);
+
+    /**
+     * Descarta lo que la implementación conserve sobre el riesgo de una cuenta, por ejemplo
+     * puntuaciones en caché. Los servicios lo llaman al señalar la cuenta como sospechosa.
+     * Por defecto no hace nada.
+     * @param accountNumber Número de cuenta
+     */
+    default void invalidateAccount(String accountNumber) {
+    }
 }
@@ -1,5 +1,6 @@
 package com.bancolombia.evaluation.external;
 
+import com.bancolombia.evaluation.model.NotificationMessage;
 import com.bancolombia.evaluation.model.Transaction;
 
 /**
@@ -33,6 +34,18 @@ public interface NotificationService {
      */
     boolean sendPushNotification(String userId, String title, String message);
 
+    /**
+     * Envía notificación push a partir de un mensaje sin renderizar.
+     * Por defecto renderiza el mensaje de inmediato; las implementaciones asíncronas
+     * pueden diferir el renderizado hasta la entrega.
+     * @param userId ID del usuario
+     * @param message Mensaje con plantilla y argumentos
+     * @return true si se envió correctamente
+     */
+    default boolean sendPushNotification(String userId, NotificationMessage message) {
+        return sendPushNotification(userId, message.getTitle(), message.renderBody());
+    }
+
     /**
      * Notifica sobre una transacción completada.
      * @param transaction Transacción completada
@@ -0,0 +1,301 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.TransferRequest;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Decorador de {@link FraudDetectionService} que guarda en caché, por un tiempo corto,
+ * la puntuación de riesgo de una cuenta para una banda de montos.
+ *
+ * Las ráfagas de pagos de una misma cuenta reutilizan la puntuación ya calculada en lugar
+ * de consultar de nuevo el servicio remoto. La caché tiene tamaño máximo (LRU) y los servicios
+ * la invalidan para la cuenta con {@link #invalidateAccount} cuando la señalan como sospechosa.
+ * Una puntuación que se estaba calculando durante la invalidación no se guarda.
+ *
+ * Solo se cachea {@link #evaluateTransactionRisk(String, BigDecimal)}; el resto de métodos
+ * se delegan sin cambios. Los umbrales de riesgo siguen evaluándose en quien consume el
+ * servicio, por lo que su comportamiento no cambia.
+ */
+public class CachingFraudDetectionService implements FraudDetectionService {
+
+    private static final Duration DEFAULT_TTL = Duration.ofSeconds(5);
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final BigDecimal DEFAULT_BAND_WIDTH = new BigDecimal("100000");
+
+    private final FraudDetectionService delegate;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final BigDecimal bandWidth;
+    private final Map<RiskKey, CachedScore> entries;
+    // Consultas remotas en curso; la invalidación les quita la marca para que no se guarden
+    private final Map<RiskKey, Object> loading = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long expirations;
+    private long evictions;
+    private long invalidations;
+    private long servedAgeMillisTotal;
+    private long maxServedAgeMillis;
+
+    public CachingFraudDetectionService(FraudDetectionService delegate) {
+        this(delegate, DEFAULT_TTL, DEFAULT_MAX_ENTRIES, DEFAULT_BAND_WIDTH, Clock.systemUTC());
+    }
+
+    public CachingFraudDetectionService(FraudDetectionService delegate, Duration ttl,
+                                        int maxEntries, BigDecimal bandWidth, Clock clock) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("El servicio de fraude es requerido");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("El TTL debe ser mayor a cero");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo debe ser mayor a cero");
+        }
+        if (bandWidth == null || bandWidth.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("El ancho de banda de montos debe ser mayor a cero");
+        }
+        this.delegate = delegate;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.bandWidth = bandWidth;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RiskKey, CachedScore> eldest) {
+                if (size() > CachingFraudDetectionService.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public int evaluateTransactionRisk(String accountNumber, BigDecimal amount) {
+        if (accountNumber == null || amount == null) {
+            return delegate.evaluateTransactionRisk(accountNumber, amount);
+        }
+
+        RiskKey key = new RiskKey(accountNumber, amountBand(amount));
+        long now = clock.millis();
+        Object loadToken = new Object();
+
+        synchronized (this) {
+            CachedScore cached = entries.get(key);
+            if (cached != null) {
+                long age = now - cached.storedAtMillis;
+                if (age < ttlMillis) {
+                    hits++;
+                    servedAgeMillisTotal += age;
+                    maxServedAgeMillis = Math.max(maxServedAgeMillis, age);
+                    return cached.score;
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loading.put(key, loadToken);
+        }
+
+        // La llamada remota se hace fuera del bloqueo
+        int score;
+        try {
+            score = delegate.evaluateTransactionRisk(accountNumber, amount);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loading.remove(key, loadToken);
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            // Si la cuenta se invalidó (u otra consulta de la misma clave empezó después), esta
+            // puntuación puede ser anterior a la invalidación
+            if (loading.remove(key, loadToken)) {
+                entries.put(key, new CachedScore(score, clock.millis()));
+            }
+        }
+        return score;
+    }
+
+    @Override
+    public boolean isBlacklisted(String accountNumber) {
+        return delegate.isBlacklisted(accountNumber);
+    }
+
+    @Override
+    public boolean validatePayment(PaymentRequest request) {
+        return delegate.validatePayment(request);
+    }
+
+    @Override
+    public boolean validateTransfer(TransferRequest request) {
+        return delegate.validateTransfer(request);
+    }
+
+    @Override
+    public void reportSuspiciousActivity(String transactionId, String reason) {
+        delegate.reportSuspiciousActivity(transactionId, reason);
+    }
+
+    /**
+     * Elimina de la caché todas las puntuaciones de una cuenta, descarta las que se están
+     * calculando y propaga la invalidación al servicio decorado.
+     * @param accountNumber Número de cuenta
+     */
+    @Override
+    public void invalidateAccount(String accountNumber) {
+        synchronized (this) {
+            Iterator<RiskKey> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().accountNumber.equals(accountNumber)) {
+                    iterator.remove();
+                    invalidations++;
+                }
+            }
+            loading.keySet().removeIf(key -> key.accountNumber.equals(accountNumber));
+        }
+        delegate.invalidateAccount(accountNumber);
+    }
+
+    /**
+     * Vacía la caché completa.
+     */
+    public synchronized void invalidateAll() {
+        invalidations += entries.size();
+        entries.clear();
+        loading.clear();
+    }
+
+    /**
+     * Obtiene las métricas actuales de la caché.
+     * @return Instantánea de métricas
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, expirations, evictions, invalidations,
+            entries.size(), hits == 0 ? 0 : servedAgeMillisTotal / hits, maxServedAgeMillis);
+    }
+
+    private BigDecimal amountBand(BigDecimal amount) {
+        return amount.divideToIntegralValue(bandWidth);
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    private static final class RiskKey {
+        private final String accountNumber;
+        private final BigDecimal band;
+
+        private RiskKey(String accountNumber, BigDecimal band) {
+            this.accountNumber = accountNumber;
+            this.band = band.stripTrailingZeros();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RiskKey)) return false;
+            RiskKey other = (RiskKey) o;
+            return accountNumber.equals(other.accountNumber) && band.equals(other.band);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountNumber, band);
+        }
+    }
+
+    private static final class CachedScore {
+        private final int score;
+        private final long storedAtMillis;
+
+        private CachedScore(int score, long storedAtMillis) {
+            this.score = score;
+            this.storedAtMillis = storedAtMillis;
+        }
+    }
+
+    /**
+     * Métricas de la caché de puntuaciones de riesgo.
+     */
+    public static class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long expirations;
+        private final long evictions;
+        private final long invalidations;
+        private final int size;
+        private final long averageServedAgeMillis;
+        private final long maxServedAgeMillis;
+
+        public CacheStats(long hits, long misses, long expirations, long evictions,
+                          long invalidations, int size, long averageServedAgeMillis,
+                          long maxServedAgeMillis) {
+            this.hits = hits;
+            this.misses = misses;
+            this.expirations = expirations;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+            this.averageServedAgeMillis = averageServedAgeMillis;
+            this.maxServedAgeMillis = maxServedAgeMillis;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Edad promedio (ms) de las puntuaciones servidas desde caché.
+         */
+        public long getAverageServedAgeMillis() {
+            return averageServedAgeMillis;
+        }
+
+        /**
+         * Edad máxima (ms) de una puntuación servida desde caché.
+         */
+        public long getMaxServedAgeMillis() {
+            return maxServedAgeMillis;
+        }
+    }
+}
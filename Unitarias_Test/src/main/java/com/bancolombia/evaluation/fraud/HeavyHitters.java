@@ -0,0 +1,71 @@
+package com.bancolombia.evaluation.fraud;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seguimiento de las claves más frecuentes con el algoritmo Space-Saving.
+ *
+ * Usa memoria fija ({@code capacity} contadores). Toda clave con frecuencia mayor a
+ * {@code total / capacity} está garantizada en el resultado; el conteo puede sobreestimar
+ * como máximo en el error reportado.
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a cero");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    synchronized void add(String key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(key, 1, 0));
+            return;
+        }
+        Counter min = null;
+        for (Counter candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.key);
+        counters.put(key, new Counter(key, min.count + 1, min.count));
+    }
+
+    synchronized List<VelocityFeatureStore.MerchantFrequency> top(int limit) {
+        List<Counter> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparingLong((Counter c) -> c.count).reversed());
+        List<VelocityFeatureStore.MerchantFrequency> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, sorted.size()); i++) {
+            Counter counter = sorted.get(i);
+            result.add(new VelocityFeatureStore.MerchantFrequency(counter.key, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    private static final class Counter {
+        private final String key;
+        private long count;
+        private final long error;
+
+        private Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.TransferRequest;
+
+import java.math.BigDecimal;
+
+/**
+ * Decorador de {@link FraudDetectionService} que aplica las reglas locales de
+ * {@link RiskRuleEngine} antes de llamar al servicio remoto.
+ *
+ * Si una regla da una puntuación definitiva, la decisión se toma sin salir del proceso:
+ * {@code evaluateTransactionRisk} devuelve esa puntuación, y {@code validatePayment} y
+ * {@code validateTransfer} aprueban si es menor a {@code rejectFromScore} y rechazan si no.
+ * En otro caso se consulta al servicio remoto.
+ *
+ * {@code evaluateTransactionRisk} no recibe el comercio, así que ahí no aplican las reglas con
+ * {@code merchant}; esas reglas deciden en {@code validatePayment}, que recibe el pago
+ * completo. Para que el pago entero evite el servicio remoto, las reglas deben cubrir también
+ * la puntuación por cuenta y monto.
+ */
+public class PreScreeningFraudDetectionService implements FraudDetectionService {
+
+    /** Mismo umbral de alto riesgo con el que los servicios rechazan un pago. */
+    private static final int DEFAULT_REJECT_FROM_SCORE = 70;
+
+    private final FraudDetectionService delegate;
+    private final RiskRuleEngine ruleEngine;
+    private final int rejectFromScore;
+
+    public PreScreeningFraudDetectionService(FraudDetectionService delegate, RiskRuleEngine ruleEngine) {
+        this(delegate, ruleEngine, DEFAULT_REJECT_FROM_SCORE);
+    }
+
+    /**
+     * @param rejectFromScore Puntuación local desde la cual las validaciones rechazan sin
+     *                        consultar el servicio remoto
+     */
+    public PreScreeningFraudDetectionService(FraudDetectionService delegate, RiskRuleEngine ruleEngine,
+                                             int rejectFromScore) {
+        if (delegate == null || ruleEngine == null) {
+            throw new IllegalArgumentException("El servicio de fraude y el motor de reglas son requeridos");
+        }
+        this.delegate = delegate;
+        this.ruleEngine = ruleEngine;
+        this.rejectFromScore = rejectFromScore;
+    }
+
+    @Override
+    public int evaluateTransactionRisk(String accountNumber, BigDecimal amount) {
+        if (amount != null) {
+            int localScore = ruleEngine.evaluate(accountNumber, null, amount);
+            if (localScore != RiskRuleSet.NEEDS_REMOTE_SCORING) {
+                return localScore;
+            }
+        }
+        return delegate.evaluateTransactionRisk(accountNumber, amount);
+    }
+
+    @Override
+    public boolean isBlacklisted(String accountNumber) {
+        return delegate.isBlacklisted(accountNumber);
+    }
+
+    @Override
+    public boolean validatePayment(PaymentRequest request) {
+        if (request != null && request.getAmount() != null) {
+            int localScore = ruleEngine.evaluate(request.getSourceAccountNumber(),
+                request.getMerchantId(), request.getAmount());
+            if (localScore != RiskRuleSet.NEEDS_REMOTE_SCORING) {
+                return localScore < rejectFromScore;
+            }
+        }
+        return delegate.validatePayment(request);
+    }
+
+    @Override
+    public boolean validateTransfer(TransferRequest request) {
+        if (request != null && request.getAmount() != null) {
+            int localScore = ruleEngine.evaluate(request.getSourceAccountNumber(), null, request.getAmount());
+            if (localScore != RiskRuleSet.NEEDS_REMOTE_SCORING) {
+                return localScore < rejectFromScore;
+            }
+        }
+        return delegate.validateTransfer(request);
+    }
+
+    @Override
+    public void reportSuspiciousActivity(String transactionId, String reason) {
+        delegate.reportSuspiciousActivity(transactionId, reason);
+    }
+
+    @Override
+    public void invalidateAccount(String accountNumber) {
+        delegate.invalidateAccount(accountNumber);
+    }
+}
@@ -0,0 +1,257 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.resilience.Bulkhead;
+import com.bancolombia.evaluation.resilience.CircuitBreaker;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Decorador de {@link FraudDetectionService} con circuit breaker y bulkhead.
+ *
+ * Cuando el circuito está abierto o no hay cupo en el bulkhead, la llamada no llega al
+ * servicio remoto y se aplica la política configurada:
+ * <ul>
+ *   <li>{@link OpenCircuitPolicy#REJECT}: se lanza {@code FRAUD_SERVICE_UNAVAILABLE}.</li>
+ *   <li>{@link OpenCircuitPolicy#ALLOW_BELOW_AMOUNT}: las operaciones por debajo del monto
+ *       configurado se evalúan con la puntuación local (reglas o puntuación fija); el resto
+ *       se rechaza igual que con REJECT.</li>
+ * </ul>
+ * Los reportes de actividad sospechosa rechazados no fallan la operación; se cuentan en las
+ * métricas como descartados.
+ */
+public class ResilientFraudDetectionService implements FraudDetectionService {
+
+    public enum OpenCircuitPolicy {
+        REJECT,
+        ALLOW_BELOW_AMOUNT
+    }
+
+    private final FraudDetectionService delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final OpenCircuitPolicy policy;
+    private final BigDecimal fallbackMaxAmount;
+    private final RiskRuleEngine localRules;
+    private final int fallbackScore;
+
+    private final LongAdder rejectedByCircuit = new LongAdder();
+    private final LongAdder rejectedByBulkhead = new LongAdder();
+    private final LongAdder fallbacksServed = new LongAdder();
+    private final LongAdder droppedReports = new LongAdder();
+
+    public ResilientFraudDetectionService(FraudDetectionService delegate,
+                                          CircuitBreaker circuitBreaker,
+                                          Bulkhead bulkhead) {
+        this(delegate, circuitBreaker, bulkhead, OpenCircuitPolicy.REJECT, BigDecimal.ZERO, null, 0);
+    }
+
+    /**
+     * @param fallbackMaxAmount Monto máximo (exclusivo) que se permite con puntuación local
+     * @param localRules Reglas locales para la puntuación de respaldo; puede ser null
+     * @param fallbackScore Puntuación usada cuando no hay reglas locales
+     */
+    public ResilientFraudDetectionService(FraudDetectionService delegate,
+                                          CircuitBreaker circuitBreaker,
+                                          Bulkhead bulkhead,
+                                          OpenCircuitPolicy policy,
+                                          BigDecimal fallbackMaxAmount,
+                                          RiskRuleEngine localRules,
+                                          int fallbackScore) {
+        if (delegate == null || circuitBreaker == null || bulkhead == null || policy == null) {
+            throw new IllegalArgumentException(
+                "El servicio de fraude, el circuit breaker, el bulkhead y la política son requeridos");
+        }
+        if (fallbackScore < 0 || fallbackScore > 100) {
+            throw new IllegalArgumentException("La puntuación de respaldo debe estar entre 0 y 100");
+        }
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.policy = policy;
+        this.fallbackMaxAmount = fallbackMaxAmount == null ? BigDecimal.ZERO : fallbackMaxAmount;
+        this.localRules = localRules;
+        this.fallbackScore = fallbackScore;
+    }
+
+    @Override
+    public int evaluateTransactionRisk(String accountNumber, BigDecimal amount) {
+        return call(() -> delegate.evaluateTransactionRisk(accountNumber, amount),
+            () -> localScore(accountNumber, null, amount));
+    }
+
+    @Override
+    public boolean isBlacklisted(String accountNumber) {
+        // Sin monto no hay forma de acotar el riesgo: solo se permite continuar si la
+        // política admite operaciones pequeñas, que luego se validan por monto.
+        return call(() -> delegate.isBlacklisted(accountNumber), () -> {
+            if (policy == OpenCircuitPolicy.REJECT) {
+                throw unavailable();
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public boolean validatePayment(PaymentRequest request) {
+        return call(() -> delegate.validatePayment(request), () -> {
+            localScore(request.getSourceAccountNumber(), request.getMerchantId(), request.getAmount());
+            return true;
+        });
+    }
+
+    @Override
+    public boolean validateTransfer(TransferRequest request) {
+        return call(() -> delegate.validateTransfer(request), () -> {
+            localScore(request.getSourceAccountNumber(), null, request.getAmount());
+            return true;
+        });
+    }
+
+    @Override
+    public void reportSuspiciousActivity(String transactionId, String reason) {
+        call(() -> {
+            delegate.reportSuspiciousActivity(transactionId, reason);
+            return null;
+        }, () -> {
+            droppedReports.increment();
+            return null;
+        });
+    }
+
+    /**
+     * Se propaga sin pasar por el breaker ni el bulkhead: solo descarta estado local de los
+     * decoradores internos.
+     */
+    @Override
+    public void invalidateAccount(String accountNumber) {
+        delegate.invalidateAccount(accountNumber);
+    }
+
+    /**
+     * Obtiene las métricas actuales del breaker y el bulkhead.
+     */
+    public ResilienceStats getStats() {
+        return new ResilienceStats(circuitBreaker.getState(), circuitBreaker.getTransitions(),
+            circuitBreaker.getFailureRate(), circuitBreaker.getSlowCallRate(),
+            rejectedByCircuit.sum(), rejectedByBulkhead.sum(), fallbacksServed.sum(),
+            droppedReports.sum(), bulkhead.getAvailablePermits());
+    }
+
+    private <T> T call(Supplier<T> remote, Supplier<T> fallback) {
+        if (!bulkhead.tryAcquire()) {
+            rejectedByBulkhead.increment();
+            return fallback.get();
+        }
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                rejectedByCircuit.increment();
+                return fallback.get();
+            }
+            long start = System.nanoTime();
+            try {
+                T result = remote.get();
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                return result;
+            } catch (RuntimeException e) {
+                circuitBreaker.onError(System.nanoTime() - start);
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private int localScore(String accountNumber, String merchantId, BigDecimal amount) {
+        if (policy == OpenCircuitPolicy.REJECT || amount == null
+            || amount.compareTo(fallbackMaxAmount) >= 0) {
+            throw unavailable();
+        }
+        int score = fallbackScore;
+        if (localRules != null) {
+            score = localRules.evaluate(accountNumber, merchantId, amount);
+            if (score == RiskRuleSet.NEEDS_REMOTE_SCORING) {
+                throw unavailable();
+            }
+        }
+        fallbacksServed.increment();
+        return score;
+    }
+
+    private BankingException unavailable() {
+        return new BankingException("FRAUD_SERVICE_UNAVAILABLE",
+            "El servicio de detección de fraude no está disponible");
+    }
+
+    // ==================== CLASE INTERNA ====================
+
+    /**
+     * Métricas del circuit breaker y el bulkhead del servicio de fraude.
+     */
+    public static class ResilienceStats {
+        private final CircuitBreaker.State state;
+        private final long stateTransitions;
+        private final double failureRate;
+        private final double slowCallRate;
+        private final long rejectedByCircuit;
+        private final long rejectedByBulkhead;
+        private final long fallbacksServed;
+        private final long droppedReports;
+        private final int availablePermits;
+
+        public ResilienceStats(CircuitBreaker.State state, long stateTransitions, double failureRate,
+                               double slowCallRate, long rejectedByCircuit, long rejectedByBulkhead,
+                               long fallbacksServed, long droppedReports, int availablePermits) {
+            this.state = state;
+            this.stateTransitions = stateTransitions;
+            this.failureRate = failureRate;
+            this.slowCallRate = slowCallRate;
+            this.rejectedByCircuit = rejectedByCircuit;
+            this.rejectedByBulkhead = rejectedByBulkhead;
+            this.fallbacksServed = fallbacksServed;
+            this.droppedReports = droppedReports;
+            this.availablePermits = availablePermits;
+        }
+
+        public CircuitBreaker.State getState() {
+            return state;
+        }
+
+        public long getStateTransitions() {
+            return stateTransitions;
+        }
+
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        public double getSlowCallRate() {
+            return slowCallRate;
+        }
+
+        public long getRejectedByCircuit() {
+            return rejectedByCircuit;
+        }
+
+        public long getRejectedByBulkhead() {
+            return rejectedByBulkhead;
+        }
+
+        public long getFallbacksServed() {
+            return fallbacksServed;
+        }
+
+        public long getDroppedReports() {
+            return droppedReports;
+        }
+
+        public int getAvailablePermits() {
+            return availablePermits;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.bancolombia.evaluation.fraud;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motor local de reglas de riesgo con recarga en caliente.
+ *
+ * Mantiene el {@link RiskRuleSet} vigente y lo reemplaza de forma atómica cuando cambia el
+ * archivo de reglas. Si la nueva versión no compila se conservan las reglas anteriores.
+ * Lleva un contador de aciertos por regla que se conserva entre recargas.
+ */
+public class RiskRuleEngine implements AutoCloseable {
+
+    private final Path rulesFile;
+    private final AtomicReference<RiskRuleSet> ruleSet;
+    private final Map<String, LongAdder> ruleHits = new ConcurrentHashMap<>();
+    private final LongAdder remoteDecisions = new LongAdder();
+    private final AtomicLong reloadFailures = new AtomicLong();
+    private volatile long lastModifiedMillis = -1;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * Crea un motor con reglas fijas, sin archivo asociado.
+     */
+    public RiskRuleEngine(RiskRuleSet ruleSet) {
+        if (ruleSet == null) {
+            throw new IllegalArgumentException("El conjunto de reglas es requerido");
+        }
+        this.rulesFile = null;
+        this.ruleSet = new AtomicReference<>(ruleSet);
+    }
+
+    /**
+     * Crea un motor que carga sus reglas desde un archivo.
+     * @throws IllegalArgumentException si el archivo no es válido
+     */
+    public RiskRuleEngine(Path rulesFile) {
+        if (rulesFile == null) {
+            throw new IllegalArgumentException("El archivo de reglas es requerido");
+        }
+        this.rulesFile = rulesFile;
+        this.ruleSet = new AtomicReference<>(RiskRuleSet.empty());
+        if (!reloadIfChanged()) {
+            throw new IllegalArgumentException("No se pudo cargar el archivo de reglas: " + rulesFile);
+        }
+    }
+
+    /**
+     * Evalúa una transacción contra las reglas vigentes.
+     * @param accountNumber Número de cuenta origen
+     * @param merchantId ID del comercio, o null si no aplica
+     * @param amount Monto de la transacción
+     * @return Puntuación definitiva o {@link RiskRuleSet#NEEDS_REMOTE_SCORING}
+     */
+    public int evaluate(String accountNumber, String merchantId, BigDecimal amount) {
+        RiskRuleSet current = ruleSet.get();
+        int index = current.match(accountNumber, merchantId, amount);
+        if (index < 0) {
+            remoteDecisions.increment();
+            return RiskRuleSet.NEEDS_REMOTE_SCORING;
+        }
+        ruleHits.computeIfAbsent(current.nameAt(index), name -> new LongAdder()).increment();
+        int score = current.scoreAt(index);
+        if (score == RiskRuleSet.NEEDS_REMOTE_SCORING) {
+            remoteDecisions.increment();
+        }
+        return score;
+    }
+
+    /**
+     * Recarga las reglas si el archivo cambió desde la última carga.
+     * @return true si las reglas vigentes corresponden al archivo actual
+     */
+    public synchronized boolean reloadIfChanged() {
+        if (rulesFile == null) {
+            return true;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(rulesFile).toMillis();
+            if (modified == lastModifiedMillis) {
+                return true;
+            }
+            String source = Files.readString(rulesFile, StandardCharsets.UTF_8);
+            ruleSet.set(RiskRuleSet.compile(source));
+            lastModifiedMillis = modified;
+            return true;
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            reloadFailures.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Inicia la revisión periódica del archivo de reglas.
+     * @param interval Intervalo entre revisiones
+     */
+    public synchronized void startWatching(Duration interval) {
+        if (rulesFile == null || watcher != null) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "risk-rules-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reemplaza las reglas vigentes por un conjunto ya compilado.
+     */
+    public void replaceRules(RiskRuleSet newRuleSet) {
+        if (newRuleSet == null) {
+            throw new IllegalArgumentException("El conjunto de reglas es requerido");
+        }
+        ruleSet.set(newRuleSet);
+    }
+
+    public RiskRuleSet getRuleSet() {
+        return ruleSet.get();
+    }
+
+    /**
+     * Aciertos por regla, en el orden de las reglas vigentes.
+     */
+    public Map<String, Long> getRuleHits() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String name : ruleSet.get().getRuleNames()) {
+            LongAdder hits = ruleHits.get(name);
+            result.put(name, hits == null ? 0L : hits.sum());
+        }
+        return result;
+    }
+
+    /**
+     * Número de evaluaciones que requirieron puntuación remota.
+     */
+    public long getRemoteDecisions() {
+        return remoteDecisions.sum();
+    }
+
+    public long getReloadFailures() {
+        return reloadFailures.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.bancolombia.evaluation.fraud;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Conjunto inmutable de reglas de pre-evaluación de riesgo, compilado a una tabla de decisión.
+ *
+ * Formato del archivo de reglas (una regla por línea, '#' para comentarios):
+ * <pre>
+ * montos-bajos: amount &lt; 50000 =&gt; 5
+ * comercios-conocidos: merchant in (M001, M002) and amount &lt;= 500000 =&gt; 10
+ * montos-altos: amount &gt;= 10000000 =&gt; remote
+ * </pre>
+ *
+ * Condiciones soportadas: {@code amount} con {@code < <= > >= =}, y {@code merchant in (...)}
+ * o {@code account in (...)}. Las reglas se evalúan en orden y gana la primera que aplica.
+ * El resultado es una puntuación definitiva o {@link #NEEDS_REMOTE_SCORING}.
+ */
+public final class RiskRuleSet {
+
+    /**
+     * Valor devuelto cuando ninguna regla da una puntuación definitiva.
+     */
+    public static final int NEEDS_REMOTE_SCORING = -1;
+
+    private static final RiskRuleSet EMPTY = new RiskRuleSet(new Row[0]);
+
+    private final Row[] rows;
+
+    private RiskRuleSet(Row[] rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Conjunto sin reglas: todo requiere evaluación remota.
+     */
+    public static RiskRuleSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compila el contenido de un archivo de reglas.
+     * @param source Texto con las reglas
+     * @return Conjunto de reglas compilado
+     * @throws IllegalArgumentException si alguna regla es inválida
+     */
+    public static RiskRuleSet compile(String source) {
+        if (source == null) {
+            throw new IllegalArgumentException("El contenido de las reglas no puede ser nulo");
+        }
+        List<Row> rows = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        String[] lines = source.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = stripComment(lines[i]).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            Row row = parseRule(line, i + 1);
+            if (!names.add(row.name)) {
+                throw new IllegalArgumentException(
+                    "Regla duplicada en línea " + (i + 1) + ": " + row.name);
+            }
+            rows.add(row);
+        }
+        return new RiskRuleSet(rows.toArray(new Row[0]));
+    }
+
+    /**
+     * Evalúa las reglas en orden.
+     * @param accountNumber Número de cuenta origen
+     * @param merchantId ID del comercio, o null si no aplica
+     * @param amount Monto de la transacción
+     * @return Índice de la regla que aplicó, o -1 si ninguna aplica
+     */
+    int match(String accountNumber, String merchantId, BigDecimal amount) {
+        long cents = toCents(amount);
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i].matches(accountNumber, merchantId, cents)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Evalúa las reglas en orden y devuelve la decisión de la primera que aplica.
+     * @return Puntuación definitiva o {@link #NEEDS_REMOTE_SCORING}
+     */
+    public int evaluate(String accountNumber, String merchantId, BigDecimal amount) {
+        int index = match(accountNumber, merchantId, amount);
+        return index < 0 ? NEEDS_REMOTE_SCORING : rows[index].score;
+    }
+
+    int scoreAt(int index) {
+        return rows[index].score;
+    }
+
+    String nameAt(int index) {
+        return rows[index].name;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public List<String> getRuleNames() {
+        List<String> result = new ArrayList<>(rows.length);
+        for (Row row : rows) {
+            result.add(row.name);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // ==================== COMPILACIÓN ====================
+
+    private static String stripComment(String line) {
+        int index = line.indexOf('#');
+        return index < 0 ? line : line.substring(0, index);
+    }
+
+    private static Row parseRule(String line, int lineNumber) {
+        int colon = line.indexOf(':');
+        int arrow = line.indexOf("=>");
+        if (colon <= 0 || arrow < colon) {
+            throw invalid(lineNumber, "se esperaba 'nombre: condiciones => decisión'");
+        }
+
+        Row row = new Row(line.substring(0, colon).trim());
+        String decision = line.substring(arrow + 2).trim();
+        row.score = parseDecision(decision, lineNumber);
+
+        String conditions = line.substring(colon + 1, arrow).trim();
+        if (conditions.isEmpty()) {
+            throw invalid(lineNumber, "la regla no tiene condiciones");
+        }
+        for (String condition : conditions.split("(?i)\\s+and\\s+")) {
+            parseCondition(row, condition.trim(), lineNumber);
+        }
+        return row;
+    }
+
+    private static int parseDecision(String decision, int lineNumber) {
+        if (decision.equalsIgnoreCase("remote")) {
+            return NEEDS_REMOTE_SCORING;
+        }
+        try {
+            int score = Integer.parseInt(decision);
+            if (score < 0 || score > 100) {
+                throw invalid(lineNumber, "la puntuación debe estar entre 0 y 100");
+            }
+            return score;
+        } catch (NumberFormatException e) {
+            throw invalid(lineNumber, "decisión inválida: " + decision);
+        }
+    }
+
+    private static void parseCondition(Row row, String condition, int lineNumber) {
+        String[] parts = condition.split("\\s+", 3);
+        if (parts.length < 3) {
+            throw invalid(lineNumber, "condición incompleta: " + condition);
+        }
+        String field = parts[0].toLowerCase();
+        String operator = parts[1].toLowerCase();
+        String value = parts[2].trim();
+
+        switch (field) {
+            case "amount" -> parseAmountCondition(row, operator, value, lineNumber);
+            case "merchant" -> row.merchants = parseSet(operator, value, lineNumber);
+            case "account" -> row.accounts = parseSet(operator, value, lineNumber);
+            default -> throw invalid(lineNumber, "campo desconocido: " + parts[0]);
+        }
+    }
+
+    private static void parseAmountCondition(Row row, String operator, String value, int lineNumber) {
+        long cents;
+        try {
+            cents = toCents(new BigDecimal(value));
+        } catch (NumberFormatException e) {
+            throw invalid(lineNumber, "monto inválido: " + value);
+        }
+        switch (operator) {
+            case "<" -> row.maxCents = Math.min(row.maxCents, cents - 1);
+            case "<=" -> row.maxCents = Math.min(row.maxCents, cents);
+            case ">" -> row.minCents = Math.max(row.minCents, cents + 1);
+            case ">=" -> row.minCents = Math.max(row.minCents, cents);
+            case "=" -> {
+                row.minCents = Math.max(row.minCents, cents);
+                row.maxCents = Math.min(row.maxCents, cents);
+            }
+            default -> throw invalid(lineNumber, "operador inválido para amount: " + operator);
+        }
+    }
+
+    private static Set<String> parseSet(String operator, String value, int lineNumber) {
+        if (!operator.equals("in") || !value.startsWith("(") || !value.endsWith(")")) {
+            throw invalid(lineNumber, "se esperaba 'in (valor1, valor2, ...)'");
+        }
+        Set<String> values = new HashSet<>();
+        Arrays.stream(value.substring(1, value.length() - 1).split(","))
+            .map(String::trim)
+            .filter(v -> !v.isEmpty())
+            .forEach(values::add);
+        if (values.isEmpty()) {
+            throw invalid(lineNumber, "la lista de valores no puede estar vacía");
+        }
+        return values;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static IllegalArgumentException invalid(int lineNumber, String detail) {
+        return new IllegalArgumentException("Regla inválida en línea " + lineNumber + ": " + detail);
+    }
+
+    // ==================== FILA DE LA TABLA ====================
+
+    private static final class Row {
+        private final String name;
+        private long minCents = Long.MIN_VALUE;
+        private long maxCents = Long.MAX_VALUE;
+        private Set<String> merchants;
+        private Set<String> accounts;
+        private int score;
+
+        private Row(String name) {
+            this.name = name;
+        }
+
+        private boolean matches(String accountNumber, String merchantId, long cents) {
+            if (cents < minCents || cents > maxCents) {
+                return false;
+            }
+            if (merchants != null && (merchantId == null || !merchants.contains(merchantId))) {
+                return false;
+            }
+            return accounts == null || (accountNumber != null && accounts.contains(accountNumber));
+        }
+    }
+}
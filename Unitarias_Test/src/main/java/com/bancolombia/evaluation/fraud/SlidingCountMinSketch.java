@@ -0,0 +1,115 @@
+package com.bancolombia.evaluation.fraud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch con ventana deslizante: un anillo de sketches, uno por bucket de tiempo.
+ *
+ * Estima conteo y monto por clave con memoria fija, sin importar cuántas claves existan.
+ * Las estimaciones nunca subestiman (salvo la pérdida aproximada en el cambio de bucket,
+ * igual que {@link SlidingWindowCounter}); pueden sobreestimar por colisiones.
+ */
+final class SlidingCountMinSketch {
+
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final int depth;
+    private final int widthMask;
+    private final int cellsPerBucket;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray cents;
+
+    /**
+     * @param width Ancho de cada fila; se redondea a potencia de dos
+     * @param depth Número de funciones hash (máximo 4)
+     */
+    SlidingCountMinSketch(long bucketMillis, int buckets, int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("La profundidad debe estar entre 1 y " + SEEDS.length);
+        }
+        int roundedWidth = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+        this.depth = depth;
+        this.widthMask = roundedWidth - 1;
+        this.cellsPerBucket = roundedWidth * depth;
+        this.epochs = new AtomicLongArray(buckets);
+        this.counts = new AtomicLongArray(buckets * cellsPerBucket);
+        this.cents = new AtomicLongArray(buckets * cellsPerBucket);
+        for (int i = 0; i < buckets; i++) {
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    void add(String key, long nowMillis, long amountCents) {
+        long epoch = nowMillis / bucketMillis;
+        int bucket = (int) Math.floorMod(epoch, (long) buckets);
+        if (!claim(bucket, epoch)) {
+            return;
+        }
+        int base = bucket * cellsPerBucket;
+        int hash = key.hashCode();
+        for (int row = 0; row < depth; row++) {
+            int cell = base + row * (widthMask + 1) + index(hash, row);
+            counts.incrementAndGet(cell);
+            cents.addAndGet(cell, amountCents);
+        }
+    }
+
+    long estimateCount(String key, long nowMillis) {
+        return estimate(counts, key, nowMillis);
+    }
+
+    long estimateAmountCents(String key, long nowMillis) {
+        return estimate(cents, key, nowMillis);
+    }
+
+    private long estimate(AtomicLongArray values, String key, long nowMillis) {
+        long nowEpoch = nowMillis / bucketMillis;
+        long oldestEpoch = nowEpoch - buckets + 1;
+        int hash = key.hashCode();
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int offset = row * (widthMask + 1) + index(hash, row);
+            long total = 0;
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                long epoch = epochs.get(bucket);
+                if (epoch >= oldestEpoch && epoch <= nowEpoch) {
+                    total += values.get(bucket * cellsPerBucket + offset);
+                }
+            }
+            min = Math.min(min, total);
+        }
+        return min;
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        return (int) (mixed ^ (mixed >>> 32)) & widthMask;
+    }
+
+    private boolean claim(int bucket, long epoch) {
+        while (true) {
+            long current = epochs.get(bucket);
+            if (current == epoch) {
+                return true;
+            }
+            if (current > epoch) {
+                return false;
+            }
+            if (epochs.compareAndSet(bucket, current, epoch)) {
+                int base = bucket * cellsPerBucket;
+                for (int i = 0; i < cellsPerBucket; i++) {
+                    counts.set(base + i, 0);
+                    cents.set(base + i, 0);
+                }
+                return true;
+            }
+        }
+    }
+}
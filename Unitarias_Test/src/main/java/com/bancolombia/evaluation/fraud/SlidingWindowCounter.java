@@ -0,0 +1,91 @@
+package com.bancolombia.evaluation.fraud;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ventana deslizante de conteo y monto sobre un anillo de buckets de tiempo, sin bloqueos.
+ *
+ * Cada bucket guarda la época a la que pertenece; al llegar un evento de una época nueva el
+ * bucket se reinicia con CAS. Un evento concurrente justo en el cambio de bucket puede perderse,
+ * por lo que los valores son aproximados, suficiente para variables de velocidad de fraude.
+ * Los montos se acumulan en centavos.
+ */
+final class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray cents;
+
+    SlidingWindowCounter(long bucketMillis, int buckets) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+        this.epochs = new AtomicLongArray(buckets);
+        this.counts = new AtomicLongArray(buckets);
+        this.cents = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    void add(long nowMillis, long amountCents) {
+        long epoch = nowMillis / bucketMillis;
+        int index = (int) Math.floorMod(epoch, (long) buckets);
+        if (!claim(index, epoch)) {
+            return;
+        }
+        counts.incrementAndGet(index);
+        cents.addAndGet(index, amountCents);
+    }
+
+    long count(long nowMillis) {
+        return sum(counts, nowMillis);
+    }
+
+    long amountCents(long nowMillis) {
+        return sum(cents, nowMillis);
+    }
+
+    /**
+     * Instante del último bucket con actividad, en milisegundos.
+     */
+    long lastActivityMillis() {
+        long latest = Long.MIN_VALUE;
+        for (int i = 0; i < buckets; i++) {
+            latest = Math.max(latest, epochs.get(i));
+        }
+        return latest == Long.MIN_VALUE ? Long.MIN_VALUE : latest * bucketMillis;
+    }
+
+    private boolean claim(int index, long epoch) {
+        while (true) {
+            long current = epochs.get(index);
+            if (current == epoch) {
+                return true;
+            }
+            if (current > epoch) {
+                // Evento más viejo que la ventana que ocupa el bucket: se descarta
+                return false;
+            }
+            if (epochs.compareAndSet(index, current, epoch)) {
+                counts.set(index, 0);
+                cents.set(index, 0);
+                return true;
+            }
+        }
+    }
+
+    private long sum(AtomicLongArray values, long nowMillis) {
+        long nowEpoch = nowMillis / bucketMillis;
+        long oldestEpoch = nowEpoch - buckets + 1;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long epoch = epochs.get(i);
+            if (epoch >= oldestEpoch && epoch <= nowEpoch) {
+                total += values.get(i);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,304 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Almacén en memoria de variables de velocidad por cuenta y por comercio.
+ *
+ * Calcula conteo y monto en las últimas ventanas de 1 minuto, 1 hora y 24 horas:
+ * <ul>
+ *   <li>Cuentas calientes: ventanas exactas en anillos de buckets sin bloqueos.</li>
+ *   <li>Resto de cuentas y comercios: Count-Min sketches con ventana deslizante.</li>
+ *   <li>Comercios más frecuentes: Space-Saving.</li>
+ * </ul>
+ * Una cuenta se vuelve caliente cuando su conteo estimado en la última hora alcanza el umbral
+ * de promoción y hay espacio. Mientras sus ventanas exactas no cubren el periodo completo se
+ * responde con la estimación del sketch. Las lecturas recorren un número fijo de buckets,
+ * sin consultar el repositorio.
+ */
+public class VelocityFeatureStore {
+
+    private static final long SECOND = 1_000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private static final int DEFAULT_MAX_HOT_ACCOUNTS = 4_096;
+    private static final int DEFAULT_PROMOTION_THRESHOLD = 5;
+    private static final int DEFAULT_SKETCH_WIDTH = 1_024;
+    private static final int DEFAULT_SKETCH_DEPTH = 4;
+    private static final int DEFAULT_TOP_MERCHANTS = 100;
+
+    private final Clock clock;
+    private final int maxHotAccounts;
+    private final int promotionThreshold;
+    private final Map<String, AccountWindows> hotAccounts = new ConcurrentHashMap<>();
+    private final SketchWindows accountSketches;
+    private final SketchWindows merchantSketches;
+    private final HeavyHitters topMerchants;
+
+    public VelocityFeatureStore() {
+        this(Clock.systemUTC(), DEFAULT_MAX_HOT_ACCOUNTS, DEFAULT_PROMOTION_THRESHOLD,
+            DEFAULT_SKETCH_WIDTH, DEFAULT_TOP_MERCHANTS);
+    }
+
+    public VelocityFeatureStore(Clock clock, int maxHotAccounts, int promotionThreshold,
+                                int sketchWidth, int trackedMerchants) {
+        if (maxHotAccounts < 0 || promotionThreshold <= 0 || sketchWidth <= 0) {
+            throw new IllegalArgumentException("Configuración inválida del almacén de velocidad");
+        }
+        this.clock = clock;
+        this.maxHotAccounts = maxHotAccounts;
+        this.promotionThreshold = promotionThreshold;
+        this.accountSketches = new SketchWindows(sketchWidth);
+        this.merchantSketches = new SketchWindows(sketchWidth);
+        this.topMerchants = new HeavyHitters(trackedMerchants);
+    }
+
+    /**
+     * Registra una transacción saliente completada.
+     * Solo se consideran transacciones que debitan saldo de una cuenta origen.
+     * @param transaction Transacción guardada
+     */
+    public void record(Transaction transaction) {
+        if (transaction == null
+            || transaction.getStatus() != TransactionStatus.COMPLETED
+            || transaction.getType() == null || !transaction.getType().requiresBalance()
+            || transaction.getSourceAccountNumber() == null || transaction.getAmount() == null) {
+            return;
+        }
+        record(transaction.getSourceAccountNumber(), transaction.getMerchantId(), transaction.getAmount());
+    }
+
+    /**
+     * Registra un movimiento saliente de una cuenta, opcionalmente hacia un comercio.
+     */
+    public void record(String accountNumber, String merchantId, BigDecimal amount) {
+        long now = clock.millis();
+        long cents = toCents(amount);
+
+        accountSketches.add(accountNumber, now, cents);
+        AccountWindows windows = hotAccounts.get(accountNumber);
+        if (windows == null && shouldPromote(accountNumber, now)) {
+            windows = hotAccounts.computeIfAbsent(accountNumber, key -> new AccountWindows(now));
+        }
+        if (windows != null) {
+            windows.add(now, cents);
+        }
+
+        if (merchantId != null) {
+            merchantSketches.add(merchantId, now, cents);
+            topMerchants.add(merchantId);
+        }
+    }
+
+    /**
+     * Variables de velocidad de una cuenta.
+     * @param accountNumber Número de cuenta
+     * @return Conteo y monto en las ventanas de 1 minuto, 1 hora y 24 horas
+     */
+    public VelocityFeatures getAccountFeatures(String accountNumber) {
+        long now = clock.millis();
+        AccountWindows windows = hotAccounts.get(accountNumber);
+        if (windows == null) {
+            return accountSketches.features(accountNumber, now);
+        }
+        VelocityFeatures estimated = null;
+        long[] values = new long[6];
+        boolean exact = true;
+        long[] lengths = {MINUTE, HOUR, DAY};
+        SlidingWindowCounter[] counters = {windows.minute, windows.hour, windows.day};
+        for (int i = 0; i < counters.length; i++) {
+            if (now - windows.promotedAtMillis >= lengths[i]) {
+                values[i * 2] = counters[i].count(now);
+                values[i * 2 + 1] = counters[i].amountCents(now);
+            } else {
+                if (estimated == null) {
+                    estimated = accountSketches.features(accountNumber, now);
+                }
+                values[i * 2] = estimated.countAt(i);
+                values[i * 2 + 1] = estimated.amountCentsAt(i);
+                exact = false;
+            }
+        }
+        return new VelocityFeatures(values, exact);
+    }
+
+    /**
+     * Variables de velocidad estimadas de un comercio.
+     */
+    public VelocityFeatures getMerchantFeatures(String merchantId) {
+        return merchantSketches.features(merchantId, clock.millis());
+    }
+
+    /**
+     * Comercios con más transacciones desde el arranque.
+     * @param limit Número máximo de comercios
+     */
+    public List<MerchantFrequency> getTopMerchants(int limit) {
+        return topMerchants.top(limit);
+    }
+
+    /**
+     * Libera las ventanas exactas de cuentas sin actividad en las últimas 24 horas.
+     * @return Número de cuentas liberadas
+     */
+    public int purgeIdleAccounts() {
+        long threshold = clock.millis() - DAY;
+        int before = hotAccounts.size();
+        hotAccounts.values().removeIf(windows -> windows.day.lastActivityMillis() < threshold);
+        return before - hotAccounts.size();
+    }
+
+    public int getHotAccountCount() {
+        return hotAccounts.size();
+    }
+
+    private boolean shouldPromote(String accountNumber, long now) {
+        return hotAccounts.size() < maxHotAccounts
+            && accountSketches.hour.estimateCount(accountNumber, now) >= promotionThreshold;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // ==================== VENTANAS ====================
+
+    private static final class AccountWindows {
+        private final long promotedAtMillis;
+        private final SlidingWindowCounter minute = new SlidingWindowCounter(SECOND, 60);
+        private final SlidingWindowCounter hour = new SlidingWindowCounter(MINUTE, 60);
+        private final SlidingWindowCounter day = new SlidingWindowCounter(30 * MINUTE, 48);
+
+        private AccountWindows(long promotedAtMillis) {
+            this.promotedAtMillis = promotedAtMillis;
+        }
+
+        private void add(long now, long cents) {
+            minute.add(now, cents);
+            hour.add(now, cents);
+            day.add(now, cents);
+        }
+    }
+
+    private static final class SketchWindows {
+        private final SlidingCountMinSketch minute;
+        private final SlidingCountMinSketch hour;
+        private final SlidingCountMinSketch day;
+
+        private SketchWindows(int width) {
+            this.minute = new SlidingCountMinSketch(10 * SECOND, 6, width, DEFAULT_SKETCH_DEPTH);
+            this.hour = new SlidingCountMinSketch(5 * MINUTE, 12, width, DEFAULT_SKETCH_DEPTH);
+            this.day = new SlidingCountMinSketch(HOUR, 24, width, DEFAULT_SKETCH_DEPTH);
+        }
+
+        private void add(String key, long now, long cents) {
+            minute.add(key, now, cents);
+            hour.add(key, now, cents);
+            day.add(key, now, cents);
+        }
+
+        private VelocityFeatures features(String key, long now) {
+            long[] values = {
+                minute.estimateCount(key, now), minute.estimateAmountCents(key, now),
+                hour.estimateCount(key, now), hour.estimateAmountCents(key, now),
+                day.estimateCount(key, now), day.estimateAmountCents(key, now)
+            };
+            return new VelocityFeatures(values, false);
+        }
+    }
+
+    // ==================== RESULTADOS ====================
+
+    /**
+     * Conteo y monto en las ventanas de 1 minuto, 1 hora y 24 horas.
+     */
+    public static class VelocityFeatures {
+        private final long[] values;
+        private final boolean exact;
+
+        private VelocityFeatures(long[] values, boolean exact) {
+            this.values = values;
+            this.exact = exact;
+        }
+
+        public long getCountLastMinute() {
+            return values[0];
+        }
+
+        public BigDecimal getAmountLastMinute() {
+            return fromCents(values[1]);
+        }
+
+        public long getCountLastHour() {
+            return values[2];
+        }
+
+        public BigDecimal getAmountLastHour() {
+            return fromCents(values[3]);
+        }
+
+        public long getCountLastDay() {
+            return values[4];
+        }
+
+        public BigDecimal getAmountLastDay() {
+            return fromCents(values[5]);
+        }
+
+        /**
+         * true si todas las ventanas provienen de contadores exactos y no de sketches.
+         */
+        public boolean isExact() {
+            return exact;
+        }
+
+        private long countAt(int window) {
+            return values[window * 2];
+        }
+
+        private long amountCentsAt(int window) {
+            return values[window * 2 + 1];
+        }
+    }
+
+    /**
+     * Frecuencia estimada de un comercio.
+     */
+    public static class MerchantFrequency {
+        private final String merchantId;
+        private final long count;
+        private final long maxError;
+
+        public MerchantFrequency(String merchantId, long count, long maxError) {
+            this.merchantId = merchantId;
+            this.count = count;
+            this.maxError = maxError;
+        }
+
+        public String getMerchantId() {
+            return merchantId;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxError() {
+            return maxError;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionStatus;
+import com.bancolombia.evaluation.repository.BatchWriteRepository;
+import com.bancolombia.evaluation.repository.TransactionRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decorador de {@link TransactionRepository} que alimenta el {@link VelocityFeatureStore}
+ * con cada transacción saliente guardada como completada.
+ *
+ * Se crea con {@link #wrap}: si el repositorio decorado también implementa
+ * {@link BatchWriteRepository}, el decorador lo implementa y registra las transacciones de cada
+ * {@code commitBatch}, así que las confirmaciones de {@link com.bancolombia.evaluation.repository.UnitOfWork}
+ * siguen siendo atómicas y alimentan el almacén.
+ */
+public class VelocityRecordingTransactionRepository implements TransactionRepository {
+
+    private final TransactionRepository delegate;
+    private final VelocityFeatureStore featureStore;
+
+    private VelocityRecordingTransactionRepository(TransactionRepository delegate,
+                                                   VelocityFeatureStore featureStore) {
+        this.delegate = delegate;
+        this.featureStore = featureStore;
+    }
+
+    /**
+     * @return El decorador; implementa {@link BatchWriteRepository} si {@code delegate} lo hace
+     */
+    public static TransactionRepository wrap(TransactionRepository delegate, VelocityFeatureStore featureStore) {
+        if (delegate == null || featureStore == null) {
+            throw new IllegalArgumentException("El repositorio y el almacén de velocidad son requeridos");
+        }
+        if (delegate instanceof BatchWriteRepository) {
+            return new BatchWriting(delegate, featureStore);
+        }
+        return new VelocityRecordingTransactionRepository(delegate, featureStore);
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        Transaction saved = delegate.save(transaction);
+        featureStore.record(saved != null ? saved : transaction);
+        return saved;
+    }
+
+    @Override
+    public Optional<Transaction> findById(String transactionId) {
+        return delegate.findById(transactionId);
+    }
+
+    @Override
+    public List<Transaction> findBySourceAccountNumber(String accountNumber) {
+        return delegate.findBySourceAccountNumber(accountNumber);
+    }
+
+    @Override
+    public List<Transaction> findByTargetAccountNumber(String accountNumber) {
+        return delegate.findByTargetAccountNumber(accountNumber);
+    }
+
+    @Override
+    public List<Transaction> findByAccountAndDateRange(String accountNumber,
+                                                       LocalDateTime startDate,
+                                                       LocalDateTime endDate) {
+        return delegate.findByAccountAndDateRange(accountNumber, startDate, endDate);
+    }
+
+    @Override
+    public List<Transaction> findByStatus(TransactionStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public int countTodayTransactionsByAccount(String accountNumber) {
+        return delegate.countTodayTransactionsByAccount(accountNumber);
+    }
+
+    /**
+     * Variante para repositorios con escrituras atómicas en lote.
+     */
+    private static final class BatchWriting extends VelocityRecordingTransactionRepository
+            implements BatchWriteRepository {
+
+        private final BatchWriteRepository batchDelegate;
+
+        private BatchWriting(TransactionRepository delegate, VelocityFeatureStore featureStore) {
+            super(delegate, featureStore);
+            this.batchDelegate = (BatchWriteRepository) delegate;
+        }
+
+        @Override
+        public List<Transaction> commitBatch(List<Account> accounts, List<Transaction> transactions) {
+            List<Transaction> saved = batchDelegate.commitBatch(accounts, transactions);
+            List<Transaction> recorded = saved != null ? saved : transactions;
+            for (Transaction transaction : recorded) {
+                super.featureStore.record(transaction);
+            }
+            return saved;
+        }
+    }
+}
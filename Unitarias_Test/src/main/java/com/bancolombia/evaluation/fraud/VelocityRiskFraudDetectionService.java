@@ -0,0 +1,121 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.TransferRequest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorador de {@link FraudDetectionService} que usa las variables de {@link VelocityFeatureStore}
+ * en la decisión de riesgo.
+ *
+ * Antes de consultar el servicio remoto revisa si, sumando la transacción actual, la cuenta
+ * origen supera el máximo de transacciones en el último minuto o de monto en la última hora o
+ * en las últimas 24 horas. Si lo supera, {@code evaluateTransactionRisk} devuelve
+ * {@code velocityScore} y las validaciones rechazan sin llamar al servicio remoto; si no, se
+ * delega. Las lecturas del almacén son O(1).
+ *
+ * El almacén debe alimentarse con las transacciones guardadas, por ejemplo con
+ * {@link VelocityRecordingTransactionRepository}.
+ */
+public class VelocityRiskFraudDetectionService implements FraudDetectionService {
+
+    private static final int DEFAULT_VELOCITY_SCORE = 85;
+
+    private final FraudDetectionService delegate;
+    private final VelocityFeatureStore featureStore;
+    private final long maxCountPerMinute;
+    private final BigDecimal maxAmountPerHour;
+    private final BigDecimal maxAmountPerDay;
+    private final int velocityScore;
+    private final LongAdder velocityRejections = new LongAdder();
+
+    public VelocityRiskFraudDetectionService(FraudDetectionService delegate, VelocityFeatureStore featureStore,
+                                             long maxCountPerMinute, BigDecimal maxAmountPerHour,
+                                             BigDecimal maxAmountPerDay) {
+        this(delegate, featureStore, maxCountPerMinute, maxAmountPerHour, maxAmountPerDay,
+            DEFAULT_VELOCITY_SCORE);
+    }
+
+    /**
+     * @param velocityScore Puntuación que se asigna cuando se supera algún límite de velocidad
+     */
+    public VelocityRiskFraudDetectionService(FraudDetectionService delegate, VelocityFeatureStore featureStore,
+                                             long maxCountPerMinute, BigDecimal maxAmountPerHour,
+                                             BigDecimal maxAmountPerDay, int velocityScore) {
+        if (delegate == null || featureStore == null) {
+            throw new IllegalArgumentException("El servicio de fraude y el almacén de velocidad son requeridos");
+        }
+        if (maxCountPerMinute <= 0 || maxAmountPerHour == null || maxAmountPerDay == null) {
+            throw new IllegalArgumentException("Los límites de velocidad son requeridos");
+        }
+        this.delegate = delegate;
+        this.featureStore = featureStore;
+        this.maxCountPerMinute = maxCountPerMinute;
+        this.maxAmountPerHour = maxAmountPerHour;
+        this.maxAmountPerDay = maxAmountPerDay;
+        this.velocityScore = velocityScore;
+    }
+
+    @Override
+    public int evaluateTransactionRisk(String accountNumber, BigDecimal amount) {
+        if (exceedsVelocity(accountNumber, amount)) {
+            return velocityScore;
+        }
+        return delegate.evaluateTransactionRisk(accountNumber, amount);
+    }
+
+    @Override
+    public boolean isBlacklisted(String accountNumber) {
+        return delegate.isBlacklisted(accountNumber);
+    }
+
+    @Override
+    public boolean validatePayment(PaymentRequest request) {
+        if (request != null && exceedsVelocity(request.getSourceAccountNumber(), request.getAmount())) {
+            return false;
+        }
+        return delegate.validatePayment(request);
+    }
+
+    @Override
+    public boolean validateTransfer(TransferRequest request) {
+        if (request != null && exceedsVelocity(request.getSourceAccountNumber(), request.getAmount())) {
+            return false;
+        }
+        return delegate.validateTransfer(request);
+    }
+
+    @Override
+    public void reportSuspiciousActivity(String transactionId, String reason) {
+        delegate.reportSuspiciousActivity(transactionId, reason);
+    }
+
+    @Override
+    public void invalidateAccount(String accountNumber) {
+        delegate.invalidateAccount(accountNumber);
+    }
+
+    /**
+     * @return Decisiones tomadas por superar un límite de velocidad
+     */
+    public long getVelocityRejections() {
+        return velocityRejections.sum();
+    }
+
+    private boolean exceedsVelocity(String accountNumber, BigDecimal amount) {
+        if (accountNumber == null || amount == null) {
+            return false;
+        }
+        VelocityFeatureStore.VelocityFeatures features = featureStore.getAccountFeatures(accountNumber);
+        boolean exceeded = features.getCountLastMinute() + 1 > maxCountPerMinute
+            || features.getAmountLastHour().add(amount).compareTo(maxAmountPerHour) > 0
+            || features.getAmountLastDay().add(amount).compareTo(maxAmountPerDay) > 0;
+        if (exceeded) {
+            velocityRejections.increment();
+        }
+        return exceeded;
+    }
+}
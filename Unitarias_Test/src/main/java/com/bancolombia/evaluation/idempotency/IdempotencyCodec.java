@@ -0,0 +1,13 @@
+package com.bancolombia.evaluation.idempotency;
+
+/**
+ * Convierte un resultado en campos de texto para persistirlo en el {@link IdempotencyStore}.
+ * El almacén se encarga de escapar los separadores; los campos pueden contener cualquier texto
+ * y un campo null se conserva como null.
+ */
+public interface IdempotencyCodec<T> {
+
+    String[] encode(T result);
+
+    T decode(String[] fields);
+}
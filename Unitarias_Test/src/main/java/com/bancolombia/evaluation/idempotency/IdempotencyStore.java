@@ -0,0 +1,455 @@
+package com.bancolombia.evaluation.idempotency;
+
+import com.bancolombia.evaluation.exception.BankingException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén de claves de idempotencia: recuerda el resultado de cada operación por su clave para
+ * que un reintento del cliente reciba el resultado original en lugar de ejecutarse otra vez.
+ *
+ * Las claves se reparten en shards, cada uno con su propio candado y un límite de entradas; las
+ * más antiguas se descartan al vencer su TTL o al llenarse el shard. Mientras una operación está
+ * en curso, los duplicados concurrentes esperan su resultado en vez de ejecutarla de nuevo.
+ * Si la operación lanza una excepción, la clave se libera (la excepción no se recuerda) y los
+ * duplicados que esperaban reciben la misma excepción.
+ *
+ * Opcionalmente los resultados se agregan a un archivo y se recargan al reiniciar, para que los
+ * reintentos que llegan después de una caída tampoco dupliquen la operación.
+ *
+ * @param <T> Tipo de resultado de la operación
+ */
+public class IdempotencyStore<T> implements AutoCloseable {
+
+    private static final int DEFAULT_SHARDS = 16;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+    private static final String SEPARATOR = "|";
+    private static final String NULL_FIELD = "%00";
+    private static final int HEADER_FIELDS = 3;
+
+    private final Shard<T>[] shards;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Path file;
+    private final IdempotencyCodec<T> codec;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder persistFailures = new LongAdder();
+    private BufferedWriter writer;
+    private long fileRecords;
+
+    /**
+     * Crea un almacén solo en memoria.
+     */
+    public IdempotencyStore(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, DEFAULT_SHARDS, Clock.systemUTC(), null, null);
+    }
+
+    /**
+     * @param ttl Tiempo durante el cual se recuerda un resultado
+     * @param maxEntries Máximo de resultados recordados entre todos los shards
+     * @param shardCount Número de shards
+     * @param clock Reloj para calcular vencimientos
+     * @param file Archivo donde se persisten los resultados; null para no persistirlos
+     * @param codec Codec de los resultados; requerido si se indica archivo
+     */
+    public IdempotencyStore(Duration ttl, int maxEntries, int shardCount, Clock clock,
+                            Path file, IdempotencyCodec<T> codec) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("El TTL debe ser mayor a cero");
+        }
+        if (shardCount <= 0 || maxEntries < shardCount) {
+            throw new IllegalArgumentException(
+                "El número de shards debe ser mayor a cero y no superar el máximo de entradas");
+        }
+        if (file != null && codec == null) {
+            throw new IllegalArgumentException("El codec es requerido para persistir los resultados");
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.file = file;
+        this.codec = codec;
+        @SuppressWarnings("unchecked")
+        Shard<T>[] created = (Shard<T>[]) new Shard<?>[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            created[i] = new Shard<>(maxEntries / shardCount);
+        }
+        this.shards = created;
+        if (file != null) {
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                load();
+                rewrite();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No fue posible abrir el almacén de idempotencia en " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave.
+     *
+     * @param key Clave de idempotencia enviada por el cliente
+     * @param fingerprint Resumen de la solicitud; un reintento con la misma clave y otro
+     *                    resumen se rechaza
+     * @param operation Operación a ejecutar si la clave no tiene resultado
+     * @return Resultado original de la clave, o el de la operación si es la primera vez
+     * @throws BankingException con código IDEMPOTENCY_KEY_CONFLICT si la clave ya se usó con
+     *                          otra solicitud
+     */
+    public T execute(String key, String fingerprint, Supplier<T> operation) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("La clave de idempotencia es requerida");
+        }
+        Shard<T> shard = shards[Math.floorMod(key.hashCode(), shards.length)];
+        long now = clock.millis();
+        Entry<T> entry;
+        boolean owner = false;
+        synchronized (shard) {
+            shard.expire(now);
+            entry = shard.entries.get(key);
+            if (entry != null && entry.expiresAt <= now) {
+                // El barrido se detiene en la primera entrada vigente; una vencida detrás de ella
+                // no debe responder reintentos
+                shard.entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry<>(fingerprint);
+                shard.entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            if (!entry.fingerprint.equals(fingerprint)) {
+                throw new BankingException("IDEMPOTENCY_KEY_CONFLICT",
+                    "La clave de idempotencia ya se usó con una solicitud diferente: " + key);
+            }
+            if (entry.result.isDone()) {
+                replays.increment();
+            } else {
+                waits.increment();
+            }
+            return await(entry.result);
+        }
+
+        executions.increment();
+        T result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (shard) {
+                shard.entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        long expiresAt = clock.millis() + ttlMillis;
+        synchronized (shard) {
+            entry.expiresAt = expiresAt;
+            shard.evictOverflow();
+        }
+        entry.result.complete(result);
+        persist(key, entry, result);
+        return result;
+    }
+
+    /**
+     * @return Número de resultados recordados (incluye operaciones en curso)
+     */
+    public int size() {
+        int size = 0;
+        for (Shard<T> shard : shards) {
+            synchronized (shard) {
+                size += shard.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public IdempotencyStats getStats() {
+        return new IdempotencyStats(executions.sum(), replays.sum(), waits.sum(), persistFailures.sum());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No fue posible cerrar el almacén de idempotencia", e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    // ==================== PERSISTENCIA ====================
+
+    private synchronized void persist(String key, Entry<T> entry, T result) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(record(key, entry.fingerprint, entry.expiresAt, codec.encode(result)));
+            writer.flush();
+            fileRecords++;
+            if (fileRecords >= MIN_COMPACTION_RECORDS && fileRecords > 2L * size()) {
+                rewrite();
+            }
+        } catch (IOException e) {
+            // La operación ya se ejecutó: el resultado sigue disponible en memoria y solo se pierde
+            // su protección tras una caída, así que se deja de persistir en vez de fallar
+            persistFailures.increment();
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // El archivo ya no se usa
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * Carga los resultados vigentes del archivo. Se detiene en la primera línea incompleta,
+     * que corresponde a una escritura interrumpida.
+     */
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long now = clock.millis();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int checksumAt = line.lastIndexOf(SEPARATOR);
+            if (checksumAt <= 0) {
+                return;
+            }
+            String content = line.substring(0, checksumAt);
+            if (!Long.toHexString(checksum(content)).equals(line.substring(checksumAt + 1))) {
+                return;
+            }
+            String[] fields = content.split("\\|", -1);
+            if (fields.length < HEADER_FIELDS || Long.parseLong(fields[2]) <= now) {
+                continue;
+            }
+            long expiresAt = Long.parseLong(fields[2]);
+            String[] resultFields = new String[fields.length - HEADER_FIELDS];
+            for (int i = 0; i < resultFields.length; i++) {
+                resultFields[i] = unescape(fields[HEADER_FIELDS + i]);
+            }
+            String key = unescape(fields[0]);
+            Entry<T> entry = new Entry<>(unescape(fields[1]));
+            entry.expiresAt = expiresAt;
+            entry.result.complete(codec.decode(resultFields));
+            Shard<T> shard = shards[Math.floorMod(key.hashCode(), shards.length)];
+            synchronized (shard) {
+                shard.entries.remove(key);
+                shard.entries.put(key, entry);
+                shard.evictOverflow();
+            }
+        }
+    }
+
+    /**
+     * Reescribe el archivo solo con los resultados vigentes.
+     */
+    private synchronized void rewrite() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long records = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (Shard<T> shard : shards) {
+                List<Map.Entry<String, Entry<T>>> snapshot;
+                synchronized (shard) {
+                    snapshot = new ArrayList<>(shard.entries.entrySet());
+                }
+                for (Map.Entry<String, Entry<T>> item : snapshot) {
+                    Entry<T> entry = item.getValue();
+                    if (entry.result.isDone() && !entry.result.isCompletedExceptionally()) {
+                        out.write(record(item.getKey(), entry.fingerprint, entry.expiresAt,
+                            codec.encode(entry.result.join())));
+                        records++;
+                    }
+                }
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        fileRecords = records;
+    }
+
+    private static String record(String key, String fingerprint, long expiresAt, String[] fields) {
+        StringBuilder content = new StringBuilder(128)
+            .append(escape(key)).append(SEPARATOR)
+            .append(escape(fingerprint)).append(SEPARATOR)
+            .append(expiresAt);
+        for (String field : fields) {
+            content.append(SEPARATOR).append(escape(field));
+        }
+        String text = content.toString();
+        return text + SEPARATOR + Long.toHexString(checksum(text)) + "\n";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL_FIELD;
+        }
+        return value.replace("%", "%25").replace("|", "%7C").replace("\n", "%0A").replace("\r", "%0D");
+    }
+
+    private static String unescape(String value) {
+        if (NULL_FIELD.equals(value)) {
+            return null;
+        }
+        return value.replace("%0D", "\r").replace("%0A", "\n").replace("%7C", "|").replace("%25", "%");
+    }
+
+    private static long checksum(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    // ==================== SHARDS ====================
+
+    private static final class Entry<T> {
+        private final String fingerprint;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private long expiresAt = Long.MAX_VALUE;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Entradas de un shard en orden de inserción. El vencimiento se fija al terminar cada
+     * operación, así que una operación lenta puede vencer después de claves insertadas detrás de
+     * ella: el barrido solo es aproximado y la búsqueda revisa el vencimiento de la entrada.
+     * El estado se protege con el monitor del shard.
+     */
+    private static final class Shard<T> {
+        private final Map<String, Entry<T>> entries = new LinkedHashMap<>();
+        private final int capacity;
+
+        private Shard(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void expire(long now) {
+            Iterator<Entry<T>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (entry.expiresAt > now) {
+                    // Las operaciones en curso no vencen y pueden preceder a entradas ya vencidas
+                    if (entry.expiresAt != Long.MAX_VALUE) {
+                        return;
+                    }
+                    continue;
+                }
+                iterator.remove();
+            }
+        }
+
+        /**
+         * Descarta los resultados más antiguos que excedan la capacidad. Las operaciones en curso
+         * nunca se descartan.
+         */
+        private void evictOverflow() {
+            Iterator<Entry<T>> iterator = entries.values().iterator();
+            int excess = entries.size() - capacity;
+            while (excess > 0 && iterator.hasNext()) {
+                if (iterator.next().result.isDone()) {
+                    iterator.remove();
+                    excess--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Contadores del almacén.
+     */
+    public static class IdempotencyStats {
+        private final long executions;
+        private final long replays;
+        private final long waits;
+        private final long persistFailures;
+
+        public IdempotencyStats(long executions, long replays, long waits, long persistFailures) {
+            this.executions = executions;
+            this.replays = replays;
+            this.waits = waits;
+            this.persistFailures = persistFailures;
+        }
+
+        /**
+         * @return Operaciones ejecutadas
+         */
+        public long getExecutions() {
+            return executions;
+        }
+
+        /**
+         * @return Reintentos respondidos con un resultado ya guardado
+         */
+        public long getReplays() {
+            return replays;
+        }
+
+        /**
+         * @return Duplicados concurrentes que esperaron a la operación en curso
+         */
+        public long getWaits() {
+            return waits;
+        }
+
+        /**
+         * @return Fallos de escritura en el archivo; tras el primero el almacén sigue solo en memoria
+         */
+        public long getPersistFailures() {
+            return persistFailures;
+        }
+    }
+}
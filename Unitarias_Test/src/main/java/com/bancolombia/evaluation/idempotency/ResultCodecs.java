@@ -0,0 +1,81 @@
+package com.bancolombia.evaluation.idempotency;
+
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.TransferResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Codecs de los resultados de transferencias y pagos para el almacén de idempotencia.
+ */
+public final class ResultCodecs {
+
+    public static final IdempotencyCodec<TransferResult> TRANSFER = new IdempotencyCodec<TransferResult>() {
+        @Override
+        public String[] encode(TransferResult result) {
+            return new String[] {
+                result.getTransferId(), Boolean.toString(result.isSuccessful()), result.getMessage(),
+                result.getConfirmationNumber(), text(result.getTransferredAmount()), text(result.getFee()),
+                text(result.getSourceNewBalance()), text(result.getTargetNewBalance()),
+                text(result.getProcessedAt()), result.getErrorCode()
+            };
+        }
+
+        @Override
+        public TransferResult decode(String[] fields) {
+            TransferResult result = new TransferResult();
+            result.setTransferId(fields[0]);
+            result.setSuccessful(Boolean.parseBoolean(fields[1]));
+            result.setMessage(fields[2]);
+            result.setConfirmationNumber(fields[3]);
+            result.setTransferredAmount(decimal(fields[4]));
+            result.setFee(decimal(fields[5]));
+            result.setSourceNewBalance(decimal(fields[6]));
+            result.setTargetNewBalance(decimal(fields[7]));
+            result.setProcessedAt(dateTime(fields[8]));
+            result.setErrorCode(fields[9]);
+            return result;
+        }
+    };
+
+    public static final IdempotencyCodec<PaymentResult> PAYMENT = new IdempotencyCodec<PaymentResult>() {
+        @Override
+        public String[] encode(PaymentResult result) {
+            return new String[] {
+                result.getPaymentId(), Boolean.toString(result.isSuccessful()), result.getMessage(),
+                result.getAuthorizationCode(), text(result.getTotalAmount()), text(result.getCommission()),
+                text(result.getProcessedAt()), result.getErrorCode()
+            };
+        }
+
+        @Override
+        public PaymentResult decode(String[] fields) {
+            PaymentResult result = new PaymentResult();
+            result.setPaymentId(fields[0]);
+            result.setSuccessful(Boolean.parseBoolean(fields[1]));
+            result.setMessage(fields[2]);
+            result.setAuthorizationCode(fields[3]);
+            result.setTotalAmount(decimal(fields[4]));
+            result.setCommission(decimal(fields[5]));
+            result.setProcessedAt(dateTime(fields[6]));
+            result.setErrorCode(fields[7]);
+            return result;
+        }
+    };
+
+    private ResultCodecs() {
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bancolombia.evaluation.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con buckets en potencias de dos de microsegundos.
+ *
+ * Registrar un valor no bloquea ni reserva memoria. Los percentiles se reportan como el
+ * límite superior del bucket, por lo que tienen un error relativo máximo de 2x.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra una latencia.
+     * @param nanos Latencia en nanosegundos
+     */
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getAverageMicros() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : totalMicros.sum() / samples;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Percentil aproximado.
+     * @param percentile Valor entre 0 y 100
+     * @return Límite superior en microsegundos del bucket que contiene el percentil
+     */
+    public long getPercentileMicros(double percentile) {
+        long samples = count.sum();
+        if (samples == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(samples * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= threshold) {
+                return i == 0 ? 0 : Math.min(1L << i, getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+}
@@ -12,7 +12,7 @@ public class Account {
     private String accountNumber;
     private String ownerName;
     private String ownerId;
-    private BigDecimal balance;
+    private volatile BigDecimal balance;
     private AccountType type;
     private AccountStatus status;
     private LocalDateTime createdAt;
@@ -66,6 +66,31 @@ public class Account {
         this.balance = balance;
     }
 
+    /**
+     * Suma un monto al saldo. {@link StripedAccount} lo sobrescribe para acreditar sin bloquear.
+     */
+    public void credit(BigDecimal amount) {
+        setBalance(getBalance().add(amount));
+    }
+
+    /**
+     * Resta un monto del saldo.
+     */
+    public void debit(BigDecimal amount) {
+        setBalance(getBalance().subtract(amount));
+    }
+
+    /**
+     * Revierte un {@link #credit} o {@link #debit} que no llegó a confirmarse. Aquí restaura el
+     * saldo previo; una cuenta particionada aplica el movimiento inverso para no perder créditos
+     * concurrentes.
+     * @param appliedDelta Cambio aplicado: positivo para un crédito, negativo para un débito
+     * @param previousBalance Saldo antes del movimiento
+     */
+    public void revert(BigDecimal appliedDelta, BigDecimal previousBalance) {
+        setBalance(previousBalance);
+    }
+
     public AccountType getType() {
         return type;
     }
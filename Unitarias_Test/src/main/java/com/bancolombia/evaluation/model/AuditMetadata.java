@@ -0,0 +1,251 @@
+package com.bancolombia.evaluation.model;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Metadatos de auditoría tipados y planos.
+ *
+ * Reemplaza el {@code HashMap<String, Object>} que se construía en cada operación: los valores
+ * se guardan en campos tipados y la vista {@link Map} solo crea entradas (y encajona el puntaje
+ * de riesgo) cuando alguien la recorre. Los servicios de auditoría que conocen esta clase pueden
+ * leer los campos directamente; los demás la reciben como un {@code Map} con las mismas claves
+ * de siempre.
+ */
+public final class AuditMetadata extends AbstractMap<String, Object> {
+
+    private static final String[] KEYS = {
+        "sourceAccount", "targetAccount", "amount", "transferType", "fraudRiskScore",
+        "merchantId", "paymentMethod", "riskScore", "type", "movements", "accounts"
+    };
+    private static final int SOURCE_ACCOUNT = 0;
+    private static final int TARGET_ACCOUNT = 1;
+    private static final int AMOUNT = 2;
+    private static final int TRANSFER_TYPE = 3;
+    private static final int FRAUD_RISK_SCORE = 4;
+    private static final int MERCHANT_ID = 5;
+    private static final int PAYMENT_METHOD = 6;
+    private static final int RISK_SCORE = 7;
+    private static final int TYPE = 8;
+    private static final int MOVEMENTS = 9;
+    private static final int ACCOUNTS = 10;
+
+    private static final int TRANSFER_KEYS =
+        bits(SOURCE_ACCOUNT, TARGET_ACCOUNT, AMOUNT, TRANSFER_TYPE, FRAUD_RISK_SCORE);
+    private static final int PAYMENT_KEYS = bits(AMOUNT, MERCHANT_ID, PAYMENT_METHOD, RISK_SCORE);
+    private static final int MOVEMENT_KEYS = bits(AMOUNT, TYPE);
+    private static final int BULK_MOVEMENT_KEYS = bits(AMOUNT, TYPE, MOVEMENTS, ACCOUNTS);
+
+    private final int presentKeys;
+    private final String sourceAccount;
+    private final String targetAccount;
+    private final BigDecimal amount;
+    private final TransferType transferType;
+    private final String merchantId;
+    private final PaymentMethod paymentMethod;
+    private final int riskScore;
+    private final String type;
+    private final int movementCount;
+    private final int accountCount;
+    private Set<Entry<String, Object>> entrySet;
+
+    private AuditMetadata(int presentKeys, String sourceAccount, String targetAccount, BigDecimal amount,
+                          TransferType transferType, String merchantId, PaymentMethod paymentMethod,
+                          int riskScore, String type, int movementCount, int accountCount) {
+        this.presentKeys = presentKeys;
+        this.sourceAccount = sourceAccount;
+        this.targetAccount = targetAccount;
+        this.amount = amount;
+        this.transferType = transferType;
+        this.merchantId = merchantId;
+        this.paymentMethod = paymentMethod;
+        this.riskScore = riskScore;
+        this.type = type;
+        this.movementCount = movementCount;
+        this.accountCount = accountCount;
+    }
+
+    /**
+     * Metadatos de una transferencia.
+     */
+    public static AuditMetadata forTransfer(TransferRequest request, int fraudRiskScore) {
+        return new AuditMetadata(TRANSFER_KEYS,
+            request.getSourceAccountNumber(), request.getTargetAccountNumber(), request.getAmount(),
+            request.getTransferType(), null, null, fraudRiskScore, null, 0, 0);
+    }
+
+    /**
+     * Metadatos de un pago.
+     */
+    public static AuditMetadata forPayment(PaymentRequest request, int riskScore) {
+        return new AuditMetadata(PAYMENT_KEYS, null, null, request.getAmount(), null,
+            request.getMerchantId(), request.getPaymentMethod(), riskScore, null, 0, 0);
+    }
+
+    /**
+     * Metadatos de un movimiento sobre una sola cuenta (depósito o retiro).
+     * @param type Tipo de movimiento, por ejemplo "DEPOSIT"
+     * @param amount Monto del movimiento
+     */
+    public static AuditMetadata forMovement(String type, BigDecimal amount) {
+        return new AuditMetadata(MOVEMENT_KEYS, null, null, amount, null, null, null, 0, type, 0, 0);
+    }
+
+    /**
+     * Metadatos de un lote de movimientos sobre varias cuentas.
+     * @param type Tipo de lote, por ejemplo "BULK_DEPOSIT"
+     * @param amount Monto total aplicado
+     * @param movements Movimientos aplicados
+     * @param accounts Cuentas afectadas
+     */
+    public static AuditMetadata forBulkMovement(String type, BigDecimal amount, int movements, int accounts) {
+        return new AuditMetadata(BULK_MOVEMENT_KEYS, null, null, amount, null, null, null, 0, type,
+            movements, accounts);
+    }
+
+    public String getSourceAccount() {
+        return sourceAccount;
+    }
+
+    public String getTargetAccount() {
+        return targetAccount;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public TransferType getTransferType() {
+        return transferType;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    /**
+     * Puntaje de riesgo de la operación (de fraude en transferencias, de riesgo en pagos).
+     */
+    public int getRiskScore() {
+        return riskScore;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getMovementCount() {
+        return movementCount;
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    // ==================== VISTA MAP ====================
+
+    @Override
+    public Object get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(presentKeys);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int remaining = presentKeys;
+
+                        @Override
+                        public boolean hasNext() {
+                            return remaining != 0;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (remaining == 0) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = Integer.numberOfTrailingZeros(remaining);
+                            remaining &= remaining - 1;
+                            return new SimpleImmutableEntry<>(KEYS[index], valueAt(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return AuditMetadata.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if ((presentKeys & (1 << i)) != 0 && KEYS[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object valueAt(int index) {
+        switch (index) {
+            case SOURCE_ACCOUNT:
+                return sourceAccount;
+            case TARGET_ACCOUNT:
+                return targetAccount;
+            case AMOUNT:
+                return amount;
+            case TRANSFER_TYPE:
+                return transferType;
+            case FRAUD_RISK_SCORE:
+            case RISK_SCORE:
+                return riskScore;
+            case MERCHANT_ID:
+                return merchantId;
+            case PAYMENT_METHOD:
+                return paymentMethod;
+            case TYPE:
+                return type;
+            case MOVEMENTS:
+                return movementCount;
+            case ACCOUNTS:
+                return accountCount;
+            default:
+                return null;
+        }
+    }
+
+    private static int bits(int... indexes) {
+        int mask = 0;
+        for (int index : indexes) {
+            mask |= 1 << index;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bancolombia.evaluation.model;
+
+/**
+ * Opciones para ejecutar un lote de transferencias.
+ *
+ * Por defecto el lote se ejecuta en secuencia y con un máximo de 100 transferencias, igual que
+ * siempre; cada opción se activa de forma explícita.
+ */
+public class BatchTransferOptions {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private int parallelism;
+    private int maxBatchSize;
+    private boolean netting;
+
+    public BatchTransferOptions() {
+        this.parallelism = 1;
+        this.maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    }
+
+    /**
+     * Hilos con los que se ejecutan en paralelo las transferencias que no comparten cuentas.
+     * Con 1 el lote se ejecuta en secuencia.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("El paralelismo debe ser mayor a cero");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Máximo de transferencias aceptadas en el lote.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo del lote debe ser mayor a cero");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Liquida el lote por neto: valida fondos contra el efecto neto por cuenta y guarda cada
+     * cuenta una sola vez. La liquidación es todo o nada para las transferencias válidas.
+     */
+    public boolean isNetting() {
+        return netting;
+    }
+
+    public void setNetting(boolean netting) {
+        this.netting = netting;
+    }
+}
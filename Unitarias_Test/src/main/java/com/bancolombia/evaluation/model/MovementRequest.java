@@ -0,0 +1,47 @@
+package com.bancolombia.evaluation.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Request para un depósito o retiro dentro de un lote.
+ */
+public class MovementRequest {
+
+    private String accountNumber;
+    private BigDecimal amount;
+    private String description;
+
+    public MovementRequest() {
+    }
+
+    public MovementRequest(String accountNumber, BigDecimal amount, String description) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.description = description;
+    }
+
+    // Getters y Setters
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
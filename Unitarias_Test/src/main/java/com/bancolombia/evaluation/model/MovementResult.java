@@ -0,0 +1,77 @@
+package com.bancolombia.evaluation.model;
+
+/**
+ * Resultado de un depósito o retiro dentro de un lote.
+ */
+public class MovementResult {
+
+    private MovementRequest request;
+    private boolean successful;
+    private Transaction transaction;
+    private String errorCode;
+    private String message;
+
+    public MovementResult() {
+    }
+
+    public static MovementResult success(MovementRequest request, Transaction transaction) {
+        MovementResult result = new MovementResult();
+        result.request = request;
+        result.successful = true;
+        result.transaction = transaction;
+        return result;
+    }
+
+    public static MovementResult failure(MovementRequest request, String errorCode, String message) {
+        MovementResult result = new MovementResult();
+        result.request = request;
+        result.successful = false;
+        result.errorCode = errorCode;
+        result.message = message;
+        return result;
+    }
+
+    // Getters y Setters
+    public MovementRequest getRequest() {
+        return request;
+    }
+
+    public void setRequest(MovementRequest request) {
+        this.request = request;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    public void setSuccessful(boolean successful) {
+        this.successful = successful;
+    }
+
+    /**
+     * @return Transacción guardada; null si el movimiento falló
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(Transaction transaction) {
+        this.transaction = transaction;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
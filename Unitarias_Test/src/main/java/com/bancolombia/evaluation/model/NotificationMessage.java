@@ -0,0 +1,88 @@
+package com.bancolombia.evaluation.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Mensaje de notificación sin renderizar: una plantilla y sus argumentos tipados.
+ *
+ * El texto final se construye solo al momento de entregar la notificación, reutilizando un
+ * buffer por hilo. Si la notificación se descarta o se agrupa, nunca se renderiza.
+ */
+public final class NotificationMessage {
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+        ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final NotificationTemplate template;
+    private final BigDecimal amount;
+    private final String account;
+    private final String rawTitle;
+    private final String rawBody;
+
+    private NotificationMessage(NotificationTemplate template, BigDecimal amount, String account,
+                                String rawTitle, String rawBody) {
+        this.template = template;
+        this.amount = amount;
+        this.account = account;
+        this.rawTitle = rawTitle;
+        this.rawBody = rawBody;
+    }
+
+    /**
+     * Crea un mensaje a partir de una plantilla.
+     */
+    public static NotificationMessage of(NotificationTemplate template, BigDecimal amount, String account) {
+        if (template == null) {
+            throw new IllegalArgumentException("La plantilla es requerida");
+        }
+        return new NotificationMessage(template, amount, account, null, null);
+    }
+
+    /**
+     * Crea un mensaje con título y cuerpo ya construidos.
+     */
+    public static NotificationMessage raw(String title, String body) {
+        return new NotificationMessage(null, null, null, title, body);
+    }
+
+    public NotificationTemplate getTemplate() {
+        return template;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getTitle() {
+        return template != null ? template.getTitle() : rawTitle;
+    }
+
+    /**
+     * Renderiza el cuerpo del mensaje.
+     * @return Texto del mensaje
+     */
+    public String renderBody() {
+        if (template == null) {
+            return rawBody;
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        template.renderBody(buffer, amount, account);
+        return buffer.toString();
+    }
+
+    /**
+     * Renderiza el cuerpo del mensaje al final del buffer indicado.
+     */
+    public void renderBodyTo(StringBuilder out) {
+        if (template == null) {
+            out.append(rawBody);
+        } else {
+            template.renderBody(out, amount, account);
+        }
+    }
+}
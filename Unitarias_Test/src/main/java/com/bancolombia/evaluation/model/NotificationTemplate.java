@@ -0,0 +1,74 @@
+package com.bancolombia.evaluation.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plantillas de notificación precompiladas.
+ *
+ * Cada plantilla se compila una sola vez al cargar la clase en segmentos literales y
+ * marcadores ({@code {amount}}, {@code {account}}), de modo que renderizar solo copia
+ * segmentos en un buffer.
+ */
+public enum NotificationTemplate {
+    TRANSFER_SENT("Transferencia enviada", "Has enviado {amount} a {account}"),
+    TRANSFER_RECEIVED("Transferencia recibida", "Has recibido {amount} de {account}"),
+    PAYMENT_PROCESSED("Pago procesado", "Tu pago por {amount} ha sido procesado exitosamente"),
+    SECURITY_ALERT("Alerta de seguridad", "Se ha procesado un pago que requiere tu atención"),
+    BULK_DEPOSIT("Depósitos recibidos", "Se acreditaron {amount} en tu cuenta {account}"),
+    BULK_WITHDRAWAL("Retiros procesados", "Se debitaron {amount} de tu cuenta {account}");
+
+    private static final String AMOUNT = "{amount}";
+    private static final String ACCOUNT = "{account}";
+    private static final int SLOT_AMOUNT = 1;
+    private static final int SLOT_ACCOUNT = 2;
+
+    private final String title;
+    private final String[] literals;
+    private final int[] slots;
+
+    NotificationTemplate(String title, String pattern) {
+        this.title = title;
+        List<String> literalList = new ArrayList<>();
+        List<Integer> slotList = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int amountAt = pattern.indexOf(AMOUNT, position);
+            int accountAt = pattern.indexOf(ACCOUNT, position);
+            int next = amountAt < 0 ? accountAt : (accountAt < 0 ? amountAt : Math.min(amountAt, accountAt));
+            if (next < 0) {
+                literalList.add(pattern.substring(position));
+                break;
+            }
+            literalList.add(pattern.substring(position, next));
+            boolean isAmount = next == amountAt;
+            slotList.add(isAmount ? SLOT_AMOUNT : SLOT_ACCOUNT);
+            position = next + (isAmount ? AMOUNT.length() : ACCOUNT.length());
+        }
+        this.literals = literalList.toArray(new String[0]);
+        this.slots = slotList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Escribe el cuerpo de la plantilla en el buffer.
+     * @param out Buffer de destino
+     * @param amount Monto para {@code {amount}}
+     * @param account Cuenta para {@code {account}}
+     */
+    public void renderBody(StringBuilder out, BigDecimal amount, String account) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            if (slots[i] == SLOT_AMOUNT) {
+                out.append(amount);
+            } else {
+                out.append(account);
+            }
+        }
+        out.append(literals[literals.length - 1]);
+    }
+}
@@ -15,6 +15,7 @@ public class PaymentRequest {
     private String description;
     private PaymentMethod paymentMethod;
     private boolean requiresConfirmation;
+    private String idempotencyKey;
 
     public PaymentRequest() {
         this.currency = "COP";
@@ -94,4 +95,16 @@ public class PaymentRequest {
     public void setRequiresConfirmation(boolean requiresConfirmation) {
         this.requiresConfirmation = requiresConfirmation;
     }
+
+    /**
+     * Clave opcional generada por el cliente para identificar la operación. Un reintento con la
+     * misma clave recibe el resultado original en lugar de ejecutarse de nuevo.
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
 }
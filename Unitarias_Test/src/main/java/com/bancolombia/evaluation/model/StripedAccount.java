@@ -0,0 +1,153 @@
+package com.bancolombia.evaluation.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cuenta con saldo particionado para cuentas receptoras muy concurridas (recaudadores, comercios).
+ *
+ * Los créditos se suman sin bloquear a una de N particiones en unidades mínimas (centavos),
+ * elegida por el hilo, de modo que muchos hilos acreditando la misma cuenta no compiten por una
+ * sola variable. Leer el saldo suma la base y las particiones; debitar, fijar el saldo o
+ * {@link #consolidate()} trasladan las particiones a la base bajo el monitor de la cuenta.
+ *
+ * Las lecturas no bloquean: una versión (seqlock) que cambia durante la consolidación les indica
+ * que deben repetir la suma. Los montos con más de dos decimales se acreditan en la base.
+ */
+public class StripedAccount extends Account {
+
+    private static final int MINOR_UNIT_SCALE = 2;
+    /** Longs por línea de caché de 64 bytes, para que dos particiones no compartan línea. */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+    private volatile long version;
+
+    /**
+     * @param source Cuenta cuyos datos y saldo se copian
+     * @param stripeCount Número de particiones; potencia de dos
+     */
+    public StripedAccount(Account source, int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("El número de particiones debe ser potencia de dos");
+        }
+        this.stripes = new AtomicLongArray(stripeCount * PADDING);
+        this.mask = stripeCount - 1;
+        setAccountNumber(source.getAccountNumber());
+        setOwnerName(source.getOwnerName());
+        setOwnerId(source.getOwnerId());
+        setType(source.getType());
+        setStatus(source.getStatus());
+        setCreatedAt(source.getCreatedAt());
+        setLastTransactionAt(source.getLastTransactionAt());
+        super.setBalance(source.getBalance());
+    }
+
+    @Override
+    public BigDecimal getBalance() {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                BigDecimal base = super.getBalance();
+                long pending = pendingMinorUnits();
+                if (version == before) {
+                    return pending == 0 ? base : base.add(BigDecimal.valueOf(pending, MINOR_UNIT_SCALE));
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public synchronized void setBalance(BigDecimal balance) {
+        version++;
+        drain();
+        super.setBalance(balance);
+        version++;
+    }
+
+    @Override
+    public void credit(BigDecimal amount) {
+        long minorUnits = toMinorUnits(amount);
+        if (minorUnits == Long.MIN_VALUE) {
+            synchronized (this) {
+                version++;
+                super.setBalance(super.getBalance().add(amount));
+                version++;
+            }
+            return;
+        }
+        stripes.getAndAdd(stripeIndex(), minorUnits);
+    }
+
+    /**
+     * Debita sobre el saldo consolidado.
+     */
+    @Override
+    public synchronized void debit(BigDecimal amount) {
+        version++;
+        BigDecimal pending = drain();
+        super.setBalance(super.getBalance().add(pending).subtract(amount));
+        version++;
+    }
+
+    @Override
+    public void revert(BigDecimal appliedDelta, BigDecimal previousBalance) {
+        credit(appliedDelta.negate());
+    }
+
+    /**
+     * Traslada las particiones a la base.
+     */
+    public synchronized void consolidate() {
+        version++;
+        super.setBalance(super.getBalance().add(drain()));
+        version++;
+    }
+
+    public int getStripeCount() {
+        return mask + 1;
+    }
+
+    /**
+     * @return Copia como cuenta normal con el saldo actual, para persistirla
+     */
+    public Account snapshot() {
+        Account copy = new Account(getAccountNumber(), getOwnerName(), getOwnerId(), getBalance(), getType());
+        copy.setStatus(getStatus());
+        copy.setCreatedAt(getCreatedAt());
+        copy.setLastTransactionAt(getLastTransactionAt());
+        return copy;
+    }
+
+    private BigDecimal drain() {
+        long drained = 0;
+        for (int i = 0; i <= mask; i++) {
+            drained += stripes.getAndSet(i * PADDING, 0);
+        }
+        return drained == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(drained, MINOR_UNIT_SCALE);
+    }
+
+    private long pendingMinorUnits() {
+        long pending = 0;
+        for (int i = 0; i <= mask; i++) {
+            pending += stripes.get(i * PADDING);
+        }
+        return pending;
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40 & mask) * PADDING;
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
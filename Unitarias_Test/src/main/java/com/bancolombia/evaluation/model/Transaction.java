@@ -19,6 +19,11 @@ public class Transaction {
     private LocalDateTime createdAt;
     private LocalDateTime processedAt;
     private String referenceNumber;
+    private String merchantId;
+    private LocalDateTime scheduledAt;
+    private TransferType transferType;
+    private String executedTransferId;
+    private String errorCode;
 
     public Transaction() {
         this.transactionId = UUID.randomUUID().toString();
@@ -116,6 +121,58 @@ public class Transaction {
         this.referenceNumber = referenceNumber;
     }
 
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    /**
+     * Fecha y hora en que debe ejecutarse una transferencia programada.
+     */
+    public LocalDateTime getScheduledAt() {
+        return scheduledAt;
+    }
+
+    public void setScheduledAt(LocalDateTime scheduledAt) {
+        this.scheduledAt = scheduledAt;
+    }
+
+    /**
+     * Tipo de transferencia con el que debe ejecutarse una transferencia programada.
+     */
+    public TransferType getTransferType() {
+        return transferType;
+    }
+
+    public void setTransferType(TransferType transferType) {
+        this.transferType = transferType;
+    }
+
+    /**
+     * ID de la transferencia que ejecutó esta transferencia programada.
+     */
+    public String getExecutedTransferId() {
+        return executedTransferId;
+    }
+
+    public void setExecutedTransferId(String executedTransferId) {
+        this.executedTransferId = executedTransferId;
+    }
+
+    /**
+     * Código del error con que falló la transacción.
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
     @Override
     public String toString() {
         return "Transaction{" +
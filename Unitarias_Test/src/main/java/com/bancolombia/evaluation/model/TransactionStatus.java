@@ -7,6 +7,11 @@ public enum TransactionStatus {
     PENDING,
     PROCESSING,
     COMPLETED,
+    /**
+     * Programación ya ejecutada. No es un movimiento contable: el movimiento es la transferencia
+     * enlazada en {@link Transaction#getExecutedTransferId()}.
+     */
+    EXECUTED,
     FAILED,
     CANCELLED,
     REVERSED
@@ -14,6 +14,7 @@ public class TransferRequest {
     private TransferType transferType;
     private boolean isScheduled;
     private String scheduledDate;
+    private String idempotencyKey;
 
     public TransferRequest() {
         this.transferType = TransferType.SAME_BANK;
@@ -85,4 +86,16 @@ public class TransferRequest {
     public void setScheduledDate(String scheduledDate) {
         this.scheduledDate = scheduledDate;
     }
+
+    /**
+     * Clave opcional generada por el cliente para identificar la operación. Un reintento con la
+     * misma clave recibe el resultado original en lugar de ejecutarse de nuevo.
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
 }
@@ -0,0 +1,371 @@
+package com.bancolombia.evaluation.notification;
+
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.metrics.LatencyHistogram;
+import com.bancolombia.evaluation.model.NotificationMessage;
+import com.bancolombia.evaluation.model.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Decorador asíncrono de {@link NotificationService}.
+ *
+ * Las notificaciones se encolan en una cola acotada y las entregan hilos propios, de modo que
+ * quien llama nunca espera por el proveedor de notificaciones. Los métodos devuelven true si
+ * la notificación fue aceptada, no si fue entregada.
+ *
+ * Las notificaciones push de un mismo usuario dentro de la ventana de agrupación se combinan
+ * en un único resumen. Cuando la cola está llena se aplica la {@link OverflowPolicy}.
+ *
+ * Los {@link NotificationMessage} se renderizan en el hilo de entrega, por lo que las
+ * notificaciones descartadas o agrupadas más allá del resumen nunca construyen su texto.
+ */
+public class AsyncNotificationDispatcher implements NotificationService, AutoCloseable {
+
+    public enum OverflowPolicy {
+        /** Descarta la notificación nueva. */
+        DROP_NEWEST,
+        /** Descarta la notificación más antigua de la cola para hacer espacio. */
+        DROP_OLDEST
+    }
+
+    private static final int MAX_DIGEST_LINES = 5;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final NotificationService delegate;
+    private final BlockingQueue<Delivery> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long coalesceWindowMillis;
+    private final Map<String, PushDigest> pendingPushes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService coalescer;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LatencyHistogram deliveryLatency = new LatencyHistogram();
+
+    public AsyncNotificationDispatcher(NotificationService delegate) {
+        this(delegate, 10_000, 2, Duration.ofSeconds(1), OverflowPolicy.DROP_OLDEST);
+    }
+
+    public AsyncNotificationDispatcher(NotificationService delegate, int queueCapacity, int workerCount,
+                                       Duration coalesceWindow, OverflowPolicy overflowPolicy) {
+        if (delegate == null || overflowPolicy == null) {
+            throw new IllegalArgumentException("El servicio de notificaciones y la política son requeridos");
+        }
+        if (queueCapacity <= 0 || workerCount <= 0) {
+            throw new IllegalArgumentException("La capacidad y el número de hilos deben ser mayores a cero");
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.coalesceWindowMillis = coalesceWindow == null ? 0 : coalesceWindow.toMillis();
+        this.coalescer = Executors.newSingleThreadScheduledExecutor(
+            daemonFactory("notification-coalescer"));
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = daemonFactory("notification-dispatcher-" + i).newThread(this::runWorker);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public boolean sendEmail(String email, String subject, String body) {
+        return enqueue(service -> service.sendEmail(email, subject, body));
+    }
+
+    @Override
+    public boolean sendSms(String phoneNumber, String message) {
+        return enqueue(service -> service.sendSms(phoneNumber, message));
+    }
+
+    @Override
+    public boolean sendPushNotification(String userId, String title, String message) {
+        return sendPushNotification(userId, NotificationMessage.raw(title, message));
+    }
+
+    @Override
+    public boolean sendPushNotification(String userId, NotificationMessage message) {
+        if (!accepting) {
+            dropped.increment();
+            return false;
+        }
+        if (coalesceWindowMillis <= 0 || userId == null) {
+            return enqueue(service -> deliverPush(service, userId, message));
+        }
+        boolean[] created = new boolean[1];
+        pendingPushes.compute(userId, (key, digest) -> {
+            if (digest == null) {
+                created[0] = true;
+                digest = new PushDigest(System.nanoTime());
+            } else {
+                coalesced.increment();
+            }
+            digest.add(message);
+            return digest;
+        });
+        accepted.increment();
+        if (created[0]) {
+            try {
+                coalescer.schedule(() -> flushDigest(userId), coalesceWindowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Cierre en curso: se envía sin esperar la ventana
+                flushDigest(userId);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void notifyTransactionCompleted(Transaction transaction) {
+        enqueue(service -> service.notifyTransactionCompleted(transaction));
+    }
+
+    /**
+     * Deja de aceptar notificaciones, envía los resúmenes pendientes y espera a que la cola
+     * se vacíe durante el tiempo indicado.
+     * @return true si todo se entregó dentro del tiempo
+     */
+    public boolean shutdown(Duration timeout) {
+        accepting = false;
+        coalescer.shutdownNow();
+        for (String userId : new ArrayList<>(pendingPushes.keySet())) {
+            flushDigest(userId);
+        }
+        running = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Thread worker : workers) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                break;
+            }
+            try {
+                worker.join(remainingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return queue.isEmpty() && workers.stream().noneMatch(Thread::isAlive);
+    }
+
+    @Override
+    public void close() {
+        shutdown(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Obtiene las métricas actuales del despachador.
+     */
+    public DispatcherStats getStats() {
+        return new DispatcherStats(accepted.sum(), delivered.sum(), failed.sum(), dropped.sum(),
+            coalesced.sum(), queue.size(), deliveryLatency.getAverageMicros(),
+            deliveryLatency.getPercentileMicros(99), deliveryLatency.getMaxMicros());
+    }
+
+    // ==================== ENCOLAMIENTO Y ENTREGA ====================
+
+    private boolean enqueue(Consumer<NotificationService> action) {
+        if (!accepting) {
+            dropped.increment();
+            return false;
+        }
+        accepted.increment();
+        return offer(new Delivery(System.nanoTime(), action));
+    }
+
+    private boolean offer(Delivery delivery) {
+        if (queue.offer(delivery)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+            dropped.increment();
+            return false;
+        }
+        while (!queue.offer(delivery)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+        return true;
+    }
+
+    private void flushDigest(String userId) {
+        PushDigest digest = pendingPushes.remove(userId);
+        if (digest == null) {
+            return;
+        }
+        offer(new Delivery(digest.firstEnqueuedAtNanos, service -> digest.deliver(service, userId)));
+    }
+
+    private static boolean deliverPush(NotificationService service, String userId, NotificationMessage message) {
+        return service.sendPushNotification(userId, message.getTitle(), message.renderBody());
+    }
+
+    private void runWorker() {
+        while (running || !queue.isEmpty()) {
+            Delivery delivery;
+            try {
+                delivery = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (delivery == null) {
+                continue;
+            }
+            try {
+                delivery.action.accept(delegate);
+                delivered.increment();
+            } catch (RuntimeException e) {
+                // Las notificaciones no son críticas: se cuentan y se continúa
+                failed.increment();
+            } finally {
+                deliveryLatency.recordNanos(System.nanoTime() - delivery.enqueuedAtNanos);
+            }
+        }
+    }
+
+    private static ThreadFactory daemonFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    private static final class Delivery {
+        private final long enqueuedAtNanos;
+        private final Consumer<NotificationService> action;
+
+        private Delivery(long enqueuedAtNanos, Consumer<NotificationService> action) {
+            this.enqueuedAtNanos = enqueuedAtNanos;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Notificaciones push de un usuario acumuladas durante la ventana de agrupación.
+     * Guarda los mensajes sin renderizar; solo se renderizan los que aparecen en el resumen.
+     */
+    private static final class PushDigest {
+        private final long firstEnqueuedAtNanos;
+        private final List<NotificationMessage> messages = new ArrayList<>(MAX_DIGEST_LINES);
+        private int count;
+
+        private PushDigest(long firstEnqueuedAtNanos) {
+            this.firstEnqueuedAtNanos = firstEnqueuedAtNanos;
+        }
+
+        private void add(NotificationMessage message) {
+            count++;
+            if (messages.size() < MAX_DIGEST_LINES) {
+                messages.add(message);
+            }
+        }
+
+        private void deliver(NotificationService service, String userId) {
+            if (count == 1) {
+                deliverPush(service, userId, messages.get(0));
+                return;
+            }
+            StringBuilder builder = new StringBuilder();
+            for (NotificationMessage message : messages) {
+                if (builder.length() > 0) {
+                    builder.append('\n');
+                }
+                message.renderBodyTo(builder);
+            }
+            if (count > messages.size()) {
+                builder.append("\ny ").append(count - messages.size()).append(" más");
+            }
+            service.sendPushNotification(userId, "Tienes " + count + " notificaciones nuevas",
+                builder.toString());
+        }
+    }
+
+    /**
+     * Métricas del despachador de notificaciones.
+     */
+    public static class DispatcherStats {
+        private final long accepted;
+        private final long delivered;
+        private final long failed;
+        private final long dropped;
+        private final long coalesced;
+        private final int queueSize;
+        private final long averageLatencyMicros;
+        private final long p99LatencyMicros;
+        private final long maxLatencyMicros;
+
+        public DispatcherStats(long accepted, long delivered, long failed, long dropped, long coalesced,
+                               int queueSize, long averageLatencyMicros, long p99LatencyMicros,
+                               long maxLatencyMicros) {
+            this.accepted = accepted;
+            this.delivered = delivered;
+            this.failed = failed;
+            this.dropped = dropped;
+            this.coalesced = coalesced;
+            this.queueSize = queueSize;
+            this.averageLatencyMicros = averageLatencyMicros;
+            this.p99LatencyMicros = p99LatencyMicros;
+            this.maxLatencyMicros = maxLatencyMicros;
+        }
+
+        public long getAccepted() {
+            return accepted;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public long getAverageLatencyMicros() {
+            return averageLatencyMicros;
+        }
+
+        public long getP99LatencyMicros() {
+            return p99LatencyMicros;
+        }
+
+        public long getMaxLatencyMicros() {
+            return maxLatencyMicros;
+        }
+    }
+}
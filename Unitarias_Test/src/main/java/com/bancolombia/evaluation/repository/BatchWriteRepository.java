@@ -0,0 +1,26 @@
+package com.bancolombia.evaluation.repository;
+
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Capacidad opcional de un repositorio para escribir cuentas y transacciones en una sola
+ * operación atómica sobre el almacenamiento que comparten.
+ *
+ * La implementa el repositorio de cuentas (o el de transacciones) cuando ambos persisten en el
+ * mismo almacenamiento; {@link UnitOfWork} la detecta y la usa en lugar de las escrituras
+ * individuales.
+ */
+public interface BatchWriteRepository {
+
+    /**
+     * Persiste todas las cuentas y transacciones en una sola escritura: o se aplican todas o
+     * ninguna.
+     * @param accounts Cuentas a actualizar
+     * @param transactions Transacciones a guardar
+     * @return Transacciones guardadas, en el mismo orden recibido
+     */
+    List<Transaction> commitBatch(List<Account> accounts, List<Transaction> transactions);
+}
@@ -0,0 +1,133 @@
+package com.bancolombia.evaluation.repository;
+
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.StripedAccount;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Decorador de {@link AccountRepository} que activa el saldo particionado para un conjunto de
+ * cuentas muy concurridas.
+ *
+ * Las cuentas configuradas se cargan una vez como {@link StripedAccount} y se entregan siempre
+ * como la misma instancia, de modo que los créditos concurrentes de
+ * {@code TransferOrchestrator.executeTransfer} o {@code TransactionService.processDeposit} caen
+ * en particiones distintas en lugar de competir por el mismo saldo. Al guardarlas se persiste una
+ * copia normal con el saldo total. Las demás cuentas pasan directo al repositorio decorado.
+ */
+public class StripedBalanceAccountRepository implements AccountRepository, AutoCloseable {
+
+    private final AccountRepository delegate;
+    private final Set<String> hotAccountNumbers;
+    private final int stripeCount;
+    private final Map<String, StripedAccount> hotAccounts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService consolidator;
+
+    /**
+     * @param hotAccountNumbers Cuentas que usan saldo particionado
+     * @param stripeCount Particiones por cuenta; potencia de dos, del orden de los núcleos
+     */
+    public StripedBalanceAccountRepository(AccountRepository delegate, Set<String> hotAccountNumbers,
+                                           int stripeCount) {
+        if (delegate == null || hotAccountNumbers == null) {
+            throw new IllegalArgumentException("El repositorio y las cuentas particionadas son requeridos");
+        }
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("El número de particiones debe ser potencia de dos");
+        }
+        this.delegate = delegate;
+        this.hotAccountNumbers = Set.copyOf(hotAccountNumbers);
+        this.stripeCount = stripeCount;
+    }
+
+    /**
+     * Consolida periódicamente las particiones de las cuentas cargadas.
+     */
+    public synchronized void startConsolidation(Duration interval) {
+        if (consolidator != null) {
+            throw new IllegalStateException("La consolidación ya fue iniciada");
+        }
+        consolidator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "striped-balance-consolidator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        consolidator.scheduleWithFixedDelay(this::consolidate, interval.toMillis(), interval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Traslada a la base las particiones de todas las cuentas cargadas y guarda su saldo. Como
+     * los guardados concurrentes pueden llegar en desorden, esto también asegura que el saldo
+     * persistido alcance al de memoria.
+     */
+    public void consolidate() {
+        for (StripedAccount account : hotAccounts.values()) {
+            account.consolidate();
+            try {
+                delegate.save(account.snapshot());
+            } catch (RuntimeException e) {
+                // Se reintenta en la siguiente consolidación
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (consolidator != null) {
+            consolidator.shutdownNow();
+        }
+    }
+
+    @Override
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        if (!hotAccountNumbers.contains(accountNumber)) {
+            return delegate.findByAccountNumber(accountNumber);
+        }
+        StripedAccount account = hotAccounts.get(accountNumber);
+        if (account == null) {
+            account = hotAccounts.computeIfAbsent(accountNumber, number -> delegate.findByAccountNumber(number)
+                .map(loaded -> new StripedAccount(loaded, stripeCount))
+                .orElse(null));
+        }
+        return Optional.ofNullable(account);
+    }
+
+    @Override
+    public List<Account> findByOwnerId(String ownerId) {
+        return delegate.findByOwnerId(ownerId).stream()
+            .map(account -> {
+                StripedAccount hot = hotAccounts.get(account.getAccountNumber());
+                return hot != null ? hot : account;
+            })
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Account save(Account account) {
+        if (account instanceof StripedAccount) {
+            delegate.save(((StripedAccount) account).snapshot());
+            return account;
+        }
+        return delegate.save(account);
+    }
+
+    @Override
+    public boolean existsByAccountNumber(String accountNumber) {
+        return delegate.existsByAccountNumber(accountNumber);
+    }
+
+    @Override
+    public int countByOwnerId(String ownerId) {
+        return delegate.countByOwnerId(ownerId);
+    }
+}
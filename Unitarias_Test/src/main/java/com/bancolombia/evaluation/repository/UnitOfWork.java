@@ -0,0 +1,123 @@
+package com.bancolombia.evaluation.repository;
+
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unidad de trabajo: acumula las actualizaciones de cuentas y las transacciones de una operación
+ * y las persiste juntas al confirmar.
+ *
+ * Si alguno de los repositorios implementa {@link BatchWriteRepository}, la confirmación es una
+ * única escritura atómica; si ambos lo hacen se usa el de transacciones, para que los decoradores
+ * que observan las transacciones guardadas también vean las del lote. Si no, se guardan una a una en el orden de registro (primero las
+ * cuentas, luego las transacciones) y {@link #isApplied(Account)} indica qué cuentas alcanzaron a
+ * persistirse cuando la confirmación falla a mitad de camino, para poder compensarlas.
+ *
+ * No es segura para uso concurrente; se crea una por operación.
+ */
+public class UnitOfWork {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final BatchWriteRepository batchWriter;
+    private final List<Account> accounts = new ArrayList<>(2);
+    private final List<Transaction> transactions = new ArrayList<>(2);
+    private int appliedAccounts;
+    private boolean committed;
+
+    public UnitOfWork(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        if (transactionRepository instanceof BatchWriteRepository) {
+            this.batchWriter = (BatchWriteRepository) transactionRepository;
+        } else if (accountRepository instanceof BatchWriteRepository) {
+            this.batchWriter = (BatchWriteRepository) accountRepository;
+        } else {
+            this.batchWriter = null;
+        }
+    }
+
+    /**
+     * Registra una cuenta modificada. Registrar dos veces la misma instancia no duplica la escritura.
+     */
+    public UnitOfWork registerAccount(Account account) {
+        ensureOpen();
+        if (account == null) {
+            throw new IllegalArgumentException("La cuenta es requerida");
+        }
+        for (Account registered : accounts) {
+            if (registered == account) {
+                return this;
+            }
+        }
+        accounts.add(account);
+        return this;
+    }
+
+    /**
+     * Registra una transacción nueva o modificada.
+     */
+    public UnitOfWork registerTransaction(Transaction transaction) {
+        ensureOpen();
+        if (transaction == null) {
+            throw new IllegalArgumentException("La transacción es requerida");
+        }
+        transactions.add(transaction);
+        return this;
+    }
+
+    /**
+     * Persiste todo lo registrado.
+     * @return Transacciones guardadas, en el orden en que se registraron
+     */
+    public List<Transaction> commit() {
+        ensureOpen();
+        committed = true;
+        if (batchWriter != null) {
+            List<Transaction> saved = batchWriter.commitBatch(
+                Collections.unmodifiableList(accounts), Collections.unmodifiableList(transactions));
+            appliedAccounts = accounts.size();
+            return saved;
+        }
+
+        for (Account account : accounts) {
+            accountRepository.save(account);
+            appliedAccounts++;
+        }
+        List<Transaction> saved = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            saved.add(transactionRepository.save(transaction));
+        }
+        return saved;
+    }
+
+    /**
+     * @return true si la confirmación se hace en una sola escritura atómica
+     */
+    public boolean isAtomic() {
+        return batchWriter != null;
+    }
+
+    /**
+     * Indica si la cuenta quedó persistida. Tras un fallo de una confirmación atómica siempre es
+     * false; en el modo de escrituras individuales lo es para las cuentas guardadas antes del fallo.
+     */
+    public boolean isApplied(Account account) {
+        for (int i = 0; i < appliedAccounts; i++) {
+            if (accounts.get(i) == account) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureOpen() {
+        if (committed) {
+            throw new IllegalStateException("La unidad de trabajo ya fue confirmada");
+        }
+    }
+}
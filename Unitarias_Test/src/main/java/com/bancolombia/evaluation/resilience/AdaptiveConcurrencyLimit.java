@@ -0,0 +1,140 @@
+package com.bancolombia.evaluation.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Límite de concurrencia que se ajusta según la latencia observada, con el esquema de gradiente.
+ *
+ * Las muestras se agrupan en ventanas de tiempo. La latencia promedio de la última ventana
+ * refleja la situación actual y un promedio móvil de unas 600 ventanas sirve de línea base; se
+ * mide en ventanas y no en solicitudes para que la línea base abarque el mismo tiempo sin
+ * importar el tráfico. El cociente entre las dos es el gradiente: cerca de 1 mientras la
+ * latencia se mantiene y menor a 1 cuando crece porque las solicitudes empiezan a hacer cola en
+ * alguna dependencia. Al cerrar cada ventana el límite se acerca a
+ * {@code limite * gradiente + sqrt(limite)}: con latencia estable crece de a poco para
+ * descubrir capacidad, y cuando la latencia sube baja en proporción.
+ *
+ * El límite solo crece si en la ventana llegó a usarse al menos la mitad, para no inflarlo
+ * mientras hay poca carga. Si la línea base queda muy por encima de la latencia actual (por ejemplo, tras un
+ * incidente), decae para que el límite vuelva a subir.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int LONG_WINDOWS = 600;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long sampleWindowMillis;
+    private final Clock clock;
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+    private long windows;
+
+    private long windowStartMillis;
+    private long windowRttSumNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    /**
+     * Crea un límite con ventanas de 100 ms.
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, Duration.ofMillis(100), Clock.systemUTC());
+    }
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration sampleWindow,
+                                    Clock clock) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Se requiere 0 < mínimo <= inicial <= máximo");
+        }
+        if (sampleWindow == null || sampleWindow.isNegative() || sampleWindow.isZero()) {
+            throw new IllegalArgumentException("La ventana de muestreo debe ser positiva");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.sampleWindowMillis = sampleWindow.toMillis();
+        this.clock = clock;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowStartMillis = clock.millis();
+    }
+
+    /**
+     * Registra la latencia de una solicitud terminada; si la ventana actual ya terminó,
+     * recalcula el límite.
+     * @param rttNanos Duración de la solicitud
+     * @param inFlight Solicitudes en curso cuando empezó
+     */
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        windowRttSumNanos += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        long now = clock.millis();
+        if (now - windowStartMillis < sampleWindowMillis) {
+            return;
+        }
+        double rtt = (double) windowRttSumNanos / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowStartMillis = now;
+        windowRttSumNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        update(rtt, maxInFlight);
+    }
+
+    private void update(double rttNanos, int maxInFlight) {
+        shortRttNanos = rttNanos;
+        if (windows++ == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / Math.min(windows, LONG_WINDOWS);
+        }
+        if (longRttNanos > shortRttNanos * 2) {
+            longRttNanos *= 0.95;
+        }
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @return Latencia promedio de la última ventana en milisegundos, 0 si no hay muestras
+     */
+    public synchronized double getShortRttMillis() {
+        return shortRttNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return Latencia de referencia en milisegundos, 0 si no hay muestras
+     */
+    public synchronized double getLongRttMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.bancolombia.evaluation.resilience;
+
+import com.bancolombia.evaluation.exception.BankingException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión en la entrada de los servicios.
+ *
+ * Admite solicitudes mientras las que están en curso no superen el
+ * {@link AdaptiveConcurrencyLimit} y rechaza las demás de inmediato con {@link BankingException}
+ * {@code SYSTEM_BUSY}, sin encolarlas: cuando una dependencia se degrada, las solicitudes de más
+ * solo acumularían hilos y memoria esperando. La latencia de cada solicitud admitida alimenta
+ * el límite.
+ *
+ * Cada prioridad puede ocupar hasta una fracción del límite, así que al acercarse a la
+ * saturación se rechaza primero el trabajo masivo, luego el normal y por último el crítico.
+ */
+public class AdmissionController {
+
+    public enum Priority {
+        /** Transferencias entre cuentas del banco y pagos pequeños. */
+        CRITICAL(1.0),
+        NORMAL(0.8),
+        /** Lotes y trabajo masivo. */
+        BULK(0.5);
+
+        private final double limitShare;
+
+        Priority(double limitShare) {
+            this.limitShare = limitShare;
+        }
+
+        /**
+         * @return Fracción del límite que pueden ocupar las solicitudes en curso para admitir una
+         *         de esta prioridad
+         */
+        public double getLimitShare() {
+            return limitShare;
+        }
+    }
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, LongAdder> admitted = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> rejected = new EnumMap<>(Priority.class);
+
+    public AdmissionController(AdaptiveConcurrencyLimit limit) {
+        if (limit == null) {
+            throw new IllegalArgumentException("El límite de concurrencia es requerido");
+        }
+        this.limit = limit;
+        for (Priority priority : Priority.values()) {
+            admitted.put(priority, new LongAdder());
+            rejected.put(priority, new LongAdder());
+        }
+    }
+
+    /**
+     * Ejecuta la llamada si hay cupo para su prioridad y registra su latencia en el límite.
+     * @throws BankingException SYSTEM_BUSY si no hay cupo; la llamada no se ejecuta
+     */
+    public <T> T execute(Priority priority, Supplier<T> call) {
+        return execute(priority, true, call);
+    }
+
+    /**
+     * @param sampleLatency false para llamadas cuya duración no es comparable con la de una
+     *                      solicitud individual, como los lotes
+     */
+    public <T> T execute(Priority priority, boolean sampleLatency, Supplier<T> call) {
+        int startInFlight = acquire(priority);
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            release(sampleLatency, start, startInFlight);
+        }
+    }
+
+    /**
+     * Igual que {@link #execute(Priority, boolean, Supplier)} para llamadas asíncronas: el cupo se
+     * ocupa hasta que el futuro retornado termina, no solo mientras se invoca la llamada.
+     * @throws BankingException SYSTEM_BUSY si no hay cupo; la llamada no se ejecuta
+     */
+    public <T> CompletableFuture<T> executeAsync(Priority priority, boolean sampleLatency,
+                                                 Supplier<CompletableFuture<T>> call) {
+        int startInFlight = acquire(priority);
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException | Error e) {
+            release(sampleLatency, start, startInFlight);
+            throw e;
+        }
+        return future.whenComplete((result, error) -> release(sampleLatency, start, startInFlight));
+    }
+
+    public AdmissionStats getStats() {
+        Map<Priority, Long> admittedCounts = new EnumMap<>(Priority.class);
+        Map<Priority, Long> rejectedCounts = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            admittedCounts.put(priority, admitted.get(priority).sum());
+            rejectedCounts.put(priority, rejected.get(priority).sum());
+        }
+        return new AdmissionStats(limit.getLimit(), inFlight.get(), admittedCounts, rejectedCounts);
+    }
+
+    private int acquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit.getLimit() * priority.getLimitShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                throw new BankingException("SYSTEM_BUSY",
+                    "El sistema está ocupado, intente de nuevo en unos momentos");
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.get(priority).increment();
+                return current + 1;
+            }
+        }
+    }
+
+    private void release(boolean sampleLatency, long start, int startInFlight) {
+        inFlight.decrementAndGet();
+        if (sampleLatency) {
+            limit.onSample(System.nanoTime() - start, startInFlight);
+        }
+    }
+
+    // ==================== CLASE INTERNA ====================
+
+    /**
+     * Métricas del control de admisión.
+     */
+    public static class AdmissionStats {
+        private final int limit;
+        private final int inFlight;
+        private final Map<Priority, Long> admitted;
+        private final Map<Priority, Long> rejected;
+
+        public AdmissionStats(int limit, int inFlight, Map<Priority, Long> admitted,
+                              Map<Priority, Long> rejected) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.admitted = admitted;
+            this.rejected = rejected;
+        }
+
+        /**
+         * @return Límite de concurrencia vigente
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public long getAdmitted(Priority priority) {
+            return admitted.getOrDefault(priority, 0L);
+        }
+
+        /**
+         * @return Solicitudes rechazadas con SYSTEM_BUSY
+         */
+        public long getRejected(Priority priority) {
+            return rejected.getOrDefault(priority, 0L);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.bancolombia.evaluation.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita el número de llamadas concurrentes hacia una dependencia.
+ *
+ * Las llamadas que no consiguen cupo dentro de {@code maxWait} se rechazan de inmediato,
+ * para que los hilos de atención no se acumulen esperando a una dependencia degradada.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int maxConcurrentCalls, Duration maxWait) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("El máximo de llamadas concurrentes debe ser mayor a cero");
+        }
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = maxWait == null ? 0 : maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * Intenta obtener cupo para una llamada.
+     * @return true si se obtuvo cupo; debe liberarse con {@link #release()}
+     */
+    public boolean tryAcquire() {
+        if (maxWaitNanos <= 0) {
+            return permits.tryAcquire();
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,221 @@
+package com.bancolombia.evaluation.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Circuit breaker por tasa de error y de llamadas lentas sobre las últimas N llamadas.
+ *
+ * <ul>
+ *   <li>CLOSED: las llamadas pasan y se registra su resultado.</li>
+ *   <li>OPEN: las llamadas se rechazan sin ejecutarse hasta que pasa {@code openDuration}.</li>
+ *   <li>HALF_OPEN: se permiten unas pocas llamadas de prueba; si todas salen bien se cierra,
+ *       si alguna falla se vuelve a abrir.</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdNanos;
+    private final double slowCallRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenPermits;
+    private final Clock clock;
+    private final List<BiConsumer<State, State>> listeners = new CopyOnWriteArrayList<>();
+
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int recordedCalls;
+    private int nextIndex;
+    private int failures;
+    private int slow;
+
+    private State state = State.CLOSED;
+    private long openedAtMillis;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    private long transitions;
+
+    /**
+     * Crea un breaker con valores por defecto: ventana de 50 llamadas, mínimo 20,
+     * 50% de errores o de llamadas lentas (más de 2 segundos), 30 segundos abierto
+     * y 5 llamadas de prueba.
+     */
+    public CircuitBreaker(String name) {
+        this(name, 50, 20, 0.5, Duration.ofSeconds(2), 0.5, Duration.ofSeconds(30), 5,
+            Clock.systemUTC());
+    }
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration slowCallThreshold, double slowCallRateThreshold,
+                          Duration openDuration, int halfOpenPermits, Clock clock) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize || halfOpenPermits <= 0) {
+            throw new IllegalArgumentException("Configuración inválida del circuit breaker");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1
+            || slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+            throw new IllegalArgumentException("Las tasas deben estar entre 0 y 1");
+        }
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationMillis = openDuration.toMillis();
+        this.halfOpenPermits = halfOpenPermits;
+        this.clock = clock;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    /**
+     * Registra un listener que se invoca en cada cambio de estado (anterior, nuevo).
+     */
+    public void addStateListener(BiConsumer<State, State> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Intenta obtener permiso para ejecutar una llamada.
+     * @return false si el circuito está abierto o no quedan llamadas de prueba
+     */
+    public boolean tryAcquirePermission() {
+        State from;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN) {
+                if (clock.millis() - openedAtMillis < openDurationMillis) {
+                    return false;
+                }
+                from = transitionTo(State.HALF_OPEN);
+            } else {
+                from = null;
+            }
+            if (halfOpenInFlight + halfOpenSucceeded >= halfOpenPermits) {
+                notifyOutsideLock(from, State.HALF_OPEN);
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        notifyOutsideLock(from, State.HALF_OPEN);
+        return true;
+    }
+
+    /**
+     * Registra una llamada exitosa.
+     * @param durationNanos Duración de la llamada
+     */
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos >= slowCallThresholdNanos);
+    }
+
+    /**
+     * Registra una llamada fallida.
+     * @param durationNanos Duración de la llamada
+     */
+    public void onError(long durationNanos) {
+        record(true, durationNanos >= slowCallThresholdNanos);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized long getTransitions() {
+        return transitions;
+    }
+
+    public synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0.0 : (double) failures / recordedCalls;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recordedCalls == 0 ? 0.0 : (double) slow / recordedCalls;
+    }
+
+    private void record(boolean failed, boolean slowCall) {
+        State from = null;
+        State to = null;
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+                if (failed || slowCall) {
+                    from = transitionTo(State.OPEN);
+                    to = State.OPEN;
+                } else if (++halfOpenSucceeded >= halfOpenPermits) {
+                    from = transitionTo(State.CLOSED);
+                    to = State.CLOSED;
+                }
+            } else if (state == State.CLOSED) {
+                addToWindow(failed, slowCall);
+                if (recordedCalls >= minimumCalls
+                    && ((double) failures / recordedCalls >= failureRateThreshold
+                        || (double) slow / recordedCalls >= slowCallRateThreshold)) {
+                    from = transitionTo(State.OPEN);
+                    to = State.OPEN;
+                }
+            }
+        }
+        notifyOutsideLock(from, to);
+    }
+
+    private void addToWindow(boolean failed, boolean slowCall) {
+        if (recordedCalls == windowSize) {
+            if (failedCalls[nextIndex]) failures--;
+            if (slowCalls[nextIndex]) slow--;
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextIndex] = failed;
+        slowCalls[nextIndex] = slowCall;
+        if (failed) failures++;
+        if (slowCall) slow++;
+        nextIndex = (nextIndex + 1) % windowSize;
+    }
+
+    private State transitionTo(State newState) {
+        State previous = state;
+        state = newState;
+        transitions++;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (newState == State.OPEN) {
+            openedAtMillis = clock.millis();
+        }
+        if (newState == State.CLOSED) {
+            recordedCalls = 0;
+            nextIndex = 0;
+            failures = 0;
+            slow = 0;
+        }
+        return previous;
+    }
+
+    private void notifyOutsideLock(State from, State to) {
+        if (from == null || to == null) {
+            return;
+        }
+        for (BiConsumer<State, State> listener : listeners) {
+            listener.accept(from, to);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.bancolombia.evaluation.runtime;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.resilience.Bulkhead;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptador de una dependencia bloqueante (repositorio o servicio externo) para ejecutarla desde
+ * hilos virtuales.
+ *
+ * Con hilos virtuales ya no hay un pool que limite cuántas solicitudes llegan a la vez a la base
+ * de datos o a un servicio externo: cada solicitud tiene su hilo. El adaptador implementa la misma
+ * interfaz que la dependencia y pide cupo a un {@link Bulkhead} antes de cada llamada. Un hilo
+ * virtual que espera cupo se desmonta de su portador, así que la espera no consume hilos de
+ * plataforma. Si no hay cupo dentro de la espera del bulkhead, la llamada falla con
+ * {@link BankingException} {@code DEPENDENCY_BUSY}.
+ *
+ * Los métodos de {@link Object} se delegan sin pedir cupo.
+ */
+public class BlockingDependencyAdapter<T> {
+
+    private final String name;
+    private final Bulkhead bulkhead;
+    private final T proxy;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakConcurrency = new AtomicInteger();
+
+    private BlockingDependencyAdapter(Class<T> type, T delegate, Bulkhead bulkhead) {
+        this.name = bulkhead.getName() != null ? bulkhead.getName() : type.getSimpleName();
+        this.bulkhead = bulkhead;
+        InvocationHandler handler = (target, method, args) -> invoke(delegate, method, args);
+        this.proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * @param type Interfaz de la dependencia, por ejemplo {@code AccountRepository.class}
+     * @param delegate Implementación bloqueante real
+     * @param bulkhead Cupo de llamadas concurrentes hacia la dependencia
+     */
+    public static <T> BlockingDependencyAdapter<T> wrap(Class<T> type, T delegate, Bulkhead bulkhead) {
+        if (type == null || !type.isInterface()) {
+            throw new IllegalArgumentException("El tipo de la dependencia debe ser una interfaz");
+        }
+        if (delegate == null || bulkhead == null) {
+            throw new IllegalArgumentException("La dependencia y el bulkhead son requeridos");
+        }
+        return new BlockingDependencyAdapter<>(type, delegate, bulkhead);
+    }
+
+    /**
+     * @return La dependencia limitada, para inyectarla en los servicios
+     */
+    public T get() {
+        return proxy;
+    }
+
+    public DependencyStats getStats() {
+        return new DependencyStats(name, bulkhead.getMaxConcurrentCalls(), calls.sum(), rejected.sum(),
+            peakConcurrency.get());
+    }
+
+    private Object invoke(T delegate, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return call(delegate, method, args);
+        }
+        if (!bulkhead.tryAcquire()) {
+            rejected.increment();
+            throw new BankingException("DEPENDENCY_BUSY",
+                "La dependencia " + name + " no tiene cupo para más llamadas concurrentes");
+        }
+        calls.increment();
+        peakConcurrency.accumulateAndGet(active.incrementAndGet(), Math::max);
+        try {
+            return call(delegate, method, args);
+        } finally {
+            active.decrementAndGet();
+            bulkhead.release();
+        }
+    }
+
+    private static Object call(Object delegate, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ==================== CLASE INTERNA ====================
+
+    /**
+     * Métricas de uso de una dependencia limitada.
+     */
+    public static class DependencyStats {
+        private final String name;
+        private final int maxConcurrentCalls;
+        private final long calls;
+        private final long rejected;
+        private final int peakConcurrency;
+
+        public DependencyStats(String name, int maxConcurrentCalls, long calls, long rejected,
+                               int peakConcurrency) {
+            this.name = name;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.calls = calls;
+            this.rejected = rejected;
+            this.peakConcurrency = peakConcurrency;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        /**
+         * @return Llamadas que obtuvieron cupo y llegaron a la dependencia
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * @return Llamadas rechazadas con DEPENDENCY_BUSY
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return Máximo de llamadas simultáneas observado
+         */
+        public int getPeakConcurrency() {
+            return peakConcurrency;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.bancolombia.evaluation.runtime;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detecta hilos virtuales fijados a su hilo portador.
+ *
+ * Un hilo virtual que se bloquea dentro de un bloque {@code synchronized} (o en código nativo) no
+ * se desmonta: ocupa el portador mientras espera, y con suficientes casos así el runtime de hilos
+ * virtuales se comporta como un pool de pocos hilos de plataforma. El monitor escucha el evento
+ * JFR {@code jdk.VirtualThreadPinned} en el mismo proceso y agrupa los eventos por el primer marco
+ * de la aplicación en la pila, que suele ser el método con el {@code synchronized} alrededor de
+ * la E/S.
+ *
+ * JFR entrega los eventos en lotes, con alrededor de un segundo de retraso.
+ */
+public class PinningMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String UNKNOWN_SITE = "desconocido";
+
+    private final RecordingStream stream;
+    private final LongAdder events = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final AtomicLong maxPinnedNanos = new AtomicLong();
+    private final Map<String, LongAdder> eventsBySite = new ConcurrentHashMap<>();
+
+    /**
+     * @param threshold Duración mínima de un bloqueo fijado para reportarlo
+     */
+    public PinningMonitor(Duration threshold) {
+        if (threshold == null || threshold.isNegative()) {
+            throw new IllegalArgumentException("El umbral debe ser cero o positivo");
+        }
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+    }
+
+    /**
+     * Empieza a escuchar eventos en segundo plano.
+     */
+    public void start() {
+        stream.startAsync();
+    }
+
+    public PinningReport getReport() {
+        List<Map.Entry<String, LongAdder>> sites = new ArrayList<>(eventsBySite.entrySet());
+        sites.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+        Map<String, Long> bySite = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> site : sites) {
+            bySite.put(site.getKey(), site.getValue().sum());
+        }
+        return new PinningReport(events.sum(), Duration.ofNanos(pinnedNanos.sum()),
+            Duration.ofNanos(maxPinnedNanos.get()), bySite);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private void record(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        events.increment();
+        pinnedNanos.add(nanos);
+        maxPinnedNanos.accumulateAndGet(nanos, Math::max);
+        eventsBySite.computeIfAbsent(siteOf(event.getStackTrace()), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Primer marco fuera del JDK, como {@code Clase.metodo:linea}.
+     */
+    private static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return UNKNOWN_SITE;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) {
+                continue;
+            }
+            return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+        }
+        return UNKNOWN_SITE;
+    }
+
+    // ==================== CLASE INTERNA ====================
+
+    /**
+     * Resumen de los bloqueos fijados observados desde que arrancó el monitor.
+     */
+    public static class PinningReport {
+        private final long events;
+        private final Duration totalPinned;
+        private final Duration maxPinned;
+        private final Map<String, Long> eventsBySite;
+
+        public PinningReport(long events, Duration totalPinned, Duration maxPinned,
+                             Map<String, Long> eventsBySite) {
+            this.events = events;
+            this.totalPinned = totalPinned;
+            this.maxPinned = maxPinned;
+            this.eventsBySite = Collections.unmodifiableMap(new LinkedHashMap<>(eventsBySite));
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        /**
+         * @return Tiempo total que los hilos virtuales estuvieron bloqueados sin soltar su portador
+         */
+        public Duration getTotalPinned() {
+            return totalPinned;
+        }
+
+        public Duration getMaxPinned() {
+            return maxPinned;
+        }
+
+        /**
+         * @return Eventos por sitio de la aplicación, de mayor a menor
+         */
+        public Map<String, Long> getEventsBySite() {
+            return eventsBySite;
+        }
+
+        public boolean hasPinning() {
+            return events > 0;
+        }
+    }
+}
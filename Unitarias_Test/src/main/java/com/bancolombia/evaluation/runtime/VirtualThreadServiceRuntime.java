@@ -0,0 +1,110 @@
+package com.bancolombia.evaluation.runtime;
+
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.service.PaymentProcessor;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Modo de ejecución de los servicios con un hilo virtual por solicitud.
+ *
+ * Es la alternativa a reescribir los servicios en estilo asíncrono: el código bloqueante de
+ * {@link TransferOrchestrator} y {@link PaymentProcessor} se ejecuta tal cual, pero cada solicitud
+ * tiene su propio hilo virtual, que se desmonta de su portador mientras espera E/S. Así miles de
+ * solicitudes pueden esperar a la base de datos o al servicio de fraude sin un hilo de plataforma
+ * cada una.
+ *
+ * Sin el límite implícito de un pool de hilos, la concurrencia hacia cada dependencia se limita
+ * con {@link BlockingDependencyAdapter}. Los bloqueos {@code synchronized} alrededor de E/S fijan
+ * el hilo virtual a su portador y anulan la ventaja; {@link PinningMonitor} los detecta.
+ */
+public class VirtualThreadServiceRuntime implements AutoCloseable {
+
+    private final TransferOrchestrator transferOrchestrator;
+    private final PaymentProcessor paymentProcessor;
+    private final ExecutorService executor;
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder submitted = new LongAdder();
+    private volatile boolean accepting = true;
+
+    public VirtualThreadServiceRuntime(TransferOrchestrator transferOrchestrator,
+                                       PaymentProcessor paymentProcessor) {
+        this.transferOrchestrator = transferOrchestrator;
+        this.paymentProcessor = paymentProcessor;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("service-vt-", 0).factory());
+    }
+
+    /**
+     * Ejecuta la transferencia en hilos virtuales. Equivale a
+     * {@link TransferOrchestrator#executeTransfer}; la validación de fraude también corre en su
+     * propio hilo virtual y no en el pool común, cuyos pocos hilos limitarían la concurrencia.
+     */
+    public CompletableFuture<TransferResult> executeTransfer(TransferRequest request) {
+        requireAccepting();
+        if (transferOrchestrator == null) {
+            throw new IllegalStateException("El runtime no tiene orquestador de transferencias");
+        }
+        return track(transferOrchestrator.executeTransferAsync(request, executor));
+    }
+
+    /**
+     * Ejecuta el pago en un hilo virtual. Equivale a {@link PaymentProcessor#processPayment}.
+     */
+    public CompletableFuture<PaymentResult> processPayment(PaymentRequest request) {
+        requireAccepting();
+        if (paymentProcessor == null) {
+            throw new IllegalStateException("El runtime no tiene procesador de pagos");
+        }
+        return track(CompletableFuture.supplyAsync(() -> paymentProcessor.processPayment(request), executor));
+    }
+
+    /**
+     * @return Solicitudes recibidas desde que se creó el runtime
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * @return Solicitudes cuyo futuro aún no se completa
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Deja de aceptar solicitudes, espera las que están en curso y libera el ejecutor.
+     */
+    @Override
+    public void close() {
+        accepting = false;
+        // Las etapas de una transferencia se envían al ejecutor a medida que avanza, así que no
+        // se puede cerrar hasta que terminen
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0]))
+            .exceptionally(error -> null)
+            .join();
+        executor.close();
+    }
+
+    private void requireAccepting() {
+        if (!accepting) {
+            throw new IllegalStateException("El runtime no está aceptando solicitudes");
+        }
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        submitted.increment();
+        inFlight.add(future);
+        future.whenComplete((result, error) -> inFlight.remove(future));
+        return future;
+    }
+}
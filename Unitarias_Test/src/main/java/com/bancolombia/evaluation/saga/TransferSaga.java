@@ -0,0 +1,95 @@
+package com.bancolombia.evaluation.saga;
+
+import java.math.BigDecimal;
+
+/**
+ * Saga de una transferencia registrada en el {@link TransferSagaLog}.
+ *
+ * Guarda la intención (cuentas, montos y saldos previos) y el último paso completado, que es
+ * lo necesario para completar o compensar la transferencia después de una caída.
+ */
+public class TransferSaga {
+
+    public enum Step {
+        /** Intención registrada, débito aún no confirmado. */
+        STARTED,
+        DEBITED,
+        CREDITED,
+        COMPLETED,
+        COMPENSATED,
+        /** Terminó sin haber movido dinero. */
+        ABORTED,
+        /** El estado de las cuentas no permite decidir automáticamente. */
+        REVIEW;
+
+        boolean isFinal() {
+            return this == COMPLETED || this == COMPENSATED || this == ABORTED || this == REVIEW;
+        }
+    }
+
+    private final String sagaId;
+    private final int shard;
+    private final String sourceAccountNumber;
+    private final String targetAccountNumber;
+    private final BigDecimal debitAmount;
+    private final BigDecimal creditAmount;
+    private final BigDecimal sourceBalanceBefore;
+    private final BigDecimal targetBalanceBefore;
+    private volatile Step step = Step.STARTED;
+
+    TransferSaga(String sagaId, int shard, String sourceAccountNumber, String targetAccountNumber,
+                 BigDecimal debitAmount, BigDecimal creditAmount, BigDecimal sourceBalanceBefore,
+                 BigDecimal targetBalanceBefore) {
+        this.sagaId = sagaId;
+        this.shard = shard;
+        this.sourceAccountNumber = sourceAccountNumber;
+        this.targetAccountNumber = targetAccountNumber;
+        this.debitAmount = debitAmount;
+        this.creditAmount = creditAmount;
+        this.sourceBalanceBefore = sourceBalanceBefore;
+        this.targetBalanceBefore = targetBalanceBefore;
+    }
+
+    public String getSagaId() {
+        return sagaId;
+    }
+
+    int getShard() {
+        return shard;
+    }
+
+    public String getSourceAccountNumber() {
+        return sourceAccountNumber;
+    }
+
+    public String getTargetAccountNumber() {
+        return targetAccountNumber;
+    }
+
+    /**
+     * Monto debitado de la cuenta origen (incluye la comisión).
+     */
+    public BigDecimal getDebitAmount() {
+        return debitAmount;
+    }
+
+    public BigDecimal getCreditAmount() {
+        return creditAmount;
+    }
+
+    public BigDecimal getSourceBalanceBefore() {
+        return sourceBalanceBefore;
+    }
+
+    public BigDecimal getTargetBalanceBefore() {
+        return targetBalanceBefore;
+    }
+
+    public Step getStep() {
+        return step;
+    }
+
+    void setStep(Step step) {
+        this.step = step;
+    }
+}
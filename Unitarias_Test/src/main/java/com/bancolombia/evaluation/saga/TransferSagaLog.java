@@ -0,0 +1,647 @@
+package com.bancolombia.evaluation.saga;
+
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.repository.AccountRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Log persistente de sagas de transferencia.
+ *
+ * La intención de una transferencia se registra antes del débito y cada paso se marca al
+ * completarse. Solo el inicio y el débito se esperan hasta que están en disco: son los que
+ * permiten devolver el dinero debitado. Las demás marcas se escriben en el siguiente lote; si se
+ * pierden, la recuperación deduce el paso a partir de los saldos.
+ *
+ * El log se divide en shards por cuenta origen. Cada shard tiene un hilo que escribe en un solo
+ * fsync todos los registros acumulados mientras se ejecutaba el anterior, de modo que el costo
+ * por transferencia baja a medida que aumenta la concurrencia.
+ *
+ * Al abrir el log, las sagas sin terminar de la ejecución anterior quedan pendientes hasta que
+ * se llama {@link #recover(AccountRepository)}, que las completa o compensa en paralelo por shard.
+ */
+public class TransferSagaLog implements AutoCloseable {
+
+    private static final int DEFAULT_SHARDS = 4;
+    private static final long DEFAULT_MAX_SHARD_BYTES = 16L * 1024 * 1024;
+    private static final char BEGIN = 'B';
+    private static final char STEP = 'S';
+    private static final String SEPARATOR = "|";
+
+    private final Shard[] shards;
+    private final long maxShardBytes;
+    private final String idPrefix;
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<String, Object> accountLocks = new ConcurrentHashMap<>();
+    private final LongAdder records = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    public TransferSagaLog(Path directory) {
+        this(directory, DEFAULT_SHARDS, DEFAULT_MAX_SHARD_BYTES);
+    }
+
+    public TransferSagaLog(Path directory, int shardCount, long maxShardBytes) {
+        if (directory == null) {
+            throw new IllegalArgumentException("El directorio del log es requerido");
+        }
+        if (shardCount <= 0 || maxShardBytes <= 0) {
+            throw new IllegalArgumentException("El número de shards y el tamaño máximo deben ser mayores a cero");
+        }
+        this.maxShardBytes = maxShardBytes;
+        this.idPrefix = "SAGA-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+        this.shards = new Shard[shardCount];
+        try {
+            Files.createDirectories(directory);
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = new Shard(directory, i);
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("No fue posible abrir el log de sagas en " + directory, e);
+        }
+    }
+
+    // ==================== REGISTRO ====================
+
+    /**
+     * Registra la intención de una transferencia. Retorna cuando el registro está en disco.
+     * @param debitAmount Monto a debitar de la cuenta origen (incluye comisión)
+     * @param creditAmount Monto a acreditar en la cuenta destino
+     */
+    public TransferSaga begin(String sourceAccountNumber, String targetAccountNumber,
+                              BigDecimal debitAmount, BigDecimal creditAmount,
+                              BigDecimal sourceBalanceBefore, BigDecimal targetBalanceBefore) {
+        int shard = Math.floorMod(sourceAccountNumber.hashCode(), shards.length);
+        TransferSaga saga = new TransferSaga(idPrefix + Long.toString(counter.incrementAndGet(), 36), shard,
+            sourceAccountNumber, targetAccountNumber, debitAmount, creditAmount,
+            sourceBalanceBefore, targetBalanceBefore);
+        Shard target = shards[shard];
+        target.awaitDurable(target.append(saga, TransferSaga.Step.STARTED, beginRecord(saga)));
+        return saga;
+    }
+
+    /**
+     * Marca el débito como realizado. Retorna cuando la marca está en disco.
+     */
+    public void markDebited(TransferSaga saga) {
+        markDurable(saga, TransferSaga.Step.DEBITED);
+    }
+
+    public void markCredited(TransferSaga saga) {
+        mark(saga, TransferSaga.Step.CREDITED);
+    }
+
+    public void markCompleted(TransferSaga saga) {
+        mark(saga, TransferSaga.Step.COMPLETED);
+    }
+
+    public void markCompensated(TransferSaga saga) {
+        mark(saga, TransferSaga.Step.COMPENSATED);
+    }
+
+    /**
+     * Cierra una saga que terminó sin mover dinero.
+     */
+    public void markAborted(TransferSaga saga) {
+        mark(saga, TransferSaga.Step.ABORTED);
+    }
+
+    // ==================== RECUPERACIÓN ====================
+
+    /**
+     * Sagas sin terminar encontradas al abrir el log y aún no recuperadas.
+     */
+    public List<TransferSaga> getPendingRecovery() {
+        List<TransferSaga> pending = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                pending.addAll(shard.recovering);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Completa o compensa las sagas que quedaron sin terminar, en paralelo por shard.
+     *
+     * Cuando no hay marca de un paso, se deduce si ocurrió comparando el saldo actual con el
+     * saldo previo registrado. Esa deducción solo se hace si ninguna otra saga pendiente toca la
+     * misma cuenta; en ese caso, o si el saldo no coincide con ninguna de las dos posibilidades,
+     * la saga se marca para revisión manual y no se modifica ninguna cuenta.
+     * @param accountRepository Repositorio de cuentas
+     * @return Resumen de la recuperación
+     */
+    public RecoveryReport recover(AccountRepository accountRepository) {
+        RecoveryReport report = new RecoveryReport();
+        Map<String, Integer> pendingPerAccount = new HashMap<>();
+        for (TransferSaga saga : getPendingRecovery()) {
+            pendingPerAccount.merge(saga.getSourceAccountNumber(), 1, Integer::sum);
+            pendingPerAccount.merge(saga.getTargetAccountNumber(), 1, Integer::sum);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(shards.length, runnable -> {
+            Thread thread = new Thread(runnable, "saga-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Shard shard : shards) {
+                futures.add(executor.submit(() -> recoverShard(shard, accountRepository, pendingPerAccount, report)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recuperación de sagas interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Error en la recuperación de sagas", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    /**
+     * Métricas de escritura del log.
+     */
+    public SagaLogStats getStats() {
+        return new SagaLogStats(records.sum(), syncs.sum());
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            if (shard != null) {
+                shard.close();
+            }
+        }
+    }
+
+    private void recoverShard(Shard shard, AccountRepository accountRepository,
+                              Map<String, Integer> pendingPerAccount, RecoveryReport report) {
+        List<TransferSaga> pending;
+        shard.lock.lock();
+        try {
+            pending = new ArrayList<>(shard.recovering);
+        } finally {
+            shard.lock.unlock();
+        }
+        long lastRecord = 0;
+        for (TransferSaga saga : pending) {
+            TransferSaga.Step outcome = resolve(saga, accountRepository, pendingPerAccount);
+            lastRecord = shard.append(saga, outcome, stepRecord(saga.getSagaId(), outcome));
+            report.add(saga, outcome);
+        }
+        shard.awaitDurable(lastRecord);
+        shard.finishRecovery();
+    }
+
+    private TransferSaga.Step resolve(TransferSaga saga, AccountRepository accountRepository,
+                                      Map<String, Integer> pendingPerAccount) {
+        String first = saga.getSourceAccountNumber();
+        String second = saga.getTargetAccountNumber();
+        if (first.compareTo(second) > 0) {
+            String swap = first;
+            first = second;
+            second = swap;
+        }
+        synchronized (accountLocks.computeIfAbsent(first, key -> new Object())) {
+            synchronized (accountLocks.computeIfAbsent(second, key -> new Object())) {
+                return resolveLocked(saga, accountRepository, pendingPerAccount);
+            }
+        }
+    }
+
+    private TransferSaga.Step resolveLocked(TransferSaga saga, AccountRepository accountRepository,
+                                            Map<String, Integer> pendingPerAccount) {
+        Optional<Account> source = accountRepository.findByAccountNumber(saga.getSourceAccountNumber());
+        Optional<Account> target = accountRepository.findByAccountNumber(saga.getTargetAccountNumber());
+        if (!source.isPresent() || !target.isPresent()) {
+            return TransferSaga.Step.REVIEW;
+        }
+        TransferSaga.Step step = saga.getStep();
+        if (step == TransferSaga.Step.STARTED) {
+            if (pendingPerAccount.get(saga.getSourceAccountNumber()) > 1) {
+                return TransferSaga.Step.REVIEW;
+            }
+            BigDecimal balance = source.get().getBalance();
+            if (balance.compareTo(saga.getSourceBalanceBefore()) == 0) {
+                return TransferSaga.Step.ABORTED;
+            }
+            if (balance.compareTo(saga.getSourceBalanceBefore().subtract(saga.getDebitAmount())) != 0) {
+                return TransferSaga.Step.REVIEW;
+            }
+            step = TransferSaga.Step.DEBITED;
+        }
+        if (step == TransferSaga.Step.DEBITED) {
+            if (pendingPerAccount.get(saga.getTargetAccountNumber()) > 1) {
+                return TransferSaga.Step.REVIEW;
+            }
+            BigDecimal balance = target.get().getBalance();
+            if (balance.compareTo(saga.getTargetBalanceBefore().add(saga.getCreditAmount())) == 0) {
+                return TransferSaga.Step.COMPLETED;
+            }
+            if (balance.compareTo(saga.getTargetBalanceBefore()) != 0) {
+                return TransferSaga.Step.REVIEW;
+            }
+            Account account = source.get();
+            account.credit(saga.getDebitAmount());
+            accountRepository.save(account);
+            return TransferSaga.Step.COMPENSATED;
+        }
+        // Débito y crédito aplicados: se completa hacia adelante
+        return TransferSaga.Step.COMPLETED;
+    }
+
+    // ==================== FORMATO ====================
+
+    private void markDurable(TransferSaga saga, TransferSaga.Step step) {
+        Shard shard = shards[saga.getShard()];
+        shard.awaitDurable(shard.append(saga, step, stepRecord(saga.getSagaId(), step)));
+    }
+
+    private void mark(TransferSaga saga, TransferSaga.Step step) {
+        shards[saga.getShard()].append(saga, step, stepRecord(saga.getSagaId(), step));
+    }
+
+    private static String beginRecord(TransferSaga saga) {
+        return withChecksum(BEGIN + SEPARATOR + saga.getSagaId() + SEPARATOR + saga.getSourceAccountNumber()
+            + SEPARATOR + saga.getTargetAccountNumber() + SEPARATOR + saga.getDebitAmount().toPlainString()
+            + SEPARATOR + saga.getCreditAmount().toPlainString()
+            + SEPARATOR + saga.getSourceBalanceBefore().toPlainString()
+            + SEPARATOR + saga.getTargetBalanceBefore().toPlainString());
+    }
+
+    private static String stepRecord(String sagaId, TransferSaga.Step step) {
+        return withChecksum(STEP + SEPARATOR + sagaId + SEPARATOR + step.name());
+    }
+
+    private static String withChecksum(String content) {
+        return content + SEPARATOR + Long.toHexString(checksum(content)) + "\n";
+    }
+
+    private static long checksum(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Lee un archivo del log. Se detiene en la primera línea incompleta o corrupta, que
+     * corresponde a una escritura interrumpida por la caída.
+     */
+    private static void read(Path path, int shard, Map<String, TransferSaga> sagas) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            int checksumAt = line.lastIndexOf(SEPARATOR);
+            if (checksumAt <= 0) {
+                return;
+            }
+            String content = line.substring(0, checksumAt);
+            if (!Long.toHexString(checksum(content)).equals(line.substring(checksumAt + 1))) {
+                return;
+            }
+            String[] fields = content.split("\\|");
+            if (fields[0].charAt(0) == BEGIN && fields.length == 8) {
+                sagas.putIfAbsent(fields[1], new TransferSaga(fields[1], shard, fields[2], fields[3],
+                    new BigDecimal(fields[4]), new BigDecimal(fields[5]), new BigDecimal(fields[6]),
+                    new BigDecimal(fields[7])));
+            } else if (fields[0].charAt(0) == STEP && fields.length == 3) {
+                TransferSaga saga = sagas.get(fields[1]);
+                TransferSaga.Step step = TransferSaga.Step.valueOf(fields[2]);
+                if (saga != null && step.ordinal() > saga.getStep().ordinal()) {
+                    saga.setStep(step);
+                }
+            }
+        }
+    }
+
+    private static void writeRecords(FileChannel channel, String content) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static String snapshot(Iterable<TransferSaga> sagas) {
+        StringBuilder content = new StringBuilder();
+        for (TransferSaga saga : sagas) {
+            content.append(beginRecord(saga));
+            if (saga.getStep() != TransferSaga.Step.STARTED) {
+                content.append(stepRecord(saga.getSagaId(), saga.getStep()));
+            }
+        }
+        return content.toString();
+    }
+
+    // ==================== SHARDS ====================
+
+    /**
+     * Un archivo del log con su hilo de escritura. El estado se protege con {@link #lock} y no con
+     * el monitor del objeto: quien espera a que su registro llegue a disco puede ser un hilo
+     * virtual, y esperar con wait() dentro de synchronized lo dejaría fijado a su portador
+     * durante todo el fsync.
+     */
+    private final class Shard {
+        private final Path logPath;
+        private final Path recoveringPath;
+        private final Map<String, TransferSaga> inFlight = new HashMap<>();
+        private final List<TransferSaga> recovering = new ArrayList<>();
+        private final Thread writer;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition pendingWritten = lock.newCondition();
+        private final Condition recordsDurable = lock.newCondition();
+        private FileChannel channel;
+        private StringBuilder pending = new StringBuilder();
+        private long appendedRecords;
+        private long durableRecords;
+        private boolean running = true;
+        private IOException failure;
+
+        private Shard(Path directory, int index) throws IOException {
+            this.logPath = directory.resolve("saga-" + index + ".log");
+            this.recoveringPath = directory.resolve("saga-" + index + ".recovering");
+
+            // Las sagas sin terminar se trasladan a un archivo aparte hasta que se recuperen
+            Map<String, TransferSaga> sagas = new LinkedHashMap<>();
+            read(recoveringPath, index, sagas);
+            read(logPath, index, sagas);
+            for (TransferSaga saga : sagas.values()) {
+                if (!saga.getStep().isFinal()) {
+                    recovering.add(saga);
+                }
+            }
+            if (recovering.isEmpty()) {
+                Files.deleteIfExists(recoveringPath);
+            } else {
+                replaceWith(recoveringPath, snapshot(recovering));
+            }
+            this.channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            this.writer = new Thread(this::runWriter, "saga-log-writer-" + index);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        private long append(TransferSaga saga, TransferSaga.Step step, String record) {
+            lock.lock();
+            try {
+                if (failure != null) {
+                    throw new UncheckedIOException("El log de sagas no está disponible", failure);
+                }
+                if (!running) {
+                    throw new IllegalStateException("El log de sagas está cerrado");
+                }
+                saga.setStep(step);
+                if (step.isFinal()) {
+                    inFlight.remove(saga.getSagaId());
+                } else {
+                    inFlight.put(saga.getSagaId(), saga);
+                }
+                pending.append(record);
+                records.increment();
+                pendingWritten.signal();
+                return ++appendedRecords;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void awaitDurable(long record) {
+            lock.lock();
+            try {
+                boolean interrupted = false;
+                while (durableRecords < record && failure == null) {
+                    try {
+                        recordsDurable.await();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (durableRecords < record) {
+                    throw new UncheckedIOException("El log de sagas no está disponible", failure);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finishRecovery() {
+            lock.lock();
+            try {
+                recovering.clear();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                Files.deleteIfExists(recoveringPath);
+            } catch (IOException e) {
+                // Las sagas ya tienen su cierre en el log activo; se descartan en la próxima apertura
+            }
+        }
+
+        private void runWriter() {
+            while (true) {
+                String batch;
+                long batchEnd;
+                lock.lock();
+                try {
+                    while (pending.length() == 0 && running) {
+                        try {
+                            pendingWritten.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (pending.length() == 0) {
+                        return;
+                    }
+                    batch = pending.toString();
+                    pending.setLength(0);
+                    batchEnd = appendedRecords;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    writeRecords(channel, batch);
+                    channel.force(false);
+                    syncs.increment();
+                    if (channel.size() > maxShardBytes) {
+                        compact();
+                    }
+                } catch (IOException e) {
+                    lock.lock();
+                    try {
+                        failure = e;
+                        recordsDurable.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                    return;
+                }
+                lock.lock();
+                try {
+                    durableRecords = batchEnd;
+                    recordsDurable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Reescribe el archivo con solo las sagas en curso.
+         */
+        private void compact() throws IOException {
+            lock.lock();
+            try {
+                replaceWith(logPath, snapshot(new ArrayList<>(inFlight.values())));
+                channel.close();
+                channel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void replaceWith(Path path, String content) throws IOException {
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeRecords(out, content);
+                out.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                running = false;
+                pendingWritten.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Los registros confirmados ya están en disco
+            }
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Resultado de la recuperación de sagas.
+     */
+    public static class RecoveryReport {
+        private final List<TransferSaga> completed = Collections.synchronizedList(new ArrayList<>());
+        private final List<TransferSaga> compensated = Collections.synchronizedList(new ArrayList<>());
+        private final List<TransferSaga> aborted = Collections.synchronizedList(new ArrayList<>());
+        private final List<TransferSaga> needsReview = Collections.synchronizedList(new ArrayList<>());
+
+        private void add(TransferSaga saga, TransferSaga.Step outcome) {
+            switch (outcome) {
+                case COMPLETED:
+                    completed.add(saga);
+                    break;
+                case COMPENSATED:
+                    compensated.add(saga);
+                    break;
+                case ABORTED:
+                    aborted.add(saga);
+                    break;
+                default:
+                    needsReview.add(saga);
+                    break;
+            }
+        }
+
+        /**
+         * Sagas completadas hacia adelante; puede faltar el registro de la transacción.
+         */
+        public List<TransferSaga> getCompleted() {
+            return new ArrayList<>(completed);
+        }
+
+        public List<TransferSaga> getCompensated() {
+            return new ArrayList<>(compensated);
+        }
+
+        public List<TransferSaga> getAborted() {
+            return new ArrayList<>(aborted);
+        }
+
+        public List<TransferSaga> getNeedsReview() {
+            return new ArrayList<>(needsReview);
+        }
+    }
+
+    /**
+     * Métricas de escritura del log de sagas.
+     */
+    public static class SagaLogStats {
+        private final long records;
+        private final long syncs;
+
+        public SagaLogStats(long records, long syncs) {
+            this.records = records;
+            this.syncs = syncs;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getSyncs() {
+            return syncs;
+        }
+
+        public double getRecordsPerSync() {
+            return syncs == 0 ? 0.0 : (double) records / syncs;
+        }
+    }
+}
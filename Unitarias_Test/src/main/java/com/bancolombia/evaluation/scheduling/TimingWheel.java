@@ -0,0 +1,148 @@
+package com.bancolombia.evaluation.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de tiempo jerárquica.
+ *
+ * Cada nivel tiene {@code wheelSize} ranuras; una ranura del nivel 0 dura un tick y una del
+ * nivel N dura {@code wheelSize^N} ticks. Un elemento se guarda en el nivel más bajo que alcance
+ * su vencimiento y, cuando el tiempo llega a su ranura, baja al nivel inferior hasta vencer en el
+ * nivel 0. Agregar un elemento cuesta O(1) sin importar cuántos haya ni qué tan lejos venzan.
+ *
+ * No es segura para uso concurrente; quien la use debe sincronizar el acceso.
+ *
+ * @param <T> Tipo de elemento programado
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int bits;
+    private final int mask;
+    private final ArrayDeque<Timer<T>>[][] slots;
+    private final long maxDelta;
+    private final List<T> ready = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis Duración de un tick en milisegundos
+     * @param wheelSize Ranuras por nivel; debe ser potencia de dos
+     * @param levels Número de niveles
+     * @param startMillis Instante inicial de la rueda
+     */
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("La duración del tick debe ser mayor a cero");
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1 || levels <= 0
+                || Integer.numberOfTrailingZeros(wheelSize) * levels >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Tamaño de rueda o número de niveles inválido");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.slots = newSlots(levels, wheelSize);
+        this.maxDelta = (1L << (bits * levels)) - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayDeque<Timer<T>>[][] newSlots(int levels, int wheelSize) {
+        return (ArrayDeque<Timer<T>>[][]) new ArrayDeque<?>[levels][wheelSize];
+    }
+
+    /**
+     * Programa un elemento. Si ya venció, queda listo para el siguiente {@link #advanceTo(long)}.
+     */
+    public void add(long dueMillis, T item) {
+        size++;
+        place(new Timer<>(Math.max(0, Math.floorDiv(dueMillis - startMillis, tickMillis)), item));
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado.
+     * @return Elementos vencidos, en orden de vencimiento por tick
+     */
+    public List<T> advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = slots.length - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    ArrayDeque<Timer<T>> slot = takeSlot(level, index(currentTick, level));
+                    if (slot != null) {
+                        for (Timer<T> timer : slot) {
+                            place(timer);
+                        }
+                    }
+                }
+            }
+            ArrayDeque<Timer<T>> expired = takeSlot(0, index(currentTick, 0));
+            if (expired != null) {
+                for (Timer<T> timer : expired) {
+                    ready.add(timer.item);
+                }
+            }
+        }
+        if (ready.isEmpty()) {
+            return List.of();
+        }
+        List<T> due = new ArrayList<>(ready);
+        ready.clear();
+        size -= due.size();
+        return due;
+    }
+
+    /**
+     * @return Número de elementos programados que aún no se han entregado
+     */
+    public int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.dueTick - currentTick;
+        if (delta <= 0) {
+            ready.add(timer.item);
+            return;
+        }
+        // Lo que excede el alcance de la rueda espera en la última ranura y se reubica al llegar
+        long positionTick = delta > maxDelta ? currentTick + maxDelta : timer.dueTick;
+        long effectiveDelta = positionTick - currentTick;
+        int level = 0;
+        while (level < slots.length - 1 && effectiveDelta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        int index = index(positionTick, level);
+        ArrayDeque<Timer<T>> slot = slots[level][index];
+        if (slot == null) {
+            slot = new ArrayDeque<>();
+            slots[level][index] = slot;
+        }
+        slot.add(timer);
+    }
+
+    private ArrayDeque<Timer<T>> takeSlot(int level, int index) {
+        ArrayDeque<Timer<T>> slot = slots[level][index];
+        slots[level][index] = null;
+        return slot;
+    }
+
+    private int index(long tick, int level) {
+        return (int) ((tick >>> (bits * level)) & mask);
+    }
+
+    private static final class Timer<T> {
+        private final long dueTick;
+        private final T item;
+
+        private Timer(long dueTick, T item) {
+            this.dueTick = dueTick;
+            this.item = item;
+        }
+    }
+}
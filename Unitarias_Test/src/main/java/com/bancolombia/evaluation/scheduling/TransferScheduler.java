@@ -0,0 +1,338 @@
+package com.bancolombia.evaluation.scheduling;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionStatus;
+import com.bancolombia.evaluation.model.TransactionType;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.repository.TransactionRepository;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ejecuta las transferencias programadas en su fecha.
+ *
+ * La fecha queda persistida en la transacción pendiente que crea
+ * {@link TransferOrchestrator#scheduleTransfer}; este programador solo mantiene en memoria una
+ * {@link TimingWheel} con los IDs, de modo que al reiniciar basta con {@link #start()} para
+ * recargar las pendientes (las que vencieron durante la caída se ejecutan de inmediato).
+ *
+ * Un hilo avanza la rueda en cada tick y entrega los vencimientos a un grupo fijo de hilos, que
+ * reclaman la programación con {@link TransferOrchestrator#claimScheduledTransfer} (PENDING a
+ * PROCESSING, persistido y excluyente con la cancelación; si ya no está pendiente no se ejecuta)
+ * y la envían a {@link TransferOrchestrator#executeTransfer}. Para no golpear las mismas cuentas en el mismo
+ * milisegundo cuando vencen muchas juntas (p. ej. una nómina a las 00:00), cada vencimiento se
+ * desplaza un tiempo aleatorio acotado por {@code maxJitter}.
+ *
+ * La programación no es un movimiento contable: al ejecutarse pasa a
+ * {@link TransactionStatus#EXECUTED} y se enlaza con la transferencia real mediante
+ * {@link Transaction#getExecutedTransferId()}, que es la única que registra el débito y el crédito.
+ *
+ * Cada ejecución usa el ID de la programación como clave de idempotencia. Si el proceso cae entre
+ * la transferencia y el guardado de la programación, esta queda en PROCESSING; al recargar vuelve a
+ * pendiente y se ejecuta otra vez. Para que ese reintento no duplique la transferencia, el orquestador debe construirse con
+ * un {@link com.bancolombia.evaluation.idempotency.IdempotencyStore} persistido en archivo (con
+ * {@link com.bancolombia.evaluation.idempotency.ResultCodecs#TRANSFER}) cuyo TTL cubra la caída
+ * más larga esperada. Sin ese almacén la ejecución es "al menos una vez".
+ */
+public class TransferScheduler implements AutoCloseable {
+
+    private static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+    private static final int DEFAULT_WORKERS = 8;
+    private static final Duration DEFAULT_MAX_JITTER = Duration.ofMillis(500);
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_LEVELS = 4;
+    private static final String KEY_PREFIX = "SCHEDULED-";
+
+    private final TransferOrchestrator orchestrator;
+    private final TransactionRepository transactionRepository;
+    private final Clock clock;
+    private final long tickMillis;
+    private final long maxJitterMillis;
+    private final TimingWheel<String> wheel;
+    private final BlockingQueue<String> dueQueue = new LinkedBlockingQueue<>();
+    private final Set<String> queuedIds = ConcurrentHashMap.newKeySet();
+    private final Thread ticker;
+    private final List<Thread> workers = new ArrayList<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final AtomicLong maxLatenessMillis = new AtomicLong();
+    private volatile boolean running;
+    private boolean started;
+
+    public TransferScheduler(TransferOrchestrator orchestrator, TransactionRepository transactionRepository) {
+        this(orchestrator, transactionRepository, Clock.systemDefaultZone(), DEFAULT_TICK,
+            DEFAULT_WORKERS, DEFAULT_MAX_JITTER);
+    }
+
+    /**
+     * @param clock Reloj; su zona convierte las fechas programadas a instantes
+     * @param tick Resolución de la rueda
+     * @param workerCount Hilos que ejecutan las transferencias vencidas
+     * @param maxJitter Desplazamiento aleatorio máximo de cada vencimiento; cero para ninguno
+     */
+    public TransferScheduler(TransferOrchestrator orchestrator, TransactionRepository transactionRepository,
+                             Clock clock, Duration tick, int workerCount, Duration maxJitter) {
+        if (tick == null || tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("El tick debe ser de al menos un milisegundo");
+        }
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("El número de hilos debe ser mayor a cero");
+        }
+        if (maxJitter == null || maxJitter.isNegative()) {
+            throw new IllegalArgumentException("El desplazamiento máximo no puede ser negativo");
+        }
+        this.orchestrator = orchestrator;
+        this.transactionRepository = transactionRepository;
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.maxJitterMillis = maxJitter.toMillis();
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, clock.millis());
+        this.ticker = new Thread(this::runTicker, "transfer-scheduler-ticker");
+        this.ticker.setDaemon(true);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "transfer-scheduler-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Recarga las transferencias programadas pendientes y empieza a ejecutarlas.
+     * @return Número de transferencias recargadas
+     */
+    public synchronized int start() {
+        if (started) {
+            throw new IllegalStateException("El programador ya fue iniciado");
+        }
+        started = true;
+        int reloaded = 0;
+        // Las reclamadas por una ejecución que no terminó vuelven a pendientes; el almacén de
+        // idempotencia evita repetir la transferencia si alcanzó a ejecutarse
+        for (Transaction transaction : transactionRepository.findByStatus(TransactionStatus.PROCESSING)) {
+            if (isScheduledTransfer(transaction)) {
+                transaction.setStatus(TransactionStatus.PENDING);
+                transactionRepository.save(transaction);
+            }
+        }
+        for (Transaction transaction : transactionRepository.findByStatus(TransactionStatus.PENDING)) {
+            if (isScheduledTransfer(transaction)) {
+                enqueue(transaction.getTransactionId(), transaction.getScheduledAt());
+                reloaded++;
+            }
+        }
+        running = true;
+        ticker.start();
+        workers.forEach(Thread::start);
+        return reloaded;
+    }
+
+    /**
+     * Programa una transferencia: la persiste con el orquestador y la agrega a la rueda.
+     * @return ID de la transferencia programada
+     */
+    public String schedule(TransferRequest request, LocalDateTime scheduledTime) {
+        String scheduledId = orchestrator.scheduleTransfer(request, scheduledTime);
+        enqueue(scheduledId, scheduledTime);
+        return scheduledId;
+    }
+
+    /**
+     * Cancela una transferencia programada. Si ya estaba en la rueda, se descarta al vencer
+     * porque la transacción deja de estar pendiente.
+     */
+    public boolean cancel(String scheduledTransferId) {
+        return orchestrator.cancelScheduledTransfer(scheduledTransferId);
+    }
+
+    /**
+     * @return Transferencias en la rueda o esperando un hilo libre
+     */
+    public int getPendingCount() {
+        synchronized (wheel) {
+            return wheel.size() + dueQueue.size();
+        }
+    }
+
+    public SchedulerStats getStats() {
+        return new SchedulerStats(executed.sum(), failed.sum(), skipped.sum(), maxLatenessMillis.get());
+    }
+
+    /**
+     * Detiene los hilos. Lo que quede pendiente sigue persistido y se recarga en el próximo
+     * {@link #start()}.
+     */
+    @Override
+    public void close() {
+        running = false;
+        ticker.interrupt();
+        workers.forEach(Thread::interrupt);
+    }
+
+    // ==================== EJECUCIÓN ====================
+
+    private void enqueue(String scheduledId, LocalDateTime scheduledTime) {
+        // Una misma programación no entra dos veces (p. ej. programada antes de start y recargada)
+        if (!queuedIds.add(scheduledId)) {
+            return;
+        }
+        long dueMillis = scheduledTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+        if (maxJitterMillis > 0) {
+            dueMillis += ThreadLocalRandom.current().nextLong(maxJitterMillis + 1);
+        }
+        synchronized (wheel) {
+            wheel.add(dueMillis, scheduledId);
+        }
+    }
+
+    private void runTicker() {
+        while (running) {
+            List<String> due;
+            synchronized (wheel) {
+                due = wheel.advanceTo(clock.millis());
+            }
+            dueQueue.addAll(due);
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            String scheduledId;
+            try {
+                scheduledId = dueQueue.poll(tickMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (scheduledId != null) {
+                execute(scheduledId);
+            }
+        }
+    }
+
+    private void execute(String scheduledId) {
+        queuedIds.remove(scheduledId);
+        Transaction scheduled;
+        try {
+            // Reclamo atómico: una cancelación concurrente o gana antes o ya no puede cancelarla
+            scheduled = orchestrator.claimScheduledTransfer(scheduledId).orElse(null);
+        } catch (RuntimeException e) {
+            // No se pudo leer o guardar: se reintenta en el siguiente tick
+            if (queuedIds.add(scheduledId)) {
+                retry(scheduledId);
+            }
+            return;
+        }
+        if (scheduled == null) {
+            skipped.increment();
+            return;
+        }
+
+        long lateness = clock.millis()
+            - scheduled.getScheduledAt().atZone(clock.getZone()).toInstant().toEpochMilli();
+        maxLatenessMillis.accumulateAndGet(lateness, Math::max);
+
+        TransferRequest request = new TransferRequest(scheduled.getSourceAccountNumber(),
+            scheduled.getTargetAccountNumber(), scheduled.getAmount(),
+            scheduled.getTransferType() != null ? scheduled.getTransferType() : TransferType.SAME_BANK);
+        request.setDescription(scheduled.getDescription());
+        request.setIdempotencyKey(KEY_PREFIX + scheduledId);
+
+        try {
+            TransferResult result = orchestrator.executeTransfer(request);
+            if (result.isSuccessful()) {
+                scheduled.setStatus(TransactionStatus.EXECUTED);
+                scheduled.setExecutedTransferId(result.getTransferId());
+                executed.increment();
+            } else {
+                markFailed(scheduled, result.getErrorCode());
+            }
+        } catch (BankingException e) {
+            markFailed(scheduled, e.getErrorCode());
+        } catch (RuntimeException e) {
+            markFailed(scheduled, "UNEXPECTED_ERROR");
+        }
+        scheduled.setProcessedAt(LocalDateTime.now(clock));
+        try {
+            transactionRepository.save(scheduled);
+        } catch (RuntimeException e) {
+            // Queda en PROCESSING y se recarga al reiniciar; el almacén de idempotencia evita repetirla
+        }
+    }
+
+    private void markFailed(Transaction scheduled, String errorCode) {
+        scheduled.setStatus(TransactionStatus.FAILED);
+        scheduled.setErrorCode(errorCode);
+        failed.increment();
+    }
+
+    private void retry(String scheduledId) {
+        synchronized (wheel) {
+            wheel.add(clock.millis() + tickMillis, scheduledId);
+        }
+    }
+
+    private static boolean isScheduledTransfer(Transaction transaction) {
+        return transaction.getType() == TransactionType.TRANSFER
+            && transaction.getScheduledAt() != null;
+    }
+
+    /**
+     * Contadores del programador.
+     */
+    public static class SchedulerStats {
+        private final long executed;
+        private final long failed;
+        private final long skipped;
+        private final long maxLatenessMillis;
+
+        public SchedulerStats(long executed, long failed, long skipped, long maxLatenessMillis) {
+            this.executed = executed;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.maxLatenessMillis = maxLatenessMillis;
+        }
+
+        public long getExecuted() {
+            return executed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return Vencimientos descartados porque la transferencia ya no estaba pendiente
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return Mayor retraso observado entre la fecha programada y el inicio de la ejecución
+         */
+        public long getMaxLatenessMillis() {
+            return maxLatenessMillis;
+        }
+    }
+}
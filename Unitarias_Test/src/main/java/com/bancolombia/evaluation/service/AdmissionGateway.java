@@ -0,0 +1,189 @@
+package com.bancolombia.evaluation.service;
+
+import com.bancolombia.evaluation.batch.BatchSummary;
+import com.bancolombia.evaluation.batch.TransferResultSink;
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.model.BatchTransferOptions;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.resilience.AdmissionController;
+import com.bancolombia.evaluation.resilience.AdmissionController.Priority;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Entrada a {@link TransferOrchestrator} y {@link PaymentProcessor} con control de admisión.
+ *
+ * Cada método delega en el del servicio con el mismo nombre después de pedir cupo al
+ * {@link AdmissionController}; si no hay, lanza {@link BankingException} {@code SYSTEM_BUSY}
+ * sin tocar cuentas ni dependencias. Las transferencias entre cuentas del banco y los pagos
+ * hasta {@code smallPaymentMaxAmount} son críticos, el resto de solicitudes individuales son
+ * normales y los lotes, streamings, dispersiones y capturas de varias retenciones son masivos.
+ * Las variantes asíncronas ocupan el cupo hasta que su futuro termina.
+ */
+public class AdmissionGateway {
+
+    private final TransferOrchestrator transferOrchestrator;
+    private final PaymentProcessor paymentProcessor;
+    private final AdmissionController admissionController;
+    private final BigDecimal smallPaymentMaxAmount;
+
+    /**
+     * @param smallPaymentMaxAmount Monto máximo de un pago para tratarlo como crítico
+     */
+    public AdmissionGateway(TransferOrchestrator transferOrchestrator, PaymentProcessor paymentProcessor,
+                            AdmissionController admissionController, BigDecimal smallPaymentMaxAmount) {
+        if (admissionController == null || smallPaymentMaxAmount == null) {
+            throw new IllegalArgumentException("El control de admisión y el monto de pago pequeño son requeridos");
+        }
+        this.transferOrchestrator = transferOrchestrator;
+        this.paymentProcessor = paymentProcessor;
+        this.admissionController = admissionController;
+        this.smallPaymentMaxAmount = smallPaymentMaxAmount;
+    }
+
+    /**
+     * @see TransferOrchestrator#executeTransfer
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para la prioridad de la transferencia
+     */
+    public TransferResult executeTransfer(TransferRequest request) {
+        return admissionController.execute(priorityOf(request),
+            () -> transferOrchestrator.executeTransfer(request));
+    }
+
+    /**
+     * @see TransferOrchestrator#executeBatchTransfer(List)
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para trabajo masivo
+     */
+    public Map<TransferRequest, TransferResult> executeBatchTransfer(List<TransferRequest> requests) {
+        return admissionController.execute(Priority.BULK, false,
+            () -> transferOrchestrator.executeBatchTransfer(requests));
+    }
+
+    /**
+     * @see TransferOrchestrator#executeTransferAsync
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para la prioridad de la transferencia
+     */
+    public CompletableFuture<TransferResult> executeTransferAsync(TransferRequest request, Executor executor) {
+        return admissionController.executeAsync(priorityOf(request), true,
+            () -> transferOrchestrator.executeTransferAsync(request, executor));
+    }
+
+    /**
+     * @see TransferOrchestrator#executeBatchTransfer(List, BatchTransferOptions)
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para trabajo masivo
+     */
+    public Map<TransferRequest, TransferResult> executeBatchTransfer(List<TransferRequest> requests,
+                                                                     BatchTransferOptions options) {
+        return admissionController.execute(Priority.BULK, false,
+            () -> transferOrchestrator.executeBatchTransfer(requests, options));
+    }
+
+    /**
+     * @see TransferOrchestrator#streamBatchTransfer(Iterator, int, TransferResultSink)
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para trabajo masivo
+     */
+    public BatchSummary streamBatchTransfer(Iterator<TransferRequest> requests, int maxConcurrency,
+                                            TransferResultSink sink) {
+        return admissionController.execute(Priority.BULK, false,
+            () -> transferOrchestrator.streamBatchTransfer(requests, maxConcurrency, sink));
+    }
+
+    /**
+     * @see TransferOrchestrator#streamBatchTransfer(Flow.Publisher, int, TransferResultSink)
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para trabajo masivo
+     */
+    public CompletableFuture<BatchSummary> streamBatchTransfer(Flow.Publisher<TransferRequest> requests,
+                                                              int maxConcurrency, TransferResultSink sink) {
+        return admissionController.executeAsync(Priority.BULK, false,
+            () -> transferOrchestrator.streamBatchTransfer(requests, maxConcurrency, sink));
+    }
+
+    /**
+     * @see TransferOrchestrator#executeDisbursement
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para trabajo masivo
+     */
+    public Map<TransferRequest, TransferResult> executeDisbursement(List<TransferRequest> payments,
+                                                                    int parallelism) {
+        return admissionController.execute(Priority.BULK, false,
+            () -> transferOrchestrator.executeDisbursement(payments, parallelism));
+    }
+
+    /**
+     * @see TransferOrchestrator#scheduleTransfer
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para la prioridad de la transferencia
+     */
+    public String scheduleTransfer(TransferRequest request, LocalDateTime scheduledTime) {
+        return admissionController.execute(priorityOf(request),
+            () -> transferOrchestrator.scheduleTransfer(request, scheduledTime));
+    }
+
+    /**
+     * @see PaymentProcessor#processPayment
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para la prioridad del pago
+     */
+    public PaymentResult processPayment(PaymentRequest request) {
+        return admissionController.execute(priorityOf(request),
+            () -> paymentProcessor.processPayment(request));
+    }
+
+    /**
+     * @see PaymentProcessor#processPaymentAsync
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para la prioridad del pago
+     */
+    public CompletableFuture<PaymentResult> processPaymentAsync(PaymentRequest request, Executor executor) {
+        return admissionController.executeAsync(priorityOf(request), true,
+            () -> paymentProcessor.processPaymentAsync(request, executor));
+    }
+
+    /**
+     * @see PaymentProcessor#authorizePayment
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para la prioridad del pago
+     */
+    public PaymentResult authorizePayment(PaymentRequest request) {
+        return admissionController.execute(priorityOf(request),
+            () -> paymentProcessor.authorizePayment(request));
+    }
+
+    /**
+     * @see PaymentProcessor#capturePayments
+     * @throws BankingException SYSTEM_BUSY si no hay cupo; una sola retención es normal y varias
+     *         son trabajo masivo
+     */
+    public List<PaymentResult> capturePayments(Collection<String> holdIds) {
+        boolean single = holdIds != null && holdIds.size() == 1;
+        return admissionController.execute(single ? Priority.NORMAL : Priority.BULK, single,
+            () -> paymentProcessor.capturePayments(holdIds));
+    }
+
+    /**
+     * @see PaymentProcessor#processPayments
+     * @throws BankingException SYSTEM_BUSY si no hay cupo para trabajo masivo
+     */
+    public List<PaymentResult> processPayments(Collection<PaymentRequest> requests) {
+        return admissionController.execute(Priority.BULK, false,
+            () -> paymentProcessor.processPayments(requests));
+    }
+
+    Priority priorityOf(TransferRequest request) {
+        return request != null && request.getTransferType() == TransferType.SAME_BANK
+            ? Priority.CRITICAL : Priority.NORMAL;
+    }
+
+    Priority priorityOf(PaymentRequest request) {
+        return request != null && request.getAmount() != null
+            && request.getAmount().compareTo(smallPaymentMaxAmount) <= 0
+            ? Priority.CRITICAL : Priority.NORMAL;
+    }
+}
@@ -1,21 +1,32 @@
 package com.bancolombia.evaluation.service;
 
+import com.bancolombia.evaluation.authorization.Hold;
+import com.bancolombia.evaluation.authorization.HoldLedger;
 import com.bancolombia.evaluation.exception.*;
 import com.bancolombia.evaluation.external.AuditService;
 import com.bancolombia.evaluation.external.FraudDetectionService;
 import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.idempotency.IdempotencyStore;
 import com.bancolombia.evaluation.model.*;
 import com.bancolombia.evaluation.repository.AccountRepository;
 import com.bancolombia.evaluation.repository.TransactionRepository;
+import com.bancolombia.evaluation.repository.UnitOfWork;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * NIVEL 3: AVANZADO
@@ -47,21 +58,57 @@ public class PaymentProcessor {
     private final FraudDetectionService fraudDetectionService;
     private final NotificationService notificationService;
     private final AuditService auditService;
+    private final IdempotencyStore<PaymentResult> idempotencyStore;
+    private final HoldLedger holdLedger;
 
     public PaymentProcessor(AccountRepository accountRepository,
                             TransactionRepository transactionRepository,
                             FraudDetectionService fraudDetectionService,
                             NotificationService notificationService,
                             AuditService auditService) {
+        this(accountRepository, transactionRepository, fraudDetectionService, notificationService,
+            auditService, null);
+    }
+
+    /**
+     * @param idempotencyStore Resultados por clave de idempotencia para que los reintentos no
+     *                         dupliquen pagos; null para ejecutar siempre
+     */
+    public PaymentProcessor(AccountRepository accountRepository,
+                            TransactionRepository transactionRepository,
+                            FraudDetectionService fraudDetectionService,
+                            NotificationService notificationService,
+                            AuditService auditService,
+                            IdempotencyStore<PaymentResult> idempotencyStore) {
+        this(accountRepository, transactionRepository, fraudDetectionService, notificationService,
+            auditService, idempotencyStore, null);
+    }
+
+    /**
+     * @param idempotencyStore Resultados por clave de idempotencia; null para ejecutar siempre
+     * @param holdLedger Retenciones de los pagos autorizados y no capturados; null para no
+     *                   soportar pagos en dos fases
+     */
+    public PaymentProcessor(AccountRepository accountRepository,
+                            TransactionRepository transactionRepository,
+                            FraudDetectionService fraudDetectionService,
+                            NotificationService notificationService,
+                            AuditService auditService,
+                            IdempotencyStore<PaymentResult> idempotencyStore,
+                            HoldLedger holdLedger) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
         this.fraudDetectionService = fraudDetectionService;
         this.notificationService = notificationService;
         this.auditService = auditService;
+        this.idempotencyStore = idempotencyStore;
+        this.holdLedger = holdLedger;
     }
 
     /**
      * Procesa un pago completo con validaciones de fraude y reglas de negocio.
+     * Si la solicitud trae clave de idempotencia y hay almacén configurado, un reintento con la
+     * misma clave retorna el resultado original sin ejecutar nada.
      * 
      * @param request Solicitud de pago
      * @return Resultado del pago
@@ -72,6 +119,78 @@ public class PaymentProcessor {
     public PaymentResult processPayment(PaymentRequest request) {
         validatePaymentRequest(request);
 
+        if (idempotencyStore != null && request.getIdempotencyKey() != null) {
+            return idempotencyStore.execute(request.getIdempotencyKey(), fingerprint(request),
+                () -> pay(request));
+        }
+        return pay(request);
+    }
+
+    private PaymentResult pay(PaymentRequest request) {
+        Account sourceAccount = loadPaymentAccount(request);
+
+        // Verificar lista negra
+        if (fraudDetectionService.isBlacklisted(request.getSourceAccountNumber())) {
+            return blacklistedFailure();
+        }
+
+        // Evaluar riesgo de fraude
+        int riskScore = fraudDetectionService.evaluateTransactionRisk(
+            request.getSourceAccountNumber(), request.getAmount());
+
+        return completePayment(request, sourceAccount, riskScore);
+    }
+
+    /**
+     * Versión asíncrona de {@link #processPayment}. Las llamadas a repositorios, fraude,
+     * auditoría y notificaciones corren en {@code executor}, y la consulta de lista negra y la
+     * evaluación de riesgo se lanzan en paralelo (si la cuenta está en lista negra, el riesgo se
+     * descarta). El resultado, los códigos de error y el orden de auditoría son los mismos que en
+     * la versión síncrona, y el futuro falla con la excepción que esta lanzaría.
+     *
+     * Si la solicitud trae clave de idempotencia y hay almacén configurado, el pago se ejecuta
+     * completo en {@code executor} con la versión síncrona.
+     *
+     * @param executor Hilos donde se ejecutan las llamadas bloqueantes
+     */
+    public CompletableFuture<PaymentResult> processPaymentAsync(PaymentRequest request, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("El executor es requerido");
+        }
+        if (idempotencyStore != null && request != null && request.getIdempotencyKey() != null) {
+            return CompletableFuture.supplyAsync(() -> processPayment(request), executor);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            validatePaymentRequest(request);
+            return loadPaymentAccount(request);
+        }, executor).thenCompose(sourceAccount -> {
+            CompletableFuture<Boolean> blacklisted = CompletableFuture.supplyAsync(
+                () -> fraudDetectionService.isBlacklisted(request.getSourceAccountNumber()), executor);
+            CompletableFuture<Integer> riskScore = CompletableFuture.supplyAsync(
+                () -> fraudDetectionService.evaluateTransactionRisk(
+                    request.getSourceAccountNumber(), request.getAmount()), executor);
+            return blacklisted.thenCompose(isBlacklisted -> isBlacklisted
+                ? CompletableFuture.completedFuture(blacklistedFailure())
+                : riskScore.thenApplyAsync(score -> completePayment(request, sourceAccount, score), executor));
+        });
+    }
+
+    /**
+     * Versión asíncrona de {@link #processRefund}: lo ejecuta en {@code executor} y el futuro
+     * falla con la excepción que lanzaría la versión síncrona.
+     */
+    public CompletableFuture<PaymentResult> processRefundAsync(String originalTransactionId, BigDecimal amount,
+                                                               Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("El executor es requerido");
+        }
+        return CompletableFuture.supplyAsync(() -> processRefund(originalTransactionId, amount), executor);
+    }
+
+    /**
+     * Carga la cuenta origen y valida su estado y el horario, antes de los controles de fraude.
+     */
+    private Account loadPaymentAccount(PaymentRequest request) {
         // Verificar cuenta origen
         Account sourceAccount = accountRepository.findByAccountNumber(request.getSourceAccountNumber())
                 .orElseThrow(() -> new AccountNotFoundException(request.getSourceAccountNumber()));
@@ -83,18 +202,20 @@ public class PaymentProcessor {
         if (request.getAmount().compareTo(SUSPICIOUS_AMOUNT_THRESHOLD) >= 0) {
             validateBusinessHours();
         }
+        return sourceAccount;
+    }
 
-        // Verificar lista negra
-        if (fraudDetectionService.isBlacklisted(request.getSourceAccountNumber())) {
-            return PaymentResult.failure("BLACKLISTED", 
-                "La cuenta se encuentra bloqueada por seguridad");
-        }
-
-        // Evaluar riesgo de fraude
-        int riskScore = fraudDetectionService.evaluateTransactionRisk(
-            request.getSourceAccountNumber(), request.getAmount());
+    private static PaymentResult blacklistedFailure() {
+        return PaymentResult.failure("BLACKLISTED", 
+            "La cuenta se encuentra bloqueada por seguridad");
+    }
 
+    /**
+     * Resto del pago una vez conocidos la lista negra y el riesgo.
+     */
+    private PaymentResult completePayment(PaymentRequest request, Account sourceAccount, int riskScore) {
         if (riskScore >= HIGH_RISK_THRESHOLD) {
+            fraudDetectionService.invalidateAccount(request.getSourceAccountNumber());
             fraudDetectionService.reportSuspiciousActivity(
                 UUID.randomUUID().toString(), 
                 "Pago de alto riesgo detectado: score " + riskScore);
@@ -109,9 +230,10 @@ public class PaymentProcessor {
         BigDecimal commission = calculateCommission(request);
         BigDecimal totalAmount = request.getAmount().add(commission);
 
-        // Verificar saldo suficiente
-        if (sourceAccount.getBalance().compareTo(totalAmount) < 0) {
-            throw new InsufficientFundsException(sourceAccount.getBalance(), totalAmount);
+        // Verificar saldo suficiente, descontando lo retenido por pagos autorizados
+        BigDecimal available = availableBalance(sourceAccount);
+        if (available.compareTo(totalAmount) < 0) {
+            throw new InsufficientFundsException(available, totalAmount);
         }
 
         // Validación adicional de fraude
@@ -121,7 +243,7 @@ public class PaymentProcessor {
         }
 
         // Registrar auditoría
-        Map<String, Object> metadata = createPaymentMetadata(request, riskScore);
+        AuditMetadata metadata = createPaymentMetadata(request, riskScore);
         String auditId = auditService.logOperationStart("PAYMENT", 
             request.getSourceAccountNumber(), metadata);
 
@@ -144,6 +266,291 @@ public class PaymentProcessor {
         }
     }
 
+    /**
+     * Procesa varios pagos (p. ej. la liquidación de un marketplace) con los mismos resultados que
+     * llamar {@link #processPayment} con cada uno en el orden recibido.
+     * 
+     * Cada cuenta origen distinta se carga una sola vez y su saldo se evalúa de forma acumulada:
+     * un pago solo ve los débitos de los pagos anteriores de la misma cuenta. La lista negra se
+     * consulta una vez por cuenta y el riesgo una vez por cuenta y monto; la consulta asume, igual
+     * que la caché de fraude, que la respuesta no cambia dentro del lote. Todas las cuentas y
+     * transacciones se guardan juntas en una {@link UnitOfWork}.
+     * 
+     * Donde {@link #processPayment} lanzaría una excepción, el pago queda con un resultado
+     * fallido con el código de error de la excepción y el resto del lote continúa. Si hay almacén
+     * de idempotencia y algún pago trae clave, el lote se procesa pago por pago para que cada
+     * clave se registre con su propio resultado.
+     * 
+     * @param requests Pagos del lote
+     * @return Resultado de cada pago, en el orden recibido
+     */
+    public List<PaymentResult> processPayments(Collection<PaymentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("La lista de pagos no puede estar vacía");
+        }
+        List<PaymentRequest> payments = new ArrayList<>(requests);
+        PaymentResult[] results = new PaymentResult[payments.size()];
+
+        if (idempotencyStore != null
+            && payments.stream().anyMatch(p -> p != null && p.getIdempotencyKey() != null)) {
+            for (int i = 0; i < payments.size(); i++) {
+                try {
+                    results[i] = processPayment(payments.get(i));
+                } catch (Exception e) {
+                    results[i] = bulkPaymentFailure(e);
+                }
+            }
+            return Arrays.asList(results);
+        }
+
+        Map<String, Account> accounts = new HashMap<>();
+        Map<String, Boolean> blacklisted = new HashMap<>();
+        Map<String, Integer> riskScores = new HashMap<>();
+        Map<Account, BigDecimal> previousBalances = new LinkedHashMap<>();
+        Map<Account, BigDecimal> debits = new HashMap<>();
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository);
+        List<PendingPayment> pending = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentRequest request = payments.get(i);
+            try {
+                validatePaymentRequest(request);
+                String accountNumber = request.getSourceAccountNumber();
+                Account sourceAccount = accounts.get(accountNumber);
+                if (sourceAccount == null) {
+                    sourceAccount = accountRepository.findByAccountNumber(accountNumber)
+                        .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+                    accounts.put(accountNumber, sourceAccount);
+                }
+                validateAccountStatus(sourceAccount);
+                if (request.getAmount().compareTo(SUSPICIOUS_AMOUNT_THRESHOLD) >= 0) {
+                    validateBusinessHours();
+                }
+                if (blacklisted.computeIfAbsent(accountNumber, fraudDetectionService::isBlacklisted)) {
+                    results[i] = blacklistedFailure();
+                    continue;
+                }
+                int riskScore = riskScores.computeIfAbsent(
+                    accountNumber + "|" + request.getAmount().toPlainString(),
+                    k -> fraudDetectionService.evaluateTransactionRisk(accountNumber, request.getAmount()));
+                if (riskScore >= HIGH_RISK_THRESHOLD) {
+                    fraudDetectionService.invalidateAccount(accountNumber);
+                    fraudDetectionService.reportSuspiciousActivity(
+                        UUID.randomUUID().toString(),
+                        "Pago de alto riesgo detectado: score " + riskScore);
+                    results[i] = PaymentResult.failure("HIGH_RISK",
+                        "Transacción rechazada por políticas de seguridad");
+                    continue;
+                }
+                validatePaymentMethodLimits(request);
+                BigDecimal commission = calculateCommission(request);
+                BigDecimal totalAmount = request.getAmount().add(commission);
+
+                // Saldo acumulado: incluye los débitos de los pagos anteriores del lote
+                BigDecimal available = availableBalance(sourceAccount);
+                if (available.compareTo(totalAmount) < 0) {
+                    throw new InsufficientFundsException(available, totalAmount);
+                }
+                if (!fraudDetectionService.validatePayment(request)) {
+                    results[i] = PaymentResult.failure("FRAUD_VALIDATION_FAILED",
+                        "El pago no pasó las validaciones de seguridad");
+                    continue;
+                }
+
+                String auditId = auditService.logOperationStart("PAYMENT", accountNumber,
+                    createPaymentMetadata(request, riskScore));
+                previousBalances.putIfAbsent(sourceAccount, sourceAccount.getBalance());
+                BigDecimal previousBalance = sourceAccount.getBalance();
+                sourceAccount.debit(totalAmount);
+                debits.merge(sourceAccount, totalAmount, BigDecimal::add);
+                sourceAccount.setLastTransactionAt(now);
+                unitOfWork.registerAccount(sourceAccount)
+                    .registerTransaction(createPaymentTransaction(sourceAccount, request, now));
+                pending.add(new PendingPayment(i, request, sourceAccount, previousBalance,
+                    totalAmount, commission, riskScore, auditId));
+            } catch (Exception e) {
+                results[i] = bulkPaymentFailure(e);
+            }
+        }
+        if (pending.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<Transaction> saved;
+        try {
+            saved = unitOfWork.commit();
+        } catch (Exception e) {
+            for (Map.Entry<Account, BigDecimal> previous : previousBalances.entrySet()) {
+                Account account = previous.getKey();
+                account.revert(debits.get(account).negate(), previous.getValue());
+                if (unitOfWork.isApplied(account)) {
+                    try {
+                        accountRepository.save(account);
+                    } catch (Exception rollbackError) {
+                        notificationService.sendEmail("operations@bank.com",
+                            "ALERTA CRÍTICA: Rollback fallido",
+                            "Lote de pagos con rollback incompleto. Cuenta: " + account.getAccountNumber());
+                    }
+                }
+            }
+            for (PendingPayment payment : pending) {
+                auditService.logOperationFailure(payment.auditId, "PROCESSING_ERROR", e.getMessage());
+                results[payment.index] = PaymentResult.failure("PROCESSING_ERROR", e.getMessage());
+            }
+            return Arrays.asList(results);
+        }
+
+        for (int i = 0; i < pending.size(); i++) {
+            PendingPayment payment = pending.get(i);
+            Transaction transaction = saved.get(i);
+            auditService.logBalanceChange(payment.account.getAccountNumber(), payment.previousBalance,
+                payment.previousBalance.subtract(payment.totalAmount), transaction.getTransactionId());
+            PaymentResult result = PaymentResult.success(transaction.getTransactionId(),
+                "AUTH-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
+                payment.totalAmount, payment.commission);
+            auditService.logOperationSuccess(payment.auditId, result.getAuthorizationCode());
+            sendNotifications(payment.request, result, payment.riskScore);
+            results[payment.index] = result;
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Autoriza un pago con tarjeta o QR sin debitarlo: aplica las mismas validaciones que
+     * {@link #processPayment} y retiene el monto más la comisión en el {@link HoldLedger}. La
+     * retención solo toca un contador en memoria; el débito ocurre al capturar.
+     * 
+     * @param request Solicitud de pago con método DEBIT_CARD, CREDIT_CARD o QR_CODE
+     * @return Resultado con el ID de la retención como ID del pago
+     * @throws TransactionNotAllowedException si el método de pago no admite autorización
+     * @throws InsufficientFundsException si el disponible no alcanza
+     */
+    public PaymentResult authorizePayment(PaymentRequest request) {
+        validatePaymentRequest(request);
+        requireHoldLedger();
+        if (!isAuthorizable(request.getPaymentMethod())) {
+            throw new TransactionNotAllowedException("AUTHORIZATION_NOT_SUPPORTED",
+                "El método de pago no admite autorización: " + request.getPaymentMethod());
+        }
+
+        Account sourceAccount = loadPaymentAccount(request);
+        if (fraudDetectionService.isBlacklisted(request.getSourceAccountNumber())) {
+            return blacklistedFailure();
+        }
+        int riskScore = fraudDetectionService.evaluateTransactionRisk(
+            request.getSourceAccountNumber(), request.getAmount());
+        if (riskScore >= HIGH_RISK_THRESHOLD) {
+            fraudDetectionService.invalidateAccount(request.getSourceAccountNumber());
+            fraudDetectionService.reportSuspiciousActivity(
+                UUID.randomUUID().toString(), 
+                "Pago de alto riesgo detectado: score " + riskScore);
+            return PaymentResult.failure("HIGH_RISK", 
+                "Transacción rechazada por políticas de seguridad");
+        }
+        validatePaymentMethodLimits(request);
+        if (!fraudDetectionService.validatePayment(request)) {
+            return PaymentResult.failure("FRAUD_VALIDATION_FAILED", 
+                "El pago no pasó las validaciones de seguridad");
+        }
+
+        Hold hold = holdLedger.authorize(sourceAccount, request, calculateCommission(request), riskScore);
+        PaymentResult result = PaymentResult.success(hold.getHoldId(), hold.getAuthorizationCode(),
+            hold.getTotalAmount(), hold.getCommission());
+        result.setMessage("Pago autorizado; pendiente de captura");
+        return result;
+    }
+
+    /**
+     * Captura un pago autorizado: debita la cuenta y registra la transacción.
+     * 
+     * @param holdId ID de la retención retornado por {@link #authorizePayment}
+     * @return Resultado con el ID de la transacción de pago
+     * @throws BankingException HOLD_NOT_CAPTURABLE si la retención no existe, venció o ya se
+     *         capturó o anuló
+     */
+    public PaymentResult capturePayment(String holdId) {
+        return capturePayments(List.of(holdId)).get(0);
+    }
+
+    /**
+     * Captura varios pagos autorizados en una sola escritura; cada cuenta se guarda una vez.
+     * Las retenciones que no pueden capturarse quedan con resultado fallido sin afectar las demás.
+     * 
+     * @param holdIds IDs de las retenciones
+     * @return Resultado de cada captura, en el orden recibido
+     */
+    public List<PaymentResult> capturePayments(Collection<String> holdIds) {
+        if (holdIds == null || holdIds.isEmpty()) {
+            throw new IllegalArgumentException("La lista de retenciones no puede estar vacía");
+        }
+        requireHoldLedger();
+        Map<String, Hold> pending = new LinkedHashMap<>();
+        Map<String, String> auditIds = new HashMap<>();
+        for (String holdId : holdIds) {
+            holdLedger.findHold(holdId).ifPresent(hold -> {
+                pending.put(holdId, hold);
+                auditIds.put(holdId, auditService.logOperationStart("PAYMENT_CAPTURE",
+                    hold.getAccountNumber(), createPaymentMetadata(hold.getRequest(), hold.getRiskScore())));
+            });
+        }
+
+        HoldLedger.CaptureBatch batch;
+        try {
+            batch = holdLedger.captureBatch(holdIds);
+        } catch (RuntimeException e) {
+            for (String auditId : auditIds.values()) {
+                auditService.logOperationFailure(auditId, "PROCESSING_ERROR", e.getMessage());
+            }
+            throw e;
+        }
+        for (HoldLedger.BalanceChange change : batch.getBalanceChanges()) {
+            auditService.logBalanceChange(change.getAccountNumber(), change.getPreviousBalance(),
+                change.getNewBalance(), change.getTransactionId());
+        }
+
+        Map<String, Transaction> captured = batch.getTransactions();
+        List<PaymentResult> results = new ArrayList<>(holdIds.size());
+        for (String holdId : holdIds) {
+            Transaction transaction = captured.get(holdId);
+            Hold hold = pending.get(holdId);
+            String auditId = auditIds.get(holdId);
+            if (transaction == null && hold != null && hold.getStatus() == Hold.Status.AUTHORIZED) {
+                auditService.logOperationFailure(auditId, "INSUFFICIENT_FUNDS",
+                    "El saldo de la cuenta ya no cubre la retención");
+                results.add(PaymentResult.failure("INSUFFICIENT_FUNDS",
+                    "El saldo de la cuenta ya no cubre la retención: " + holdId));
+                continue;
+            }
+            if (transaction == null || hold == null) {
+                if (auditId != null) {
+                    auditService.logOperationFailure(auditId, "HOLD_NOT_CAPTURABLE",
+                        "La retención ya no está autorizada");
+                }
+                results.add(PaymentResult.failure("HOLD_NOT_CAPTURABLE",
+                    "La retención no existe o ya no está autorizada: " + holdId));
+                continue;
+            }
+            PaymentResult result = PaymentResult.success(transaction.getTransactionId(),
+                hold.getAuthorizationCode(), hold.getTotalAmount(), hold.getCommission());
+            auditService.logOperationSuccess(auditId, hold.getAuthorizationCode());
+            sendNotifications(hold.getRequest(), result, hold.getRiskScore());
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Anula un pago autorizado y libera sus fondos.
+     * 
+     * @param holdId ID de la retención
+     * @return false si la retención no existe o ya no está autorizada
+     */
+    public boolean voidPayment(String holdId) {
+        requireHoldLedger();
+        return holdLedger.voidHold(holdId);
+    }
+
     /**
      * Procesa un reembolso de un pago anterior.
      * 
@@ -178,12 +585,10 @@ public class PaymentProcessor {
 
         // Procesar reembolso
         BigDecimal previousBalance = account.getBalance();
-        account.setBalance(previousBalance.add(amount));
-        accountRepository.save(account);
+        account.credit(amount);
 
         // Marcar transacción original como reembolsada
         originalTransaction.setStatus(TransactionStatus.REVERSED);
-        transactionRepository.save(originalTransaction);
 
         // Crear transacción de reembolso
         Transaction refundTransaction = new Transaction();
@@ -194,17 +599,32 @@ public class PaymentProcessor {
         refundTransaction.setDescription("Reembolso de transacción: " + originalTransactionId);
         refundTransaction.setReferenceNumber(originalTransactionId);
         refundTransaction.setProcessedAt(LocalDateTime.now());
-        transactionRepository.save(refundTransaction);
+
+        // Crédito, reverso y reembolso se confirman juntos
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository)
+            .registerAccount(account)
+            .registerTransaction(originalTransaction)
+            .registerTransaction(refundTransaction);
+        Transaction savedRefund;
+        try {
+            savedRefund = unitOfWork.commit().get(1);
+        } catch (RuntimeException e) {
+            if (!unitOfWork.isApplied(account)) {
+                account.revert(amount, previousBalance);
+                originalTransaction.setStatus(TransactionStatus.COMPLETED);
+            }
+            throw e;
+        }
 
         // Auditar
         auditService.logBalanceChange(account.getAccountNumber(), 
-            previousBalance, account.getBalance(), refundTransaction.getTransactionId());
+            previousBalance, account.getBalance(), savedRefund.getTransactionId());
 
         // Notificar
-        notificationService.notifyTransactionCompleted(refundTransaction);
+        notificationService.notifyTransactionCompleted(savedRefund);
 
         return PaymentResult.success(
-            refundTransaction.getTransactionId(),
+            savedRefund.getTransactionId(),
             "REF-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
             amount,
             BigDecimal.ZERO
@@ -235,7 +655,7 @@ public class PaymentProcessor {
             BigDecimal totalWithCommission = request.getAmount()
                     .add(calculateCommission(request));
 
-            return account.getBalance().compareTo(totalWithCommission) >= 0;
+            return availableBalance(account).compareTo(totalWithCommission) >= 0;
 
         } catch (Exception e) {
             return false;
@@ -262,6 +682,12 @@ public class PaymentProcessor {
         }
     }
 
+    private static String fingerprint(PaymentRequest request) {
+        return request.getSourceAccountNumber() + "|" + request.getMerchantId() + "|"
+            + request.getAmount().stripTrailingZeros().toPlainString() + "|" + request.getCurrency()
+            + "|" + request.getPaymentMethod();
+    }
+
     private void validateAccountStatus(Account account) {
         if (account.getStatus() == AccountStatus.BLOCKED) {
             throw new TransactionNotAllowedException("ACCOUNT_BLOCKED",
@@ -315,32 +741,32 @@ public class PaymentProcessor {
                 .setScale(2, RoundingMode.HALF_UP);
     }
 
-    private Map<String, Object> createPaymentMetadata(PaymentRequest request, int riskScore) {
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("amount", request.getAmount());
-        metadata.put("merchantId", request.getMerchantId());
-        metadata.put("paymentMethod", request.getPaymentMethod());
-        metadata.put("riskScore", riskScore);
-        return metadata;
+    private AuditMetadata createPaymentMetadata(PaymentRequest request, int riskScore) {
+        return AuditMetadata.forPayment(request, riskScore);
     }
 
     private PaymentResult executePayment(Account account, PaymentRequest request,
                                           BigDecimal totalAmount, BigDecimal commission) {
         BigDecimal previousBalance = account.getBalance();
         BigDecimal newBalance = previousBalance.subtract(totalAmount);
-        account.setBalance(newBalance);
+        account.debit(totalAmount);
         account.setLastTransactionAt(LocalDateTime.now());
-        accountRepository.save(account);
 
-        Transaction transaction = new Transaction();
-        transaction.setSourceAccountNumber(account.getAccountNumber());
-        transaction.setAmount(request.getAmount());
-        transaction.setType(TransactionType.PAYMENT);
-        transaction.setDescription(request.getDescription() != null ? 
-            request.getDescription() : "Pago a " + request.getMerchantId());
-        transaction.setStatus(TransactionStatus.COMPLETED);
-        transaction.setProcessedAt(LocalDateTime.now());
-        Transaction saved = transactionRepository.save(transaction);
+        Transaction transaction = createPaymentTransaction(account, request, LocalDateTime.now());
+
+        // Débito y transacción se confirman juntos
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository)
+            .registerAccount(account)
+            .registerTransaction(transaction);
+        Transaction saved;
+        try {
+            saved = unitOfWork.commit().get(0);
+        } catch (RuntimeException e) {
+            if (!unitOfWork.isApplied(account)) {
+                account.revert(totalAmount.negate(), previousBalance);
+            }
+            throw e;
+        }
 
         auditService.logBalanceChange(account.getAccountNumber(), 
             previousBalance, newBalance, saved.getTransactionId());
@@ -355,6 +781,44 @@ public class PaymentProcessor {
         );
     }
 
+    private Transaction createPaymentTransaction(Account account, PaymentRequest request,
+                                                 LocalDateTime processedAt) {
+        Transaction transaction = new Transaction();
+        transaction.setSourceAccountNumber(account.getAccountNumber());
+        transaction.setAmount(request.getAmount());
+        transaction.setType(TransactionType.PAYMENT);
+        transaction.setMerchantId(request.getMerchantId());
+        transaction.setDescription(request.getDescription() != null ? 
+            request.getDescription() : "Pago a " + request.getMerchantId());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(processedAt);
+        return transaction;
+    }
+
+    private BigDecimal availableBalance(Account account) {
+        if (holdLedger == null) {
+            return account.getBalance();
+        }
+        return holdLedger.availableBalance(account);
+    }
+
+    private void requireHoldLedger() {
+        if (holdLedger == null) {
+            throw new IllegalStateException("Los pagos en dos fases requieren un libro de retenciones");
+        }
+    }
+
+    private static boolean isAuthorizable(PaymentMethod paymentMethod) {
+        return paymentMethod == PaymentMethod.DEBIT_CARD || paymentMethod == PaymentMethod.CREDIT_CARD
+            || paymentMethod == PaymentMethod.QR_CODE;
+    }
+
+    private static PaymentResult bulkPaymentFailure(Exception e) {
+        String errorCode = e instanceof BankingException
+            ? ((BankingException) e).getErrorCode() : "INVALID_REQUEST";
+        return PaymentResult.failure(errorCode, e.getMessage());
+    }
+
     private void sendNotifications(PaymentRequest request, PaymentResult result, int riskScore) {
         notificationService.sendPushNotification(
             request.getSourceAccountNumber(),
@@ -371,4 +835,30 @@ public class PaymentProcessor {
             );
         }
     }
+
+    /**
+     * Pago aceptado dentro de un lote, a la espera de confirmar la unidad de trabajo.
+     */
+    private static final class PendingPayment {
+        private final int index;
+        private final PaymentRequest request;
+        private final Account account;
+        private final BigDecimal previousBalance;
+        private final BigDecimal totalAmount;
+        private final BigDecimal commission;
+        private final int riskScore;
+        private final String auditId;
+
+        private PendingPayment(int index, PaymentRequest request, Account account, BigDecimal previousBalance,
+                               BigDecimal totalAmount, BigDecimal commission, int riskScore, String auditId) {
+            this.index = index;
+            this.request = request;
+            this.account = account;
+            this.previousBalance = previousBalance;
+            this.totalAmount = totalAmount;
+            this.commission = commission;
+            this.riskScore = riskScore;
+            this.auditId = auditId;
+        }
+    }
 }
@@ -1,17 +1,24 @@
 package com.bancolombia.evaluation.service;
 
+import com.bancolombia.evaluation.authorization.HoldLedger;
 import com.bancolombia.evaluation.exception.*;
 import com.bancolombia.evaluation.external.AuditService;
 import com.bancolombia.evaluation.external.NotificationService;
 import com.bancolombia.evaluation.model.*;
 import com.bancolombia.evaluation.repository.AccountRepository;
 import com.bancolombia.evaluation.repository.TransactionRepository;
+import com.bancolombia.evaluation.repository.UnitOfWork;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * NIVEL 2: INTERMEDIO
@@ -38,15 +45,29 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final NotificationService notificationService;
     private final AuditService auditService;
+    private final HoldLedger holdLedger;
 
     public TransactionService(AccountRepository accountRepository,
                               TransactionRepository transactionRepository,
                               NotificationService notificationService,
                               AuditService auditService) {
+        this(accountRepository, transactionRepository, notificationService, auditService, null);
+    }
+
+    /**
+     * @param holdLedger Retenciones de pagos autorizados; los retiros se verifican contra el
+     *                   disponible (saldo menos lo retenido). null si no hay pagos en dos fases
+     */
+    public TransactionService(AccountRepository accountRepository,
+                              TransactionRepository transactionRepository,
+                              NotificationService notificationService,
+                              AuditService auditService,
+                              HoldLedger holdLedger) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
         this.notificationService = notificationService;
         this.auditService = auditService;
+        this.holdLedger = holdLedger;
     }
 
     /**
@@ -72,9 +93,7 @@ public class TransactionService {
         }
 
         // Registrar inicio de operación en auditoría
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("amount", amount);
-        metadata.put("type", "DEPOSIT");
+        AuditMetadata metadata = AuditMetadata.forMovement("DEPOSIT", amount);
         String auditId = auditService.logOperationStart("DEPOSIT", accountNumber, metadata);
 
         try {
@@ -88,8 +107,8 @@ public class TransactionService {
 
             // Actualizar saldo
             BigDecimal previousBalance = account.getBalance();
-            BigDecimal newBalance = previousBalance.add(amount);
-            account.setBalance(newBalance);
+            account.credit(amount);
+            BigDecimal newBalance = account.getBalance();
             account.setLastTransactionAt(LocalDateTime.now());
 
             // Persistir cambios
@@ -114,6 +133,19 @@ public class TransactionService {
         }
     }
 
+    /**
+     * Versión asíncrona de {@link #processDeposit}: lo ejecuta en {@code executor}, con la
+     * misma auditoría y notificación, y el futuro falla con la excepción que lanzaría la versión
+     * síncrona.
+     *
+     * @param executor Hilos donde se ejecutan las llamadas bloqueantes
+     */
+    public CompletableFuture<Transaction> processDepositAsync(String accountNumber, BigDecimal amount,
+                                                              String description, Executor executor) {
+        requireExecutor(executor);
+        return CompletableFuture.supplyAsync(() -> processDeposit(accountNumber, amount, description), executor);
+    }
+
     /**
      * Procesa un retiro de una cuenta.
      * 
@@ -143,15 +175,14 @@ public class TransactionService {
                 "Se ha alcanzado el límite diario de transacciones");
         }
 
-        // Verificar saldo suficiente
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException(account.getBalance(), amount);
+        // Verificar saldo disponible suficiente
+        BigDecimal available = availableBalance(account);
+        if (available.compareTo(amount) < 0) {
+            throw new InsufficientFundsException(available, amount);
         }
 
         // Registrar inicio de operación en auditoría
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("amount", amount);
-        metadata.put("type", "WITHDRAWAL");
+        AuditMetadata metadata = AuditMetadata.forMovement("WITHDRAWAL", amount);
         String auditId = auditService.logOperationStart("WITHDRAWAL", accountNumber, metadata);
 
         try {
@@ -166,7 +197,7 @@ public class TransactionService {
             // Actualizar saldo
             BigDecimal previousBalance = account.getBalance();
             BigDecimal newBalance = previousBalance.subtract(amount);
-            account.setBalance(newBalance);
+            account.debit(amount);
             account.setLastTransactionAt(LocalDateTime.now());
 
             // Persistir cambios
@@ -191,6 +222,224 @@ public class TransactionService {
         }
     }
 
+    /**
+     * Versión asíncrona de {@link #processWithdrawal}, con las mismas garantías que
+     * {@link #processDepositAsync}.
+     */
+    public CompletableFuture<Transaction> processWithdrawalAsync(String accountNumber, BigDecimal amount,
+                                                                 String description, Executor executor) {
+        requireExecutor(executor);
+        return CompletableFuture.supplyAsync(() -> processWithdrawal(accountNumber, amount, description), executor);
+    }
+
+    /**
+     * Procesa un lote de depósitos (p. ej. el cierre de una integración de recaudo).
+     * 
+     * Los depósitos se agrupan por cuenta: cada cuenta se consulta y se guarda una sola vez, todas
+     * las transacciones se escriben juntas en una {@link UnitOfWork}, y la auditoría y las
+     * notificaciones se emiten por lote y por cuenta en lugar de por depósito.
+     * 
+     * Un depósito inválido (monto fuera de rango, cuenta inexistente o inactiva) se reporta en su
+     * resultado sin detener el lote.
+     * 
+     * @param deposits Depósitos del lote
+     * @return Resultado de cada depósito, en el orden recibido
+     */
+    public List<MovementResult> processBulkDeposits(List<MovementRequest> deposits) {
+        return processBulk(deposits, TransactionType.DEPOSIT);
+    }
+
+    /**
+     * Procesa un lote de retiros con las mismas reglas que {@link #processWithdrawal}.
+     * 
+     * Los retiros de una misma cuenta se evalúan en el orden recibido contra el saldo y el límite
+     * diario que van quedando, de modo que un retiro sin fondos solo falla él y los siguientes que
+     * sí alcanzan se aplican.
+     * 
+     * @param withdrawals Retiros del lote
+     * @return Resultado de cada retiro, en el orden recibido
+     */
+    public List<MovementResult> processBulkWithdrawals(List<MovementRequest> withdrawals) {
+        return processBulk(withdrawals, TransactionType.WITHDRAWAL);
+    }
+
+    private List<MovementResult> processBulk(List<MovementRequest> movements, TransactionType type) {
+        if (movements == null || movements.isEmpty()) {
+            throw new IllegalArgumentException("La lista de movimientos no puede estar vacía");
+        }
+        boolean deposit = type == TransactionType.DEPOSIT;
+        MovementResult[] results = new MovementResult[movements.size()];
+
+        // Validación individual y agrupación por cuenta
+        Map<String, List<Integer>> movementsByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < movements.size(); i++) {
+            MovementRequest movement = movements.get(i);
+            try {
+                if (movement == null || movement.getAccountNumber() == null) {
+                    throw new IllegalArgumentException("La cuenta del movimiento es requerida");
+                }
+                validateAmount(movement.getAmount());
+                movementsByAccount.computeIfAbsent(movement.getAccountNumber(), k -> new ArrayList<>()).add(i);
+            } catch (Exception e) {
+                results[i] = bulkItemFailure(movement, e);
+            }
+        }
+
+        String bulkReference = "BLK-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository);
+        Map<Account, BigDecimal> previousBalances = new LinkedHashMap<>();
+        Map<Account, BigDecimal> appliedDeltas = new LinkedHashMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, List<Integer>> entry : movementsByAccount.entrySet()) {
+            String accountNumber = entry.getKey();
+            Account account;
+            int todayTransactions = 0;
+            try {
+                account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+                if (account.getStatus() != AccountStatus.ACTIVE) {
+                    throw new TransactionNotAllowedException((deposit
+                        ? "No se puede depositar en una cuenta con estado: "
+                        : "No se puede retirar de una cuenta con estado: ") + account.getStatus());
+                }
+                if (!deposit) {
+                    todayTransactions = transactionRepository.countTodayTransactionsByAccount(accountNumber);
+                }
+            } catch (Exception e) {
+                for (int index : entry.getValue()) {
+                    results[index] = bulkItemFailure(movements.get(index), e);
+                }
+                continue;
+            }
+
+            // En retiros se descuenta del disponible para respetar lo retenido
+            BigDecimal balance = deposit ? account.getBalance() : availableBalance(account);
+            BigDecimal accountTotal = BigDecimal.ZERO;
+            for (int index : entry.getValue()) {
+                MovementRequest movement = movements.get(index);
+                BigDecimal amount = movement.getAmount();
+                if (!deposit) {
+                    if (todayTransactions >= MAX_DAILY_TRANSACTIONS) {
+                        results[index] = bulkItemFailure(movement, new TransactionNotAllowedException(
+                            "DAILY_LIMIT_REACHED", "Se ha alcanzado el límite diario de transacciones"));
+                        continue;
+                    }
+                    if (balance.compareTo(amount) < 0) {
+                        results[index] = bulkItemFailure(movement,
+                            new InsufficientFundsException(balance, amount));
+                        continue;
+                    }
+                    todayTransactions++;
+                }
+                balance = deposit ? balance.add(amount) : balance.subtract(amount);
+                accountTotal = accountTotal.add(amount);
+
+                Transaction transaction = new Transaction();
+                if (deposit) {
+                    transaction.setTargetAccountNumber(accountNumber);
+                } else {
+                    transaction.setSourceAccountNumber(accountNumber);
+                }
+                transaction.setAmount(amount);
+                transaction.setType(type);
+                transaction.setDescription(movement.getDescription());
+                transaction.setReferenceNumber(bulkReference);
+                transaction.setStatus(TransactionStatus.COMPLETED);
+                transaction.setProcessedAt(now);
+                unitOfWork.registerTransaction(transaction);
+                accepted.add(index);
+            }
+            if (accountTotal.signum() != 0) {
+                previousBalances.put(account, account.getBalance());
+                if (deposit) {
+                    account.credit(accountTotal);
+                    appliedDeltas.put(account, accountTotal);
+                } else {
+                    account.debit(accountTotal);
+                    appliedDeltas.put(account, accountTotal.negate());
+                }
+                account.setLastTransactionAt(now);
+                unitOfWork.registerAccount(account);
+                total = total.add(accountTotal);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        String operationType = deposit ? "BULK_DEPOSIT" : "BULK_WITHDRAWAL";
+        String auditId = auditService.logOperationStart(operationType,
+            previousBalances.keySet().iterator().next().getAccountNumber(),
+            AuditMetadata.forBulkMovement(operationType, total, accepted.size(), previousBalances.size()));
+
+        List<Transaction> saved;
+        try {
+            saved = unitOfWork.commit();
+        } catch (Exception e) {
+            // Deshacer en memoria y compensar las cuentas que alcanzaron a guardarse
+            for (Map.Entry<Account, BigDecimal> previous : previousBalances.entrySet()) {
+                Account account = previous.getKey();
+                account.revert(appliedDeltas.get(account), previous.getValue());
+                if (unitOfWork.isApplied(account)) {
+                    try {
+                        accountRepository.save(account);
+                    } catch (Exception rollbackError) {
+                        notificationService.sendEmail("operations@bank.com",
+                            "ALERTA CRÍTICA: Rollback fallido",
+                            "Lote " + bulkReference + " con rollback incompleto. Cuenta: "
+                                + account.getAccountNumber());
+                    }
+                }
+            }
+            auditService.logOperationFailure(auditId, "PROCESSING_ERROR", e.getMessage());
+            for (int index : accepted) {
+                results[index] = MovementResult.failure(movements.get(index), "PROCESSING_ERROR", e.getMessage());
+            }
+            return Arrays.asList(results);
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = accepted.get(i);
+            results[index] = MovementResult.success(movements.get(index), saved.get(i));
+        }
+        for (Map.Entry<Account, BigDecimal> previous : previousBalances.entrySet()) {
+            Account account = previous.getKey();
+            auditService.logBalanceChange(account.getAccountNumber(), previous.getValue(),
+                account.getBalance(), bulkReference);
+        }
+        auditService.logOperationSuccess(auditId, bulkReference);
+
+        // Una notificación por cuenta con el total del lote
+        NotificationTemplate template = deposit ? NotificationTemplate.BULK_DEPOSIT
+            : NotificationTemplate.BULK_WITHDRAWAL;
+        for (Map.Entry<Account, BigDecimal> previous : previousBalances.entrySet()) {
+            Account account = previous.getKey();
+            BigDecimal accountTotal = account.getBalance().subtract(previous.getValue()).abs();
+            try {
+                notificationService.sendPushNotification(account.getAccountNumber(),
+                    NotificationMessage.of(template, accountTotal, account.getAccountNumber()));
+            } catch (Exception e) {
+                // Las notificaciones no son críticas
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private BigDecimal availableBalance(Account account) {
+        if (holdLedger == null) {
+            return account.getBalance();
+        }
+        return holdLedger.availableBalance(account);
+    }
+
+    private static MovementResult bulkItemFailure(MovementRequest movement, Exception e) {
+        String errorCode = e instanceof BankingException
+            ? ((BankingException) e).getErrorCode() : "INVALID_REQUEST";
+        return MovementResult.failure(movement, errorCode, e.getMessage());
+    }
+
     /**
      * Obtiene el historial de transacciones de una cuenta.
      * 
@@ -264,6 +513,12 @@ public class TransactionService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    private static void requireExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("El executor es requerido");
+        }
+    }
+
     private void validateAmount(BigDecimal amount) {
         if (amount == null) {
             throw new IllegalArgumentException("El monto no puede ser nulo");
@@ -1,19 +1,36 @@
 package com.bancolombia.evaluation.service;
 
+import com.bancolombia.evaluation.authorization.HoldLedger;
+import com.bancolombia.evaluation.batch.BatchSummary;
+import com.bancolombia.evaluation.batch.ConflictAwareBatchExecutor;
+import com.bancolombia.evaluation.batch.StreamingBatchExecutor;
+import com.bancolombia.evaluation.batch.TransferResultSink;
 import com.bancolombia.evaluation.exception.*;
 import com.bancolombia.evaluation.external.AuditService;
 import com.bancolombia.evaluation.external.FraudDetectionService;
 import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.idempotency.IdempotencyStore;
 import com.bancolombia.evaluation.model.*;
 import com.bancolombia.evaluation.repository.AccountRepository;
 import com.bancolombia.evaluation.repository.TransactionRepository;
+import com.bancolombia.evaluation.repository.UnitOfWork;
+import com.bancolombia.evaluation.saga.TransferSaga;
+import com.bancolombia.evaluation.saga.TransferSagaLog;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * NIVEL 4: EXPERTO
@@ -39,12 +56,28 @@ public class TransferOrchestrator {
     private static final long RETRY_DELAY_MS = 100;
     private static final int FRAUD_CHECK_TIMEOUT_SECONDS = 5;
 
+    /**
+     * Hilos compartidos por todas las dispersiones para cargar y acreditar destinos. Es elástico
+     * porque la carga de cuentas bloquea en el repositorio; cada dispersión limita cuántos usa.
+     */
+    private static final ExecutorService DISBURSEMENT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "disbursement-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int SCHEDULE_LOCK_STRIPES = 64;
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final FraudDetectionService fraudDetectionService;
     private final NotificationService notificationService;
     private final AuditService auditService;
     private final AccountValidator accountValidator;
+    private final TransferSagaLog sagaLog;
+    private final IdempotencyStore<TransferResult> idempotencyStore;
+    private final HoldLedger holdLedger;
+    private final Object[] scheduleLocks = new Object[SCHEDULE_LOCK_STRIPES];
 
     public TransferOrchestrator(AccountRepository accountRepository,
                                 TransactionRepository transactionRepository,
@@ -52,12 +85,69 @@ public class TransferOrchestrator {
                                 NotificationService notificationService,
                                 AuditService auditService,
                                 AccountValidator accountValidator) {
+        this(accountRepository, transactionRepository, fraudDetectionService, notificationService,
+            auditService, accountValidator, null);
+    }
+
+    /**
+     * @param sagaLog Log persistente de sagas para recuperar transferencias interrumpidas por una
+     *                caída; null para no registrarlas
+     */
+    public TransferOrchestrator(AccountRepository accountRepository,
+                                TransactionRepository transactionRepository,
+                                FraudDetectionService fraudDetectionService,
+                                NotificationService notificationService,
+                                AuditService auditService,
+                                AccountValidator accountValidator,
+                                TransferSagaLog sagaLog) {
+        this(accountRepository, transactionRepository, fraudDetectionService, notificationService,
+            auditService, accountValidator, sagaLog, null);
+    }
+
+    /**
+     * @param sagaLog Log persistente de sagas; null para no registrarlas
+     * @param idempotencyStore Resultados por clave de idempotencia para que los reintentos no
+     *                         dupliquen transferencias; null para ejecutar siempre
+     */
+    public TransferOrchestrator(AccountRepository accountRepository,
+                                TransactionRepository transactionRepository,
+                                FraudDetectionService fraudDetectionService,
+                                NotificationService notificationService,
+                                AuditService auditService,
+                                AccountValidator accountValidator,
+                                TransferSagaLog sagaLog,
+                                IdempotencyStore<TransferResult> idempotencyStore) {
+        this(accountRepository, transactionRepository, fraudDetectionService, notificationService,
+            auditService, accountValidator, sagaLog, idempotencyStore, null);
+    }
+
+    /**
+     * @param sagaLog Log persistente de sagas; null para no registrarlas
+     * @param idempotencyStore Resultados por clave de idempotencia; null para ejecutar siempre
+     * @param holdLedger Retenciones de pagos autorizados; los débitos se verifican contra el
+     *                   disponible (saldo menos lo retenido). null si no hay pagos en dos fases
+     */
+    public TransferOrchestrator(AccountRepository accountRepository,
+                                TransactionRepository transactionRepository,
+                                FraudDetectionService fraudDetectionService,
+                                NotificationService notificationService,
+                                AuditService auditService,
+                                AccountValidator accountValidator,
+                                TransferSagaLog sagaLog,
+                                IdempotencyStore<TransferResult> idempotencyStore,
+                                HoldLedger holdLedger) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
         this.fraudDetectionService = fraudDetectionService;
         this.notificationService = notificationService;
         this.auditService = auditService;
         this.accountValidator = accountValidator;
+        this.sagaLog = sagaLog;
+        this.idempotencyStore = idempotencyStore;
+        this.holdLedger = holdLedger;
+        for (int i = 0; i < scheduleLocks.length; i++) {
+            scheduleLocks[i] = new Object();
+        }
     }
 
     /**
@@ -67,12 +157,17 @@ public class TransferOrchestrator {
      * 1. Validación de request
      * 2. Validación de cuentas (origen y destino)
      * 3. Verificación de fraude
-     * 4. Débito de cuenta origen
-     * 5. Crédito de cuenta destino
-     * 6. Registro de transacción
-     * 7. Notificaciones
+     * 4. Débito de cuenta origen, crédito de cuenta destino y registro de transacción,
+     *    confirmados juntos en una {@link UnitOfWork}
+     * 5. Notificaciones
      * 
-     * Si cualquier paso falla después del débito, se ejecuta rollback automático.
+     * Si el repositorio soporta escrituras atómicas en lote, un fallo no deja nada persistido y
+     * solo se restauran los saldos en memoria. Si no, se ejecuta rollback de las cuentas que
+     * alcanzaron a guardarse.
+     * Con un {@link TransferSagaLog} configurado, la intención se registra antes de escribir y se
+     * marca como completada al confirmar, para poder recuperar la transferencia tras una caída.
+     * Si la solicitud trae clave de idempotencia y hay almacén configurado, un reintento con la
+     * misma clave retorna el resultado original sin ejecutar nada.
      * 
      * @param request Solicitud de transferencia
      * @return Resultado de la transferencia
@@ -80,18 +175,51 @@ public class TransferOrchestrator {
     public TransferResult executeTransfer(TransferRequest request) {
         validateTransferRequest(request);
 
-        String auditId = null;
-        Account sourceAccount = null;
-        Account targetAccount = null;
-        BigDecimal originalSourceBalance = null;
-        BigDecimal originalTargetBalance = null;
-        boolean debitExecuted = false;
-        boolean creditExecuted = false;
+        if (idempotencyStore != null && request.getIdempotencyKey() != null) {
+            return idempotencyStore.execute(request.getIdempotencyKey(), fingerprint(request),
+                () -> transfer(request));
+        }
+        return transfer(request);
+    }
+
+    private TransferResult transfer(TransferRequest request) {
+        return commitTransfer(prepareTransfer(request), performFraudCheck(request));
+    }
+
+    /**
+     * Versión asíncrona de {@link #executeTransfer}. Las llamadas a repositorios, auditoría y
+     * notificaciones corren en {@code executor}; la espera del control de fraude no ocupa ningún
+     * hilo, el timeout se aplica sobre el futuro. El resultado, los códigos de error, la
+     * compensación y el orden de auditoría son los mismos que en la versión síncrona, y el futuro
+     * falla con la excepción que esta lanzaría.
+     *
+     * Si la solicitud trae clave de idempotencia y hay almacén configurado, la transferencia se
+     * ejecuta completa en {@code executor} con la versión síncrona.
+     *
+     * @param executor Hilos donde se ejecutan las llamadas bloqueantes
+     */
+    public CompletableFuture<TransferResult> executeTransferAsync(TransferRequest request, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("El executor es requerido");
+        }
+        if (idempotencyStore != null && request != null && request.getIdempotencyKey() != null) {
+            return CompletableFuture.supplyAsync(() -> executeTransfer(request), executor);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            validateTransferRequest(request);
+            return prepareTransfer(request);
+        }, executor).thenCompose(prepared -> performFraudCheckAsync(request, executor)
+            .thenApplyAsync(fraudResult -> commitTransfer(prepared, fraudResult), executor));
+    }
 
+    /**
+     * Valida las cuentas, el saldo y los límites de una transferencia, antes del control de fraude.
+     */
+    private PreparedTransfer prepareTransfer(TransferRequest request) {
         try {
             // Obtener y validar cuentas
-            sourceAccount = getAndValidateAccount(request.getSourceAccountNumber(), "origen");
-            targetAccount = getAndValidateAccount(request.getTargetAccountNumber(), "destino");
+            Account sourceAccount = getAndValidateAccount(request.getSourceAccountNumber(), "origen");
+            Account targetAccount = getAndValidateAccount(request.getTargetAccountNumber(), "destino");
 
             // Validar que no sea la misma cuenta
             if (sourceAccount.getAccountNumber().equals(targetAccount.getAccountNumber())) {
@@ -113,45 +241,72 @@ public class TransferOrchestrator {
             BigDecimal fee = request.getTransferType().getFee();
             BigDecimal totalDebit = request.getAmount().add(fee);
 
-            // Verificar saldo suficiente
-            if (sourceAccount.getBalance().compareTo(totalDebit) < 0) {
-                throw new InsufficientFundsException(sourceAccount.getBalance(), totalDebit);
+            // Verificar saldo disponible suficiente
+            BigDecimal available = availableBalance(sourceAccount);
+            if (available.compareTo(totalDebit) < 0) {
+                throw new InsufficientFundsException(available, totalDebit);
             }
 
             // Validar límites del tipo de transferencia
             validateTransferLimits(request);
 
-            // Verificación de fraude con timeout
-            TransferFraudCheckResult fraudResult = performFraudCheck(request);
+            return new PreparedTransfer(request, sourceAccount, targetAccount, fee, totalDebit);
+        } catch (Exception e) {
+            throw transferFailure(null, e);
+        }
+    }
+
+    /**
+     * Aplica una transferencia validada según el resultado del control de fraude.
+     */
+    private TransferResult commitTransfer(PreparedTransfer prepared, TransferFraudCheckResult fraudResult) {
+        TransferRequest request = prepared.request;
+        Account sourceAccount = prepared.sourceAccount;
+        Account targetAccount = prepared.targetAccount;
+        BigDecimal fee = prepared.fee;
+        BigDecimal totalDebit = prepared.totalDebit;
+        String auditId = null;
+        BigDecimal originalSourceBalance = null;
+        BigDecimal originalTargetBalance = null;
+        UnitOfWork unitOfWork = null;
+        TransferSaga saga = null;
+        boolean sourceDebited = false;
+        boolean targetCredited = false;
+
+        try {
             if (!fraudResult.isApproved()) {
                 return TransferResult.failure(fraudResult.getRejectCode(), 
                     fraudResult.getRejectReason());
             }
 
             // Iniciar auditoría
-            Map<String, Object> metadata = createTransferMetadata(request, fraudResult);
+            AuditMetadata metadata = createTransferMetadata(request, fraudResult);
             auditId = auditService.logOperationStart("TRANSFER", 
                 request.getSourceAccountNumber(), metadata);
 
             // Guardar balances originales para posible rollback
             originalSourceBalance = sourceAccount.getBalance();
             originalTargetBalance = targetAccount.getBalance();
+            if (sagaLog != null) {
+                saga = sagaLog.begin(sourceAccount.getAccountNumber(), targetAccount.getAccountNumber(),
+                    totalDebit, request.getAmount(), originalSourceBalance, originalTargetBalance);
+            }
 
-            // PASO CRÍTICO 1: Débito de cuenta origen
-            sourceAccount.setBalance(originalSourceBalance.subtract(totalDebit));
+            // Débito, crédito y registro de la transacción se confirman juntos
+            sourceAccount.debit(totalDebit);
+            sourceDebited = true;
             sourceAccount.setLastTransactionAt(LocalDateTime.now());
-            accountRepository.save(sourceAccount);
-            debitExecuted = true;
-
-            // PASO CRÍTICO 2: Crédito de cuenta destino
-            targetAccount.setBalance(originalTargetBalance.add(request.getAmount()));
+            targetAccount.credit(request.getAmount());
+            targetCredited = true;
             targetAccount.setLastTransactionAt(LocalDateTime.now());
-            accountRepository.save(targetAccount);
-            creditExecuted = true;
-
-            // Crear y guardar transacción
-            Transaction transaction = createTransferTransaction(request, fee);
-            Transaction savedTransaction = transactionRepository.save(transaction);
+            unitOfWork = new UnitOfWork(accountRepository, transactionRepository)
+                .registerAccount(sourceAccount)
+                .registerAccount(targetAccount)
+                .registerTransaction(createTransferTransaction(request, fee));
+            Transaction savedTransaction = unitOfWork.commit().get(0);
+            if (saga != null) {
+                sagaLog.markCompleted(saga);
+            }
 
             // Registrar cambios de saldo en auditoría
             auditService.logBalanceChange(sourceAccount.getAccountNumber(),
@@ -176,27 +331,230 @@ public class TransferOrchestrator {
             );
 
         } catch (Exception e) {
-            // Ejecutar rollback si es necesario
+            // Compensar solo las escrituras que alcanzaron a persistirse
+            boolean debitExecuted = unitOfWork != null && unitOfWork.isApplied(sourceAccount);
+            boolean creditExecuted = unitOfWork != null && unitOfWork.isApplied(targetAccount);
+            if (!debitExecuted && sourceDebited) {
+                sourceAccount.revert(totalDebit.negate(), originalSourceBalance);
+            }
+            if (!creditExecuted && targetCredited) {
+                targetAccount.revert(request.getAmount(), originalTargetBalance);
+            }
             if (debitExecuted || creditExecuted) {
-                executeRollback(sourceAccount, targetAccount, 
-                    originalSourceBalance, originalTargetBalance,
+                boolean rolledBack = executeRollback(sourceAccount, targetAccount,
+                    originalSourceBalance, originalTargetBalance, totalDebit.negate(), request.getAmount(),
                     debitExecuted, creditExecuted);
+                // Si la compensación falla, la saga queda abierta para la recuperación
+                if (rolledBack) {
+                    closeSaga(saga, TransferSaga.Step.COMPENSATED);
+                }
+            } else {
+                closeSaga(saga, TransferSaga.Step.ABORTED);
             }
 
-            if (auditId != null) {
-                String errorCode = e instanceof BankingException ? 
-                    ((BankingException) e).getErrorCode() : "UNEXPECTED_ERROR";
-                auditService.logOperationFailure(auditId, errorCode, e.getMessage());
+            throw transferFailure(auditId, e);
+        }
+    }
+
+    // ==================== TRANSFERENCIAS EN DOS PASOS ====================
+
+    /**
+     * Primer paso de una transferencia dividida entre dos hilos, para motores donde cada cuenta la
+     * modifica un solo hilo (ver {@code ShardedExecutionEngine}). Hace las mismas validaciones y el
+     * mismo control de fraude que {@link #executeTransfer}, debita la cuenta origen y la persiste.
+     *
+     * Debe ejecutarse en el hilo dueño de la cuenta origen. Después se llama
+     * {@link #completeReservedTransfer} en el hilo dueño del destino y, si falla,
+     * {@link #compensateReservedTransfer} de nuevo en el del origen. No aplica el almacén de
+     * idempotencia.
+     *
+     * @return Transferencia reservada; si el control de fraude la rechaza, trae el resultado del
+     *         rechazo y no se debitó nada
+     */
+    public ReservedTransfer reserveTransfer(TransferRequest request) {
+        validateTransferRequest(request);
+
+        String auditId = null;
+        Account sourceAccount = null;
+        BigDecimal originalSourceBalance = null;
+        BigDecimal totalDebit = null;
+        TransferSaga saga = null;
+        boolean sourceDebited = false;
+        boolean sourceSaved = false;
+
+        try {
+            sourceAccount = getAndValidateAccount(request.getSourceAccountNumber(), "origen");
+            // El destino solo se lee: su saldo lo modifica el hilo dueño en el segundo paso
+            Account targetAccount = getAndValidateAccount(request.getTargetAccountNumber(), "destino");
+
+            if (sourceAccount.getAccountNumber().equals(targetAccount.getAccountNumber())) {
+                throw new TransactionNotAllowedException(
+                    "No se puede transferir a la misma cuenta");
+            }
+            if (!accountValidator.canPerformOperations(sourceAccount)) {
+                throw new TransactionNotAllowedException(
+                    "La cuenta origen no puede realizar operaciones");
+            }
+            if (!accountValidator.canPerformOperations(targetAccount)) {
+                throw new TransactionNotAllowedException(
+                    "La cuenta destino no puede recibir transferencias");
             }
 
-            if (e instanceof BankingException) {
-                throw e;
+            BigDecimal fee = request.getTransferType().getFee();
+            totalDebit = request.getAmount().add(fee);
+            BigDecimal available = availableBalance(sourceAccount);
+            if (available.compareTo(totalDebit) < 0) {
+                throw new InsufficientFundsException(available, totalDebit);
             }
-            throw new BankingException("TRANSFER_FAILED", 
-                "Error inesperado durante la transferencia: " + e.getMessage(), e);
+            validateTransferLimits(request);
+
+            TransferFraudCheckResult fraudResult = performFraudCheck(request);
+            if (!fraudResult.isApproved()) {
+                return ReservedTransfer.rejected(request, TransferResult.failure(
+                    fraudResult.getRejectCode(), fraudResult.getRejectReason()));
+            }
+
+            auditId = auditService.logOperationStart("TRANSFER",
+                request.getSourceAccountNumber(), createTransferMetadata(request, fraudResult));
+
+            originalSourceBalance = sourceAccount.getBalance();
+            if (sagaLog != null) {
+                saga = sagaLog.begin(sourceAccount.getAccountNumber(), targetAccount.getAccountNumber(),
+                    totalDebit, request.getAmount(), originalSourceBalance, targetAccount.getBalance());
+            }
+
+            sourceAccount.debit(totalDebit);
+            sourceDebited = true;
+            sourceAccount.setLastTransactionAt(LocalDateTime.now());
+            accountRepository.save(sourceAccount);
+            sourceSaved = true;
+            if (saga != null) {
+                sagaLog.markDebited(saga);
+            }
+
+            return new ReservedTransfer(request, fee, totalDebit, auditId, saga, sourceAccount,
+                originalSourceBalance, sourceAccount.getBalance());
+
+        } catch (Exception e) {
+            if (sourceDebited) {
+                sourceAccount.revert(totalDebit.negate(), originalSourceBalance);
+            }
+            if (sourceSaved) {
+                try {
+                    accountRepository.save(sourceAccount);
+                    closeSaga(saga, TransferSaga.Step.COMPENSATED);
+                } catch (RuntimeException rollbackError) {
+                    // La saga queda abierta para la recuperación
+                }
+            } else {
+                closeSaga(saga, TransferSaga.Step.ABORTED);
+            }
+            throw transferFailure(auditId, e);
         }
     }
 
+    /**
+     * Segundo paso: acredita el destino y registra la transacción. Debe ejecutarse en el hilo
+     * dueño de la cuenta destino.
+     *
+     * @throws Exception el error del crédito, sin envolver; el llamador debe pasarlo a
+     *                   {@link #compensateReservedTransfer}
+     */
+    public TransferResult completeReservedTransfer(ReservedTransfer reserved) {
+        TransferRequest request = reserved.getRequest();
+        Account targetAccount = null;
+        BigDecimal originalTargetBalance = null;
+        UnitOfWork unitOfWork = null;
+        boolean targetCredited = false;
+
+        try {
+            targetAccount = getAndValidateAccount(request.getTargetAccountNumber(), "destino");
+            if (!accountValidator.canPerformOperations(targetAccount)) {
+                throw new TransactionNotAllowedException(
+                    "La cuenta destino no puede recibir transferencias");
+            }
+
+            originalTargetBalance = targetAccount.getBalance();
+            targetAccount.credit(request.getAmount());
+            targetCredited = true;
+            targetAccount.setLastTransactionAt(LocalDateTime.now());
+            unitOfWork = new UnitOfWork(accountRepository, transactionRepository)
+                .registerAccount(targetAccount)
+                .registerTransaction(createTransferTransaction(request, reserved.getFee()));
+            Transaction savedTransaction = unitOfWork.commit().get(0);
+            if (reserved.saga != null) {
+                sagaLog.markCompleted(reserved.saga);
+            }
+
+            auditService.logBalanceChange(request.getSourceAccountNumber(),
+                reserved.originalSourceBalance, reserved.sourceNewBalance,
+                savedTransaction.getTransactionId());
+            auditService.logBalanceChange(targetAccount.getAccountNumber(),
+                originalTargetBalance, targetAccount.getBalance(),
+                savedTransaction.getTransactionId());
+            auditService.logOperationSuccess(reserved.auditId, savedTransaction.getTransactionId());
+
+            sendTransferNotifications(reserved.sourceAccount, targetAccount, request, savedTransaction);
+
+            return TransferResult.success(
+                savedTransaction.getTransactionId(),
+                generateConfirmationNumber(),
+                request.getAmount(),
+                reserved.getFee(),
+                reserved.sourceNewBalance,
+                targetAccount.getBalance()
+            );
+
+        } catch (RuntimeException e) {
+            if (targetCredited) {
+                targetAccount.revert(request.getAmount(), originalTargetBalance);
+            }
+            if (unitOfWork != null && unitOfWork.isApplied(targetAccount)) {
+                try {
+                    accountRepository.save(targetAccount);
+                } catch (RuntimeException rollbackError) {
+                    // El crédito quedó persistido: devolver el débito duplicaría el dinero
+                    reserved.needsReview = true;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Compensa una transferencia reservada cuyo crédito falló: devuelve el débito al origen y
+     * cierra la auditoría y la saga. Debe ejecutarse en el hilo dueño de la cuenta origen.
+     *
+     * @param cause Error del crédito
+     * @return Excepción con la que termina la transferencia, igual a la que lanzaría
+     *         {@link #executeTransfer}
+     */
+    public BankingException compensateReservedTransfer(ReservedTransfer reserved, Exception cause) {
+        TransferRequest request = reserved.getRequest();
+        if (reserved.needsReview) {
+            alertIncompleteRollback(request.getSourceAccountNumber(), request.getTargetAccountNumber());
+            return transferFailure(reserved.auditId, cause);
+        }
+
+        String rollbackAuditId = auditService.logOperationStart("ROLLBACK", 
+            request.getSourceAccountNumber(), 
+            Map.of("reason", "Transfer failed, executing compensation"));
+        try {
+            // Se devuelve el monto en lugar de restaurar el saldo previo: entre la reserva y la
+            // compensación el hilo dueño pudo aplicar otras operaciones sobre el origen
+            Account sourceAccount = getAndValidateAccount(request.getSourceAccountNumber(), "origen");
+            sourceAccount.credit(reserved.totalDebit);
+            accountRepository.save(sourceAccount);
+            auditService.logOperationSuccess(rollbackAuditId, "ROLLBACK_COMPLETED");
+            closeSaga(reserved.saga, TransferSaga.Step.COMPENSATED);
+        } catch (Exception rollbackError) {
+            auditService.logOperationFailure(rollbackAuditId, "ROLLBACK_FAILED", 
+                rollbackError.getMessage());
+            alertIncompleteRollback(request.getSourceAccountNumber(), request.getTargetAccountNumber());
+        }
+        return transferFailure(reserved.auditId, cause);
+    }
+
     /**
      * Ejecuta múltiples transferencias en lote.
      * Cada transferencia es independiente - el fallo de una no afecta las demás.
@@ -205,34 +563,648 @@ public class TransferOrchestrator {
      * @return Mapa de resultados por cada request
      */
     public Map<TransferRequest, TransferResult> executeBatchTransfer(List<TransferRequest> requests) {
+        return executeBatchTransfer(requests, new BatchTransferOptions());
+    }
+
+    /**
+     * Ejecuta múltiples transferencias en lote con las opciones indicadas.
+     * 
+     * Con paralelismo mayor a 1, las transferencias que no comparten cuentas se ejecutan a la vez
+     * y las que sí conservan el orden del lote, de modo que los resultados son los mismos que en
+     * secuencia. Los repositorios deben ser seguros para uso concurrente.
+     * 
+     * En modo neto (que ignora el paralelismo) cada transferencia se valida por separado, pero los
+     * fondos se verifican contra el efecto neto del lote sobre cada cuenta y cada cuenta se guarda
+     * una sola vez. Si el neto de alguna cuenta no alcanza, se rechazan todas las transferencias
+     * válidas del lote.
+     * 
+     * @param requests Lista de solicitudes de transferencia
+     * @param options Opciones del lote
+     * @return Mapa de resultados por cada request, en el orden del lote
+     */
+    public Map<TransferRequest, TransferResult> executeBatchTransfer(List<TransferRequest> requests,
+                                                                     BatchTransferOptions options) {
         if (requests == null || requests.isEmpty()) {
             throw new IllegalArgumentException("La lista de transferencias no puede estar vacía");
         }
+        if (options == null) {
+            throw new IllegalArgumentException("Las opciones del lote son requeridas");
+        }
 
-        if (requests.size() > 100) {
+        if (requests.size() > options.getMaxBatchSize()) {
             throw new LimitExceededException("BATCH_SIZE", 
-                new BigDecimal(100), new BigDecimal(requests.size()));
+                new BigDecimal(options.getMaxBatchSize()), new BigDecimal(requests.size()));
+        }
+
+        if (options.isNetting()) {
+            return executeNettedBatch(requests);
         }
 
         Map<TransferRequest, TransferResult> results = new LinkedHashMap<>();
 
+        if (options.getParallelism() > 1) {
+            ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+            try {
+                List<TransferResult> ordered = new ConflictAwareBatchExecutor(pool)
+                    .execute(requests, this::executeBatchItem);
+                for (int i = 0; i < requests.size(); i++) {
+                    results.put(requests.get(i), ordered.get(i));
+                }
+            } finally {
+                pool.shutdown();
+            }
+            return results;
+        }
+
         for (TransferRequest request : requests) {
+            results.put(request, executeBatchItem(request));
+        }
+
+        return results;
+    }
+
+    /**
+     * Procesa en streaming un lote de cualquier tamaño tomado de un iterador (p. ej. un archivo
+     * de nómina leído línea a línea). Los resultados se entregan al sink a medida que terminan y
+     * no se acumulan, así que la memoria no depende del tamaño del lote.
+     * 
+     * Las transferencias que comparten cuenta conservan el orden del iterador.
+     * 
+     * @param requests Solicitudes del lote
+     * @param maxConcurrency Transferencias ejecutándose a la vez
+     * @param sink Destino de los resultados
+     * @return Totales del lote
+     */
+    public BatchSummary streamBatchTransfer(Iterator<TransferRequest> requests, int maxConcurrency,
+                                            TransferResultSink sink) {
+        validateStreamingBatch(requests, maxConcurrency, sink);
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrency);
+        try {
+            return streamingExecutor(executor, maxConcurrency).run(requests, sink);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Procesa en streaming un lote emitido por un publicador reactivo, pidiéndole solicitudes
+     * solo a medida que hay cupo.
+     * 
+     * @param requests Publicador de las solicitudes del lote
+     * @param maxConcurrency Transferencias ejecutándose a la vez
+     * @param sink Destino de los resultados
+     * @return Futuro con los totales, completado cuando el publicador termina y no quedan
+     *         transferencias en curso
+     */
+    public CompletableFuture<BatchSummary> streamBatchTransfer(Flow.Publisher<TransferRequest> requests,
+                                                              int maxConcurrency, TransferResultSink sink) {
+        validateStreamingBatch(requests, maxConcurrency, sink);
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrency);
+        CompletableFuture<BatchSummary> completion = streamingExecutor(executor, maxConcurrency)
+            .subscribe(requests, sink);
+        completion.whenComplete((summary, error) -> executor.shutdown());
+        return completion;
+    }
+
+    private StreamingBatchExecutor streamingExecutor(ExecutorService executor, int maxConcurrency) {
+        // La ventana es el doble de la concurrencia para que las transferencias que esperan por
+        // una cuenta ocupada no dejen hilos ociosos
+        return new StreamingBatchExecutor(this::executeBatchItem, executor, maxConcurrency * 2);
+    }
+
+    private static void validateStreamingBatch(Object requests, int maxConcurrency, TransferResultSink sink) {
+        if (requests == null) {
+            throw new IllegalArgumentException("La fuente de transferencias es requerida");
+        }
+        if (sink == null) {
+            throw new IllegalArgumentException("El destino de los resultados es requerido");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("La concurrencia debe ser mayor a cero");
+        }
+    }
+
+    /**
+     * Dispersa pagos desde una sola cuenta origen hacia muchas cuentas destino (p. ej. una nómina).
+     * 
+     * A diferencia de un lote, la cuenta origen se carga y se valida una sola vez: el total de los
+     * pagos más sus comisiones se verifica de entrada, se hace una verificación de fraude por tipo
+     * de transferencia sobre el total de ese tipo y una sola auditoría para toda la dispersión.
+     * El total aprobado se reserva en el origen y la reserva se persiste antes de acreditar; luego
+     * los destinos se cargan, se verifican contra la lista negra y se acreditan en paralelo sobre
+     * un ejecutor compartido, y cuentas y transacciones se confirman juntas en una
+     * {@link UnitOfWork}.
+     * 
+     * Un destino inexistente, bloqueado o en lista negra, o un pago que excede el límite de su
+     * tipo, solo hace fallar ese pago y su monto vuelve a la cuenta origen; un tipo rechazado por
+     * fraude hace fallar todos sus pagos. Si el origen no existe, no puede operar o no alcanza para
+     * el total, la dispersión se rechaza completa con la excepción correspondiente.
+     * 
+     * @param payments Pagos de la dispersión; todos deben tener la misma cuenta origen
+     * @param parallelism Máximo de hilos con los que se cargan y acreditan los destinos
+     * @return Mapa de resultados por cada pago, en el orden recibido
+     */
+    public Map<TransferRequest, TransferResult> executeDisbursement(List<TransferRequest> payments,
+                                                                    int parallelism) {
+        if (payments == null || payments.isEmpty()) {
+            throw new IllegalArgumentException("La lista de pagos no puede estar vacía");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("El paralelismo debe ser mayor a cero");
+        }
+        String sourceAccountNumber = null;
+        for (TransferRequest payment : payments) {
+            validateTransferRequest(payment);
+            if (sourceAccountNumber == null) {
+                sourceAccountNumber = payment.getSourceAccountNumber();
+            } else if (!sourceAccountNumber.equals(payment.getSourceAccountNumber())) {
+                throw new IllegalArgumentException("Todos los pagos deben salir de la misma cuenta origen");
+            }
+        }
+
+        Account sourceAccount = getAndValidateAccount(sourceAccountNumber, "origen");
+        if (!accountValidator.canPerformOperations(sourceAccount)) {
+            throw new TransactionNotAllowedException(
+                "La cuenta origen no puede realizar operaciones");
+        }
+
+        // Validaciones por pago que no requieren cargar el destino
+        Map<TransferRequest, TransferResult> results = new LinkedHashMap<>();
+        List<TransferRequest> accepted = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        for (TransferRequest payment : payments) {
             try {
-                TransferResult result = executeTransfer(request);
-                results.put(request, result);
+                if (sourceAccountNumber.equals(payment.getTargetAccountNumber())) {
+                    throw new TransactionNotAllowedException(
+                        "No se puede transferir a la misma cuenta");
+                }
+                validateTransferLimits(payment);
+                totalAmount = totalAmount.add(payment.getAmount());
+                totalDebit = totalDebit.add(payment.getAmount()).add(payment.getTransferType().getFee());
+                accepted.add(payment);
+                results.put(payment, null);
             } catch (Exception e) {
-                String errorCode = e instanceof BankingException ? 
-                    ((BankingException) e).getErrorCode() : "BATCH_ITEM_FAILED";
-                results.put(request, TransferResult.failure(errorCode, e.getMessage()));
+                results.put(payment, batchItemFailure(e));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        BigDecimal originalSourceBalance = sourceAccount.getBalance();
+        BigDecimal sourceAvailable = availableBalance(sourceAccount);
+        if (sourceAvailable.compareTo(totalDebit) < 0) {
+            throw new InsufficientFundsException(sourceAvailable, totalDebit);
+        }
+
+        // Una verificación de fraude por tipo de transferencia sobre el total de ese tipo; los
+        // destinos reales se verifican uno a uno contra la lista negra al acreditarlos
+        String disbursementReference = "DSB-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
+        Map<TransferType, List<TransferRequest>> paymentsByType = new EnumMap<>(TransferType.class);
+        for (TransferRequest payment : accepted) {
+            paymentsByType.computeIfAbsent(payment.getTransferType(), k -> new ArrayList<>()).add(payment);
+        }
+        Set<TransferType> rejectedTypes = EnumSet.noneOf(TransferType.class);
+        int maxRiskScore = 0;
+        for (Map.Entry<TransferType, List<TransferRequest>> group : paymentsByType.entrySet()) {
+            BigDecimal groupAmount = BigDecimal.ZERO;
+            for (TransferRequest payment : group.getValue()) {
+                groupAmount = groupAmount.add(payment.getAmount());
+            }
+            TransferRequest aggregate = new TransferRequest(sourceAccountNumber, disbursementReference,
+                groupAmount, group.getKey());
+            aggregate.setDescription("Dispersión de " + group.getValue().size() + " pagos " + group.getKey());
+            TransferFraudCheckResult fraudResult = performFraudCheck(aggregate);
+            if (!fraudResult.isApproved()) {
+                TransferResult rejected = TransferResult.failure(fraudResult.getRejectCode(),
+                    fraudResult.getRejectReason());
+                for (TransferRequest payment : group.getValue()) {
+                    results.put(payment, rejected);
+                }
+                rejectedTypes.add(group.getKey());
+                continue;
+            }
+            maxRiskScore = Math.max(maxRiskScore, fraudResult.getRiskScore());
+        }
+        List<TransferRequest> approved = new ArrayList<>();
+        totalAmount = BigDecimal.ZERO;
+        totalDebit = BigDecimal.ZERO;
+        for (TransferRequest payment : accepted) {
+            if (!rejectedTypes.contains(payment.getTransferType())) {
+                approved.add(payment);
+                totalAmount = totalAmount.add(payment.getAmount());
+                totalDebit = totalDebit.add(payment.getAmount()).add(payment.getTransferType().getFee());
+            }
+        }
+        if (approved.isEmpty()) {
+            return results;
+        }
+
+        String auditId = auditService.logOperationStart("DISBURSEMENT", sourceAccountNumber,
+            Map.of("payments", approved.size(), "totalAmount", totalAmount,
+                "fraudRiskScore", maxRiskScore));
+
+        // Reserva persistida del total en la cuenta origen mientras se acreditan los destinos, para
+        // que otra operación sobre el origen no pueda gastar esos fondos
+        sourceAccount.debit(totalDebit);
+        try {
+            accountRepository.save(sourceAccount);
+        } catch (Exception e) {
+            sourceAccount.revert(totalDebit.negate(), originalSourceBalance);
+            auditService.logOperationFailure(auditId, "DISBURSEMENT_FAILED", e.getMessage());
+            throw new BankingException("DISBURSEMENT_FAILED",
+                "No fue posible reservar el total de la dispersión: " + e.getMessage(), e);
+        }
+
+        // Los pagos al mismo destino se acreditan juntos, en el orden recibido
+        Map<String, List<Integer>> paymentsByTarget = new LinkedHashMap<>();
+        for (int i = 0; i < approved.size(); i++) {
+            paymentsByTarget.computeIfAbsent(approved.get(i).getTargetAccountNumber(),
+                k -> new ArrayList<>()).add(i);
+        }
+        BigDecimal[] targetBalances = new BigDecimal[approved.size()];
+        List<DisbursementCredit> credits = creditDisbursementTargets(paymentsByTarget, approved,
+            targetBalances, parallelism);
+
+        // Liberar la reserva de los pagos cuyo destino falló
+        Map<String, Account> accounts = new LinkedHashMap<>();
+        Map<String, BigDecimal> originalBalances = new LinkedHashMap<>();
+        Map<String, BigDecimal> appliedDeltas = new HashMap<>();
+        accounts.put(sourceAccountNumber, sourceAccount);
+        originalBalances.put(sourceAccountNumber, originalSourceBalance);
+        boolean[] credited = new boolean[approved.size()];
+        BigDecimal released = BigDecimal.ZERO;
+        for (DisbursementCredit credit : credits) {
+            if (credit.failure == null) {
+                accounts.put(credit.account.getAccountNumber(), credit.account);
+                originalBalances.put(credit.account.getAccountNumber(), credit.originalBalance);
+                appliedDeltas.put(credit.account.getAccountNumber(), credit.amount);
+                for (int index : credit.paymentIndexes) {
+                    credited[index] = true;
+                }
+                continue;
+            }
+            for (int index : credit.paymentIndexes) {
+                TransferRequest payment = approved.get(index);
+                results.put(payment, credit.failure);
+                released = released.add(payment.getAmount()).add(payment.getTransferType().getFee());
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        sourceAccount.credit(released);
+        sourceAccount.setLastTransactionAt(now);
+        appliedDeltas.put(sourceAccountNumber, released.subtract(totalDebit));
+
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository);
+        List<Integer> committed = new ArrayList<>();
+        BigDecimal[] sourceBalances = new BigDecimal[approved.size()];
+        BigDecimal runningSource = originalSourceBalance;
+        for (int i = 0; i < approved.size(); i++) {
+            if (!credited[i]) {
+                continue;
+            }
+            TransferRequest payment = approved.get(i);
+            BigDecimal fee = payment.getTransferType().getFee();
+            runningSource = runningSource.subtract(payment.getAmount()).subtract(fee);
+            sourceBalances[i] = runningSource;
+            Transaction transaction = createTransferTransaction(payment, fee);
+            transaction.setReferenceNumber(disbursementReference);
+            unitOfWork.registerTransaction(transaction);
+            committed.add(i);
+        }
+        if (committed.isEmpty()) {
+            // Todo se liberó: se persiste el origen sin la reserva
+            releaseDisbursementReservation(sourceAccount);
+            auditService.logOperationFailure(auditId, "DISBURSEMENT_REJECTED",
+                "Ningún destino de la dispersión pudo acreditarse");
+            return results;
+        }
+        for (Account account : accounts.values()) {
+            account.setLastTransactionAt(now);
+            unitOfWork.registerAccount(account);
+        }
+
+        List<Transaction> saved;
+        try {
+            saved = unitOfWork.commit();
+        } catch (Exception e) {
+            boolean sourceApplied = unitOfWork.isApplied(sourceAccount);
+            compensateBulkSettlement(unitOfWork, accounts, originalBalances, appliedDeltas, "Dispersión");
+            if (!sourceApplied) {
+                // La reserva ya estaba persistida aunque el commit no alcanzara el origen
+                releaseDisbursementReservation(sourceAccount);
+            }
+            auditService.logOperationFailure(auditId, "DISBURSEMENT_FAILED", e.getMessage());
+            TransferResult failed = TransferResult.failure("DISBURSEMENT_FAILED",
+                "Error al liquidar la dispersión: " + e.getMessage());
+            for (int index : committed) {
+                results.put(approved.get(index), failed);
+            }
+            return results;
+        }
+
+        for (Map.Entry<String, BigDecimal> original : originalBalances.entrySet()) {
+            auditService.logBalanceChange(original.getKey(), original.getValue(),
+                accounts.get(original.getKey()).getBalance(), disbursementReference);
+        }
+        auditService.logOperationSuccess(auditId, disbursementReference);
+
+        for (int i = 0; i < committed.size(); i++) {
+            int index = committed.get(i);
+            TransferRequest payment = approved.get(index);
+            Transaction transaction = saved.get(i);
+            results.put(payment, TransferResult.success(transaction.getTransactionId(),
+                generateConfirmationNumber(), payment.getAmount(), payment.getTransferType().getFee(),
+                sourceBalances[index], targetBalances[index]));
+            sendTransferNotifications(sourceAccount, accounts.get(payment.getTargetAccountNumber()),
+                payment, transaction);
+        }
+        return results;
+    }
+
+    /**
+     * Acredita los destinos de la dispersión repartidos en {@code parallelism} tareas sobre el
+     * ejecutor compartido de dispersiones.
+     */
+    private List<DisbursementCredit> creditDisbursementTargets(Map<String, List<Integer>> paymentsByTarget,
+                                                               List<TransferRequest> payments,
+                                                               BigDecimal[] targetBalances, int parallelism) {
+        List<Map.Entry<String, List<Integer>>> targets = new ArrayList<>(paymentsByTarget.entrySet());
+        int slices = Math.min(parallelism, targets.size());
+        List<CompletableFuture<List<DisbursementCredit>>> futures = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            int from = (int) ((long) slice * targets.size() / slices);
+            int to = (int) ((long) (slice + 1) * targets.size() / slices);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                List<DisbursementCredit> credits = new ArrayList<>(to - from);
+                for (Map.Entry<String, List<Integer>> target : targets.subList(from, to)) {
+                    credits.add(creditDisbursementTarget(target.getKey(), target.getValue(),
+                        payments, targetBalances));
+                }
+                return credits;
+            }, DISBURSEMENT_EXECUTOR));
+        }
+        List<DisbursementCredit> credits = new ArrayList<>(targets.size());
+        for (CompletableFuture<List<DisbursementCredit>> future : futures) {
+            credits.addAll(future.join());
+        }
+        return credits;
+    }
+
+    /**
+     * Persiste el origen de una dispersión cuya reserva ya se devolvió en memoria.
+     */
+    private void releaseDisbursementReservation(Account sourceAccount) {
+        try {
+            accountRepository.save(sourceAccount);
+        } catch (Exception releaseError) {
+            notificationService.sendEmail(
+                "operations@bank.com",
+                "ALERTA CRÍTICA: Reserva de dispersión sin liberar",
+                "No fue posible liberar la reserva de la dispersión. Cuenta: "
+                    + sourceAccount.getAccountNumber()
+            );
+        }
+    }
+
+    /**
+     * Carga un destino de la dispersión y le acredita sus pagos. Se ejecuta en paralelo con los
+     * demás destinos; cada uno escribe solo sus posiciones de {@code targetBalances}.
+     */
+    private DisbursementCredit creditDisbursementTarget(String targetAccountNumber, List<Integer> paymentIndexes,
+                                                        List<TransferRequest> payments,
+                                                        BigDecimal[] targetBalances) {
+        try {
+            Account target = getAndValidateAccount(targetAccountNumber, "destino");
+            if (!accountValidator.canPerformOperations(target)) {
+                throw new TransactionNotAllowedException(
+                    "La cuenta destino no puede recibir transferencias");
+            }
+            if (fraudDetectionService.isBlacklisted(targetAccountNumber)) {
+                throw new BankingException("BLACKLISTED",
+                    "La cuenta destino se encuentra bloqueada por seguridad");
+            }
+            BigDecimal originalBalance = target.getBalance();
+            BigDecimal total = BigDecimal.ZERO;
+            for (int index : paymentIndexes) {
+                total = total.add(payments.get(index).getAmount());
+                targetBalances[index] = originalBalance.add(total);
+            }
+            target.credit(total);
+            return new DisbursementCredit(paymentIndexes, target, originalBalance, total, null);
+        } catch (Exception e) {
+            return new DisbursementCredit(paymentIndexes, null, null, null, batchItemFailure(e));
+        }
+    }
+
+    private static final class DisbursementCredit {
+        private final List<Integer> paymentIndexes;
+        private final Account account;
+        private final BigDecimal originalBalance;
+        private final BigDecimal amount;
+        private final TransferResult failure;
+
+        private DisbursementCredit(List<Integer> paymentIndexes, Account account,
+                                   BigDecimal originalBalance, BigDecimal amount, TransferResult failure) {
+            this.paymentIndexes = paymentIndexes;
+            this.account = account;
+            this.originalBalance = originalBalance;
+            this.amount = amount;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Liquida un lote por neto. Las claves de idempotencia y el log de sagas no aplican: el lote
+     * se confirma en una sola unidad de trabajo.
+     */
+    private Map<TransferRequest, TransferResult> executeNettedBatch(List<TransferRequest> requests) {
+        Map<TransferRequest, TransferResult> results = new LinkedHashMap<>();
+        Map<String, Account> accounts = new LinkedHashMap<>();
+        Map<String, BigDecimal> netDeltas = new HashMap<>();
+        List<TransferRequest> accepted = new ArrayList<>();
+
+        // Validación individual: las transferencias inválidas quedan fuera del neto
+        for (TransferRequest request : requests) {
+            try {
+                validateTransferRequest(request);
+                Account source = getNettedAccount(accounts, request.getSourceAccountNumber(), "origen");
+                Account target = getNettedAccount(accounts, request.getTargetAccountNumber(), "destino");
+                if (source.getAccountNumber().equals(target.getAccountNumber())) {
+                    throw new TransactionNotAllowedException(
+                        "No se puede transferir a la misma cuenta");
+                }
+                if (!accountValidator.canPerformOperations(source)) {
+                    throw new TransactionNotAllowedException(
+                        "La cuenta origen no puede realizar operaciones");
+                }
+                if (!accountValidator.canPerformOperations(target)) {
+                    throw new TransactionNotAllowedException(
+                        "La cuenta destino no puede recibir transferencias");
+                }
+                validateTransferLimits(request);
+                TransferFraudCheckResult fraudResult = performFraudCheck(request);
+                if (!fraudResult.isApproved()) {
+                    results.put(request, TransferResult.failure(fraudResult.getRejectCode(),
+                        fraudResult.getRejectReason()));
+                    continue;
+                }
+                BigDecimal totalDebit = request.getAmount().add(request.getTransferType().getFee());
+                netDeltas.merge(source.getAccountNumber(), totalDebit.negate(), BigDecimal::add);
+                netDeltas.merge(target.getAccountNumber(), request.getAmount(), BigDecimal::add);
+                accepted.add(request);
+                results.put(request, null);
+            } catch (Exception e) {
+                results.put(request, batchItemFailure(e));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        // Fondos contra el efecto neto
+        for (Map.Entry<String, BigDecimal> net : netDeltas.entrySet()) {
+            BigDecimal balance = availableBalance(accounts.get(net.getKey()));
+            if (balance.add(net.getValue()).compareTo(BigDecimal.ZERO) < 0) {
+                TransferResult rejected = batchItemFailure(
+                    new InsufficientFundsException(balance, net.getValue().negate()));
+                for (TransferRequest request : accepted) {
+                    results.put(request, rejected);
+                }
+                return results;
+            }
+        }
+
+        String batchReference = "NET-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
+        String auditId = auditService.logOperationStart("BATCH_NETTING",
+            accepted.get(0).getSourceAccountNumber(),
+            Map.of("transfers", accepted.size(), "accounts", netDeltas.size()));
+
+        // Saldos intermedios como si el lote se ejecutara en secuencia, para cada resultado
+        Map<String, BigDecimal> originalBalances = new HashMap<>();
+        Map<String, BigDecimal> running = new HashMap<>();
+        for (String accountNumber : netDeltas.keySet()) {
+            originalBalances.put(accountNumber, accounts.get(accountNumber).getBalance());
+            running.put(accountNumber, accounts.get(accountNumber).getBalance());
+        }
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository);
+        BigDecimal[][] balancesAfter = new BigDecimal[accepted.size()][];
+        for (int i = 0; i < accepted.size(); i++) {
+            TransferRequest request = accepted.get(i);
+            BigDecimal fee = request.getTransferType().getFee();
+            BigDecimal sourceBalance = running.merge(request.getSourceAccountNumber(),
+                request.getAmount().add(fee).negate(), BigDecimal::add);
+            BigDecimal targetBalance = running.merge(request.getTargetAccountNumber(),
+                request.getAmount(), BigDecimal::add);
+            balancesAfter[i] = new BigDecimal[] {sourceBalance, targetBalance};
+            Transaction transaction = createTransferTransaction(request, fee);
+            transaction.setReferenceNumber(batchReference);
+            unitOfWork.registerTransaction(transaction);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, BigDecimal> net : netDeltas.entrySet()) {
+            Account account = accounts.get(net.getKey());
+            if (net.getValue().signum() < 0) {
+                account.debit(net.getValue().negate());
+            } else {
+                account.credit(net.getValue());
+            }
+            account.setLastTransactionAt(now);
+            if (net.getValue().signum() != 0) {
+                unitOfWork.registerAccount(account);
+            }
+        }
+
+        List<Transaction> saved;
+        try {
+            saved = unitOfWork.commit();
+        } catch (Exception e) {
+            compensateBulkSettlement(unitOfWork, accounts, originalBalances, netDeltas, "Liquidación neta");
+            auditService.logOperationFailure(auditId, "BATCH_SETTLEMENT_FAILED", e.getMessage());
+            TransferResult failed = TransferResult.failure("BATCH_SETTLEMENT_FAILED",
+                "Error al liquidar el lote: " + e.getMessage());
+            for (TransferRequest request : accepted) {
+                results.put(request, failed);
             }
+            return results;
         }
 
+        for (Map.Entry<String, BigDecimal> original : originalBalances.entrySet()) {
+            auditService.logBalanceChange(original.getKey(), original.getValue(),
+                accounts.get(original.getKey()).getBalance(), batchReference);
+        }
+        auditService.logOperationSuccess(auditId, batchReference);
+
+        for (int i = 0; i < accepted.size(); i++) {
+            TransferRequest request = accepted.get(i);
+            Transaction transaction = saved.get(i);
+            results.put(request, TransferResult.success(transaction.getTransactionId(),
+                generateConfirmationNumber(), request.getAmount(), request.getTransferType().getFee(),
+                balancesAfter[i][0], balancesAfter[i][1]));
+            sendTransferNotifications(accounts.get(request.getSourceAccountNumber()),
+                accounts.get(request.getTargetAccountNumber()), request, transaction);
+        }
         return results;
     }
 
+    private Account getNettedAccount(Map<String, Account> accounts, String accountNumber, String accountRole) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            account = getAndValidateAccount(accountNumber, accountRole);
+            accounts.put(accountNumber, account);
+        }
+        return account;
+    }
+
+    private void compensateBulkSettlement(UnitOfWork unitOfWork, Map<String, Account> accounts,
+                                          Map<String, BigDecimal> originalBalances,
+                                          Map<String, BigDecimal> appliedDeltas, String operation) {
+        for (Map.Entry<String, BigDecimal> original : originalBalances.entrySet()) {
+            Account account = accounts.get(original.getKey());
+            boolean applied = unitOfWork.isApplied(account);
+            account.revert(appliedDeltas.get(original.getKey()), original.getValue());
+            if (applied) {
+                try {
+                    accountRepository.save(account);
+                } catch (Exception rollbackError) {
+                    notificationService.sendEmail(
+                        "operations@bank.com",
+                        "ALERTA CRÍTICA: Rollback fallido",
+                        operation + " fallida con rollback incompleto. Cuenta: " + original.getKey()
+                    );
+                }
+            }
+        }
+    }
+
+    private BigDecimal availableBalance(Account account) {
+        if (holdLedger == null) {
+            return account.getBalance();
+        }
+        return holdLedger.availableBalance(account);
+    }
+
+    private TransferResult executeBatchItem(TransferRequest request) {
+        try {
+            return executeTransfer(request);
+        } catch (Exception e) {
+            return batchItemFailure(e);
+        }
+    }
+
+    private static TransferResult batchItemFailure(Exception e) {
+        String errorCode = e instanceof BankingException ? 
+            ((BankingException) e).getErrorCode() : "BATCH_ITEM_FAILED";
+        return TransferResult.failure(errorCode, e.getMessage());
+    }
+
     /**
      * Programa una transferencia para ejecución futura.
      * 
+     * Solo la registra como transacción pendiente con su fecha programada; la ejecuta un
+     * {@link com.bancolombia.evaluation.scheduling.TransferScheduler}.
+     * 
      * @param request Solicitud de transferencia
      * @param scheduledTime Fecha y hora programada
      * @return ID de la transferencia programada
@@ -266,6 +1238,8 @@ public class TransferOrchestrator {
         scheduledTransaction.setType(TransactionType.TRANSFER);
         scheduledTransaction.setStatus(TransactionStatus.PENDING);
         scheduledTransaction.setDescription("Transferencia programada: " + request.getDescription());
+        scheduledTransaction.setScheduledAt(scheduledTime);
+        scheduledTransaction.setTransferType(request.getTransferType());
 
         Transaction saved = transactionRepository.save(scheduledTransaction);
 
@@ -275,23 +1249,61 @@ public class TransferOrchestrator {
     /**
      * Cancela una transferencia programada.
      * 
+     * Comparte candado con {@link #claimScheduledTransfer}: una programación que ya fue reclamada
+     * para ejecutarse no puede cancelarse.
+     * 
      * @param scheduledTransferId ID de la transferencia programada
      * @return true si se canceló exitosamente
+     * @throws TransactionNotAllowedException si la transferencia no está pendiente
      */
     public boolean cancelScheduledTransfer(String scheduledTransferId) {
-        Transaction transaction = transactionRepository.findById(scheduledTransferId)
-                .orElseThrow(() -> new BankingException("SCHEDULED_NOT_FOUND",
-                    "Transferencia programada no encontrada"));
+        synchronized (scheduleLock(scheduledTransferId)) {
+            Transaction transaction = transactionRepository.findById(scheduledTransferId)
+                    .orElseThrow(() -> new BankingException("SCHEDULED_NOT_FOUND",
+                        "Transferencia programada no encontrada"));
 
-        if (transaction.getStatus() != TransactionStatus.PENDING) {
-            throw new TransactionNotAllowedException(
-                "Solo se pueden cancelar transferencias pendientes");
+            if (transaction.getStatus() != TransactionStatus.PENDING) {
+                throw new TransactionNotAllowedException(
+                    "Solo se pueden cancelar transferencias pendientes");
+            }
+
+            transaction.setStatus(TransactionStatus.CANCELLED);
+            transactionRepository.save(transaction);
+
+            return true;
         }
+    }
 
-        transaction.setStatus(TransactionStatus.CANCELLED);
-        transactionRepository.save(transaction);
+    /**
+     * Reclama una transferencia programada para ejecutarla: la pasa de PENDING a PROCESSING y
+     * persiste el cambio antes de retornar. Comparte candado con {@link #cancelScheduledTransfer},
+     * así que una programación cancelada nunca se reclama y una reclamada ya no se cancela.
+     * La exclusión es dentro del proceso; con varias instancias sobre el mismo repositorio, este
+     * debe serializar el cambio de estado.
+     * 
+     * @param scheduledTransferId ID de la transferencia programada
+     * @return Programación reclamada, o vacío si no existe o ya no está pendiente
+     */
+    public Optional<Transaction> claimScheduledTransfer(String scheduledTransferId) {
+        synchronized (scheduleLock(scheduledTransferId)) {
+            Transaction transaction = transactionRepository.findById(scheduledTransferId).orElse(null);
+            if (transaction == null || transaction.getStatus() != TransactionStatus.PENDING
+                    || transaction.getType() != TransactionType.TRANSFER || transaction.getScheduledAt() == null) {
+                return Optional.empty();
+            }
+            transaction.setStatus(TransactionStatus.PROCESSING);
+            try {
+                transactionRepository.save(transaction);
+            } catch (RuntimeException e) {
+                transaction.setStatus(TransactionStatus.PENDING);
+                throw e;
+            }
+            return Optional.of(transaction);
+        }
+    }
 
-        return true;
+    private Object scheduleLock(String scheduledTransferId) {
+        return scheduleLocks[Math.floorMod(scheduledTransferId.hashCode(), scheduleLocks.length)];
     }
 
     /**
@@ -355,6 +1367,11 @@ public class TransferOrchestrator {
         }
     }
 
+    private static String fingerprint(TransferRequest request) {
+        return request.getSourceAccountNumber() + "|" + request.getTargetAccountNumber() + "|"
+            + request.getAmount().stripTrailingZeros().toPlainString() + "|" + request.getTransferType();
+    }
+
     private Account getAndValidateAccount(String accountNumber, String accountRole) {
         return accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountNotFoundException(
@@ -379,41 +1396,83 @@ public class TransferOrchestrator {
             );
 
             boolean isValid = fraudCheck.get(FRAUD_CHECK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-
-            if (!isValid) {
-                int riskScore = fraudDetectionService.evaluateTransactionRisk(
-                    request.getSourceAccountNumber(), request.getAmount());
-                
-                fraudDetectionService.reportSuspiciousActivity(
-                    UUID.randomUUID().toString(),
-                    "Transferencia rechazada por fraude. Score: " + riskScore
-                );
-
-                return new TransferFraudCheckResult(false, "FRAUD_DETECTED",
-                    "La transferencia fue rechazada por políticas de seguridad", riskScore);
-            }
-
-            return new TransferFraudCheckResult(true, null, null, 0);
+            return fraudCheckOutcome(request, isValid);
 
         } catch (TimeoutException e) {
             // En caso de timeout, rechazar por seguridad
-            return new TransferFraudCheckResult(false, "FRAUD_CHECK_TIMEOUT",
-                "El servicio de validación no respondió a tiempo", -1);
+            return fraudCheckTimeout();
+        } catch (BankingException e) {
+            // Rechazos rápidos del servicio de fraude (p. ej. circuito abierto) conservan su código
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BankingException) {
+                throw (BankingException) e.getCause();
+            }
+            throw new BankingException("FRAUD_CHECK_ERROR",
+                "Error al validar la transferencia: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new BankingException("FRAUD_CHECK_ERROR",
                 "Error al validar la transferencia: " + e.getMessage(), e);
         }
     }
 
-    private Map<String, Object> createTransferMetadata(TransferRequest request, 
-                                                        TransferFraudCheckResult fraudResult) {
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("sourceAccount", request.getSourceAccountNumber());
-        metadata.put("targetAccount", request.getTargetAccountNumber());
-        metadata.put("amount", request.getAmount());
-        metadata.put("transferType", request.getTransferType());
-        metadata.put("fraudRiskScore", fraudResult.getRiskScore());
-        return metadata;
+    /**
+     * Igual que {@link #performFraudCheck}, pero el timeout se aplica sobre el futuro en lugar de
+     * bloquear un hilo esperando la respuesta.
+     */
+    private CompletableFuture<TransferFraudCheckResult> performFraudCheckAsync(TransferRequest request,
+                                                                               Executor executor) {
+        return CompletableFuture.supplyAsync(() -> fraudDetectionService.validateTransfer(request), executor)
+            .orTimeout(FRAUD_CHECK_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .handleAsync((isValid, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof TimeoutException) {
+                    return fraudCheckTimeout();
+                }
+                if (cause instanceof BankingException) {
+                    throw (BankingException) cause;
+                }
+                if (cause != null) {
+                    throw new BankingException("FRAUD_CHECK_ERROR",
+                        "Error al validar la transferencia: " + cause.getMessage(), cause);
+                }
+                try {
+                    return fraudCheckOutcome(request, isValid);
+                } catch (BankingException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new BankingException("FRAUD_CHECK_ERROR",
+                        "Error al validar la transferencia: " + e.getMessage(), e);
+                }
+            }, executor);
+    }
+
+    private TransferFraudCheckResult fraudCheckOutcome(TransferRequest request, boolean isValid) {
+        if (!isValid) {
+            int riskScore = fraudDetectionService.evaluateTransactionRisk(
+                request.getSourceAccountNumber(), request.getAmount());
+
+            fraudDetectionService.invalidateAccount(request.getSourceAccountNumber());
+            fraudDetectionService.reportSuspiciousActivity(
+                UUID.randomUUID().toString(),
+                "Transferencia rechazada por fraude. Score: " + riskScore
+            );
+
+            return new TransferFraudCheckResult(false, "FRAUD_DETECTED",
+                "La transferencia fue rechazada por políticas de seguridad", riskScore);
+        }
+
+        return new TransferFraudCheckResult(true, null, null, 0);
+    }
+
+    private static TransferFraudCheckResult fraudCheckTimeout() {
+        return new TransferFraudCheckResult(false, "FRAUD_CHECK_TIMEOUT",
+            "El servicio de validación no respondió a tiempo", -1);
+    }
+
+    private AuditMetadata createTransferMetadata(TransferRequest request,
+                                                 TransferFraudCheckResult fraudResult) {
+        return AuditMetadata.forTransfer(request, fraudResult.getRiskScore());
     }
 
     private Transaction createTransferTransaction(TransferRequest request, BigDecimal fee) {
@@ -429,25 +1488,40 @@ public class TransferOrchestrator {
         return transaction;
     }
 
-    public void executeRollback(Account sourceAccount, Account targetAccount,
+    public boolean executeRollback(Account sourceAccount, Account targetAccount,
                                   BigDecimal originalSourceBalance, BigDecimal originalTargetBalance,
                                   boolean debitExecuted, boolean creditExecuted) {
+        return executeRollback(sourceAccount, targetAccount, originalSourceBalance, originalTargetBalance,
+            originalSourceBalance == null ? null : sourceAccount.getBalance().subtract(originalSourceBalance),
+            originalTargetBalance == null ? null : targetAccount.getBalance().subtract(originalTargetBalance),
+            debitExecuted, creditExecuted);
+    }
+
+    /**
+     * Compensa con los movimientos aplicados en vez de reescribir el saldo, para no perder los
+     * créditos concurrentes de una cuenta particionada.
+     */
+    private boolean executeRollback(Account sourceAccount, Account targetAccount,
+                                    BigDecimal originalSourceBalance, BigDecimal originalTargetBalance,
+                                    BigDecimal sourceDelta, BigDecimal targetDelta,
+                                    boolean debitExecuted, boolean creditExecuted) {
         String rollbackAuditId = auditService.logOperationStart("ROLLBACK", 
             sourceAccount.getAccountNumber(), 
             Map.of("reason", "Transfer failed, executing compensation"));
 
         try {
             if (debitExecuted && originalSourceBalance != null) {
-                sourceAccount.setBalance(originalSourceBalance);
+                sourceAccount.revert(sourceDelta, originalSourceBalance);
                 accountRepository.save(sourceAccount);
             }
 
             if (creditExecuted && originalTargetBalance != null) {
-                targetAccount.setBalance(originalTargetBalance);
+                targetAccount.revert(targetDelta, originalTargetBalance);
                 accountRepository.save(targetAccount);
             }
 
             auditService.logOperationSuccess(rollbackAuditId, "ROLLBACK_COMPLETED");
+            return true;
 
         } catch (Exception rollbackError) {
             // Log crítico: el rollback falló
@@ -455,13 +1529,50 @@ public class TransferOrchestrator {
                 rollbackError.getMessage());
             
             // Notificar sobre inconsistencia crítica
-            notificationService.sendEmail(
-                "operations@bank.com",
-                "ALERTA CRÍTICA: Rollback fallido",
-                "Transferencia fallida con rollback incompleto. " +
-                "Cuenta origen: " + sourceAccount.getAccountNumber() +
-                ", Cuenta destino: " + targetAccount.getAccountNumber()
-            );
+            alertIncompleteRollback(sourceAccount.getAccountNumber(), targetAccount.getAccountNumber());
+            return false;
+        }
+    }
+
+    private void alertIncompleteRollback(String sourceAccountNumber, String targetAccountNumber) {
+        notificationService.sendEmail(
+            "operations@bank.com",
+            "ALERTA CRÍTICA: Rollback fallido",
+            "Transferencia fallida con rollback incompleto. " +
+            "Cuenta origen: " + sourceAccountNumber +
+            ", Cuenta destino: " + targetAccountNumber
+        );
+    }
+
+    /**
+     * Cierra la auditoría de una transferencia fallida y retorna la excepción a lanzar.
+     */
+    private BankingException transferFailure(String auditId, Exception e) {
+        if (auditId != null) {
+            String errorCode = e instanceof BankingException ? 
+                ((BankingException) e).getErrorCode() : "UNEXPECTED_ERROR";
+            auditService.logOperationFailure(auditId, errorCode, e.getMessage());
+        }
+
+        if (e instanceof BankingException) {
+            return (BankingException) e;
+        }
+        return new BankingException("TRANSFER_FAILED", 
+            "Error inesperado durante la transferencia: " + e.getMessage(), e);
+    }
+
+    private void closeSaga(TransferSaga saga, TransferSaga.Step step) {
+        if (saga == null) {
+            return;
+        }
+        try {
+            if (step == TransferSaga.Step.COMPENSATED) {
+                sagaLog.markCompensated(saga);
+            } else {
+                sagaLog.markAborted(saga);
+            }
+        } catch (RuntimeException e) {
+            // La saga queda abierta y la recuperación decide a partir de los saldos
         }
     }
 
@@ -471,17 +1582,15 @@ public class TransferOrchestrator {
             // Notificar al origen
             notificationService.sendPushNotification(
                 sourceAccount.getAccountNumber(),
-                "Transferencia enviada",
-                "Has enviado " + request.getAmount() + " a " + 
-                    targetAccount.getAccountNumber()
+                NotificationMessage.of(NotificationTemplate.TRANSFER_SENT,
+                    request.getAmount(), targetAccount.getAccountNumber())
             );
 
             // Notificar al destino
             notificationService.sendPushNotification(
                 targetAccount.getAccountNumber(),
-                "Transferencia recibida",
-                "Has recibido " + request.getAmount() + " de " + 
-                    sourceAccount.getAccountNumber()
+                NotificationMessage.of(NotificationTemplate.TRANSFER_RECEIVED,
+                    request.getAmount(), sourceAccount.getAccountNumber())
             );
 
         } catch (Exception e) {
@@ -533,4 +1642,89 @@ public class TransferOrchestrator {
             return riskScore;
         }
     }
+
+    /**
+     * Transferencia validada, a la espera del control de fraude.
+     */
+    private static class PreparedTransfer {
+        private final TransferRequest request;
+        private final Account sourceAccount;
+        private final Account targetAccount;
+        private final BigDecimal fee;
+        private final BigDecimal totalDebit;
+
+        private PreparedTransfer(TransferRequest request, Account sourceAccount, Account targetAccount,
+                                 BigDecimal fee, BigDecimal totalDebit) {
+            this.request = request;
+            this.sourceAccount = sourceAccount;
+            this.targetAccount = targetAccount;
+            this.fee = fee;
+            this.totalDebit = totalDebit;
+        }
+    }
+
+    /**
+     * Transferencia con el origen ya debitado, a la espera del crédito en el destino.
+     */
+    public static class ReservedTransfer {
+        private final TransferRequest request;
+        private final BigDecimal fee;
+        private final BigDecimal totalDebit;
+        private final String auditId;
+        private final TransferSaga saga;
+        private final Account sourceAccount;
+        private final BigDecimal originalSourceBalance;
+        private final BigDecimal sourceNewBalance;
+        private final TransferResult rejection;
+        private volatile boolean needsReview;
+
+        private ReservedTransfer(TransferRequest request, BigDecimal fee, BigDecimal totalDebit,
+                                 String auditId, TransferSaga saga, Account sourceAccount,
+                                 BigDecimal originalSourceBalance, BigDecimal sourceNewBalance) {
+            this(request, fee, totalDebit, auditId, saga, sourceAccount, originalSourceBalance,
+                sourceNewBalance, null);
+        }
+
+        private ReservedTransfer(TransferRequest request, BigDecimal fee, BigDecimal totalDebit,
+                                 String auditId, TransferSaga saga, Account sourceAccount,
+                                 BigDecimal originalSourceBalance, BigDecimal sourceNewBalance,
+                                 TransferResult rejection) {
+            this.request = request;
+            this.fee = fee;
+            this.totalDebit = totalDebit;
+            this.auditId = auditId;
+            this.saga = saga;
+            this.sourceAccount = sourceAccount;
+            this.originalSourceBalance = originalSourceBalance;
+            this.sourceNewBalance = sourceNewBalance;
+            this.rejection = rejection;
+        }
+
+        private static ReservedTransfer rejected(TransferRequest request, TransferResult rejection) {
+            return new ReservedTransfer(request, null, null, null, null, null, null, null, rejection);
+        }
+
+        public TransferRequest getRequest() {
+            return request;
+        }
+
+        public BigDecimal getFee() {
+            return fee;
+        }
+
+        public BigDecimal getTotalDebit() {
+            return totalDebit;
+        }
+
+        public boolean isRejected() {
+            return rejection != null;
+        }
+
+        /**
+         * @return Resultado del rechazo por fraude, o null si el origen fue debitado
+         */
+        public TransferResult getRejection() {
+            return rejection;
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.bancolombia.evaluation.sharding;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cola enlazada de múltiples productores y un solo consumidor, sin bloqueos.
+ *
+ * Cada productor encola con un solo intercambio atómico sobre la cola de la lista y luego enlaza
+ * el nodo anterior; el consumidor avanza la cabeza sin operaciones atómicas. Entre el intercambio
+ * y el enlace hay un instante en que el elemento ya está encolado pero {@link #poll()} aún no lo
+ * ve: el consumidor debe tratar un null como "vacía por ahora", no como definitivo.
+ */
+final class MpscQueue<T> {
+
+    private static final class Node<T> {
+        private T value;
+        private volatile Node<T> next;
+
+        private Node(T value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<T>> tail;
+    /** Nodo ya consumido; solo lo usa el consumidor. */
+    private Node<T> head;
+
+    MpscQueue() {
+        Node<T> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * Encola un elemento. Puede llamarse desde cualquier hilo.
+     */
+    void offer(T value) {
+        Node<T> node = new Node<>(value);
+        Node<T> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    /**
+     * Retira el siguiente elemento. Solo desde el hilo consumidor.
+     * @return El elemento, o null si no hay ninguno visible
+     */
+    T poll() {
+        Node<T> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        T value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    /**
+     * Solo desde el hilo consumidor.
+     */
+    boolean isEmpty() {
+        return head.next == null;
+    }
+}
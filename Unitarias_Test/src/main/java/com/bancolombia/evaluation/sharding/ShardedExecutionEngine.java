@@ -0,0 +1,325 @@
+package com.bancolombia.evaluation.sharding;
+
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.service.TransactionService;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.service.TransferOrchestrator.ReservedTransfer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Modelo de ejecución alternativo para {@link TransactionService} y {@link TransferOrchestrator}
+ * en el que cada cuenta la modifica un solo hilo.
+ *
+ * Las cuentas se reparten en shards por número de cuenta. Cada shard tiene un hilo que consume
+ * una {@link MpscQueue} de comandos y los ejecuta uno a la vez, así que las operaciones sobre una
+ * misma cuenta nunca se cruzan y los saldos no necesitan bloqueos. Los llamadores envían
+ * comandos desde cualquier hilo y reciben un {@link CompletableFuture}.
+ *
+ * Los depósitos, retiros y transferencias entre cuentas del mismo shard se ejecutan completos en
+ * ese shard. Una transferencia entre shards es una saga de comandos: el shard del origen la
+ * reserva ({@link TransferOrchestrator#reserveTransfer}: validaciones, fraude y débito), el del
+ * destino la completa ({@link TransferOrchestrator#completeReservedTransfer}) y, si el crédito
+ * falla, el del origen la compensa ({@link TransferOrchestrator#compensateReservedTransfer}).
+ *
+ * Los futuros se completan en el hilo del shard: las etapas dependientes que hagan trabajo
+ * pesado deben usar las variantes {@code *Async}. Mientras el motor esté activo, las cuentas no
+ * deben modificarse por fuera de él.
+ */
+public class ShardedExecutionEngine implements AutoCloseable {
+
+    private final TransactionService transactionService;
+    private final TransferOrchestrator transferOrchestrator;
+    private final Shard[] shards;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder crossShardTransfers = new LongAdder();
+    private final LongAdder compensations = new LongAdder();
+    private volatile boolean accepting;
+    private volatile boolean closing;
+    private boolean started;
+
+    /**
+     * @param shardCount Número de shards, cada uno con su hilo; del orden de los núcleos
+     */
+    public ShardedExecutionEngine(TransactionService transactionService,
+                                  TransferOrchestrator transferOrchestrator, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("El número de shards debe ser mayor a cero");
+        }
+        this.transactionService = transactionService;
+        this.transferOrchestrator = transferOrchestrator;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("El motor ya fue iniciado");
+        }
+        started = true;
+        accepting = true;
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Envía un depósito al shard de la cuenta. Equivale a {@link TransactionService#processDeposit}.
+     */
+    public CompletableFuture<Transaction> submitDeposit(String accountNumber, BigDecimal amount,
+                                                        String description) {
+        CompletableFuture<Transaction> future = accept();
+        shardOf(accountNumber).execute(future,
+            () -> transactionService.processDeposit(accountNumber, amount, description));
+        return future;
+    }
+
+    /**
+     * Envía un retiro al shard de la cuenta. Equivale a {@link TransactionService#processWithdrawal}.
+     */
+    public CompletableFuture<Transaction> submitWithdrawal(String accountNumber, BigDecimal amount,
+                                                           String description) {
+        CompletableFuture<Transaction> future = accept();
+        shardOf(accountNumber).execute(future,
+            () -> transactionService.processWithdrawal(accountNumber, amount, description));
+        return future;
+    }
+
+    /**
+     * Envía una transferencia. Si ambas cuentas están en el mismo shard equivale a
+     * {@link TransferOrchestrator#executeTransfer}; si no, se ejecuta como saga entre los dos
+     * shards y el futuro falla con la misma excepción que lanzaría la versión síncrona.
+     */
+    public CompletableFuture<TransferResult> submitTransfer(TransferRequest request) {
+        CompletableFuture<TransferResult> future = accept();
+        Shard source = shardOf(request != null ? request.getSourceAccountNumber() : null);
+        Shard target = shardOf(request != null ? request.getTargetAccountNumber() : null);
+        if (source == target) {
+            source.execute(future, () -> transferOrchestrator.executeTransfer(request));
+            return future;
+        }
+
+        crossShardTransfers.increment();
+        source.submit(() -> {
+            ReservedTransfer reserved;
+            try {
+                reserved = transferOrchestrator.reserveTransfer(request);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            if (reserved.isRejected()) {
+                future.complete(reserved.getRejection());
+                return;
+            }
+            target.submit(() -> {
+                try {
+                    future.complete(transferOrchestrator.completeReservedTransfer(reserved));
+                } catch (Exception e) {
+                    compensations.increment();
+                    source.submit(() -> {
+                        try {
+                            future.completeExceptionally(
+                                transferOrchestrator.compensateReservedTransfer(reserved, e));
+                        } catch (Throwable compensationError) {
+                            future.completeExceptionally(compensationError);
+                        }
+                    });
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        });
+        return future;
+    }
+
+    /**
+     * @return Índice del shard dueño de la cuenta
+     */
+    public int shardIndexOf(String accountNumber) {
+        if (accountNumber == null) {
+            return 0;
+        }
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    public EngineStats getStats() {
+        long[] executed = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            executed[i] = shards[i].executed;
+        }
+        return new EngineStats(executed, crossShardTransfers.sum(), compensations.sum(), inFlight.get());
+    }
+
+    /**
+     * Deja de aceptar comandos, termina los que están en curso (incluidas las sagas entre shards)
+     * y detiene los hilos.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!started || closing) {
+                return;
+            }
+            accepting = false;
+            closing = true;
+        }
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // ==================== EJECUCIÓN ====================
+
+    private <T> CompletableFuture<T> accept() {
+        // Se cuenta antes de revisar el estado para que close() no detenga los shards con este
+        // comando aún sin encolar
+        inFlight.incrementAndGet();
+        if (!accepting) {
+            inFlight.decrementAndGet();
+            throw new IllegalStateException("El motor no está aceptando comandos");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> inFlight.decrementAndGet());
+        return future;
+    }
+
+    private Shard shardOf(String accountNumber) {
+        return shards[shardIndexOf(accountNumber)];
+    }
+
+    /**
+     * Un shard: su cola y el único hilo que la consume.
+     */
+    private final class Shard {
+        private final MpscQueue<Runnable> queue = new MpscQueue<>();
+        private final Thread thread;
+        private volatile boolean parked;
+        /** Solo lo escribe el hilo del shard. */
+        private volatile long executed;
+
+        private Shard(int index) {
+            this.thread = new Thread(this::run, "sharded-engine-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private <T> void execute(CompletableFuture<T> future, Callable<T> command) {
+            submit(() -> {
+                try {
+                    future.complete(command.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+
+        private void submit(Runnable command) {
+            queue.offer(command);
+            // El consumidor marca parked antes de revisar la cola por última vez, así que al
+            // menos uno de los dos ve al otro
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            while (true) {
+                Runnable command = queue.poll();
+                if (command != null) {
+                    command.run();
+                    executed++;
+                    continue;
+                }
+                if (closing && inFlight.get() == 0 && queue.isEmpty()) {
+                    return;
+                }
+                parked = true;
+                if (queue.isEmpty()) {
+                    if (closing) {
+                        // Otro shard puede aún enviar el siguiente paso de una saga
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+                parked = false;
+            }
+        }
+    }
+
+    /**
+     * Métricas del motor.
+     */
+    public static class EngineStats {
+        private final long[] executedPerShard;
+        private final long crossShardTransfers;
+        private final long compensations;
+        private final int inFlight;
+
+        public EngineStats(long[] executedPerShard, long crossShardTransfers, long compensations,
+                           int inFlight) {
+            this.executedPerShard = executedPerShard.clone();
+            this.crossShardTransfers = crossShardTransfers;
+            this.compensations = compensations;
+            this.inFlight = inFlight;
+        }
+
+        /**
+         * @return Comandos ejecutados por cada shard; una saga entre shards cuenta uno por paso
+         */
+        public List<Long> getExecutedPerShard() {
+            List<Long> executed = new ArrayList<>(executedPerShard.length);
+            for (long count : executedPerShard) {
+                executed.add(count);
+            }
+            return executed;
+        }
+
+        public long getCommandsExecuted() {
+            long total = 0;
+            for (long count : executedPerShard) {
+                total += count;
+            }
+            return total;
+        }
+
+        public long getCrossShardTransfers() {
+            return crossShardTransfers;
+        }
+
+        /**
+         * @return Transferencias entre shards cuyo crédito falló y se devolvieron al origen
+         */
+        public long getCompensations() {
+            return compensations;
+        }
+
+        /**
+         * @return Operaciones enviadas cuyo futuro aún no se completa
+         */
+        public int getInFlight() {
+            return inFlight;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.bancolombia.evaluation.audit;
+
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MappedAuditLog - Log binario local de auditoría")
+class MappedAuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final MutableClock clock = new MutableClock();
+    private MappedAuditLog log;
+
+    @AfterEach
+    void tearDown() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe encontrar los registros de una operación por ID y por cuenta")
+    void shouldFindRecordsByAuditIdAndAccount() {
+        log = new MappedAuditLog(directory, new AuditIdGenerator("N1"), 1024, true, clock);
+
+        String auditId = log.logOperationStart("WITHDRAWAL", "ACC001", null);
+        log.logBalanceChange("ACC001", new BigDecimal("1000.00"), new BigDecimal("800.50"), "TXN1");
+        log.logOperationFailure(auditId, "INSUFFICIENT_FUNDS", "Fondos insuficientes en la cuenta");
+        log.logBalanceChange("ACC002", BigDecimal.ZERO, BigDecimal.TEN, "TXN2");
+
+        List<AuditRecord> byId = log.findByAuditId(auditId);
+        assertEquals(2, byId.size());
+        assertEquals("WITHDRAWAL", byId.get(0).getOperationType());
+        assertEquals(AuditEvent.Type.OPERATION_FAILURE, byId.get(1).getType());
+        assertEquals("INSUFFICIENT_FUNDS", byId.get(1).getErrorCode());
+
+        List<AuditRecord> byAccount = log.findByAccount("ACC001", clock.instant(), clock.instant().plusSeconds(1));
+        assertEquals(3, byAccount.size());
+        assertEquals(new BigDecimal("800.50"), byAccount.get(1).getNewBalance());
+        assertEquals("ACC001", byAccount.get(2).getAccountNumber());
+    }
+
+    @Test
+    @DisplayName("Debe rotar y comprimir segmentos y consultar por rango de tiempo")
+    void shouldRotateCompressAndQueryByTimeRange() throws IOException {
+        log = new MappedAuditLog(directory, new AuditIdGenerator("N1"), 128, true, clock);
+        Instant start = clock.instant();
+
+        for (int i = 0; i < 300; i++) {
+            log.logBalanceChange(i % 2 == 0 ? "ACC001" : "ACC002", BigDecimal.valueOf(i),
+                BigDecimal.valueOf(i + 1), "TXN" + i);
+            clock.advance(Duration.ofMinutes(1));
+        }
+        assertTrue(log.awaitCompression(Duration.ofSeconds(5)));
+
+        assertEquals(3, log.getSegmentCount());
+        assertEquals(2, log.getCompressedSegmentCount());
+        assertEquals(2, countFiles(".log.gz"));
+        List<AuditRecord> lastHours = log.findByAccount("ACC001",
+            start.plus(Duration.ofMinutes(100)), start.plus(Duration.ofMinutes(200)));
+        assertEquals(50, lastHours.size());
+        assertEquals("TXN100", lastHours.get(0).getTransactionId());
+        assertEquals("TXN198", lastHours.get(49).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Debe recuperar los registros y la secuencia al reabrir el log")
+    void shouldRecoverAfterReopen() {
+        log = new MappedAuditLog(directory, new AuditIdGenerator("N1"), 128, false, clock);
+        for (int i = 0; i < 130; i++) {
+            log.logBalanceChange("ACC001", BigDecimal.ZERO, BigDecimal.valueOf(i), "TXN" + i);
+        }
+        log.close();
+
+        log = new MappedAuditLog(directory, new AuditIdGenerator("N1"), 128, false, clock);
+        log.logBalanceChange("ACC001", BigDecimal.ZERO, BigDecimal.ONE, "TXN-NEW");
+
+        List<AuditRecord> records = log.findByAccount("ACC001", clock.instant(), clock.instant().plusSeconds(1));
+        assertEquals(131, records.size());
+        assertEquals(130, records.get(130).getSequence());
+        assertEquals("TXN-NEW", records.get(130).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Debe funcionar como almacenamiento del pipeline asíncrono de auditoría")
+    void shouldWorkAsRingBufferSink() {
+        log = new MappedAuditLog(directory, new AuditIdGenerator("N1"), 1024, true, clock);
+        RingBufferAuditService auditService = new RingBufferAuditService(log, new AuditIdGenerator("N2"), 64, 16);
+
+        String auditId = auditService.logOperationStart("DEPOSIT", "ACC003", null);
+        auditService.logOperationSuccess(auditId, "COMPLETED");
+        assertTrue(auditService.shutdown(Duration.ofSeconds(2)));
+
+        List<AuditRecord> records = log.findByAuditId(auditId);
+        assertEquals(2, records.size());
+        assertEquals("ACC003", records.get(1).getAccountNumber());
+        assertEquals("COMPLETED", records.get(1).getResult());
+    }
+
+    private long countFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(Path::toString).filter(name -> name.endsWith(suffix))
+                .collect(Collectors.counting());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.bancolombia.evaluation.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RingBufferAuditService - Auditoría asíncrona con commit en grupo")
+class RingBufferAuditServiceTest {
+
+    private RingBufferAuditService auditService;
+
+    @AfterEach
+    void tearDown() {
+        if (auditService != null) {
+            auditService.shutdown(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Debe preservar el orden por cuenta y vaciar el buffer al cerrar")
+    void shouldPreserveOrderPerAccountAndDrainOnShutdown() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        auditService = new RingBufferAuditService(sink, new AuditIdGenerator("N1"), 64, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Set<String> auditIds = Collections.synchronizedSet(new HashSet<>());
+
+        for (int t = 0; t < 4; t++) {
+            String account = "ACC00" + t;
+            executor.submit(() -> {
+                for (int i = 1; i <= 500; i++) {
+                    auditIds.add(auditService.logOperationStart("DEPOSIT", account, null));
+                    auditService.logBalanceChange(account, BigDecimal.valueOf(i - 1), BigDecimal.valueOf(i), "TXN" + i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(auditService.shutdown(Duration.ofSeconds(5)));
+
+        assertEquals(2000, auditIds.size());
+        assertEquals(2000, sink.balances.values().stream().mapToInt(List::size).sum());
+        for (List<BigDecimal> balances : sink.balances.values()) {
+            for (int i = 0; i < balances.size(); i++) {
+                assertEquals(BigDecimal.valueOf(i + 1), balances.get(i));
+            }
+        }
+        assertEquals(4000, auditService.getStats().getCommitted());
+        assertEquals(0, auditService.getStats().getPending());
+    }
+
+    @Test
+    @DisplayName("Debe agrupar en lotes los eventos publicados mientras el almacenamiento escribe")
+    void shouldGroupCommitWhileSinkIsBusy() throws InterruptedException {
+        CountDownLatch firstWrite = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink() {
+            @Override
+            public void writeBatch(List<AuditEvent> events) {
+                firstWrite.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.writeBatch(events);
+            }
+        };
+        auditService = new RingBufferAuditService(sink, new AuditIdGenerator("N1"), 128, 64);
+
+        auditService.logOperationSuccess("AUD-1", "OK");
+        assertTrue(firstWrite.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) {
+            auditService.logOperationSuccess("AUD-" + i, "OK");
+        }
+        release.countDown();
+        assertTrue(auditService.shutdown(Duration.ofSeconds(2)));
+
+        assertEquals(51, auditService.getStats().getCommitted());
+        assertEquals(2, auditService.getStats().getBatches());
+    }
+
+    @Test
+    @DisplayName("Debe escribir en el almacenamiento de respaldo los lotes que el principal rechaza")
+    void shouldSpillToFallbackWhenSinkFails() {
+        RecordingSink fallback = new RecordingSink();
+        auditService = new RingBufferAuditService(events -> {
+            throw new IllegalStateException("disco lleno");
+        }, fallback, new AuditIdGenerator("N1"), 16, 16);
+
+        String auditId = auditService.logOperationStart("PAYMENT", "ACC001", null);
+        auditService.logOperationSuccess(auditId, "OK");
+        assertTrue(auditService.shutdown(Duration.ofSeconds(2)));
+
+        assertEquals(List.of(auditId), fallback.outcomes);
+        assertEquals(2, auditService.getStats().getSpilled());
+        assertFalse(auditService.getStats().isSinkHealthy());
+        assertEquals("disco lleno", auditService.getLastWriteFailure().getMessage());
+    }
+
+    @Test
+    @DisplayName("Debe retener los eventos y reintentar hasta que el almacenamiento se recupere")
+    void shouldRetainEventsUntilSinkRecovers() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        RecordingSink sink = new RecordingSink() {
+            @Override
+            public void writeBatch(List<AuditEvent> events) {
+                if (failing.get()) {
+                    throw new IllegalStateException("disco lleno");
+                }
+                super.writeBatch(events);
+            }
+        };
+        auditService = new RingBufferAuditService(sink, new AuditIdGenerator("N1"), 16, 16);
+
+        auditService.logOperationFailure("AUD-1", "TIMEOUT", "Tiempo agotado");
+        assertFalse(auditService.shutdown(Duration.ofMillis(100)));
+        assertFalse(auditService.getStats().isSinkHealthy());
+        assertEquals(1, auditService.getStats().getPending());
+
+        failing.set(false);
+        assertTrue(auditService.shutdown(Duration.ofSeconds(3)));
+
+        assertEquals(List.of("AUD-1"), sink.outcomes);
+        assertEquals(1, auditService.getStats().getCommitted());
+        assertTrue(auditService.getStats().isSinkHealthy());
+    }
+
+    @Test
+    @DisplayName("Debe escribir de forma síncrona los eventos publicados después del cierre")
+    void shouldWriteSynchronouslyAfterShutdown() {
+        RecordingSink sink = new RecordingSink();
+        auditService = new RingBufferAuditService(sink, new AuditIdGenerator("N1"), 16, 16);
+        assertTrue(auditService.shutdown(Duration.ofSeconds(1)));
+
+        auditService.logOperationFailure("AUD-9", "TIMEOUT", "Tiempo agotado");
+
+        assertEquals(List.of("AUD-9"), sink.outcomes);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar capacidades que no son potencia de dos")
+    void shouldRejectInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new RingBufferAuditService(events -> { }, new AuditIdGenerator("N1"), 100, 10));
+    }
+
+    private static class RecordingSink implements AuditEventSink {
+        private final Map<String, List<BigDecimal>> balances = new HashMap<>();
+        private final List<String> outcomes = new ArrayList<>();
+
+        @Override
+        public void writeBatch(List<AuditEvent> events) {
+            for (AuditEvent event : events) {
+                if (event.getType() == AuditEvent.Type.BALANCE_CHANGE) {
+                    balances.computeIfAbsent(event.getAccountNumber(), k -> new ArrayList<>())
+                        .add(event.getNewBalance());
+                } else if (event.getType() != AuditEvent.Type.OPERATION_START) {
+                    outcomes.add(event.getAuditId());
+                }
+            }
+        }
+    }
+}
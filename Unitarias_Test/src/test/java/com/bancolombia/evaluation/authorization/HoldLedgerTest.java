@@ -0,0 +1,250 @@
+package com.bancolombia.evaluation.authorization;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.exception.InsufficientFundsException;
+import com.bancolombia.evaluation.exception.TransactionNotAllowedException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.AccountStatus;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.PaymentProcessor;
+import com.bancolombia.evaluation.service.TransactionService;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("HoldLedger - Pagos autorizados y capturados después")
+class HoldLedgerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private HoldLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        accounts = spy(new InMemoryAccountRepository());
+        transactions = new InMemoryTransactionRepository();
+        accounts.add("ACC001", "100000");
+        accounts.add("ACC002", "100000");
+        ledger = new HoldLedger(accounts, transactions, clock, Duration.ofMinutes(30), Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Autorizar debe reducir el disponible sin escribir y anular debe liberarlo")
+    void authorizeShouldOnlyReserve() {
+        Hold hold = ledger.authorize(payment("ACC001", "60000"), BigDecimal.ZERO, 0);
+
+        assertEquals(new BigDecimal("40000.00"), ledger.getAvailableBalance("ACC001"));
+        assertEquals(new BigDecimal("100000"), accounts.balanceOf("ACC001"));
+        assertThrows(InsufficientFundsException.class,
+            () -> ledger.authorize(payment("ACC001", "50000"), BigDecimal.ZERO, 0));
+        verify(accounts, never()).save(any(Account.class));
+
+        assertTrue(ledger.voidHold(hold.getHoldId()));
+        assertFalse(ledger.voidHold(hold.getHoldId()));
+        assertEquals(new BigDecimal("100000.00"), ledger.getAvailableBalance("ACC001"));
+    }
+
+    @Test
+    @DisplayName("Capturar en lote debe guardar cada cuenta una vez y no permitir capturar de nuevo")
+    void captureAllShouldDebitOncePerAccount() {
+        List<String> holdIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            holdIds.add(ledger.authorize(payment("ACC001", "10000"), new BigDecimal("150.00"), 0).getHoldId());
+            holdIds.add(ledger.authorize(payment("ACC002", "5000"), BigDecimal.ZERO, 0).getHoldId());
+        }
+
+        Map<String, Transaction> captured = ledger.captureAll(holdIds);
+
+        assertEquals(holdIds, new ArrayList<>(captured.keySet()));
+        assertEquals(8, transactions.size());
+        verify(accounts, times(2)).save(any(Account.class));
+        assertEquals(0, new BigDecimal("59400").compareTo(accounts.balanceOf("ACC001")));
+        assertEquals(0, new BigDecimal("59400").compareTo(ledger.getAvailableBalance("ACC001")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(ledger.getHeldAmount("ACC002")));
+        BankingException error = assertThrows(BankingException.class, () -> ledger.capture(holdIds.get(0)));
+        assertEquals("HOLD_NOT_CAPTURABLE", error.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Las retenciones no capturadas deben vencer y liberar los fondos")
+    void staleHoldsShouldExpire() {
+        Hold hold = ledger.authorize(payment("ACC001", "30000"), BigDecimal.ZERO, 0);
+        clock.advance(Duration.ofMinutes(29));
+        assertEquals(0, ledger.expireDue());
+
+        clock.advance(Duration.ofMinutes(2));
+
+        assertEquals(1, ledger.expireDue());
+        assertEquals(Hold.Status.EXPIRED, hold.getStatus());
+        assertEquals(new BigDecimal("100000.00"), ledger.getAvailableBalance("ACC001"));
+        assertThrows(BankingException.class, () -> ledger.capture(hold.getHoldId()));
+        assertEquals(1, ledger.getStats().getExpired());
+    }
+
+    @Test
+    @DisplayName("Autorizaciones concurrentes no deben retener más que el saldo")
+    void concurrentAuthorizationsShouldNotOverdraw() throws InterruptedException {
+        AtomicInteger approved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        ledger.authorize(payment("ACC001", "1000"), BigDecimal.ZERO, 0);
+                        approved.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        // Esperado cuando se agota el disponible
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, approved.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(ledger.getAvailableBalance("ACC001")));
+    }
+
+    @Test
+    @DisplayName("El procesador debe autorizar solo tarjetas y QR, y los pagos inmediatos deben respetar lo retenido")
+    void processorShouldHonorHolds() {
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        when(fraudDetectionService.validatePayment(any())).thenReturn(true);
+        PaymentProcessor processor = new PaymentProcessor(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), mock(AuditService.class), null, ledger);
+
+        PaymentResult authorization = processor.authorizePayment(payment("ACC001", "80000"));
+        assertTrue(authorization.isSuccessful());
+        assertThrows(TransactionNotAllowedException.class, () -> processor.authorizePayment(
+            new PaymentRequest("ACC001", "MERCHANT-1", new BigDecimal("1000"), PaymentMethod.BANK_TRANSFER)));
+        assertThrows(InsufficientFundsException.class, () -> processor.processPayment(
+            new PaymentRequest("ACC001", "MERCHANT-1", new BigDecimal("30000"), PaymentMethod.PSE)));
+
+        PaymentResult capture = processor.capturePayment(authorization.getPaymentId());
+
+        assertTrue(capture.isSuccessful());
+        assertEquals(authorization.getAuthorizationCode(), capture.getAuthorizationCode());
+        assertEquals(new BigDecimal("20000.00"), accounts.balanceOf("ACC001"));
+        assertFalse(processor.capturePayment(authorization.getPaymentId()).isSuccessful());
+    }
+
+    @Test
+    @DisplayName("Capturar debe recargar la cuenta y no sobregirarla si su saldo ya no cubre la retención")
+    void captureShouldReloadAccountAndCheckFunds() {
+        Hold hold = ledger.authorize(payment("ACC001", "60000"), BigDecimal.ZERO, 0);
+        // Otro proceso debita la cuenta sin pasar por el libro
+        accounts.add("ACC001", "50000");
+
+        assertTrue(ledger.captureAll(List.of(hold.getHoldId())).isEmpty());
+        assertEquals(Hold.Status.AUTHORIZED, hold.getStatus());
+        assertEquals(1, ledger.getStats().getInsufficientFunds());
+        assertEquals(new BigDecimal("50000"), accounts.balanceOf("ACC001"));
+
+        accounts.add("ACC001", "70000");
+        ledger.capture(hold.getHoldId());
+
+        assertEquals(0, new BigDecimal("10000").compareTo(accounts.balanceOf("ACC001")));
+        assertEquals(0, new BigDecimal("10000").compareTo(ledger.getAvailableBalance("ACC001")));
+    }
+
+    @Test
+    @DisplayName("Transferencias y retiros deben verificar el disponible y la captura conservar el riesgo")
+    void debitPathsShouldHonorHolds() {
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AuditService auditService = mock(AuditService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validatePayment(any())).thenReturn(true);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(fraudDetectionService.evaluateTransactionRisk(anyString(), any())).thenReturn(42);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        PaymentProcessor processor = new PaymentProcessor(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), auditService, null, ledger);
+        TransferOrchestrator orchestrator = new TransferOrchestrator(accounts, transactions,
+            fraudDetectionService, mock(NotificationService.class), auditService, accountValidator,
+            null, null, ledger);
+        TransactionService transactionService = new TransactionService(accounts, transactions,
+            mock(NotificationService.class), auditService, ledger);
+
+        PaymentResult authorization = processor.authorizePayment(payment("ACC001", "80000"));
+
+        assertThrows(InsufficientFundsException.class, () -> orchestrator.executeTransfer(
+            new TransferRequest("ACC001", "ACC002", new BigDecimal("30000"), TransferType.SAME_BANK)));
+        assertThrows(InsufficientFundsException.class,
+            () -> transactionService.processWithdrawal("ACC001", new BigDecimal("30000"), "Retiro"));
+        assertTrue(processor.capturePayment(authorization.getPaymentId()).isSuccessful());
+        verify(auditService).logOperationStart(eq("PAYMENT_CAPTURE"), eq("ACC001"),
+            argThat(metadata -> Integer.valueOf(42).equals(metadata.get("riskScore"))));
+        assertEquals(new BigDecimal("20000.00"), accounts.balanceOf("ACC001"));
+    }
+
+    @Test
+    @DisplayName("Autorizar debe validar la cuenta antes del fraude y capturar debe auditar el cambio de saldo")
+    void processorShouldValidateAccountAndAuditCapture() {
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AuditService auditService = mock(AuditService.class);
+        when(fraudDetectionService.validatePayment(any())).thenReturn(true);
+        when(auditService.logOperationStart(anyString(), anyString(), any())).thenReturn("AUD-1");
+        PaymentProcessor processor = new PaymentProcessor(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), auditService, null, ledger);
+        accounts.add("ACC003", "100000").setStatus(AccountStatus.BLOCKED);
+
+        TransactionNotAllowedException blocked = assertThrows(TransactionNotAllowedException.class,
+            () -> processor.authorizePayment(payment("ACC003", "1000")));
+        assertEquals("ACCOUNT_BLOCKED", blocked.getErrorCode());
+        verifyNoInteractions(fraudDetectionService);
+
+        String first = processor.authorizePayment(payment("ACC001", "30000")).getPaymentId();
+        String second = processor.authorizePayment(payment("ACC001", "20000")).getPaymentId();
+        List<PaymentResult> results = processor.capturePayments(List.of(first, second));
+
+        assertTrue(results.stream().allMatch(PaymentResult::isSuccessful));
+        InOrder inOrder = inOrder(auditService, accounts);
+        inOrder.verify(auditService, times(2)).logOperationStart(eq("PAYMENT_CAPTURE"), eq("ACC001"), any());
+        inOrder.verify(accounts).save(any(Account.class));
+        inOrder.verify(auditService).logBalanceChange(eq("ACC001"),
+            argThat(previous -> previous.compareTo(new BigDecimal("100000")) == 0),
+            argThat(current -> current.compareTo(new BigDecimal("50000")) == 0), anyString());
+        verify(auditService, times(2)).logOperationSuccess(eq("AUD-1"), anyString());
+    }
+
+    private static PaymentRequest payment(String accountNumber, String amount) {
+        return new PaymentRequest(accountNumber, "MERCHANT-1", new BigDecimal(amount), PaymentMethod.DEBIT_CARD);
+    }
+}
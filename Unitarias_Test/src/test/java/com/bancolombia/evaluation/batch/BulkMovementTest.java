@@ -0,0 +1,105 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.AccountStatus;
+import com.bancolombia.evaluation.model.MovementRequest;
+import com.bancolombia.evaluation.model.MovementResult;
+import com.bancolombia.evaluation.model.NotificationMessage;
+import com.bancolombia.evaluation.service.TransactionService;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Depósitos y retiros en lote")
+class BulkMovementTest {
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private NotificationService notificationService;
+    private AuditService auditService;
+    private TransactionService service;
+
+    @BeforeEach
+    void setUp() {
+        accounts = spy(new InMemoryAccountRepository());
+        transactions = new InMemoryTransactionRepository();
+        notificationService = mock(NotificationService.class);
+        auditService = mock(AuditService.class);
+        service = new TransactionService(accounts, transactions, notificationService, auditService);
+    }
+
+    @Test
+    @DisplayName("Debe guardar cada cuenta una vez y auditar y notificar por lote")
+    void depositsShouldBeGroupedByAccount() {
+        for (int i = 0; i < 10; i++) {
+            accounts.add("ACC" + i, "0");
+        }
+        List<MovementRequest> deposits = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            deposits.add(new MovementRequest("ACC" + (i % 10), new BigDecimal("1000"), "Recaudo " + i));
+        }
+
+        List<MovementResult> results = service.processBulkDeposits(deposits);
+
+        assertTrue(results.stream().allMatch(MovementResult::isSuccessful));
+        assertEquals(1000, transactions.size());
+        assertEquals(new BigDecimal("100000"), accounts.balanceOf("ACC3"));
+        verify(accounts, times(10)).save(any(Account.class));
+        verify(auditService, times(1)).logOperationStart(eq("BULK_DEPOSIT"), anyString(), any());
+        verify(auditService, times(10)).logBalanceChange(anyString(), any(), any(), anyString());
+        verify(notificationService, times(10)).sendPushNotification(anyString(), any(NotificationMessage.class));
+        verify(notificationService, never()).notifyTransactionCompleted(any());
+    }
+
+    @Test
+    @DisplayName("Los depósitos inválidos deben reportarse sin detener el lote")
+    void invalidDepositsShouldNotAbortBatch() {
+        accounts.add("ACC001", "0");
+        accounts.add("ACC002", "0").setStatus(AccountStatus.BLOCKED);
+        List<MovementRequest> deposits = List.of(
+            new MovementRequest("ACC001", new BigDecimal("5000"), "Recaudo"),
+            new MovementRequest("ACC001", new BigDecimal("10"), "Monto mínimo"),
+            new MovementRequest("ACC999", new BigDecimal("5000"), "Cuenta inexistente"),
+            new MovementRequest("ACC002", new BigDecimal("5000"), "Cuenta bloqueada"));
+
+        List<MovementResult> results = service.processBulkDeposits(deposits);
+
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals("INVALID_REQUEST", results.get(1).getErrorCode());
+        assertEquals("ACCOUNT_NOT_FOUND", results.get(2).getErrorCode());
+        assertFalse(results.get(3).isSuccessful());
+        assertEquals(new BigDecimal("5000"), accounts.balanceOf("ACC001"));
+        assertEquals(1, transactions.size());
+    }
+
+    @Test
+    @DisplayName("Un retiro sin fondos solo debe fallar él y los siguientes que alcanzan aplicarse")
+    void withdrawalsShouldFollowRunningBalance() {
+        accounts.add("ACC001", "10000");
+        List<MovementRequest> withdrawals = List.of(
+            new MovementRequest("ACC001", new BigDecimal("6000"), "Retiro 1"),
+            new MovementRequest("ACC001", new BigDecimal("5000"), "Retiro 2"),
+            new MovementRequest("ACC001", new BigDecimal("4000"), "Retiro 3"));
+
+        List<MovementResult> results = service.processBulkWithdrawals(withdrawals);
+
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals("INSUFFICIENT_FUNDS", results.get(1).getErrorCode());
+        assertTrue(results.get(2).isSuccessful());
+        assertEquals(new BigDecimal("0"), accounts.balanceOf("ACC001"));
+        assertEquals(2, transactions.size());
+        verify(accounts, times(1)).save(any(Account.class));
+    }
+}
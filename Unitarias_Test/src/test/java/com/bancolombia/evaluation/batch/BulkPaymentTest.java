@@ -0,0 +1,125 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.service.PaymentProcessor;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Procesamiento de pagos en lote")
+class BulkPaymentTest {
+
+    private static final PaymentMethod[] METHODS = {
+        PaymentMethod.DEBIT_CARD, PaymentMethod.CREDIT_CARD, PaymentMethod.PSE, PaymentMethod.QR_CODE
+    };
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private FraudDetectionService fraudDetectionService;
+
+    @BeforeEach
+    void setUp() {
+        accounts = spy(new InMemoryAccountRepository());
+        transactions = new InMemoryTransactionRepository();
+        fraudDetectionService = fraudService();
+        seed(accounts);
+    }
+
+    @Test
+    @DisplayName("Debe dar los mismos resultados y saldos que procesar cada pago en secuencia")
+    void shouldMatchSequentialProcessing() {
+        List<PaymentRequest> payments = marketplaceSettlement();
+        InMemoryAccountRepository sequentialAccounts = new InMemoryAccountRepository();
+        seed(sequentialAccounts);
+        PaymentProcessor sequential = new PaymentProcessor(sequentialAccounts, new InMemoryTransactionRepository(),
+            fraudService(), mock(NotificationService.class), mock(AuditService.class));
+        List<PaymentResult> expected = new ArrayList<>();
+        for (PaymentRequest payment : payments) {
+            try {
+                expected.add(sequential.processPayment(payment));
+            } catch (Exception e) {
+                expected.add(PaymentResult.failure(errorCodeOf(e), e.getMessage()));
+            }
+        }
+
+        List<PaymentResult> results = processor().processPayments(payments);
+
+        assertEquals(expected.size(), results.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).isSuccessful(), results.get(i).isSuccessful(), "Pago " + i);
+            assertEquals(expected.get(i).getErrorCode(), results.get(i).getErrorCode(), "Pago " + i);
+            assertEquals(expected.get(i).getTotalAmount(), results.get(i).getTotalAmount(), "Pago " + i);
+            assertEquals(expected.get(i).getCommission(), results.get(i).getCommission(), "Pago " + i);
+        }
+        assertTrue(results.stream().anyMatch(r -> "INSUFFICIENT_FUNDS".equals(r.getErrorCode())));
+        for (int i = 0; i < 6; i++) {
+            assertEquals(sequentialAccounts.balanceOf("ACC" + i), accounts.balanceOf("ACC" + i), "ACC" + i);
+        }
+        assertEquals(results.stream().filter(PaymentResult::isSuccessful).count(), transactions.size());
+    }
+
+    @Test
+    @DisplayName("Debe cargar cada cuenta y consultar la lista negra una sola vez")
+    void shouldShareAccountAndFraudLookups() {
+        List<PaymentRequest> payments = marketplaceSettlement();
+
+        processor().processPayments(payments);
+
+        verify(accounts, times(6)).findByAccountNumber(anyString());
+        verify(fraudDetectionService, times(6)).isBlacklisted(anyString());
+        verify(accounts, atMost(6)).save(any(Account.class));
+    }
+
+    private PaymentProcessor processor() {
+        return new PaymentProcessor(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), mock(AuditService.class));
+    }
+
+    private static FraudDetectionService fraudService() {
+        FraudDetectionService service = mock(FraudDetectionService.class);
+        when(service.isBlacklisted(anyString())).thenAnswer(inv -> "ACC5".equals(inv.getArgument(0)));
+        when(service.evaluateTransactionRisk(anyString(), any()))
+            .thenAnswer(inv -> ((BigDecimal) inv.getArgument(1)).intValue() % 97 == 0 ? 90 : 10);
+        when(service.validatePayment(any())).thenReturn(true);
+        return service;
+    }
+
+    private static void seed(InMemoryAccountRepository repository) {
+        for (int i = 0; i < 6; i++) {
+            repository.add("ACC" + i, String.valueOf(200000 * (i + 1)));
+        }
+    }
+
+    private static List<PaymentRequest> marketplaceSettlement() {
+        Random random = new Random(11);
+        List<PaymentRequest> payments = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            payments.add(new PaymentRequest("ACC" + random.nextInt(6), "MERCHANT-" + random.nextInt(20),
+                BigDecimal.valueOf(1000 + random.nextInt(40000)), METHODS[random.nextInt(METHODS.length)]));
+        }
+        return payments;
+    }
+
+    private static String errorCodeOf(Exception e) {
+        return e instanceof BankingException
+            ? ((BankingException) e).getErrorCode() : "INVALID_REQUEST";
+    }
+}
@@ -0,0 +1,131 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.exception.LimitExceededException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.BatchTransferOptions;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ConflictAwareBatchExecutor - Lotes en paralelo sin conflictos de cuentas")
+class ConflictAwareBatchExecutorTest {
+
+    private static final int ACCOUNTS = 12;
+
+    @Test
+    @DisplayName("Las transferencias que comparten cuenta deben ejecutarse en el orden del lote")
+    void shouldKeepSubmissionOrderPerAccount() {
+        List<TransferRequest> requests = randomRequests(500, 7L);
+        Map<String, List<Integer>> seenByAccount = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            List<Integer> results = new ConflictAwareBatchExecutor(pool).execute(requests, request -> {
+                int index = requests.indexOf(request);
+                seenByAccount.computeIfAbsent(request.getSourceAccountNumber(), k -> new CopyOnWriteArrayList<>()).add(index);
+                seenByAccount.computeIfAbsent(request.getTargetAccountNumber(), k -> new CopyOnWriteArrayList<>()).add(index);
+                return index;
+            });
+
+            for (int i = 0; i < requests.size(); i++) {
+                assertEquals(i, results.get(i).intValue());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        for (List<Integer> seen : seenByAccount.values()) {
+            for (int i = 1; i < seen.size(); i++) {
+                assertTrue(seen.get(i - 1) < seen.get(i), "Orden alterado en una cuenta: " + seen);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Un lote en paralelo debe producir los mismos resultados y saldos que en secuencia")
+    void parallelBatchShouldMatchSequentialExecution() {
+        List<TransferRequest> requests = randomRequests(300, 42L);
+        InMemoryAccountRepository sequentialAccounts = new InMemoryAccountRepository();
+        InMemoryAccountRepository parallelAccounts = new InMemoryAccountRepository();
+        TransferOrchestrator sequential = orchestrator(sequentialAccounts);
+        TransferOrchestrator parallel = orchestrator(parallelAccounts);
+
+        BatchTransferOptions sequentialOptions = new BatchTransferOptions();
+        sequentialOptions.setMaxBatchSize(1000);
+        BatchTransferOptions parallelOptions = new BatchTransferOptions();
+        parallelOptions.setMaxBatchSize(1000);
+        parallelOptions.setParallelism(8);
+
+        List<TransferResult> expected = new ArrayList<>(sequential.executeBatchTransfer(requests, sequentialOptions).values());
+        List<TransferResult> actual = new ArrayList<>(parallel.executeBatchTransfer(requests, parallelOptions).values());
+
+        assertEquals(requests.size(), actual.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(expected.get(i).isSuccessful(), actual.get(i).isSuccessful(), "Resultado distinto en " + i);
+            assertEquals(expected.get(i).getErrorCode(), actual.get(i).getErrorCode());
+            assertEquals(expected.get(i).getSourceNewBalance(), actual.get(i).getSourceNewBalance());
+        }
+        assertTrue(expected.stream().anyMatch(result -> !result.isSuccessful()), "El lote debe incluir rechazos");
+        for (int i = 0; i < ACCOUNTS; i++) {
+            assertEquals(sequentialAccounts.balanceOf("ACC" + i), parallelAccounts.balanceOf("ACC" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Debe rechazar lotes de más de 100 salvo que se amplíe el límite")
+    void shouldRequireOptInForLargeBatches() {
+        InMemoryAccountRepository accounts = new InMemoryAccountRepository();
+        TransferOrchestrator orchestrator = orchestrator(accounts);
+        List<TransferRequest> requests = randomRequests(150, 1L);
+
+        assertThrows(LimitExceededException.class, () -> orchestrator.executeBatchTransfer(requests));
+
+        BatchTransferOptions options = new BatchTransferOptions();
+        options.setMaxBatchSize(150);
+        assertEquals(150, orchestrator.executeBatchTransfer(requests, options).size());
+    }
+
+    private static TransferOrchestrator orchestrator(InMemoryAccountRepository accounts) {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add("ACC" + i, "30000");
+        }
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        return new TransferOrchestrator(accounts, new InMemoryTransactionRepository(), fraudDetectionService,
+            mock(NotificationService.class), mock(AuditService.class), accountValidator);
+    }
+
+    private static List<TransferRequest> randomRequests(int count, long seed) {
+        Random random = new Random(seed);
+        List<TransferRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int source = random.nextInt(ACCOUNTS);
+            int target = (source + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            requests.add(new TransferRequest("ACC" + source, "ACC" + target,
+                BigDecimal.valueOf(1000 + random.nextInt(20000)), TransferType.SAME_BANK));
+        }
+        return requests;
+    }
+}
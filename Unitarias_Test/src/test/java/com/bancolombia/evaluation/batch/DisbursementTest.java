@@ -0,0 +1,144 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.exception.InsufficientFundsException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Dispersión de pagos desde una cuenta origen")
+class DisbursementTest {
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private FraudDetectionService fraudDetectionService;
+    private AuditService auditService;
+    private TransferOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        accounts = spy(new InMemoryAccountRepository());
+        transactions = new InMemoryTransactionRepository();
+        fraudDetectionService = mock(FraudDetectionService.class);
+        auditService = mock(AuditService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        orchestrator = new TransferOrchestrator(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), auditService, accountValidator);
+    }
+
+    @Test
+    @DisplayName("Una nómina debe persistir la reserva del origen con un solo control de fraude y auditoría")
+    void payrollShouldReserveSourceOnce() {
+        Account payer = accounts.add("EMP000", "100000000");
+        List<BigDecimal> savedPayerBalances = new ArrayList<>();
+        doAnswer(invocation -> {
+            Account saved = invocation.getArgument(0);
+            if (saved == payer) {
+                savedPayerBalances.add(saved.getBalance());
+            }
+            return invocation.callRealMethod();
+        }).when(accounts).save(any(Account.class));
+        List<TransferRequest> payroll = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            accounts.add("EMP" + i, "0");
+            payroll.add(new TransferRequest("EMP000", "EMP" + i, BigDecimal.valueOf(1000 + i), TransferType.SAME_BANK));
+        }
+
+        Map<TransferRequest, TransferResult> results = orchestrator.executeDisbursement(payroll, 4);
+
+        assertTrue(results.values().stream().allMatch(TransferResult::isSuccessful));
+        assertEquals(List.of(new BigDecimal("98499500"), new BigDecimal("98499500")), savedPayerBalances);
+        verify(fraudDetectionService, times(1)).validateTransfer(any());
+        verify(auditService, times(1)).logOperationStart(eq("DISBURSEMENT"), eq("EMP000"), any());
+        assertEquals(1000, transactions.size());
+        assertEquals(new BigDecimal("98499500"), accounts.balanceOf("EMP000"));
+        assertEquals(new BigDecimal("1500"), accounts.balanceOf("EMP500"));
+        assertEquals(new BigDecimal("98499500"), results.get(payroll.get(999)).getSourceNewBalance());
+    }
+
+    @Test
+    @DisplayName("Un destino inválido solo debe hacer fallar su pago y devolver el monto al origen")
+    void invalidTargetShouldOnlyFailItsPayment() {
+        accounts.add("EMP000", "10000");
+        accounts.add("EMP001", "0");
+        List<TransferRequest> payroll = List.of(
+            new TransferRequest("EMP000", "EMP001", new BigDecimal("1000"), TransferType.SAME_BANK),
+            new TransferRequest("EMP000", "EMP999", new BigDecimal("2000"), TransferType.SAME_BANK),
+            new TransferRequest("EMP000", "EMP001", new BigDecimal("500"), TransferType.SAME_BANK));
+
+        Map<TransferRequest, TransferResult> results = orchestrator.executeDisbursement(payroll, 2);
+
+        assertTrue(results.get(payroll.get(0)).isSuccessful());
+        assertEquals("ACCOUNT_NOT_FOUND", results.get(payroll.get(1)).getErrorCode());
+        assertEquals(new BigDecimal("1500"), results.get(payroll.get(2)).getTargetNewBalance());
+        assertEquals(new BigDecimal("8500"), accounts.balanceOf("EMP000"));
+        assertEquals(new BigDecimal("1500"), accounts.balanceOf("EMP001"));
+        assertEquals(2, transactions.size());
+    }
+
+    @Test
+    @DisplayName("Debe verificar el fraude por tipo de transferencia y la lista negra de cada destino")
+    void shouldCheckFraudPerTypeAndBlacklistPerTarget() {
+        accounts.add("EMP000", "100000");
+        accounts.add("EMP001", "0");
+        accounts.add("EMP002", "0");
+        accounts.add("EXT001", "0");
+        when(fraudDetectionService.validateTransfer(argThat(request ->
+            request.getTransferType() == TransferType.OTHER_BANK))).thenReturn(false);
+        when(fraudDetectionService.isBlacklisted("EMP002")).thenReturn(true);
+        List<TransferRequest> payroll = List.of(
+            new TransferRequest("EMP000", "EMP001", new BigDecimal("1000"), TransferType.SAME_BANK),
+            new TransferRequest("EMP000", "EXT001", new BigDecimal("2000"), TransferType.OTHER_BANK),
+            new TransferRequest("EMP000", "EMP002", new BigDecimal("3000"), TransferType.SAME_BANK));
+
+        Map<TransferRequest, TransferResult> results = orchestrator.executeDisbursement(payroll, 2);
+
+        assertTrue(results.get(payroll.get(0)).isSuccessful());
+        assertEquals("FRAUD_DETECTED", results.get(payroll.get(1)).getErrorCode());
+        assertEquals("BLACKLISTED", results.get(payroll.get(2)).getErrorCode());
+        verify(fraudDetectionService, times(2)).validateTransfer(any());
+        assertEquals(new BigDecimal("99000"), accounts.balanceOf("EMP000"));
+        assertEquals(BigDecimal.ZERO, accounts.balanceOf("EXT001"));
+        assertEquals(BigDecimal.ZERO, accounts.balanceOf("EMP002"));
+        assertEquals(1, transactions.size());
+    }
+
+    @Test
+    @DisplayName("Si el total no alcanza, debe rechazar la dispersión sin mover saldos")
+    void shouldRejectWhenTotalExceedsBalance() {
+        accounts.add("EMP000", "1000");
+        accounts.add("EMP001", "0");
+        accounts.add("EMP002", "0");
+        List<TransferRequest> payroll = List.of(
+            new TransferRequest("EMP000", "EMP001", new BigDecimal("600"), TransferType.SAME_BANK),
+            new TransferRequest("EMP000", "EMP002", new BigDecimal("600"), TransferType.SAME_BANK));
+
+        assertThrows(InsufficientFundsException.class, () -> orchestrator.executeDisbursement(payroll, 2));
+
+        assertEquals(new BigDecimal("1000"), accounts.balanceOf("EMP000"));
+        assertEquals(0, transactions.size());
+        verify(accounts, never()).save(any(Account.class));
+        verify(fraudDetectionService, never()).validateTransfer(any());
+    }
+}
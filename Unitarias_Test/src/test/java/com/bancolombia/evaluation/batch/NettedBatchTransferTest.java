@@ -0,0 +1,124 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.BatchTransferOptions;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Lotes de transferencias liquidados por neto")
+class NettedBatchTransferTest {
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private TransferOrchestrator orchestrator;
+    private BatchTransferOptions netting;
+
+    @BeforeEach
+    void setUp() {
+        accounts = spy(new InMemoryAccountRepository());
+        transactions = new InMemoryTransactionRepository();
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        orchestrator = new TransferOrchestrator(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), mock(AuditService.class), accountValidator);
+        netting = new BatchTransferOptions();
+        netting.setNetting(true);
+    }
+
+    @Test
+    @DisplayName("Un barrido que se compensa debe aprobarse por neto aunque en secuencia no alcance")
+    void offsettingSweepShouldSettleOnNetEffect() {
+        accounts.add("ACC001", "0");
+        accounts.add("ACC002", "0");
+        List<TransferRequest> sweep = List.of(
+            new TransferRequest("ACC001", "ACC002", new BigDecimal("100"), TransferType.SAME_BANK),
+            new TransferRequest("ACC002", "ACC001", new BigDecimal("100"), TransferType.SAME_BANK));
+
+        Map<TransferRequest, TransferResult> results = orchestrator.executeBatchTransfer(sweep, netting);
+
+        assertTrue(results.values().stream().allMatch(TransferResult::isSuccessful));
+        assertEquals(new BigDecimal("-100"), results.get(sweep.get(0)).getSourceNewBalance());
+        assertEquals(new BigDecimal("0"), accounts.balanceOf("ACC001"));
+        assertEquals(2, transactions.size());
+        verify(accounts, never()).save(any(Account.class));
+    }
+
+    @Test
+    @DisplayName("Debe guardar cada cuenta una sola vez y dejar los mismos saldos que en secuencia")
+    void shouldSaveEachAccountOnceWithSequentialBalances() {
+        Random random = new Random(3);
+        List<TransferRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            int source = random.nextInt(5);
+            int target = (source + 1 + random.nextInt(4)) % 5;
+            batch.add(new TransferRequest("ACC" + source, "ACC" + target,
+                BigDecimal.valueOf(100 + random.nextInt(900)), TransferType.OTHER_BANK));
+        }
+        for (int i = 0; i < 5; i++) {
+            accounts.add("ACC" + i, "1000000");
+        }
+        InMemoryAccountRepository expected = new InMemoryAccountRepository();
+        for (int i = 0; i < 5; i++) {
+            expected.add("ACC" + i, "1000000");
+        }
+        TransferOrchestrator sequential = new TransferOrchestrator(expected, new InMemoryTransactionRepository(),
+            mock(FraudDetectionService.class, inv -> true), mock(NotificationService.class),
+            mock(AuditService.class), mock(AccountValidator.class, inv -> true));
+        List<TransferResult> sequentialResults = new ArrayList<>(sequential.executeBatchTransfer(batch).values());
+
+        List<TransferResult> nettedResults = new ArrayList<>(orchestrator.executeBatchTransfer(batch, netting).values());
+
+        verify(accounts, times(5)).save(any(Account.class));
+        assertEquals(60, transactions.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected.balanceOf("ACC" + i), accounts.balanceOf("ACC" + i));
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(sequentialResults.get(i).getSourceNewBalance(), nettedResults.get(i).getSourceNewBalance());
+            assertEquals(sequentialResults.get(i).getTargetNewBalance(), nettedResults.get(i).getTargetNewBalance());
+        }
+    }
+
+    @Test
+    @DisplayName("Si el neto de una cuenta no alcanza, debe rechazar todo el lote válido sin mover saldos")
+    void shouldRejectWholeBatchWhenNetFundsAreInsufficient() {
+        accounts.add("ACC001", "150");
+        accounts.add("ACC002", "0");
+        List<TransferRequest> batch = List.of(
+            new TransferRequest("ACC001", "ACC002", new BigDecimal("100"), TransferType.SAME_BANK),
+            new TransferRequest("ACC001", "ACC002", new BigDecimal("100"), TransferType.SAME_BANK),
+            new TransferRequest("ACC001", "ACC999", new BigDecimal("10"), TransferType.SAME_BANK));
+
+        Map<TransferRequest, TransferResult> results = orchestrator.executeBatchTransfer(batch, netting);
+
+        assertEquals("INSUFFICIENT_FUNDS", results.get(batch.get(0)).getErrorCode());
+        assertEquals("INSUFFICIENT_FUNDS", results.get(batch.get(1)).getErrorCode());
+        assertEquals("ACCOUNT_NOT_FOUND", results.get(batch.get(2)).getErrorCode());
+        assertEquals(new BigDecimal("150"), accounts.balanceOf("ACC001"));
+        assertEquals(0, transactions.size());
+        verify(accounts, never()).save(any(Account.class));
+    }
+}
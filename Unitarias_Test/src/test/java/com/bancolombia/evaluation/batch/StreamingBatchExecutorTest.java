@@ -0,0 +1,163 @@
+package com.bancolombia.evaluation.batch;
+
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Lotes de transferencias en streaming")
+class StreamingBatchExecutorTest {
+
+    private static final int ACCOUNTS = 20;
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private TransferOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new InMemoryAccountRepository();
+        transactions = new InMemoryTransactionRepository();
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        orchestrator = new TransferOrchestrator(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), mock(AuditService.class), accountValidator);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add("ACC" + i, "1000");
+        }
+    }
+
+    @Test
+    @DisplayName("Debe procesar un lote grande sin tomar más solicitudes que la ventana")
+    void shouldKeepWindowBoundedForLargeBatch() {
+        int batchSize = 5000;
+        int maxConcurrency = 4;
+        AtomicLong taken = new AtomicLong();
+        AtomicLong delivered = new AtomicLong();
+        AtomicLong maxOutstanding = new AtomicLong();
+        Iterator<TransferRequest> requests = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return taken.get() < batchSize;
+            }
+
+            @Override
+            public TransferRequest next() {
+                long index = taken.getAndIncrement();
+                maxOutstanding.accumulateAndGet(index + 1 - delivered.get(), Math::max);
+                return request(index);
+            }
+        };
+
+        BatchSummary summary = orchestrator.streamBatchTransfer(requests, maxConcurrency,
+            (sequence, request, result) -> delivered.incrementAndGet());
+
+        assertEquals(batchSize, summary.getProcessed());
+        assertEquals(batchSize, delivered.get());
+        assertEquals(summary.getProcessed(), summary.getSuccessful() + summary.getFailed());
+        assertTrue(maxOutstanding.get() <= maxConcurrency * 2L, "Solicitudes en memoria: " + maxOutstanding.get());
+
+        // Los montos de cada cuenta se aplican en el orden del lote, así que el saldo final es el
+        // mismo que en una ejecución secuencial
+        InMemoryAccountRepository sequential = new InMemoryAccountRepository();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            sequential.add("ACC" + i, "1000");
+        }
+        long expectedSuccessful = 0;
+        for (long i = 0; i < batchSize; i++) {
+            TransferRequest request = request(i);
+            BigDecimal sourceBalance = sequential.balanceOf(request.getSourceAccountNumber());
+            if (sourceBalance.compareTo(request.getAmount()) >= 0) {
+                sequential.add(request.getSourceAccountNumber(), sourceBalance.subtract(request.getAmount()).toPlainString());
+                sequential.add(request.getTargetAccountNumber(),
+                    sequential.balanceOf(request.getTargetAccountNumber()).add(request.getAmount()).toPlainString());
+                expectedSuccessful++;
+            }
+        }
+        assertEquals(expectedSuccessful, summary.getSuccessful());
+        for (int i = 0; i < ACCOUNTS; i++) {
+            assertEquals(0, sequential.balanceOf("ACC" + i).compareTo(accounts.balanceOf("ACC" + i)), "ACC" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe consumir un publicador reactivo y completar el futuro con los totales")
+    void shouldConsumePublisher() throws Exception {
+        List<Long> sequences = new ArrayList<>();
+        ExecutorService publisherExecutor = Executors.newSingleThreadExecutor();
+        try (SubmissionPublisher<TransferRequest> publisher = new SubmissionPublisher<>(publisherExecutor, 8)) {
+            var completion = orchestrator.streamBatchTransfer(publisher, 2,
+                (sequence, request, result) -> sequences.add(sequence));
+            for (long i = 0; i < 200; i++) {
+                publisher.submit(request(i));
+            }
+            publisher.close();
+
+            BatchSummary summary = completion.get(10, TimeUnit.SECONDS);
+
+            assertEquals(200, summary.getProcessed());
+            assertEquals(200, sequences.size());
+            assertEquals(200, sequences.stream().distinct().count());
+        } finally {
+            publisherExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Un error del sink debe detener el lote y propagarse")
+    void sinkFailureShouldStopBatch() {
+        AtomicLong taken = new AtomicLong();
+        Iterator<TransferRequest> requests = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public TransferRequest next() {
+                return request(taken.getAndIncrement());
+            }
+        };
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> orchestrator.streamBatchTransfer(requests, 2, (sequence, request, result) -> {
+                if (sequence == 10) {
+                    throw new IllegalStateException("Destino no disponible");
+                }
+            }));
+
+        assertEquals("Destino no disponible", error.getMessage());
+        assertTrue(taken.get() < 100, "Siguió tomando solicitudes: " + taken.get());
+    }
+
+    private static TransferRequest request(long index) {
+        int source = (int) (index * 7 % ACCOUNTS);
+        int target = (int) ((index * 7 + 1 + index % (ACCOUNTS - 1)) % ACCOUNTS);
+        return new TransferRequest("ACC" + source, "ACC" + target,
+            BigDecimal.valueOf(50 + index % 400), TransferType.SAME_BANK);
+    }
+}
@@ -0,0 +1,140 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.service.PaymentProcessor;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CachingFraudDetectionService - Caché de puntuaciones de riesgo")
+class CachingFraudDetectionServiceTest {
+
+    @Mock
+    private FraudDetectionService delegate;
+
+    private MutableClock clock;
+    private CachingFraudDetectionService cachingService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        cachingService = new CachingFraudDetectionService(delegate, Duration.ofSeconds(5),
+            2, new BigDecimal("100000"), clock);
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar la puntuación para montos de la misma banda")
+    void shouldServeScoreFromCacheWithinSameBand() {
+        when(delegate.evaluateTransactionRisk("ACC1", new BigDecimal("10000"))).thenReturn(45);
+
+        int first = cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("10000"));
+        clock.advance(Duration.ofSeconds(2));
+        int second = cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("90000"));
+
+        assertEquals(45, first);
+        assertEquals(45, second);
+        verify(delegate, times(1)).evaluateTransactionRisk(anyString(), any());
+        CachingFraudDetectionService.CacheStats stats = cachingService.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+        assertEquals(2000, stats.getMaxServedAgeMillis());
+    }
+
+    @Test
+    @DisplayName("Debe consultar de nuevo cuando la entrada expira")
+    void shouldReloadAfterTtl() {
+        when(delegate.evaluateTransactionRisk(eq("ACC1"), any())).thenReturn(10, 80);
+
+        cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("10000"));
+        clock.advance(Duration.ofSeconds(5));
+        int score = cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("10000"));
+
+        assertEquals(80, score);
+        assertEquals(1, cachingService.getStats().getExpirations());
+    }
+
+    @Test
+    @DisplayName("El pago de alto riesgo debe invalidar la cuenta aunque el riesgo se evalúe en otro hilo")
+    void highRiskPaymentShouldInvalidateAccountAcrossThreads() throws Exception {
+        when(delegate.evaluateTransactionRisk(eq("ACC1"), any())).thenReturn(75, 20);
+        when(delegate.validatePayment(any())).thenReturn(true);
+        InMemoryAccountRepository accounts = new InMemoryAccountRepository();
+        accounts.add("ACC1", "500000");
+        AuditService auditService = mock(AuditService.class);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUD-1");
+        PaymentProcessor processor = new PaymentProcessor(accounts, new InMemoryTransactionRepository(),
+            cachingService, mock(NotificationService.class), auditService);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        PaymentResult rejected;
+        try {
+            rejected = processor.processPaymentAsync(
+                new PaymentRequest("ACC1", "MERCHANT-1", new BigDecimal("10000"), PaymentMethod.PSE), executor)
+                .get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        PaymentResult paid = processor.processPayment(
+            new PaymentRequest("ACC1", "MERCHANT-1", new BigDecimal("10000"), PaymentMethod.PSE));
+
+        assertEquals("HIGH_RISK", rejected.getErrorCode());
+        assertTrue(paid.isSuccessful());
+        verify(delegate, times(2)).evaluateTransactionRisk(eq("ACC1"), any());
+        verify(delegate).invalidateAccount("ACC1");
+        verify(delegate).reportSuspiciousActivity(anyString(), contains("alto riesgo"));
+        assertEquals(1, cachingService.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("No debe guardar una puntuación calculada mientras se invalidaba la cuenta")
+    void shouldNotCacheScoreComputedDuringInvalidation() {
+        when(delegate.evaluateTransactionRisk(eq("ACC1"), any())).thenAnswer(invocation -> {
+            cachingService.invalidateAccount("ACC1");
+            return 75;
+        }).thenReturn(20);
+
+        int stale = cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("10000"));
+        int fresh = cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("10000"));
+        int cached = cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("10000"));
+
+        assertEquals(75, stale);
+        assertEquals(20, fresh);
+        assertEquals(20, cached);
+        verify(delegate, times(2)).evaluateTransactionRisk(eq("ACC1"), any());
+    }
+
+    @Test
+    @DisplayName("Debe respetar el tamaño máximo desalojando la entrada menos usada")
+    void shouldEvictLeastRecentlyUsed() {
+        when(delegate.evaluateTransactionRisk(anyString(), any())).thenReturn(5);
+
+        cachingService.evaluateTransactionRisk("ACC1", new BigDecimal("10000"));
+        cachingService.evaluateTransactionRisk("ACC2", new BigDecimal("10000"));
+        cachingService.evaluateTransactionRisk("ACC3", new BigDecimal("10000"));
+
+        CachingFraudDetectionService.CacheStats stats = cachingService.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+    }
+}
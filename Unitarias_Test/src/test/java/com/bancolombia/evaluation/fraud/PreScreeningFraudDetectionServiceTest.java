@@ -0,0 +1,93 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.PaymentProcessor;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("PreScreeningFraudDetectionService - Decisiones locales antes del servicio remoto")
+class PreScreeningFraudDetectionServiceTest {
+
+    private static final String RULES = """
+        montos-altos: amount >= 10000000 => remote
+        cuentas-vigiladas: account in (ACC9) => 90
+        comercios-vetados: merchant in (M666) => 95
+        comercios-conocidos: merchant in (M001) and amount <= 500000 => 10
+        montos-bajos: amount < 50000 => 5
+        """;
+
+    private FraudDetectionService remote;
+    private InMemoryAccountRepository accounts;
+    private PaymentProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        remote = mock(FraudDetectionService.class);
+        accounts = new InMemoryAccountRepository();
+        accounts.add("ACC1", "5000000");
+        accounts.add("ACC9", "5000000");
+        AuditService auditService = mock(AuditService.class);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUD-1");
+        FraudDetectionService preScreening = new PreScreeningFraudDetectionService(remote,
+            new RiskRuleEngine(RiskRuleSet.compile(RULES)));
+        processor = new PaymentProcessor(accounts, new InMemoryTransactionRepository(), preScreening,
+            mock(NotificationService.class), auditService);
+    }
+
+    @Test
+    @DisplayName("Los pagos de bajo riesgo deben aprobarse sin consultar el servicio remoto")
+    void lowRiskPaymentsShouldSkipRemoteScoring() {
+        when(remote.evaluateTransactionRisk("ACC1", new BigDecimal("300000"))).thenReturn(20);
+
+        PaymentResult small = processor.processPayment(
+            new PaymentRequest("ACC1", "M123", new BigDecimal("20000"), PaymentMethod.PSE));
+        PaymentResult knownMerchant = processor.processPayment(
+            new PaymentRequest("ACC1", "M001", new BigDecimal("300000"), PaymentMethod.PSE));
+
+        assertTrue(small.isSuccessful());
+        assertTrue(knownMerchant.isSuccessful());
+        // El puntaje por cuenta y monto del segundo pago no tiene regla; la validación con el
+        // comercio sí
+        verify(remote).evaluateTransactionRisk("ACC1", new BigDecimal("300000"));
+        verify(remote, never()).evaluateTransactionRisk("ACC1", new BigDecimal("20000"));
+        verify(remote, never()).validatePayment(any());
+    }
+
+    @Test
+    @DisplayName("Las reglas de alto riesgo deben rechazar sin consultar el servicio remoto")
+    void highRiskRulesShouldRejectLocally() {
+        when(remote.evaluateTransactionRisk("ACC1", new BigDecimal("300000"))).thenReturn(20);
+        FraudDetectionService preScreening = new PreScreeningFraudDetectionService(remote,
+            new RiskRuleEngine(RiskRuleSet.compile(RULES)));
+
+        PaymentResult watchedAccount = processor.processPayment(
+            new PaymentRequest("ACC9", "M123", new BigDecimal("20000"), PaymentMethod.PSE));
+        PaymentResult bannedMerchant = processor.processPayment(
+            new PaymentRequest("ACC1", "M666", new BigDecimal("300000"), PaymentMethod.PSE));
+        boolean watchedTransfer = preScreening.validateTransfer(
+            new TransferRequest("ACC9", "ACC1", new BigDecimal("1000"), TransferType.SAME_BANK));
+
+        assertEquals("HIGH_RISK", watchedAccount.getErrorCode());
+        assertEquals("FRAUD_VALIDATION_FAILED", bannedMerchant.getErrorCode());
+        assertFalse(watchedTransfer);
+        verify(remote, never()).evaluateTransactionRisk(eq("ACC9"), any());
+        verify(remote, never()).validatePayment(any());
+        verify(remote, never()).validateTransfer(any());
+        verify(remote).reportSuspiciousActivity(anyString(), contains("alto riesgo"));
+    }
+}
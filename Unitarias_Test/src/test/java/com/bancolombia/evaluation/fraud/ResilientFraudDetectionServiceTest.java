@@ -0,0 +1,145 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.resilience.Bulkhead;
+import com.bancolombia.evaluation.resilience.CircuitBreaker;
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResilientFraudDetectionService - Circuit breaker y bulkhead")
+class ResilientFraudDetectionServiceTest {
+
+    private static final BigDecimal SMALL = new BigDecimal("50000");
+    private static final BigDecimal LARGE = new BigDecimal("5000000");
+
+    @Mock
+    private FraudDetectionService delegate;
+
+    private MutableClock clock;
+    private CircuitBreaker circuitBreaker;
+    private List<String> transitions;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        circuitBreaker = new CircuitBreaker("fraud", 4, 4, 0.5, Duration.ofSeconds(1), 1.0,
+            Duration.ofSeconds(30), 1, clock);
+        transitions = new ArrayList<>();
+        circuitBreaker.addStateListener((from, to) -> transitions.add(from + "->" + to));
+    }
+
+    private void tripCircuit(FraudDetectionService service) {
+        when(delegate.evaluateTransactionRisk(anyString(), any()))
+            .thenThrow(new RuntimeException("timeout remoto"));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> service.evaluateTransactionRisk("ACC1", SMALL));
+        }
+    }
+
+    @Nested
+    @DisplayName("Política REJECT")
+    class RejectPolicy {
+
+        @Test
+        @DisplayName("Debe abrir el circuito y rechazar sin llamar al servicio remoto")
+        void shouldOpenAndFailFast() {
+            ResilientFraudDetectionService service = new ResilientFraudDetectionService(
+                delegate, circuitBreaker, new Bulkhead("fraud", 10, Duration.ZERO));
+            tripCircuit(service);
+
+            BankingException ex = assertThrows(BankingException.class,
+                () -> service.evaluateTransactionRisk("ACC1", SMALL));
+
+            assertEquals("FRAUD_SERVICE_UNAVAILABLE", ex.getErrorCode());
+            verify(delegate, times(4)).evaluateTransactionRisk(anyString(), any());
+            assertEquals(CircuitBreaker.State.OPEN, service.getStats().getState());
+            assertEquals(1, service.getStats().getRejectedByCircuit());
+            assertEquals(List.of("CLOSED->OPEN"), transitions);
+        }
+
+        @Test
+        @DisplayName("Debe cerrar el circuito cuando la llamada de prueba es exitosa")
+        void shouldCloseAfterSuccessfulProbe() {
+            ResilientFraudDetectionService service = new ResilientFraudDetectionService(
+                delegate, circuitBreaker, new Bulkhead("fraud", 10, Duration.ZERO));
+            tripCircuit(service);
+            reset(delegate);
+            when(delegate.evaluateTransactionRisk(anyString(), any())).thenReturn(15);
+
+            clock.advance(Duration.ofSeconds(31));
+            int score = service.evaluateTransactionRisk("ACC1", SMALL);
+
+            assertEquals(15, score);
+            assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+            assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+        }
+
+        @Test
+        @DisplayName("Debe rechazar cuando el bulkhead no tiene cupo")
+        void shouldRejectWhenBulkheadIsFull() {
+            Bulkhead bulkhead = new Bulkhead("fraud", 1, Duration.ZERO);
+            ResilientFraudDetectionService service = new ResilientFraudDetectionService(
+                delegate, circuitBreaker, bulkhead);
+            assertTrue(bulkhead.tryAcquire());
+
+            assertThrows(BankingException.class, () -> service.validateTransfer(
+                new TransferRequest()));
+
+            assertEquals(1, service.getStats().getRejectedByBulkhead());
+            verifyNoInteractions(delegate);
+        }
+    }
+
+    @Nested
+    @DisplayName("Política ALLOW_BELOW_AMOUNT")
+    class AllowBelowAmountPolicy {
+
+        @Test
+        @DisplayName("Debe usar la puntuación local para montos pequeños con el circuito abierto")
+        void shouldUseLocalScoreForSmallAmounts() {
+            RiskRuleEngine rules = new RiskRuleEngine(RiskRuleSet.compile("bajos: amount < 100000 => 12"));
+            ResilientFraudDetectionService service = new ResilientFraudDetectionService(
+                delegate, circuitBreaker, new Bulkhead("fraud", 10, Duration.ZERO),
+                ResilientFraudDetectionService.OpenCircuitPolicy.ALLOW_BELOW_AMOUNT,
+                new BigDecimal("1000000"), rules, 30);
+            tripCircuit(service);
+
+            assertEquals(12, service.evaluateTransactionRisk("ACC1", SMALL));
+            assertThrows(BankingException.class, () -> service.evaluateTransactionRisk("ACC1", LARGE));
+            assertFalse(service.isBlacklisted("ACC1"));
+            assertEquals(1, service.getStats().getFallbacksServed());
+        }
+
+        @Test
+        @DisplayName("Debe descartar reportes de actividad sospechosa sin fallar")
+        void shouldDropReportsWhileOpen() {
+            ResilientFraudDetectionService service = new ResilientFraudDetectionService(
+                delegate, circuitBreaker, new Bulkhead("fraud", 10, Duration.ZERO),
+                ResilientFraudDetectionService.OpenCircuitPolicy.ALLOW_BELOW_AMOUNT,
+                new BigDecimal("1000000"), null, 30);
+            tripCircuit(service);
+
+            assertDoesNotThrow(() -> service.reportSuspiciousActivity("TXN-1", "alto riesgo"));
+
+            verify(delegate, never()).reportSuspiciousActivity(anyString(), anyString());
+            assertEquals(1, service.getStats().getDroppedReports());
+        }
+    }
+}
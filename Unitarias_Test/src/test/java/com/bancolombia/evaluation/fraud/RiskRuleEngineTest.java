@@ -0,0 +1,113 @@
+package com.bancolombia.evaluation.fraud;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RiskRuleEngine - Pre-evaluación local de riesgo")
+class RiskRuleEngineTest {
+
+    private static final String RULES = """
+        # Reglas de prueba
+        montos-altos: amount >= 10000000 => remote
+        comercios-conocidos: merchant in (M001, M002) and amount <= 500000 => 10
+        montos-bajos: amount < 50000 => 5
+        """;
+
+    @Nested
+    @DisplayName("Compilación y evaluación de reglas")
+    class Evaluation {
+
+        @ParameterizedTest(name = "cuenta={0}, comercio={1}, monto={2} -> {3}")
+        @CsvSource(nullValues = "null", value = {
+            "ACC1, null, 20000, 5",
+            "ACC1, M001, 300000, 10",
+            "ACC1, M999, 300000, -1",
+            "ACC1, null, 300000, -1",
+            "ACC1, M001, 15000000, -1"
+        })
+        @DisplayName("Debe aplicar la primera regla que coincide")
+        void shouldApplyFirstMatchingRule(String account, String merchant, String amount, int expected) {
+            RiskRuleSet ruleSet = RiskRuleSet.compile(RULES);
+
+            assertEquals(expected, ruleSet.evaluate(account, merchant, new BigDecimal(amount)));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+            "sin-flecha: amount < 10",
+            "campo: velocity < 10 => 5",
+            "puntaje: amount < 10 => 150",
+            "lista: merchant in () => 5"
+        })
+        @DisplayName("Debe rechazar reglas inválidas")
+        void shouldRejectInvalidRules(String rule) {
+            assertThrows(IllegalArgumentException.class, () -> RiskRuleSet.compile(rule));
+        }
+
+        @Test
+        @DisplayName("Debe contar los aciertos por regla")
+        void shouldCountHitsPerRule() {
+            RiskRuleEngine engine = new RiskRuleEngine(RiskRuleSet.compile(RULES));
+
+            engine.evaluate("ACC1", null, new BigDecimal("1000"));
+            engine.evaluate("ACC1", null, new BigDecimal("2000"));
+            engine.evaluate("ACC1", null, new BigDecimal("900000"));
+
+            Map<String, Long> hits = engine.getRuleHits();
+            assertEquals(2L, hits.get("montos-bajos"));
+            assertEquals(0L, hits.get("comercios-conocidos"));
+            assertEquals(1L, engine.getRemoteDecisions());
+        }
+    }
+
+    @Nested
+    @DisplayName("Recarga en caliente")
+    class HotReload {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        @DisplayName("Debe recargar las reglas cuando cambia el archivo")
+        void shouldReloadWhenFileChanges() throws IOException {
+            Path file = tempDir.resolve("rules.txt");
+            Files.writeString(file, "montos-bajos: amount < 50000 => 5");
+            RiskRuleEngine engine = new RiskRuleEngine(file);
+
+            Files.writeString(file, "montos-bajos: amount < 50000 => 7");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+            assertTrue(engine.reloadIfChanged());
+            assertEquals(7, engine.evaluate("ACC1", null, new BigDecimal("1000")));
+        }
+
+        @Test
+        @DisplayName("Debe conservar las reglas vigentes si la nueva versión es inválida")
+        void shouldKeepRulesWhenReloadFails() throws IOException {
+            Path file = tempDir.resolve("rules.txt");
+            Files.writeString(file, "montos-bajos: amount < 50000 => 5");
+            RiskRuleEngine engine = new RiskRuleEngine(file);
+
+            Files.writeString(file, "regla rota");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+            assertFalse(engine.reloadIfChanged());
+            assertEquals(5, engine.evaluate("ACC1", null, new BigDecimal("1000")));
+            assertEquals(1, engine.getReloadFailures());
+        }
+    }
+}
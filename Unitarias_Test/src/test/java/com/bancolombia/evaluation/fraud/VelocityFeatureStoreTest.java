@@ -0,0 +1,96 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionStatus;
+import com.bancolombia.evaluation.model.TransactionType;
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VelocityFeatureStore - Variables de velocidad por cuenta y comercio")
+class VelocityFeatureStoreTest {
+
+    private MutableClock clock;
+    private VelocityFeatureStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        store = new VelocityFeatureStore(clock, 10, 3, 256, 2);
+    }
+
+    @Test
+    @DisplayName("Debe calcular conteo y monto por ventana y expirar los eventos viejos")
+    void shouldAggregateAndExpireWindows() {
+        store.record("ACC1", null, new BigDecimal("1000"));
+        store.record("ACC1", null, new BigDecimal("2500.50"));
+
+        VelocityFeatureStore.VelocityFeatures features = store.getAccountFeatures("ACC1");
+        assertEquals(2, features.getCountLastMinute());
+        assertEquals(new BigDecimal("3500.50"), features.getAmountLastMinute());
+        assertEquals(2, features.getCountLastDay());
+
+        clock.advance(Duration.ofMinutes(2));
+        features = store.getAccountFeatures("ACC1");
+        assertEquals(0, features.getCountLastMinute());
+        assertEquals(2, features.getCountLastHour());
+    }
+
+    @Test
+    @DisplayName("Debe promover a ventanas exactas las cuentas con actividad frecuente")
+    void shouldPromoteHotAccounts() {
+        for (int i = 0; i < 3; i++) {
+            store.record("ACC1", null, new BigDecimal("1000"));
+        }
+        store.record("ACC2", null, new BigDecimal("1000"));
+
+        assertEquals(1, store.getHotAccountCount());
+
+        clock.advance(Duration.ofSeconds(61));
+        store.record("ACC1", null, new BigDecimal("1000"));
+        VelocityFeatureStore.VelocityFeatures features = store.getAccountFeatures("ACC1");
+        assertEquals(1, features.getCountLastMinute());
+        assertEquals(4, features.getCountLastHour());
+        assertFalse(features.isExact());
+    }
+
+    @Test
+    @DisplayName("Debe registrar solo transacciones salientes completadas")
+    void shouldRecordOnlyCompletedDebits() {
+        Transaction payment = new Transaction("ACC1", null, new BigDecimal("5000"), TransactionType.PAYMENT);
+        payment.setStatus(TransactionStatus.COMPLETED);
+        payment.setMerchantId("M001");
+        Transaction deposit = new Transaction(null, "ACC1", new BigDecimal("5000"), TransactionType.DEPOSIT);
+        deposit.setStatus(TransactionStatus.COMPLETED);
+        Transaction pending = new Transaction("ACC1", "ACC2", new BigDecimal("5000"), TransactionType.TRANSFER);
+
+        store.record(payment);
+        store.record(deposit);
+        store.record(pending);
+
+        assertEquals(1, store.getAccountFeatures("ACC1").getCountLastMinute());
+        assertEquals(1, store.getMerchantFeatures("M001").getCountLastMinute());
+    }
+
+    @Test
+    @DisplayName("Debe identificar los comercios más frecuentes")
+    void shouldTrackTopMerchants() {
+        for (int i = 0; i < 5; i++) {
+            store.record("ACC" + i, "M001", new BigDecimal("1000"));
+        }
+        store.record("ACC1", "M002", new BigDecimal("1000"));
+        store.record("ACC1", "M003", new BigDecimal("1000"));
+
+        List<VelocityFeatureStore.MerchantFrequency> top = store.getTopMerchants(1);
+
+        assertEquals("M001", top.get(0).getMerchantId());
+        assertEquals(5, top.get(0).getCount());
+    }
+}
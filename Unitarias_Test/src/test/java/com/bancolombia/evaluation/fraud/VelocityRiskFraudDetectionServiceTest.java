@@ -0,0 +1,140 @@
+package com.bancolombia.evaluation.fraud;
+
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.repository.BatchWriteRepository;
+import com.bancolombia.evaluation.repository.TransactionRepository;
+import com.bancolombia.evaluation.repository.UnitOfWork;
+import com.bancolombia.evaluation.service.PaymentProcessor;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Variables de velocidad en la decisión de riesgo")
+class VelocityRiskFraudDetectionServiceTest {
+
+    private MutableClock clock;
+    private VelocityFeatureStore store;
+    private InMemoryAccountRepository accounts;
+    private BatchTransactionRepository batchTransactions;
+    private FraudDetectionService remote;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        store = new VelocityFeatureStore(clock, 10, 3, 256, 2);
+        accounts = new InMemoryAccountRepository();
+        accounts.add("ACC1", "10000000");
+        batchTransactions = new BatchTransactionRepository(accounts);
+        remote = mock(FraudDetectionService.class);
+        when(remote.validatePayment(any())).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("El decorador debe conservar las escrituras en lote y registrar sus transacciones")
+    void recordingRepositoryShouldForwardBatchWrites() {
+        TransactionRepository recording = VelocityRecordingTransactionRepository.wrap(batchTransactions, store);
+        TransactionRepository plain = VelocityRecordingTransactionRepository.wrap(
+            new InMemoryTransactionRepository(), store);
+        when(remote.evaluateTransactionRisk(anyString(), any())).thenReturn(10);
+        PaymentProcessor processor = new PaymentProcessor(accounts, recording,
+            new VelocityRiskFraudDetectionService(remote, store, 100, new BigDecimal("5000000"),
+                new BigDecimal("9000000")),
+            mock(NotificationService.class), auditService());
+
+        List<PaymentResult> results = processor.processPayments(List.of(
+            new PaymentRequest("ACC1", "M001", new BigDecimal("10000"), PaymentMethod.PSE),
+            new PaymentRequest("ACC1", "M002", new BigDecimal("20000"), PaymentMethod.PSE)));
+
+        assertTrue(recording instanceof BatchWriteRepository);
+        assertFalse(plain instanceof BatchWriteRepository);
+        assertTrue(new UnitOfWork(accounts, recording).isAtomic());
+        assertTrue(results.get(0).isSuccessful() && results.get(1).isSuccessful());
+        assertEquals(1, batchTransactions.batches);
+        assertEquals(2, store.getAccountFeatures("ACC1").getCountLastMinute());
+        assertEquals(1, store.getMerchantFeatures("M001").getCountLastMinute());
+    }
+
+    @Test
+    @DisplayName("Superar un límite de velocidad debe rechazar sin consultar el servicio remoto")
+    void exceededVelocityShouldRejectWithoutRemoteCall() {
+        when(remote.evaluateTransactionRisk(anyString(), any())).thenReturn(10);
+        when(remote.validateTransfer(any())).thenReturn(true);
+        VelocityRiskFraudDetectionService velocity = new VelocityRiskFraudDetectionService(remote, store,
+            2, new BigDecimal("5000000"), new BigDecimal("9000000"));
+        PaymentProcessor processor = new PaymentProcessor(accounts,
+            VelocityRecordingTransactionRepository.wrap(new InMemoryTransactionRepository(), store),
+            velocity, mock(NotificationService.class), auditService());
+        TransferRequest large = new TransferRequest("ACC1", "ACC2", new BigDecimal("6000000"),
+            TransferType.SAME_BANK);
+        assertFalse(velocity.validateTransfer(large));
+
+        PaymentResult first = processor.processPayment(
+            new PaymentRequest("ACC1", "M001", new BigDecimal("10000"), PaymentMethod.PSE));
+        PaymentResult second = processor.processPayment(
+            new PaymentRequest("ACC1", "M001", new BigDecimal("10000"), PaymentMethod.PSE));
+        PaymentResult third = processor.processPayment(
+            new PaymentRequest("ACC1", "M001", new BigDecimal("10000"), PaymentMethod.PSE));
+        clock.advance(Duration.ofMinutes(2));
+        PaymentResult later = processor.processPayment(
+            new PaymentRequest("ACC1", "M001", new BigDecimal("10000"), PaymentMethod.PSE));
+
+        assertTrue(first.isSuccessful());
+        assertTrue(second.isSuccessful());
+        assertEquals("HIGH_RISK", third.getErrorCode());
+        assertTrue(later.isSuccessful());
+        verify(remote, times(3)).evaluateTransactionRisk(anyString(), any());
+        verify(remote, never()).validateTransfer(any());
+        assertEquals(2, velocity.getVelocityRejections());
+    }
+
+    private AuditService auditService() {
+        AuditService auditService = mock(AuditService.class);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUD-1");
+        return auditService;
+    }
+
+    /**
+     * Repositorio en memoria con escrituras en lote.
+     */
+    private static class BatchTransactionRepository extends InMemoryTransactionRepository
+            implements BatchWriteRepository {
+
+        private final InMemoryAccountRepository accounts;
+        private int batches;
+
+        private BatchTransactionRepository(InMemoryAccountRepository accounts) {
+            this.accounts = accounts;
+        }
+
+        @Override
+        public List<Transaction> commitBatch(List<Account> updatedAccounts, List<Transaction> transactions) {
+            batches++;
+            updatedAccounts.forEach(accounts::save);
+            List<Transaction> saved = new ArrayList<>();
+            for (Transaction transaction : transactions) {
+                saved.add(save(transaction));
+            }
+            return saved;
+        }
+    }
+}
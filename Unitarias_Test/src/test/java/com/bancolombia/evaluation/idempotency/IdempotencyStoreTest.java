@@ -0,0 +1,138 @@
+package com.bancolombia.evaluation.idempotency;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IdempotencyStore - Resultados por clave de idempotencia")
+class IdempotencyStoreTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    @DisplayName("Debe retornar el resultado original en un reintento y rechazar otra solicitud con la misma clave")
+    void shouldReplayResultAndRejectDifferentRequest() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(Duration.ofHours(1), 100, 4, clock, null, null);
+        AtomicInteger executions = new AtomicInteger();
+
+        String first = store.execute("KEY-1", "ACC001|100", () -> "TXN-" + executions.incrementAndGet());
+        String retry = store.execute("KEY-1", "ACC001|100", () -> "TXN-" + executions.incrementAndGet());
+
+        assertEquals("TXN-1", first);
+        assertEquals("TXN-1", retry);
+        assertEquals(1, executions.get());
+        assertEquals(1, store.getStats().getReplays());
+        BankingException conflict = assertThrows(BankingException.class,
+            () -> store.execute("KEY-1", "ACC001|999", () -> "TXN-X"));
+        assertEquals("IDEMPOTENCY_KEY_CONFLICT", conflict.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Los duplicados concurrentes deben esperar a la operación en curso")
+    void concurrentDuplicatesShouldWaitForInFlightResult() throws Exception {
+        IdempotencyStore<String> store = new IdempotencyStore<>(Duration.ofHours(1), 100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<String> original = CompletableFuture.supplyAsync(() ->
+            store.execute("KEY-2", "FP", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "TXN-ORIGINAL";
+            }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() ->
+            store.execute("KEY-2", "FP", () -> "TXN-DUPLICADA"));
+
+        while (store.getStats().getWaits() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("TXN-ORIGINAL", original.get(2, TimeUnit.SECONDS));
+        assertEquals("TXN-ORIGINAL", duplicate.get(2, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Debe liberar la clave si la operación falla y descartar resultados vencidos o excedentes")
+    void shouldReleaseKeyOnFailureAndEvictOldEntries() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(Duration.ofMinutes(10), 2, 1, clock, null, null);
+
+        assertThrows(IllegalStateException.class,
+            () -> store.execute("KEY-3", "FP", () -> { throw new IllegalStateException("BD no disponible"); }));
+        assertEquals("OK", store.execute("KEY-3", "FP", () -> "OK"));
+
+        store.execute("KEY-4", "FP", () -> "B");
+        store.execute("KEY-5", "FP", () -> "C");
+        assertEquals(2, store.size());
+        assertEquals("NUEVO", store.execute("KEY-3", "FP", () -> "NUEVO"));
+
+        clock.advance(Duration.ofMinutes(11));
+        assertEquals("D", store.execute("KEY-5", "FP", () -> "D"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("No debe responder con un resultado vencido aunque una operación lenta lo preceda")
+    void shouldNotReplayExpiredEntryBehindSlowerOne() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(Duration.ofMinutes(10), 100, 1, clock, null, null);
+
+        store.execute("KEY-LENTA", "FP", () -> {
+            store.execute("KEY-RAPIDA", "FP", () -> "PRIMERA");
+            clock.advance(Duration.ofMinutes(5));
+            return "LENTA";
+        });
+        clock.advance(Duration.ofMinutes(6));
+
+        assertEquals("LENTA", store.execute("KEY-LENTA", "FP", () -> "OTRA"));
+        assertEquals("SEGUNDA", store.execute("KEY-RAPIDA", "FP", () -> "SEGUNDA"));
+    }
+
+    @Test
+    @DisplayName("Debe recargar los resultados persistidos al reiniciar")
+    void shouldReloadPersistedResults(@TempDir Path directory) {
+        Path file = directory.resolve("idempotency.log");
+        TransferResult result = TransferResult.success("TXN-9", "TRF-ABC", new BigDecimal("1000"),
+            BigDecimal.ZERO, new BigDecimal("500"), new BigDecimal("1500"));
+        result.setMessage("Transferencia | con separador\nen dos líneas");
+
+        try (IdempotencyStore<TransferResult> store = new IdempotencyStore<>(Duration.ofHours(1), 100, 4,
+                clock, file, ResultCodecs.TRANSFER)) {
+            store.execute("KEY-6", "FP", () -> result);
+        }
+
+        try (IdempotencyStore<TransferResult> reopened = new IdempotencyStore<>(Duration.ofHours(1), 100, 4,
+                clock, file, ResultCodecs.TRANSFER)) {
+            TransferResult replayed = reopened.execute("KEY-6", "FP", () -> fail("No debe ejecutarse de nuevo"));
+            assertEquals("TXN-9", replayed.getTransferId());
+            assertEquals(new BigDecimal("1500"), replayed.getTargetNewBalance());
+            assertEquals(result.getMessage(), replayed.getMessage());
+            assertEquals(result.getProcessedAt(), replayed.getProcessedAt());
+            assertNull(replayed.getErrorCode());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bancolombia.evaluation.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AuditMetadata - Metadatos de auditoría tipados")
+class AuditMetadataTest {
+
+    @Test
+    @DisplayName("La vista Map de una transferencia debe ser igual al mapa anterior")
+    void transferMetadataShouldMatchLegacyMap() {
+        TransferRequest request = new TransferRequest("ACC001", "ACC002", new BigDecimal("50000"),
+            TransferType.SAME_BANK);
+
+        AuditMetadata metadata = AuditMetadata.forTransfer(request, 35);
+
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("sourceAccount", "ACC001");
+        legacy.put("targetAccount", "ACC002");
+        legacy.put("amount", new BigDecimal("50000"));
+        legacy.put("transferType", TransferType.SAME_BANK);
+        legacy.put("fraudRiskScore", 35);
+        assertEquals(legacy, metadata);
+        assertEquals(legacy.hashCode(), metadata.hashCode());
+        assertEquals(35, metadata.getRiskScore());
+    }
+
+    @Test
+    @DisplayName("Debe conservar las claves con valor nulo como el mapa anterior")
+    void paymentMetadataShouldKeepNullValues() {
+        PaymentRequest request = new PaymentRequest();
+        request.setAmount(new BigDecimal("1000"));
+        request.setPaymentMethod(PaymentMethod.QR_CODE);
+
+        AuditMetadata metadata = AuditMetadata.forPayment(request, 10);
+
+        assertEquals(4, metadata.size());
+        assertTrue(metadata.containsKey("merchantId"));
+        assertNull(metadata.get("merchantId"));
+        assertEquals(PaymentMethod.QR_CODE, metadata.get("paymentMethod"));
+        assertFalse(metadata.containsKey("fraudRiskScore"));
+    }
+
+    @Test
+    @DisplayName("Los metadatos de un movimiento deben incluir monto y tipo")
+    void movementMetadataShouldExposeAmountAndType() {
+        AuditMetadata metadata = AuditMetadata.forMovement("DEPOSIT", BigDecimal.TEN);
+
+        assertEquals(Map.of("amount", BigDecimal.TEN, "type", "DEPOSIT"), metadata);
+        assertThrows(UnsupportedOperationException.class, () -> metadata.put("otro", 1));
+    }
+
+    @Test
+    @DisplayName("Los metadatos de un lote deben incluir movimientos y cuentas con las claves anteriores")
+    void bulkMovementMetadataShouldExposeCounts() {
+        AuditMetadata metadata = AuditMetadata.forBulkMovement("BULK_DEPOSIT", BigDecimal.TEN, 4, 2);
+
+        assertEquals(Map.of("amount", BigDecimal.TEN, "type", "BULK_DEPOSIT", "movements", 4, "accounts", 2),
+            metadata);
+        assertEquals(4, metadata.getMovementCount());
+        assertEquals(2, metadata.getAccountCount());
+    }
+}
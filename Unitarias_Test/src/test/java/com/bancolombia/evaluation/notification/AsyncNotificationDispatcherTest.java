@@ -0,0 +1,114 @@
+package com.bancolombia.evaluation.notification;
+
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.NotificationMessage;
+import com.bancolombia.evaluation.model.NotificationTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AsyncNotificationDispatcher - Envío asíncrono de notificaciones")
+class AsyncNotificationDispatcherTest {
+
+    @Mock
+    private NotificationService delegate;
+
+    private AsyncNotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Debe agrupar las notificaciones push de un usuario en un resumen")
+    void shouldCoalescePushNotificationsPerUser() {
+        dispatcher = new AsyncNotificationDispatcher(delegate, 100, 1, Duration.ofMinutes(1),
+            AsyncNotificationDispatcher.OverflowPolicy.DROP_NEWEST);
+
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(dispatcher.sendPushNotification("USER1", "Pago procesado", "Pago " + i));
+        }
+        dispatcher.sendPushNotification("USER2", "Pago procesado", "Pago unico");
+        assertTrue(dispatcher.shutdown(Duration.ofSeconds(2)));
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(delegate).sendPushNotification(eq("USER1"), eq("Tienes 10 notificaciones nuevas"),
+            message.capture());
+        assertTrue(message.getValue().endsWith("y 5 más"));
+        verify(delegate).sendPushNotification("USER2", "Pago procesado", "Pago unico");
+        assertEquals(9, dispatcher.getStats().getCoalesced());
+        assertEquals(2, dispatcher.getStats().getDelivered());
+    }
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.SECONDS)
+    @DisplayName("No debe bloquear a quien llama cuando el proveedor está lento")
+    void shouldNotBlockCallerWhenDeliveryIsSlow() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.sendEmail(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+        dispatcher = new AsyncNotificationDispatcher(delegate, 1, 1, Duration.ZERO,
+            AsyncNotificationDispatcher.OverflowPolicy.DROP_NEWEST);
+
+        dispatcher.sendEmail("a@b.com", "Asunto", "Cuerpo");
+        Thread.sleep(100);
+        dispatcher.sendEmail("a@b.com", "Asunto", "Cuerpo");
+        boolean acceptedWhenFull = dispatcher.sendEmail("a@b.com", "Asunto", "Cuerpo");
+        release.countDown();
+
+        assertFalse(acceptedWhenFull);
+        assertEquals(1, dispatcher.getStats().getDropped());
+    }
+
+    @Test
+    @DisplayName("Debe contar los fallos de entrega sin propagarlos")
+    void shouldCountDeliveryFailures() {
+        doThrow(new RuntimeException("proveedor caído")).when(delegate).notifyTransactionCompleted(any());
+        dispatcher = new AsyncNotificationDispatcher(delegate, 10, 1, Duration.ZERO,
+            AsyncNotificationDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        assertDoesNotThrow(() -> dispatcher.notifyTransactionCompleted(null));
+        assertTrue(dispatcher.shutdown(Duration.ofSeconds(2)));
+
+        assertEquals(1, dispatcher.getStats().getFailed());
+    }
+
+    @Test
+    @DisplayName("Debe renderizar los mensajes con plantilla al momento de la entrega")
+    void shouldRenderTemplateMessagesOnDelivery() {
+        dispatcher = new AsyncNotificationDispatcher(delegate, 100, 1, Duration.ofMinutes(1),
+            AsyncNotificationDispatcher.OverflowPolicy.DROP_NEWEST);
+
+        dispatcher.sendPushNotification("USER1", NotificationMessage.of(
+            NotificationTemplate.TRANSFER_SENT, new BigDecimal("150000"), "ACC002"));
+        dispatcher.sendPushNotification("USER1", NotificationMessage.of(
+            NotificationTemplate.TRANSFER_RECEIVED, new BigDecimal("2000"), "ACC003"));
+        dispatcher.sendPushNotification("USER2", NotificationMessage.of(
+            NotificationTemplate.TRANSFER_RECEIVED, new BigDecimal("150000"), "ACC001"));
+        assertTrue(dispatcher.shutdown(Duration.ofSeconds(2)));
+
+        verify(delegate).sendPushNotification("USER1", "Tienes 2 notificaciones nuevas",
+            "Has enviado 150000 a ACC002\nHas recibido 2000 de ACC003");
+        verify(delegate).sendPushNotification("USER2", "Transferencia recibida",
+            "Has recibido 150000 de ACC001");
+    }
+}
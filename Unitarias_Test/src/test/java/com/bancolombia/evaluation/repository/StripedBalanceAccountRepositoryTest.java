@@ -0,0 +1,208 @@
+package com.bancolombia.evaluation.repository;
+
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.AccountType;
+import com.bancolombia.evaluation.model.StripedAccount;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionType;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.TransactionService;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Saldo particionado para cuentas concurridas")
+class StripedBalanceAccountRepositoryTest {
+
+    private static final int WRITERS = 64;
+    private static final int DEPOSITS_PER_WRITER = 50;
+
+    private InMemoryAccountRepository storage;
+    private InMemoryTransactionRepository transactions;
+    private StripedBalanceAccountRepository accounts;
+
+    @BeforeEach
+    void setUp() {
+        storage = new InMemoryAccountRepository();
+        transactions = new InMemoryTransactionRepository();
+        accounts = new StripedBalanceAccountRepository(storage, Set.of("COLLECT"), 16);
+        storage.add("COLLECT", "1000");
+    }
+
+    @Test
+    @DisplayName("Los depósitos concurrentes a la cuenta concurrida no deben perderse")
+    void concurrentDepositsShouldNotBeLost() throws Exception {
+        TransactionService service = new TransactionService(accounts, transactions,
+            mock(NotificationService.class), mock(AuditService.class));
+
+        runConcurrently(() -> {
+            for (int i = 0; i < DEPOSITS_PER_WRITER; i++) {
+                service.processDeposit("COLLECT", new BigDecimal("1000.50"), "Recaudo");
+            }
+        });
+
+        BigDecimal expected = new BigDecimal("1000").add(
+            new BigDecimal("1000.50").multiply(BigDecimal.valueOf((long) WRITERS * DEPOSITS_PER_WRITER)));
+        Account hot = accounts.findByAccountNumber("COLLECT").orElseThrow();
+        assertTrue(hot instanceof StripedAccount);
+        assertEquals(0, expected.compareTo(hot.getBalance()));
+        assertEquals(WRITERS * DEPOSITS_PER_WRITER, transactions.size());
+
+        accounts.consolidate();
+
+        assertEquals(0, expected.compareTo(storage.balanceOf("COLLECT")));
+    }
+
+    @Test
+    @DisplayName("Las transferencias hacia y desde la cuenta concurrida deben ser transparentes")
+    void transfersShouldBeTransparent() throws Exception {
+        for (int i = 0; i < WRITERS; i++) {
+            storage.add("PAYER" + i, "100000");
+        }
+        storage.add("SUPPLIER", "0");
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        TransferOrchestrator orchestrator = new TransferOrchestrator(accounts, transactions,
+            fraudDetectionService, mock(NotificationService.class), mock(AuditService.class), accountValidator);
+        List<String> payers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            payers.add("PAYER" + i);
+        }
+        AtomicInteger next = new AtomicInteger();
+
+        runConcurrently(() -> {
+            String payer = payers.get(next.getAndIncrement());
+            for (int i = 0; i < 10; i++) {
+                TransferResult result = orchestrator.executeTransfer(
+                    new TransferRequest(payer, "COLLECT", new BigDecimal("2000"), TransferType.SAME_BANK));
+                assertTrue(result.isSuccessful(), result.getMessage());
+            }
+        });
+        TransferResult payout = orchestrator.executeTransfer(
+            new TransferRequest("COLLECT", "SUPPLIER", new BigDecimal("500000"), TransferType.SAME_BANK));
+
+        assertTrue(payout.isSuccessful(), payout.getMessage());
+        // 1.000 iniciales + 64 * 10 * 2.000 recaudados - 500.000 pagados
+        assertEquals(0, new BigDecimal("781000").compareTo(payout.getSourceNewBalance()));
+        assertEquals(0, new BigDecimal("781000").compareTo(storage.balanceOf("COLLECT")));
+        assertEquals(0, new BigDecimal("500000").compareTo(storage.balanceOf("SUPPLIER")));
+        assertEquals(0, new BigDecimal("80000").compareTo(storage.balanceOf("PAYER7")));
+    }
+
+    @Test
+    @DisplayName("Revertir un crédito no debe borrar créditos concurrentes de otros hilos")
+    void revertShouldKeepOtherCredits() throws Exception {
+        StripedAccount account = new StripedAccount(
+            new Account("COLLECT", "Recaudo", "ID-1", new BigDecimal("100.00"), AccountType.CHECKING), 4);
+        BigDecimal previous = account.getBalance();
+        account.credit(new BigDecimal("50.00"));
+
+        Thread other = new Thread(() -> account.credit(new BigDecimal("25.25")));
+        other.start();
+        other.join();
+        account.revert(new BigDecimal("50.00"), previous);
+
+        assertEquals(0, new BigDecimal("125.25").compareTo(account.getBalance()));
+        account.debit(new BigDecimal("0.005"));
+        account.consolidate();
+        assertEquals(0, new BigDecimal("125.245").compareTo(account.getBalance()));
+        assertEquals(0, new BigDecimal("125.245").compareTo(account.snapshot().getBalance()));
+        assertThrows(IllegalArgumentException.class,
+            () -> new StripedAccount(account, 3));
+    }
+
+    @Test
+    @DisplayName("Compensar una transferencia fallida no debe borrar los depósitos concurrentes")
+    void failedTransferShouldKeepConcurrentDeposits() throws Exception {
+        storage.add("COLLECT", "10000");
+        storage.add("SUPPLIER", "0");
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch depositsDone = new CountDownLatch(1);
+        InMemoryTransactionRepository failingTransfers = spy(transactions);
+        doAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            if (transaction.getType() != TransactionType.TRANSFER) {
+                return invocation.callRealMethod();
+            }
+            committing.countDown();
+            depositsDone.await();
+            throw new RuntimeException("BD no disponible");
+        }).when(failingTransfers).save(any(Transaction.class));
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        TransferOrchestrator orchestrator = new TransferOrchestrator(accounts, failingTransfers,
+            fraudDetectionService, mock(NotificationService.class), mock(AuditService.class), accountValidator);
+        TransactionService service = new TransactionService(accounts, failingTransfers,
+            mock(NotificationService.class), mock(AuditService.class));
+
+        Future<?> transfer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        }).submit(() -> assertThrows(RuntimeException.class, () -> orchestrator.executeTransfer(
+            new TransferRequest("COLLECT", "SUPPLIER", new BigDecimal("5000"), TransferType.SAME_BANK))));
+        committing.await();
+        runConcurrently(() -> {
+            for (int i = 0; i < DEPOSITS_PER_WRITER; i++) {
+                service.processDeposit("COLLECT", new BigDecimal("1000.25"), "Recaudo");
+            }
+        });
+        depositsDone.countDown();
+        transfer.get();
+
+        BigDecimal expected = new BigDecimal("10000").add(
+            new BigDecimal("1000.25").multiply(BigDecimal.valueOf((long) WRITERS * DEPOSITS_PER_WRITER)));
+        assertEquals(0, expected.compareTo(accounts.findByAccountNumber("COLLECT").orElseThrow().getBalance()));
+        accounts.consolidate();
+        assertEquals(0, expected.compareTo(storage.balanceOf("COLLECT")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(storage.balanceOf("SUPPLIER")));
+    }
+
+    private static void runConcurrently(Runnable writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    writer.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
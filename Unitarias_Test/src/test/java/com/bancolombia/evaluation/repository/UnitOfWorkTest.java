@@ -0,0 +1,81 @@
+package com.bancolombia.evaluation.repository;
+
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.AccountType;
+import com.bancolombia.evaluation.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UnitOfWork - Confirmación conjunta de cuentas y transacciones")
+class UnitOfWorkTest {
+
+    private final Account source = new Account("ACC001", "Ana", "1", new BigDecimal("1000"), AccountType.SAVINGS);
+    private final Account target = new Account("ACC002", "Luis", "2", new BigDecimal("500"), AccountType.SAVINGS);
+
+    @Test
+    @DisplayName("Debe confirmar en una sola escritura cuando el repositorio soporta lotes atómicos")
+    void shouldCommitInSingleBatchWhenSupported() {
+        AccountRepository accountRepository = mock(AccountRepository.class,
+            withSettings().extraInterfaces(BatchWriteRepository.class));
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        Transaction transaction = new Transaction();
+        Transaction saved = new Transaction();
+        when(((BatchWriteRepository) accountRepository).commitBatch(anyList(), anyList()))
+            .thenReturn(List.of(saved));
+
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository)
+            .registerAccount(source)
+            .registerAccount(target)
+            .registerAccount(source)
+            .registerTransaction(transaction);
+
+        assertTrue(unitOfWork.isAtomic());
+        assertSame(saved, unitOfWork.commit().get(0));
+        verify((BatchWriteRepository) accountRepository).commitBatch(List.of(source, target), List.of(transaction));
+        verify(accountRepository, never()).save(any());
+        verifyNoInteractions(transactionRepository);
+        assertTrue(unitOfWork.isApplied(target));
+    }
+
+    @Test
+    @DisplayName("Debe guardar en orden de registro e informar qué cuentas se aplicaron si falla")
+    void shouldSaveSequentiallyAndReportAppliedAccountsOnFailure() {
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(accountRepository.save(source)).thenReturn(source);
+        when(accountRepository.save(target)).thenThrow(new RuntimeException("BD no disponible"));
+
+        UnitOfWork unitOfWork = new UnitOfWork(accountRepository, transactionRepository)
+            .registerAccount(source)
+            .registerAccount(target)
+            .registerTransaction(new Transaction());
+
+        assertFalse(unitOfWork.isAtomic());
+        assertThrows(RuntimeException.class, unitOfWork::commit);
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).save(source);
+        inOrder.verify(accountRepository).save(target);
+        verifyNoInteractions(transactionRepository);
+        assertTrue(unitOfWork.isApplied(source));
+        assertFalse(unitOfWork.isApplied(target));
+    }
+
+    @Test
+    @DisplayName("No debe permitir registrar ni confirmar después de confirmar")
+    void shouldRejectUseAfterCommit() {
+        UnitOfWork unitOfWork = new UnitOfWork(mock(AccountRepository.class), mock(TransactionRepository.class));
+        unitOfWork.commit();
+
+        assertThrows(IllegalStateException.class, () -> unitOfWork.registerAccount(source));
+        assertThrows(IllegalStateException.class, unitOfWork::commit);
+    }
+}
@@ -0,0 +1,114 @@
+package com.bancolombia.evaluation.resilience;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.resilience.AdmissionController.Priority;
+import com.bancolombia.evaluation.support.MutableClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Control de admisión con límite de concurrencia adaptativo")
+class AdmissionControllerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Thread> holders = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+    }
+
+    @Test
+    @DisplayName("El límite debe crecer con latencia estable y bajar cuando la latencia sube")
+    void limitShouldFollowLatency() {
+        MutableClock clock = new MutableClock();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 200, Duration.ofMillis(100), clock);
+        AdaptiveConcurrencyLimit idle = new AdaptiveConcurrencyLimit(20, 5, 200, Duration.ofMillis(100), clock);
+
+        for (int window = 0; window < 200; window++) {
+            clock.advance(Duration.ofMillis(100));
+            for (int i = 0; i < 10; i++) {
+                limit.onSample(10 * MILLIS, limit.getLimit());
+                idle.onSample(10 * MILLIS, 1);
+            }
+        }
+        int grown = limit.getLimit();
+        for (int window = 0; window < 30; window++) {
+            clock.advance(Duration.ofMillis(100));
+            for (int i = 0; i < 10; i++) {
+                limit.onSample(60 * MILLIS, limit.getLimit());
+            }
+        }
+
+        assertTrue(grown > 100, "Límite con latencia estable: " + grown);
+        assertTrue(limit.getLimit() < grown / 2, "Límite con latencia alta: " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 5);
+        assertTrue(limit.getShortRttMillis() > limit.getLongRttMillis());
+        // Sin carga no hay evidencia de capacidad extra
+        assertEquals(20, idle.getLimit());
+    }
+
+    @Test
+    @DisplayName("Al saturarse debe rechazar primero el trabajo masivo y al final el crítico")
+    void shouldShedBulkWorkBeforeCriticalWork() throws Exception {
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(10, 10, 10));
+
+        for (int i = 0; i < 5; i++) {
+            hold(controller, Priority.BULK);
+        }
+        BankingException bulk = assertThrows(BankingException.class,
+            () -> controller.execute(Priority.BULK, () -> "lote"));
+        for (int i = 0; i < 3; i++) {
+            hold(controller, Priority.NORMAL);
+        }
+        assertThrows(BankingException.class, () -> controller.execute(Priority.NORMAL, () -> "normal"));
+        hold(controller, Priority.CRITICAL);
+        assertEquals("crítica", controller.execute(Priority.CRITICAL, () -> "crítica"));
+        hold(controller, Priority.CRITICAL);
+        assertThrows(BankingException.class, () -> controller.execute(Priority.CRITICAL, () -> "crítica"));
+
+        assertEquals("SYSTEM_BUSY", bulk.getErrorCode());
+        AdmissionController.AdmissionStats stats = controller.getStats();
+        assertEquals(10, stats.getInFlight());
+        assertEquals(5, stats.getAdmitted(Priority.BULK));
+        assertEquals(1, stats.getRejected(Priority.BULK));
+        assertEquals(1, stats.getRejected(Priority.NORMAL));
+        assertEquals(3, stats.getAdmitted(Priority.CRITICAL));
+        assertEquals(1, stats.getRejected(Priority.CRITICAL));
+
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+        assertEquals(0, controller.getStats().getInFlight());
+        assertEquals("lote", controller.execute(Priority.BULK, () -> "lote"));
+    }
+
+    private void hold(AdmissionController controller, Priority priority) throws InterruptedException {
+        Semaphore entered = new Semaphore(0);
+        holders.add(Thread.ofVirtual().start(() -> controller.execute(priority, () -> {
+            entered.release();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        })));
+        assertTrue(entered.tryAcquire(5, TimeUnit.SECONDS));
+    }
+}
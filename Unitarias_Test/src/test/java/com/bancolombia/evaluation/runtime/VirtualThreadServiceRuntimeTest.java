@@ -0,0 +1,169 @@
+package com.bancolombia.evaluation.runtime;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.repository.AccountRepository;
+import com.bancolombia.evaluation.resilience.Bulkhead;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.PaymentProcessor;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Runtime de hilos virtuales con límites por dependencia")
+class VirtualThreadServiceRuntimeTest {
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private FraudDetectionService fraudDetectionService;
+    private NotificationService notificationService;
+    private AuditService auditService;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new InMemoryAccountRepository();
+        transactions = new InMemoryTransactionRepository();
+        fraudDetectionService = mock(FraudDetectionService.class);
+        notificationService = mock(NotificationService.class);
+        auditService = mock(AuditService.class);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUD-1");
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(fraudDetectionService.validatePayment(any())).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Los pagos deben correr en hilos virtuales sin superar el cupo del servicio de fraude")
+    void paymentsShouldRunOnVirtualThreadsWithinDependencyLimit() throws Exception {
+        AtomicBoolean allVirtual = new AtomicBoolean(true);
+        when(fraudDetectionService.evaluateTransactionRisk(anyString(), any())).thenAnswer(invocation -> {
+            allVirtual.compareAndSet(!Thread.currentThread().isVirtual(), false);
+            Thread.sleep(20);
+            return 10;
+        });
+        BlockingDependencyAdapter<FraudDetectionService> fraud = BlockingDependencyAdapter.wrap(
+            FraudDetectionService.class, fraudDetectionService,
+            new Bulkhead("fraude", 3, Duration.ofSeconds(5)));
+        PaymentProcessor processor = new PaymentProcessor(accounts, transactions, fraud.get(),
+            notificationService, auditService);
+        List<CompletableFuture<PaymentResult>> futures = new ArrayList<>();
+        try (VirtualThreadServiceRuntime runtime = new VirtualThreadServiceRuntime(null, processor)) {
+            for (int i = 0; i < 30; i++) {
+                accounts.add("ACC" + i, "100000");
+                futures.add(runtime.processPayment(
+                    new PaymentRequest("ACC" + i, "MERCHANT-1", new BigDecimal("10000"), PaymentMethod.PSE)));
+            }
+            for (CompletableFuture<PaymentResult> future : futures) {
+                assertTrue(future.get(10, TimeUnit.SECONDS).isSuccessful());
+            }
+            assertEquals(30, runtime.getSubmitted());
+        }
+
+        assertTrue(allVirtual.get());
+        assertEquals(30, transactions.size());
+        BlockingDependencyAdapter.DependencyStats stats = fraud.getStats();
+        assertTrue(stats.getPeakConcurrency() <= 3, "Concurrencia máxima: " + stats.getPeakConcurrency());
+        assertTrue(stats.getPeakConcurrency() > 1);
+        assertEquals(0, stats.getRejected());
+    }
+
+    @Test
+    @DisplayName("Sin cupo en la dependencia, la llamada debe fallar con DEPENDENCY_BUSY")
+    void saturatedDependencyShouldRejectWithDependencyBusy() throws Exception {
+        AccountRepository slowRepository = mock(AccountRepository.class);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(slowRepository.findByAccountNumber("ACC001")).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        when(slowRepository.existsByAccountNumber("ACC999")).thenThrow(new IllegalStateException("caída"));
+        BlockingDependencyAdapter<AccountRepository> repository = BlockingDependencyAdapter.wrap(
+            AccountRepository.class, slowRepository, new Bulkhead("cuentas", 1, Duration.ofMillis(20)));
+
+        Thread holder = Thread.ofVirtual().start(() -> repository.get().findByAccountNumber("ACC001"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        BankingException busy = assertThrows(BankingException.class,
+            () -> repository.get().findByAccountNumber("ACC002"));
+        release.countDown();
+        holder.join();
+
+        assertEquals("DEPENDENCY_BUSY", busy.getErrorCode());
+        assertEquals(1, repository.getStats().getRejected());
+        verify(slowRepository, never()).findByAccountNumber("ACC002");
+        // Los errores de la dependencia llegan sin envolver y el cupo se libera
+        assertThrows(IllegalStateException.class, () -> repository.get().existsByAccountNumber("ACC999"));
+        assertFalse(repository.get().existsByAccountNumber("ACC001"));
+        assertEquals(3, repository.getStats().getCalls());
+    }
+
+    @Test
+    @DisplayName("El monitor debe reportar el sitio donde un synchronized fija el hilo virtual")
+    void pinningMonitorShouldReportSynchronizedBlocking() throws Exception {
+        InMemoryAccountRepository pinningRepository = new InMemoryAccountRepository() {
+            @Override
+            public synchronized Account save(Account account) {
+                try {
+                    Thread.sleep(30);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.save(account);
+            }
+        };
+        pinningRepository.add("ACC001", "500000");
+        pinningRepository.add("ACC002", "100000");
+        TransferOrchestrator orchestrator = new TransferOrchestrator(pinningRepository, transactions,
+            fraudDetectionService, notificationService, auditService, new AccountValidator());
+
+        PinningMonitor.PinningReport report;
+        try (PinningMonitor monitor = new PinningMonitor(Duration.ofMillis(10));
+             VirtualThreadServiceRuntime runtime = new VirtualThreadServiceRuntime(orchestrator, null)) {
+            monitor.start();
+            TransferResult result = runtime.executeTransfer(
+                new TransferRequest("ACC001", "ACC002", new BigDecimal("1000"), TransferType.SAME_BANK))
+                .get(10, TimeUnit.SECONDS);
+            assertTrue(result.isSuccessful());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            report = monitor.getReport();
+            while (report.getEvents() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+                report = monitor.getReport();
+            }
+        }
+
+        assertTrue(report.getEvents() >= 2, "Eventos: " + report.getEvents());
+        assertTrue(report.getMaxPinned().toMillis() >= 10);
+        String site = report.getEventsBySite().keySet().iterator().next();
+        assertTrue(site.startsWith(VirtualThreadServiceRuntimeTest.class.getName()), site);
+        assertTrue(site.contains(".save:"), site);
+    }
+}
@@ -0,0 +1,135 @@
+package com.bancolombia.evaluation.saga;
+
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransferSagaLog - Recuperación de transferencias interrumpidas")
+class TransferSagaLogTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryAccountRepository accounts;
+    private TransferSagaLog sagaLog;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new InMemoryAccountRepository();
+        accounts.add("ACC001", "1000");
+        accounts.add("ACC002", "500");
+        sagaLog = new TransferSagaLog(directory, 2, 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sagaLog.close();
+    }
+
+    @Test
+    @DisplayName("No debe dejar sagas pendientes cuando las transferencias terminan")
+    void shouldLeaveNothingPendingForFinishedTransfers() {
+        TransferSaga completed = begin();
+        sagaLog.markDebited(completed);
+        sagaLog.markCredited(completed);
+        sagaLog.markCompleted(completed);
+        sagaLog.markAborted(begin());
+        assertEquals(6, sagaLog.getStats().getRecords());
+
+        reopen();
+
+        assertTrue(sagaLog.getPendingRecovery().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe compensar el débito cuando la caída ocurre antes del crédito")
+    void shouldCompensateDebitWhenCrashBeforeCredit() {
+        TransferSaga saga = begin();
+        debit("ACC001", "100");
+        sagaLog.markDebited(saga);
+
+        reopen();
+        TransferSagaLog.RecoveryReport report = sagaLog.recover(accounts);
+
+        assertEquals(1, report.getCompensated().size());
+        assertEquals(0, new BigDecimal("1000").compareTo(accounts.balanceOf("ACC001")));
+        reopen();
+        assertTrue(sagaLog.getPendingRecovery().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe deducir por los saldos si el débito sin marca se alcanzó a aplicar")
+    void shouldInferUnmarkedDebitFromBalances() {
+        TransferSaga debited = begin();
+        debit("ACC001", "100");
+        reopen();
+
+        TransferSagaLog.RecoveryReport report = sagaLog.recover(accounts);
+
+        assertEquals(debited.getSagaId(), report.getCompensated().get(0).getSagaId());
+        assertEquals(0, new BigDecimal("1000").compareTo(accounts.balanceOf("ACC001")));
+    }
+
+    @Test
+    @DisplayName("Debe abortar la saga si el débito no se aplicó y completar si ya hubo crédito")
+    void shouldAbortOrCompleteDependingOnSteps() {
+        begin();
+        TransferSaga credited = begin();
+        debit("ACC001", "100");
+        sagaLog.markDebited(credited);
+        accounts.findByAccountNumber("ACC002").get().setBalance(new BigDecimal("600"));
+        sagaLog.markCredited(credited);
+        reopen();
+
+        TransferSagaLog.RecoveryReport report = sagaLog.recover(accounts);
+
+        // La primera saga comparte cuentas con otra sin terminar: los saldos no permiten decidir
+        assertEquals(1, report.getNeedsReview().size());
+        assertEquals(1, report.getCompleted().size());
+        assertEquals(0, new BigDecimal("900").compareTo(accounts.balanceOf("ACC001")));
+    }
+
+    @Test
+    @DisplayName("Debe ignorar un registro incompleto al final del log")
+    void shouldIgnoreTornRecordAtEndOfLog() throws IOException {
+        TransferSaga saga = begin();
+        sagaLog.markDebited(saga);
+        sagaLog.close();
+        for (int shard = 0; shard < 2; shard++) {
+            Files.write(directory.resolve("saga-" + shard + ".log"), "S|SAGA-x|CRED".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        }
+
+        sagaLog = new TransferSagaLog(directory, 2, 1024 * 1024);
+
+        assertEquals(1, sagaLog.getPendingRecovery().size());
+        assertEquals(TransferSaga.Step.DEBITED, sagaLog.getPendingRecovery().get(0).getStep());
+    }
+
+    private TransferSaga begin() {
+        return sagaLog.begin("ACC001", "ACC002", new BigDecimal("100"), new BigDecimal("100"),
+            new BigDecimal("1000"), new BigDecimal("500"));
+    }
+
+    private void debit(String accountNumber, String amount) {
+        accounts.findByAccountNumber(accountNumber).get()
+            .setBalance(accounts.balanceOf(accountNumber).subtract(new BigDecimal(amount)));
+    }
+
+    private void reopen() {
+        sagaLog.close();
+        sagaLog = new TransferSagaLog(directory, 2, 1024 * 1024);
+    }
+}
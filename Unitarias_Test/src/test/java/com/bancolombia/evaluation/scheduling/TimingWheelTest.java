@@ -0,0 +1,47 @@
+package com.bancolombia.evaluation.scheduling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimingWheel - Rueda de tiempo jerárquica")
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("Cada elemento debe vencer exactamente en su tick, incluso más allá del alcance de la rueda")
+    void shouldExpireEachItemAtItsTick() {
+        // 3 niveles de 4 ranuras: alcance de 64 ticks
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 4, 3, 0);
+        for (long due = 0; due <= 200; due += 3) {
+            wheel.add(due * 10, due);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long tick = 0; tick <= 200; tick++) {
+            for (Long due : wheel.advanceTo(tick * 10 + 5)) {
+                assertEquals(tick, due.longValue(), "Vencimiento entregado en otro tick");
+                fired.add(due);
+            }
+        }
+        assertEquals(67, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Debe entregar en un solo avance un millón de elementos que vencen a la misma hora")
+    void shouldDeliverSpikeOfItemsDueAtSameTime() {
+        long midnight = 3_600_000L;
+        TimingWheel<Integer> wheel = new TimingWheel<>(100, 256, 4, 0);
+        for (int i = 0; i < 1_000_000; i++) {
+            wheel.add(midnight, i);
+        }
+
+        assertTrue(wheel.advanceTo(midnight - 100).isEmpty());
+        assertEquals(1_000_000, wheel.advanceTo(midnight).size());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,204 @@
+package com.bancolombia.evaluation.scheduling;
+
+import com.bancolombia.evaluation.exception.TransactionNotAllowedException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.idempotency.IdempotencyStore;
+import com.bancolombia.evaluation.idempotency.ResultCodecs;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionStatus;
+import com.bancolombia.evaluation.model.TransactionType;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("TransferScheduler - Ejecución de transferencias programadas")
+class TransferSchedulerTest {
+
+    private final InMemoryAccountRepository accounts = new InMemoryAccountRepository();
+    private final InMemoryTransactionRepository transactions = new InMemoryTransactionRepository();
+    private TransferOrchestrator orchestrator;
+    private TransferScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        orchestrator = new TransferOrchestrator(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), mock(AuditService.class), accountValidator);
+        accounts.add("ACC001", "1000000");
+        accounts.add("ACC002", "0");
+        scheduler = new TransferScheduler(orchestrator, transactions, Clock.systemDefaultZone(),
+            Duration.ofMillis(10), 2, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    @DisplayName("Al iniciar debe recargar y ejecutar las pendientes vencidas, omitiendo las canceladas")
+    void shouldReloadAndExecuteOverdueTransfersOnStart() {
+        Transaction overdue = pendingScheduled("50000", LocalDateTime.now().minusMinutes(5));
+        Transaction cancelled = pendingScheduled("70000", LocalDateTime.now().minusMinutes(5));
+        cancelled.setStatus(TransactionStatus.CANCELLED);
+
+        assertEquals(1, scheduler.start());
+        awaitUntil(() -> scheduler.getStats().getExecuted() == 1);
+
+        assertEquals(TransactionStatus.EXECUTED, transactions.findById(overdue.getTransactionId())
+            .orElseThrow().getStatus());
+        Transaction executed = transactions.findById(overdue.getExecutedTransferId()).orElseThrow();
+        assertEquals(TransactionStatus.COMPLETED, executed.getStatus());
+        assertEquals(1, transactions.findByStatus(TransactionStatus.COMPLETED).size());
+        assertEquals(new BigDecimal("50000"), accounts.balanceOf("ACC002"));
+        assertEquals(TransactionStatus.CANCELLED, cancelled.getStatus());
+    }
+
+    @Test
+    @DisplayName("Debe ejecutar en su fecha una transferencia programada y no ejecutar una cancelada")
+    void shouldExecuteScheduledTransferWhenDue() {
+        scheduler.start();
+        TransferRequest request = new TransferRequest("ACC001", "ACC002", new BigDecimal("25000"), TransferType.SAME_BANK);
+        String scheduledId = scheduler.schedule(request, LocalDateTime.now().plusNanos(300_000_000));
+        String cancelledId = scheduler.schedule(request, LocalDateTime.now().plusNanos(300_000_000));
+        assertTrue(scheduler.cancel(cancelledId));
+
+        assertEquals(TransactionStatus.PENDING, orchestrator.getTransferStatus(scheduledId));
+        awaitUntil(() -> scheduler.getPendingCount() == 0 && scheduler.getStats().getSkipped() == 1
+            && scheduler.getStats().getExecuted() == 1);
+
+        assertEquals(TransactionStatus.EXECUTED, orchestrator.getTransferStatus(scheduledId));
+        assertEquals(new BigDecimal("25000"), accounts.balanceOf("ACC002"));
+        assertTrue(scheduler.getStats().getMaxLatenessMillis() < 1000);
+    }
+
+    @Test
+    @DisplayName("Con idempotencia persistente no debe repetir una transferencia ejecutada antes de una caída")
+    void shouldNotRepeatTransferExecutedBeforeCrash(@TempDir Path directory) {
+        Path file = directory.resolve("transfers.idem");
+        scheduler.close();
+        IdempotencyStore<TransferResult> store = persistentStore(file);
+        scheduler = schedulerFor(orchestratorWith(store));
+        Transaction overdue = pendingScheduled("50000", LocalDateTime.now().minusMinutes(5));
+        scheduler.start();
+        awaitUntil(() -> scheduler.getStats().getExecuted() == 1);
+        scheduler.close();
+        store.close();
+        String transferId = overdue.getExecutedTransferId();
+
+        // La caída ocurrió antes de guardar la programación: al reiniciar sigue reclamada
+        overdue.setStatus(TransactionStatus.PROCESSING);
+        overdue.setExecutedTransferId(null);
+        try (IdempotencyStore<TransferResult> reloaded = persistentStore(file)) {
+            scheduler = schedulerFor(orchestratorWith(reloaded));
+            assertEquals(1, scheduler.start());
+            awaitUntil(() -> scheduler.getStats().getExecuted() == 1);
+
+            assertEquals(1, reloaded.getStats().getReplays());
+        }
+        assertEquals(transferId, overdue.getExecutedTransferId());
+        assertEquals(new BigDecimal("50000"), accounts.balanceOf("ACC002"));
+    }
+
+    @Test
+    @DisplayName("Una programación cancelada mientras vence no debe ejecutarse")
+    void cancelRacingDueTimeShouldNeverExecuteCancelledTransfer() {
+        scheduler.close();
+        scheduler = new TransferScheduler(orchestrator, transactions, Clock.systemDefaultZone(),
+            Duration.ofMillis(1), 4, Duration.ZERO);
+        List<Transaction> scheduled = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            scheduled.add(pendingScheduled("1000", LocalDateTime.now().minusSeconds(1)));
+        }
+        Set<String> cancelled = new HashSet<>();
+
+        scheduler.start();
+        for (Transaction transaction : scheduled) {
+            try {
+                if (scheduler.cancel(transaction.getTransactionId())) {
+                    cancelled.add(transaction.getTransactionId());
+                }
+            } catch (TransactionNotAllowedException e) {
+                // Ya la había reclamado un hilo del programador
+            }
+        }
+        awaitUntil(() -> scheduler.getStats().getExecuted() + scheduler.getStats().getSkipped() == 200);
+
+        long executed = 0;
+        for (Transaction transaction : scheduled) {
+            if (cancelled.contains(transaction.getTransactionId())) {
+                assertEquals(TransactionStatus.CANCELLED, transaction.getStatus());
+                assertNull(transaction.getExecutedTransferId());
+            } else {
+                assertEquals(TransactionStatus.EXECUTED, transaction.getStatus());
+                executed++;
+            }
+        }
+        assertEquals(executed, scheduler.getStats().getExecuted());
+        assertEquals(new BigDecimal(1000 * executed), accounts.balanceOf("ACC002"));
+    }
+
+    private TransferOrchestrator orchestratorWith(IdempotencyStore<TransferResult> store) {
+        FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        return new TransferOrchestrator(accounts, transactions, fraudDetectionService,
+            mock(NotificationService.class), mock(AuditService.class), accountValidator, null, store);
+    }
+
+    private TransferScheduler schedulerFor(TransferOrchestrator transferOrchestrator) {
+        return new TransferScheduler(transferOrchestrator, transactions, Clock.systemDefaultZone(),
+            Duration.ofMillis(10), 2, Duration.ZERO);
+    }
+
+    private static IdempotencyStore<TransferResult> persistentStore(Path file) {
+        return new IdempotencyStore<>(Duration.ofDays(7), 1000, 4, Clock.systemUTC(), file, ResultCodecs.TRANSFER);
+    }
+
+    private Transaction pendingScheduled(String amount, LocalDateTime scheduledAt) {
+        Transaction transaction = new Transaction("ACC001", "ACC002", new BigDecimal(amount), TransactionType.TRANSFER);
+        transaction.setScheduledAt(scheduledAt);
+        transaction.setTransferType(TransferType.SAME_BANK);
+        return transactions.save(transaction);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "La condición no se cumplió a tiempo");
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.bancolombia.evaluation.service;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.model.BatchTransferOptions;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.resilience.AdaptiveConcurrencyLimit;
+import com.bancolombia.evaluation.resilience.AdmissionController;
+import com.bancolombia.evaluation.resilience.AdmissionController.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Entrada a los servicios con control de admisión")
+class AdmissionGatewayTest {
+
+    @Test
+    @DisplayName("Con un lote en curso deben pasar las transferencias del banco y los pagos pequeños")
+    void shouldAdmitCriticalRequestsWhileBulkWorkRuns() throws Exception {
+        TransferOrchestrator orchestrator = mock(TransferOrchestrator.class);
+        PaymentProcessor processor = mock(PaymentProcessor.class);
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(2, 2, 2));
+        AdmissionGateway gateway = new AdmissionGateway(orchestrator, processor, controller,
+            new BigDecimal("100000"));
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CountDownLatch finishBatch = new CountDownLatch(1);
+        when(orchestrator.executeBatchTransfer(anyList())).thenAnswer(invocation -> {
+            batchStarted.countDown();
+            finishBatch.await(5, TimeUnit.SECONDS);
+            return Collections.emptyMap();
+        });
+        TransferResult transferred = mock(TransferResult.class);
+        PaymentResult paid = mock(PaymentResult.class);
+        when(orchestrator.executeTransfer(any())).thenReturn(transferred);
+        when(processor.processPayment(any())).thenReturn(paid);
+        TransferRequest sameBank = new TransferRequest("ACC001", "ACC002", new BigDecimal("5000"), TransferType.SAME_BANK);
+        TransferRequest otherBank = new TransferRequest("ACC001", "EXT001", new BigDecimal("5000"), TransferType.OTHER_BANK);
+        PaymentRequest small = new PaymentRequest("ACC001", "MERCHANT-1", new BigDecimal("100000"), PaymentMethod.PSE);
+        PaymentRequest large = new PaymentRequest("ACC001", "MERCHANT-1", new BigDecimal("100001"), PaymentMethod.PSE);
+
+        Thread batch = Thread.ofVirtual().start(() -> gateway.executeBatchTransfer(List.of(sameBank)));
+        assertTrue(batchStarted.await(5, TimeUnit.SECONDS));
+
+        assertSame(transferred, gateway.executeTransfer(sameBank));
+        assertSame(paid, gateway.processPayment(small));
+        BankingException busy = assertThrows(BankingException.class, () -> gateway.executeTransfer(otherBank));
+        assertThrows(BankingException.class, () -> gateway.processPayment(large));
+        assertThrows(BankingException.class, () -> gateway.processPayments(List.of(small)));
+        finishBatch.countDown();
+        batch.join();
+
+        assertEquals("SYSTEM_BUSY", busy.getErrorCode());
+        verify(orchestrator).executeTransfer(sameBank);
+        verify(orchestrator, never()).executeTransfer(otherBank);
+        verify(processor, never()).processPayment(large);
+        verify(processor, never()).processPayments(any());
+        assertEquals(2, controller.getStats().getAdmitted(Priority.CRITICAL));
+        assertEquals(2, controller.getStats().getRejected(Priority.NORMAL));
+        assertEquals(1, controller.getStats().getRejected(Priority.BULK));
+        assertEquals(Priority.NORMAL, gateway.priorityOf(otherBank));
+    }
+
+    @Test
+    @DisplayName("Las variantes asíncronas deben ocupar el cupo hasta terminar y los lotes ser masivos")
+    void asyncRequestsShouldHoldPermitUntilCompletion() {
+        TransferOrchestrator orchestrator = mock(TransferOrchestrator.class);
+        PaymentProcessor processor = mock(PaymentProcessor.class);
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(2, 2, 2));
+        AdmissionGateway gateway = new AdmissionGateway(orchestrator, processor, controller,
+            new BigDecimal("100000"));
+        CompletableFuture<TransferResult> pending = new CompletableFuture<>();
+        when(orchestrator.executeTransferAsync(any(), any())).thenReturn(pending);
+        when(orchestrator.executeDisbursement(anyList(), anyInt())).thenReturn(Collections.emptyMap());
+        TransferRequest otherBank = new TransferRequest("ACC001", "EXT001", new BigDecimal("5000"), TransferType.OTHER_BANK);
+        PaymentRequest small = new PaymentRequest("ACC001", "MERCHANT-1", new BigDecimal("1000"), PaymentMethod.DEBIT_CARD);
+
+        CompletableFuture<TransferResult> transfer = gateway.executeTransferAsync(otherBank, Runnable::run);
+
+        assertEquals(1, controller.getStats().getInFlight());
+        gateway.authorizePayment(small);
+        assertThrows(BankingException.class, () -> gateway.executeDisbursement(List.of(otherBank), 2));
+        assertThrows(BankingException.class, () -> gateway.executeBatchTransfer(List.of(otherBank),
+            new BatchTransferOptions()));
+        assertThrows(BankingException.class, () -> gateway.streamBatchTransfer(
+            List.of(otherBank).iterator(), 1, (sequence, request, result) -> { }));
+        assertThrows(BankingException.class, () -> gateway.capturePayments(List.of("HOLD-1", "HOLD-2")));
+        verify(orchestrator, never()).executeDisbursement(anyList(), anyInt());
+        verify(processor, never()).capturePayments(any());
+
+        pending.complete(mock(TransferResult.class));
+
+        assertTrue(transfer.isDone());
+        assertEquals(0, controller.getStats().getInFlight());
+        gateway.executeDisbursement(List.of(otherBank), 2);
+        assertEquals(4, controller.getStats().getRejected(Priority.BULK));
+        assertEquals(1, controller.getStats().getAdmitted(Priority.BULK));
+        assertEquals(1, controller.getStats().getAdmitted(Priority.CRITICAL));
+        assertEquals(1, controller.getStats().getAdmitted(Priority.NORMAL));
+    }
+}
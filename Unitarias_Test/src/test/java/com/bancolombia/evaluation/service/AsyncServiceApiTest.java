@@ -0,0 +1,155 @@
+package com.bancolombia.evaluation.service;
+
+import com.bancolombia.evaluation.exception.AccountNotFoundException;
+import com.bancolombia.evaluation.exception.InsufficientFundsException;
+import com.bancolombia.evaluation.exception.LimitExceededException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.PaymentMethod;
+import com.bancolombia.evaluation.model.PaymentRequest;
+import com.bancolombia.evaluation.model.PaymentResult;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("APIs asíncronas de los servicios")
+class AsyncServiceApiTest {
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private FraudDetectionService fraudDetectionService;
+    private NotificationService notificationService;
+    private AuditService auditService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new InMemoryAccountRepository();
+        transactions = new InMemoryTransactionRepository();
+        fraudDetectionService = mock(FraudDetectionService.class);
+        notificationService = mock(NotificationService.class);
+        auditService = mock(AuditService.class);
+        executor = Executors.newFixedThreadPool(4);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUD-1");
+        accounts.add("ACC001", "500000");
+        accounts.add("ACC002", "100000");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("La transferencia asíncrona debe mover saldos y auditar en el mismo orden")
+    void transferAsyncShouldMatchSync() throws Exception {
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        TransferOrchestrator orchestrator = new TransferOrchestrator(accounts, transactions,
+            fraudDetectionService, notificationService, auditService, new AccountValidator());
+
+        TransferResult result = orchestrator.executeTransferAsync(
+            new TransferRequest("ACC001", "ACC002", new BigDecimal("200000"), TransferType.SAME_BANK), executor)
+            .get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(0, new BigDecimal("300000").compareTo(accounts.balanceOf("ACC001")));
+        assertEquals(0, new BigDecimal("300000").compareTo(accounts.balanceOf("ACC002")));
+        InOrder inOrder = inOrder(fraudDetectionService, auditService, notificationService);
+        inOrder.verify(fraudDetectionService).validateTransfer(any());
+        inOrder.verify(auditService).logOperationStart(eq("TRANSFER"), eq("ACC001"), any());
+        inOrder.verify(auditService, times(2)).logBalanceChange(anyString(), any(), any(), any());
+        inOrder.verify(auditService).logOperationSuccess(eq("AUD-1"), any());
+        inOrder.verify(notificationService, times(2)).sendPushNotification(anyString(), any());
+
+        ExecutionException insufficient = assertThrows(ExecutionException.class, () -> orchestrator
+            .executeTransferAsync(new TransferRequest("ACC002", "ACC001", new BigDecimal("900000"),
+                TransferType.SAME_BANK), executor).get(5, TimeUnit.SECONDS));
+        assertTrue(insufficient.getCause() instanceof InsufficientFundsException);
+        ExecutionException notFound = assertThrows(ExecutionException.class, () -> orchestrator
+            .executeTransferAsync(new TransferRequest("ACC001", "ACC999", new BigDecimal("1000"),
+                TransferType.SAME_BANK), executor).get(5, TimeUnit.SECONDS));
+        assertTrue(notFound.getCause() instanceof AccountNotFoundException);
+
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(false);
+        TransferResult rejected = orchestrator.executeTransferAsync(
+            new TransferRequest("ACC001", "ACC002", new BigDecimal("1000"), TransferType.SAME_BANK), executor)
+            .get(5, TimeUnit.SECONDS);
+        assertEquals("FRAUD_DETECTED", rejected.getErrorCode());
+        verify(fraudDetectionService).reportSuspiciousActivity(anyString(), anyString());
+        assertEquals(1, transactions.size());
+    }
+
+    @Test
+    @DisplayName("El pago y el reembolso asíncronos deben dar los mismos resultados que los síncronos")
+    void paymentAsyncShouldMatchSync() throws Exception {
+        when(fraudDetectionService.isBlacklisted("ACC002")).thenReturn(true);
+        when(fraudDetectionService.evaluateTransactionRisk(anyString(), any())).thenReturn(10);
+        when(fraudDetectionService.validatePayment(any())).thenReturn(true);
+        PaymentProcessor processor = new PaymentProcessor(accounts, transactions, fraudDetectionService,
+            notificationService, auditService);
+
+        PaymentResult paid = processor.processPaymentAsync(
+            new PaymentRequest("ACC001", "MERCHANT-1", new BigDecimal("50000"), PaymentMethod.PSE), executor)
+            .get(5, TimeUnit.SECONDS);
+        PaymentResult blacklisted = processor.processPaymentAsync(
+            new PaymentRequest("ACC002", "MERCHANT-1", new BigDecimal("50000"), PaymentMethod.PSE), executor)
+            .get(5, TimeUnit.SECONDS);
+        PaymentResult syncPaid = processor.processPayment(
+            new PaymentRequest("ACC001", "MERCHANT-1", new BigDecimal("50000"), PaymentMethod.PSE));
+
+        assertTrue(paid.isSuccessful());
+        assertEquals(syncPaid.getTotalAmount(), paid.getTotalAmount());
+        assertEquals(syncPaid.getCommission(), paid.getCommission());
+        assertEquals("BLACKLISTED", blacklisted.getErrorCode());
+        BigDecimal afterPayments = accounts.balanceOf("ACC001");
+
+        PaymentResult refund = processor.processRefundAsync(paid.getPaymentId(), new BigDecimal("20000"), executor)
+            .get(5, TimeUnit.SECONDS);
+        assertTrue(refund.isSuccessful());
+        assertEquals(0, afterPayments.add(new BigDecimal("20000")).compareTo(accounts.balanceOf("ACC001")));
+        ExecutionException tooMuch = assertThrows(ExecutionException.class, () -> processor
+            .processRefundAsync(syncPaid.getPaymentId(), new BigDecimal("90000"), executor).get(5, TimeUnit.SECONDS));
+        assertTrue(tooMuch.getCause() instanceof LimitExceededException);
+    }
+
+    @Test
+    @DisplayName("Los depósitos y retiros asíncronos deben conservar errores y auditoría")
+    void movementsAsyncShouldMatchSync() throws Exception {
+        TransactionService service = new TransactionService(accounts, transactions, notificationService, auditService);
+
+        Transaction deposit = service.processDepositAsync("ACC002", new BigDecimal("5000"), "Recaudo", executor)
+            .get(5, TimeUnit.SECONDS);
+        ExecutionException overdraft = assertThrows(ExecutionException.class, () -> service
+            .processWithdrawalAsync("ACC002", new BigDecimal("900000"), "Retiro", executor).get(5, TimeUnit.SECONDS));
+
+        assertNotNull(deposit.getTransactionId());
+        assertEquals(0, new BigDecimal("105000").compareTo(accounts.balanceOf("ACC002")));
+        assertTrue(overdraft.getCause() instanceof InsufficientFundsException);
+        InOrder inOrder = inOrder(auditService, notificationService);
+        inOrder.verify(auditService).logOperationStart(eq("DEPOSIT"), eq("ACC002"), any());
+        inOrder.verify(auditService).logBalanceChange(eq("ACC002"), any(), any(), any());
+        inOrder.verify(auditService).logOperationSuccess("AUD-1", "COMPLETED");
+        inOrder.verify(notificationService).notifyTransactionCompleted(deposit);
+        assertThrows(IllegalArgumentException.class,
+            () -> service.processDepositAsync("ACC002", new BigDecimal("5000"), "Recaudo", null));
+    }
+}
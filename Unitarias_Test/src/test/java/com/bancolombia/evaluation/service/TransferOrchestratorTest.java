@@ -4,13 +4,18 @@ import com.bancolombia.evaluation.exception.*;
 import com.bancolombia.evaluation.external.AuditService;
 import com.bancolombia.evaluation.external.FraudDetectionService;
 import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.idempotency.IdempotencyStore;
 import com.bancolombia.evaluation.model.*;
 import com.bancolombia.evaluation.repository.AccountRepository;
 import com.bancolombia.evaluation.repository.TransactionRepository;
+import com.bancolombia.evaluation.saga.TransferSagaLog;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.*;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -249,4 +254,66 @@ class TransferOrchestratorTest {
         assertEquals(new BigDecimal("2000"), sourceAccount.getBalance());
         assertEquals(new BigDecimal("500"), targetAccount.getBalance());
     }
+
+    @Test
+    @DisplayName("Debe cerrar la saga cuando la transferencia fallida se compensa")
+    void testExecuteTransfer_SagaClosedAfterCompensation(@TempDir Path sagaDirectory) {
+        Account sourceAccount = new Account("1234567899", "Ander", "3", new BigDecimal("2000"), AccountType.SAVINGS);
+        Account targetAccount = new Account("1234567897", "Santi", "4", new BigDecimal("2000"), AccountType.SAVINGS);
+
+        TransferRequest request = new TransferRequest();
+        request.setSourceAccountNumber(sourceAccount.getAccountNumber());
+        request.setTargetAccountNumber(targetAccount.getAccountNumber());
+        request.setAmount(new BigDecimal("1000"));
+        request.setTransferType(TransferType.SAME_BANK);
+
+        when(accountRepository.findByAccountNumber("1234567899")).thenReturn(Optional.of(sourceAccount));
+        when(accountRepository.findByAccountNumber("1234567897")).thenReturn(Optional.of(targetAccount));
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUDIT123");
+        when(transactionRepository.save(any(Transaction.class))).thenThrow(new RuntimeException("BD no disponible"));
+
+        try (TransferSagaLog sagaLog = new TransferSagaLog(sagaDirectory)) {
+            TransferOrchestrator orchestrator = new TransferOrchestrator(accountRepository, transactionRepository,
+                fraudDetectionService, notificationService, auditService, accountValidator, sagaLog);
+            assertThrows(BankingException.class, () -> orchestrator.executeTransfer(request));
+        }
+
+        try (TransferSagaLog reopened = new TransferSagaLog(sagaDirectory)) {
+            assertTrue(reopened.getPendingRecovery().isEmpty());
+        }
+        assertEquals(new BigDecimal("2000"), sourceAccount.getBalance());
+    }
+
+    @Test
+    @DisplayName("Debe retornar el resultado original cuando se reintenta con la misma clave de idempotencia")
+    void testExecuteTransfer_IdempotentRetry() {
+        Account sourceAccount = new Account("1234567899", "Ander", "3", new BigDecimal("2000"), AccountType.SAVINGS);
+        Account targetAccount = new Account("1234567897", "Santi", "4", new BigDecimal("2000"), AccountType.SAVINGS);
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId("TXN123");
+
+        TransferRequest request = new TransferRequest("1234567899", "1234567897",
+            new BigDecimal("1000"), TransferType.SAME_BANK);
+        request.setIdempotencyKey("CLIENTE-42");
+
+        when(accountRepository.findByAccountNumber("1234567899")).thenReturn(Optional.of(sourceAccount));
+        when(accountRepository.findByAccountNumber("1234567897")).thenReturn(Optional.of(targetAccount));
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUDIT123");
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+
+        TransferOrchestrator orchestrator = new TransferOrchestrator(accountRepository, transactionRepository,
+            fraudDetectionService, notificationService, auditService, accountValidator, null,
+            new IdempotencyStore<>(Duration.ofHours(24), 1000));
+
+        TransferResult first = orchestrator.executeTransfer(request);
+        TransferResult retry = orchestrator.executeTransfer(request);
+
+        assertSame(first, retry);
+        assertEquals(new BigDecimal("1000"), sourceAccount.getBalance());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
 }
@@ -0,0 +1,185 @@
+package com.bancolombia.evaluation.sharding;
+
+import com.bancolombia.evaluation.exception.BankingException;
+import com.bancolombia.evaluation.exception.InsufficientFundsException;
+import com.bancolombia.evaluation.external.AuditService;
+import com.bancolombia.evaluation.external.FraudDetectionService;
+import com.bancolombia.evaluation.external.NotificationService;
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransferRequest;
+import com.bancolombia.evaluation.model.TransferResult;
+import com.bancolombia.evaluation.model.TransferType;
+import com.bancolombia.evaluation.service.AccountValidator;
+import com.bancolombia.evaluation.service.TransactionService;
+import com.bancolombia.evaluation.service.TransferOrchestrator;
+import com.bancolombia.evaluation.support.InMemoryAccountRepository;
+import com.bancolombia.evaluation.support.InMemoryTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Motor de ejecución por shards con un solo escritor")
+class ShardedExecutionEngineTest {
+
+    private static final int ACCOUNTS = 16;
+
+    private InMemoryAccountRepository accounts;
+    private InMemoryTransactionRepository transactions;
+    private FraudDetectionService fraudDetectionService;
+    private AuditService auditService;
+    private ShardedExecutionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        accounts = spy(new InMemoryAccountRepository());
+        transactions = new InMemoryTransactionRepository();
+        fraudDetectionService = mock(FraudDetectionService.class);
+        auditService = mock(AuditService.class);
+        AccountValidator accountValidator = mock(AccountValidator.class);
+        NotificationService notificationService = mock(NotificationService.class);
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(true);
+        when(accountValidator.canPerformOperations(any())).thenReturn(true);
+        when(auditService.logOperationStart(any(), any(), any())).thenReturn("AUD-1");
+        TransactionService transactionService = new TransactionService(accounts, transactions,
+            notificationService, auditService);
+        TransferOrchestrator orchestrator = new TransferOrchestrator(accounts, transactions,
+            fraudDetectionService, notificationService, auditService, accountValidator);
+        engine = new ShardedExecutionEngine(transactionService, orchestrator, 4);
+        engine.start();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add("ACC" + i, "100000");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("Las transferencias concurrentes entre shards deben conservar el dinero")
+    void concurrentTransfersShouldConserveMoney() throws Exception {
+        List<List<CompletableFuture<TransferResult>>> submitted = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 8; p++) {
+            int producer = p;
+            List<CompletableFuture<TransferResult>> futures = new ArrayList<>();
+            submitted.add(futures);
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    int source = (producer * 7 + i) % ACCOUNTS;
+                    int target = (source + 1 + i % (ACCOUNTS - 1)) % ACCOUNTS;
+                    futures.add(engine.submitTransfer(new TransferRequest("ACC" + source, "ACC" + target,
+                        BigDecimal.valueOf(100 + i * 37 % 5000), TransferType.SAME_BANK)));
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        List<CompletableFuture<TransferResult>> futures = new ArrayList<>();
+        for (int p = 0; p < producers.size(); p++) {
+            producers.get(p).join();
+            futures.addAll(submitted.get(p));
+        }
+
+        long successful = 0;
+        for (CompletableFuture<TransferResult> future : futures) {
+            try {
+                if (future.get(10, TimeUnit.SECONDS).isSuccessful()) {
+                    successful++;
+                }
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof InsufficientFundsException, e.getCause().toString());
+            }
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            total = total.add(accounts.balanceOf("ACC" + i));
+        }
+        assertEquals(0, new BigDecimal("1600000").compareTo(total));
+        assertEquals(successful, transactions.size());
+        ShardedExecutionEngine.EngineStats stats = engine.getStats();
+        assertTrue(stats.getCrossShardTransfers() > 0);
+        assertEquals(0, stats.getCompensations());
+    }
+
+    @Test
+    @DisplayName("Si el crédito falla en el shard destino, el origen debe recuperar el débito")
+    void failedCreditShouldBeCompensatedOnSourceShard() throws Exception {
+        String source = accountOnShard(0);
+        String target = accountOnShard(1);
+        accounts.add(source, "50000");
+        Account targetAccount = accounts.add(target, "0");
+        doThrow(new RuntimeException("Base de datos no disponible")).when(accounts).save(targetAccount);
+
+        CompletableFuture<TransferResult> future = engine.submitTransfer(
+            new TransferRequest(source, target, new BigDecimal("20000"), TransferType.SAME_BANK));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertEquals("TRANSFER_FAILED", ((BankingException) error.getCause()).getErrorCode());
+        assertEquals(0, new BigDecimal("50000").compareTo(accounts.balanceOf(source)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(accounts.balanceOf(target)));
+        assertEquals(0, transactions.size());
+        assertEquals(1, engine.getStats().getCompensations());
+        verify(auditService).logOperationSuccess(any(), argThat("ROLLBACK_COMPLETED"::equals));
+        verify(auditService).logOperationFailure(any(), argThat("UNEXPECTED_ERROR"::equals), any());
+    }
+
+    @Test
+    @DisplayName("Depósitos, retiros y rechazos deben comportarse como las versiones síncronas")
+    void shouldMatchSynchronousBehaviour() throws Exception {
+        Transaction deposit = engine.submitDeposit("ACC1", new BigDecimal("5000"), "Recaudo")
+            .get(10, TimeUnit.SECONDS);
+        Transaction withdrawal = engine.submitWithdrawal("ACC1", new BigDecimal("2000"), "Retiro")
+            .get(10, TimeUnit.SECONDS);
+        CompletableFuture<Transaction> overdraft = engine.submitWithdrawal("ACC2", new BigDecimal("999999"), "Retiro");
+        when(fraudDetectionService.validateTransfer(any())).thenReturn(false);
+        String payer = accountOnShard(2);
+        BigDecimal payerBalance = accounts.balanceOf(payer);
+        TransferResult rejected = engine.submitTransfer(
+            new TransferRequest(payer, accountOnShard(3), new BigDecimal("1000"), TransferType.SAME_BANK))
+            .get(10, TimeUnit.SECONDS);
+
+        assertNotNull(deposit.getTransactionId());
+        assertNotNull(withdrawal.getTransactionId());
+        assertEquals(0, new BigDecimal("103000").compareTo(accounts.balanceOf("ACC1")));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> overdraft.get(10, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof InsufficientFundsException);
+        assertFalse(rejected.isSuccessful());
+        assertEquals("FRAUD_DETECTED", rejected.getErrorCode());
+        assertEquals(payerBalance, accounts.balanceOf(payer));
+
+        engine.close();
+        assertThrows(IllegalStateException.class,
+            () -> engine.submitDeposit("ACC1", new BigDecimal("5000"), "Recaudo"));
+    }
+
+    private String accountOnShard(int shard) {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            if (engine.shardIndexOf("ACC" + i) == shard) {
+                return "ACC" + i;
+            }
+        }
+        for (int i = 0; ; i++) {
+            String accountNumber = "SHARD" + shard + "-" + i;
+            if (engine.shardIndexOf(accountNumber) == shard) {
+                accounts.add(accountNumber, "100000");
+                return accountNumber;
+            }
+        }
+    }
+}
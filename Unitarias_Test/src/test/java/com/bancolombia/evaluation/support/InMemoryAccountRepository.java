@@ -0,0 +1,59 @@
+package com.bancolombia.evaluation.support;
+
+import com.bancolombia.evaluation.model.Account;
+import com.bancolombia.evaluation.model.AccountType;
+import com.bancolombia.evaluation.repository.AccountRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Repositorio de cuentas en memoria para pruebas que necesitan estado real entre llamadas.
+ */
+public class InMemoryAccountRepository implements AccountRepository {
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    public Account add(String accountNumber, String balance) {
+        Account account = new Account(accountNumber, "Titular " + accountNumber, "ID-" + accountNumber,
+            new BigDecimal(balance), AccountType.SAVINGS);
+        accounts.put(accountNumber, account);
+        return account;
+    }
+
+    public BigDecimal balanceOf(String accountNumber) {
+        return accounts.get(accountNumber).getBalance();
+    }
+
+    @Override
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        return Optional.ofNullable(accounts.get(accountNumber));
+    }
+
+    @Override
+    public List<Account> findByOwnerId(String ownerId) {
+        return accounts.values().stream()
+            .filter(account -> ownerId.equals(account.getOwnerId()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Account save(Account account) {
+        accounts.put(account.getAccountNumber(), account);
+        return account;
+    }
+
+    @Override
+    public boolean existsByAccountNumber(String accountNumber) {
+        return accounts.containsKey(accountNumber);
+    }
+
+    @Override
+    public int countByOwnerId(String ownerId) {
+        return findByOwnerId(ownerId).size();
+    }
+}
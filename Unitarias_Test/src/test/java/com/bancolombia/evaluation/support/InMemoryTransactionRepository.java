@@ -0,0 +1,83 @@
+package com.bancolombia.evaluation.support;
+
+import com.bancolombia.evaluation.model.Transaction;
+import com.bancolombia.evaluation.model.TransactionStatus;
+import com.bancolombia.evaluation.repository.TransactionRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Repositorio de transacciones en memoria para pruebas que necesitan estado real entre llamadas.
+ */
+public class InMemoryTransactionRepository implements TransactionRepository {
+
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+
+    public int size() {
+        return transactions.size();
+    }
+
+    public List<Transaction> findAll() {
+        return List.copyOf(transactions.values());
+    }
+
+    @Override
+    public Optional<Transaction> findById(String transactionId) {
+        return Optional.ofNullable(transactions.get(transactionId));
+    }
+
+    @Override
+    public List<Transaction> findBySourceAccountNumber(String accountNumber) {
+        return transactions.values().stream()
+            .filter(transaction -> accountNumber.equals(transaction.getSourceAccountNumber()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findByTargetAccountNumber(String accountNumber) {
+        return transactions.values().stream()
+            .filter(transaction -> accountNumber.equals(transaction.getTargetAccountNumber()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        transactions.put(transaction.getTransactionId(), transaction);
+        return transaction;
+    }
+
+    @Override
+    public List<Transaction> findByAccountAndDateRange(String accountNumber,
+                                                      LocalDateTime startDate,
+                                                      LocalDateTime endDate) {
+        return transactions.values().stream()
+            .filter(transaction -> accountNumber.equals(transaction.getSourceAccountNumber())
+                || accountNumber.equals(transaction.getTargetAccountNumber()))
+            .filter(transaction -> !transaction.getCreatedAt().isBefore(startDate)
+                && !transaction.getCreatedAt().isAfter(endDate))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findByStatus(TransactionStatus status) {
+        return transactions.values().stream()
+            .filter(transaction -> transaction.getStatus() == status)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public int countTodayTransactionsByAccount(String accountNumber) {
+        LocalDate today = LocalDate.now();
+        return (int) transactions.values().stream()
+            .filter(transaction -> Objects.equals(accountNumber, transaction.getSourceAccountNumber()))
+            .filter(transaction -> transaction.getCreatedAt().toLocalDate().equals(today))
+            .count();
+    }
+}
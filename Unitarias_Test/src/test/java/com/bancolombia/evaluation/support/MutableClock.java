@@ -0,0 +1,42 @@
+package com.bancolombia.evaluation.support;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Reloj controlable para pruebas que dependen del paso del tiempo.
+ */
+public class MutableClock extends Clock {
+
+    private volatile Instant instant;
+
+    public MutableClock() {
+        this(Instant.parse("2024-01-01T10:00:00Z"));
+    }
+
+    public MutableClock(Instant instant) {
+        this.instant = instant;
+    }
+
+    public void advance(Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}